@@ -1,15 +1,28 @@
 package com.threeylos.core.api;
 
+import com.threeylos.core.api.async.AsyncRequestExecutor;
+import com.threeylos.core.api.config.ApiTarget;
 import com.threeylos.core.api.config.RestAssuredConfig;
+import com.threeylos.core.api.config.RestAssuredContext;
+import com.threeylos.core.api.config.RestAssuredSettings;
+import com.threeylos.core.api.model.BatchResult;
+import com.threeylos.core.api.model.RequestTemplate;
+import com.threeylos.core.util.api.RequestFilterPipeline;
 import com.threeylos.core.util.assertion.RestAssert;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 import lombok.extern.log4j.Log4j2;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
-import static com.threeylos.core.util.api.RestAssuredUtils.loadContext;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 /**
  * Allows the http request with all parameter.
@@ -19,16 +32,94 @@ import static com.threeylos.core.util.api.RestAssuredUtils.loadContext;
 @Log4j2
 public abstract class RestApiBase extends RestAssert {
 
-    private RestAssuredConfig restAssuredConfig;
+    /**
+     * Read by the request threads of {@link #async(Supplier)}, it is resolved on the calling thread before
+     * the request is submitted.
+     */
+    private volatile RestAssuredContext restAssuredContext;
 
+    /**
+     * Use the given configuration, it is resolved and validated once.
+     *
+     * @param restAssuredConfig The rest-assured configuration.
+     */
     public void init(RestAssuredConfig restAssuredConfig) {
-        this.restAssuredConfig = restAssuredConfig;
-        log.debug("The current configuration:{}", restAssuredConfig);
+        init(restAssuredConfig.resolve());
+    }
+
+    /**
+     * Use an already resolved configuration.
+     *
+     * @param settings The rest-assured configuration.
+     */
+    public void init(RestAssuredSettings settings) {
+        log.debug("The current configuration:{}", settings);
+        setContext(new RestAssuredContext(settings, currentFilterPipeline()));
     }
 
+    /**
+     * Use the shared default configuration, see {@link RestAssuredSettings#current()},
+     * pointed at the {@link ApiTarget} of the running scenario if there is one.
+     */
     public void init() {
-        this.restAssuredConfig = new RestAssuredConfig();
-        log.debug("Default configuration:{}", restAssuredConfig);
+        RestAssuredSettings settings = ApiTarget.apply(RestAssuredSettings.current());
+        log.debug("Default configuration:{}", settings);
+        setContext(new RestAssuredContext(settings, currentFilterPipeline()));
+    }
+
+    /**
+     * Use a context owned by this instance, e.g. one with its own base URI or filters.
+     *
+     * @param context The rest-assured context.
+     */
+    public void init(RestAssuredContext context) {
+        log.debug("Context configuration:{}", context.getSettings());
+        setContext(context);
+    }
+
+    /**
+     * @return The context of this instance, the default one when {@link #init()} was never called.
+     */
+    public RestAssuredContext getContext() {
+        RestAssuredContext context = restAssuredContext;
+        if (context == null) {
+            init();
+            context = restAssuredContext;
+        }
+        return context;
+    }
+
+    private void setContext(RestAssuredContext context) {
+        RestAssuredContext previous = restAssuredContext;
+        if (previous != null && !previous.hasSameSettings(context)) {
+            previous.invalidate();
+        }
+        this.restAssuredContext = context;
+    }
+
+    private RequestFilterPipeline currentFilterPipeline() {
+        RestAssuredContext context = restAssuredContext;
+        return context == null ? RequestFilterPipeline.defaultPipeline() : context.getFilterPipeline();
+    }
+
+    /**
+     * The filters applied to every request sent by this instance, register
+     * additional filters here instead of on the global rest-assured filter list.
+     *
+     * @return {@link RequestFilterPipeline} of the current context.
+     */
+    public RequestFilterPipeline getFilterPipeline() {
+        return getContext().getFilterPipeline();
+    }
+
+    /**
+     * Copy of the cached base request specification, the default configuration
+     * is used when {@link #init()} was never called.
+     *
+     * @return {@link RequestSpecification} The assembled request specification.
+     */
+    private RequestSpecification loadContext() {
+        return getContext().build();
     }
 
     /**
@@ -43,7 +134,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getByPathParams(final String url, final Map<String, ?> pathParams) {
         log.debug("Get request by url: {} and path params: {}", url, pathParams);
-        return loadContext(restAssuredConfig).pathParams(pathParams)
+        return loadContext().pathParams(pathParams)
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .get(url)
@@ -63,7 +154,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getByPathParams(final String url, final Map<String, ?> pathParams, final Map<String, ?> headers) {
         log.debug("Get request by url: {} and path params: {}", url, pathParams);
-        return loadContext(restAssuredConfig).pathParams(pathParams)
+        return loadContext().pathParams(pathParams)
                 .headers(headers)
                 .get(url)
                 .thenReturn();
@@ -78,7 +169,7 @@ public abstract class RestApiBase extends RestAssert {
 
     public Response getRequest(final String url, final Map<String, ?> headers) {
         log.debug("Get request by url: {} ", url);
-        return loadContext(restAssuredConfig).when()
+        return loadContext().when()
                 .headers(headers)
                 .get(url)
                 .thenReturn();
@@ -92,7 +183,7 @@ public abstract class RestApiBase extends RestAssert {
 
     public Response getRequest(final String url) {
         log.debug("Get request by url: {} ", url);
-        return loadContext(restAssuredConfig).when()
+        return loadContext().when()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .get(url)
@@ -114,7 +205,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getByPathParams(final String url, final Map<String, ?> headers, final Object... pathParams) {
         log.debug("Get request by url: {} and object params: {}", url, pathParams);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .get(url, pathParams)
                 .thenReturn();
@@ -134,7 +225,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getByPathParams(final String url, final Object... pathParams) {
         log.debug("Get request by url: {} and object params: {}", url, pathParams);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .get(url, pathParams)
@@ -155,7 +246,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getByQueryParams(final String url, Map<String, ?> queryParams, Map<String, ?> headers) {
         log.debug("Get request by url: {} and query params: {}", url, queryParams);
-        return loadContext(restAssuredConfig).queryParams(queryParams)
+        return loadContext().queryParams(queryParams)
                 .headers(headers)
                 .get(url)
                 .thenReturn();
@@ -174,7 +265,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getByQueryParams(final String url, Map<String, ?> queryParams) {
         log.debug("Get request by url: {} and query params: {}", url, queryParams);
-        return loadContext(restAssuredConfig).queryParams(queryParams)
+        return loadContext().queryParams(queryParams)
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .get(url)
@@ -195,7 +286,7 @@ public abstract class RestApiBase extends RestAssert {
     protected Response getByPathQueryParams(final String url, final Map<String, ?> pathParams,
                                             final Map<String, ?> queryParams) {
         log.debug("Get request by url: {}, path params:{},  query params: {}", url, pathParams, queryParams);
-        return loadContext(restAssuredConfig).pathParams(pathParams)
+        return loadContext().pathParams(pathParams)
                 .queryParams(queryParams)
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
@@ -218,7 +309,7 @@ public abstract class RestApiBase extends RestAssert {
     protected Response getByPathQueryParams(final String url, final Map<String, ?> pathParams,
                                             final Map<String, ?> queryParams, final Map<String, ?> headers) {
         log.debug("Get request by url: {}, path params:{},  query params: {}", url, pathParams, queryParams);
-        return loadContext(restAssuredConfig).pathParams(pathParams)
+        return loadContext().pathParams(pathParams)
                 .queryParams(queryParams)
                 .headers(headers)
                 .get(url)
@@ -241,7 +332,7 @@ public abstract class RestApiBase extends RestAssert {
                                             final Map<String, ?> headers, final Object... pathParams) {
         log.debug("Get request by url: {}, object path params:{},  object query params: {}", url, pathParams,
                 queryParams);
-        return loadContext(restAssuredConfig).queryParams(queryParams)
+        return loadContext().queryParams(queryParams)
                 .headers(headers)
                 .get(url, pathParams)
                 .thenReturn();
@@ -262,7 +353,7 @@ public abstract class RestApiBase extends RestAssert {
                                             final Object... pathParams) {
         log.debug("Get request by url: {}, object path params:{},  object query params: {}", url, pathParams,
                 queryParams);
-        return loadContext(restAssuredConfig).queryParams(queryParams)
+        return loadContext().queryParams(queryParams)
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .get(url, pathParams)
@@ -278,7 +369,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getRequest(final Map<String, ?> headers) {
         log.debug("Get request");
-        return loadContext(restAssuredConfig).
+        return loadContext().
                 headers(headers)
                 .get()
                 .thenReturn();
@@ -292,7 +383,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response getRequest() {
         log.debug("Get request");
-        return loadContext(restAssuredConfig).
+        return loadContext().
                 contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .get()
@@ -308,7 +399,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response post(final Map<String, ?> headers) {
         log.debug("Post request");
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .post();
     }
@@ -321,7 +412,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response post() {
         log.debug("Post request");
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .post();
@@ -357,7 +448,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response postByMapBody(final String url, HashMap<String, String> body, final Map<String, ?> headers) {
         log.debug("Post request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig).body(body)
+        return loadContext().body(body)
                 .headers(headers)
                 .when()
                 .post(url)
@@ -392,7 +483,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response postByMapBody(final String url, HashMap<String, String> body) {
         log.debug("Post request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig).body(body)
+        return loadContext().body(body)
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .when()
@@ -430,7 +521,7 @@ public abstract class RestApiBase extends RestAssert {
     protected Response postByFormParam(final String url, HashMap<String, String> body,
                                        HashMap<String, String> form) {
         log.debug("Post request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .body(body)
@@ -471,7 +562,7 @@ public abstract class RestApiBase extends RestAssert {
     protected Response postByFormParam(final String url, HashMap<String, String> body,
                                        HashMap<String, String> form, final Map<String, ?> headers) {
         log.debug("Post request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -510,7 +601,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response postByBody(String url, String body, final Map<String, ?> headers) {
         log.debug("Post request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -546,7 +637,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response postByBody(String url, String body) {
         log.debug("Post request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .body(body)
@@ -586,7 +677,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response patchByPathParams(String url, String body, Map<String, ?> pathParams, final Map<String, ?> headers) {
         log.debug("patch request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -624,7 +715,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response patchByPathParams(String url, String body, Map<String, ?> pathParams) {
         log.debug("patch request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .body(body)
@@ -664,7 +755,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response patchByPathParams(String url, String body, final Map<String, ?> headers, Object... pathParams) {
         log.debug("patch request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -702,7 +793,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response patchByPathParams(String url, String body, Object... pathParams) {
         log.debug("patch request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .body(body)
@@ -742,7 +833,7 @@ public abstract class RestApiBase extends RestAssert {
     protected Response patchByPathQueryParams(String url, Map<String, ?> pathParams, final Map<String, ?> headers, Map<String, ?> queryParams,
                                               String body) {
         log.debug("patch request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -781,7 +872,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response putByBody(String url, String body, Map<String, ?> pathParams, final Map<String, ?> headers) {
         log.debug("put request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -819,7 +910,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response putByBody(String url, String body, Map<String, ?> pathParams) {
         log.debug("put request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .body(body)
@@ -859,7 +950,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response putByBody(String url, String body, final Map<String, ?> headers, Object... pathParams) {
         log.debug("put request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .when()
@@ -897,7 +988,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response putByBody(String url, String body, Object... pathParams) {
         log.debug("put request by url: {} and body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .body(body)
@@ -916,7 +1007,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByParams(String url, Map<String, String> params, final Map<String, ?> headers) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .params(params)
                 .delete(url, params)
                 .thenReturn();
@@ -931,7 +1022,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByParams(String url, Map<String, String> params) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .delete(url, params)
@@ -948,7 +1039,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByParams(String url, final Map<String, ?> headers, Object... params) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .delete(url, params)
                 .thenReturn();
@@ -963,7 +1054,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByParams(String url, Object... params) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .delete(url, params)
@@ -980,7 +1071,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByQueryParams(String url, Map<String, String> params, final Map<String, ?> headers) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(params)
                 .params(params)
                 .delete(url)
@@ -996,7 +1087,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByQueryParams(String url, Map<String, String> params) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .params(params)
@@ -1013,7 +1104,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByQueryParams(String url, Object... params) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .contentType(ContentType.JSON)
                 .accept(ContentType.JSON)
                 .queryParam(String.valueOf(params))
@@ -1031,7 +1122,7 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByQueryParams(String url, final Map<String, ?> headers, Object... params) {
         log.debug("Delete request by url: {} and path params: {}", url, params);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .queryParam(String.valueOf(params))
                 .delete(url, params)
@@ -1048,13 +1139,245 @@ public abstract class RestApiBase extends RestAssert {
      */
     protected Response deleteByBody(String url, final Map<String, ?> headers, String body) {
         log.debug("Delete request by url: {} and path body: {}", url, body);
-        return loadContext(restAssuredConfig)
+        return loadContext()
                 .headers(headers)
                 .body(body)
                 .delete(url)
                 .thenReturn();
     }
 
+    /**
+     * Run a blocking request asynchronously on the {@link AsyncRequestExecutor} with its default deadline.
+     * Independent requests of a scenario can be started together and joined afterwards, cancelling the
+     * returned future or completing it with {@link CompletableFuture#orTimeout} interrupts the request.
+     *
+     * @param request The request to run, e.g. {@code () -> getByPathParams(url, pathParams)}.
+     * @return The future response.
+     */
+    protected <T> CompletableFuture<T> async(final Supplier<T> request) {
+        getContext();
+        return AsyncRequestExecutor.getInstance().submit(request);
+    }
+
+    /**
+     * Run a blocking request asynchronously, failing with a {@link java.util.concurrent.TimeoutException}
+     * when it does not complete before the deadline.
+     *
+     * @param request  The request to run.
+     * @param deadline Maximum time until the response is received.
+     * @return The future response.
+     */
+    protected <T> CompletableFuture<T> async(final Supplier<T> request, final Duration deadline) {
+        getContext();
+        return AsyncRequestExecutor.getInstance().submit(request, deadline);
+    }
 
-}
+    /**
+     * Asynchronous {@link #getByPathParams(String, Map)}.
+     */
+    protected CompletableFuture<Response> getByPathParamsAsync(final String url, final Map<String, ?> pathParams) {
+        return async(() -> getByPathParams(url, pathParams));
+    }
+
+    /**
+     * Asynchronous {@link #getByPathParams(String, Map, Map)}.
+     */
+    protected CompletableFuture<Response> getByPathParamsAsync(final String url, final Map<String, ?> pathParams,
+                                                               final Map<String, ?> headers) {
+        return async(() -> getByPathParams(url, pathParams, headers));
+    }
+
+    /**
+     * Asynchronous {@link #getByQueryParams(String, Map)}.
+     */
+    protected CompletableFuture<Response> getByQueryParamsAsync(final String url, final Map<String, ?> queryParams) {
+        return async(() -> getByQueryParams(url, queryParams));
+    }
+
+    /**
+     * Asynchronous {@link #getByQueryParams(String, Map, Map)}.
+     */
+    protected CompletableFuture<Response> getByQueryParamsAsync(final String url, final Map<String, ?> queryParams,
+                                                                final Map<String, ?> headers) {
+        return async(() -> getByQueryParams(url, queryParams, headers));
+    }
+
+    /**
+     * Asynchronous {@link #getRequest(String)}.
+     */
+    public CompletableFuture<Response> getRequestAsync(final String url) {
+        return async(() -> getRequest(url));
+    }
+
+    /**
+     * Asynchronous {@link #getRequest(String, Map)}.
+     */
+    public CompletableFuture<Response> getRequestAsync(final String url, final Map<String, ?> headers) {
+        return async(() -> getRequest(url, headers));
+    }
+
+    /**
+     * Asynchronous {@link #postByBody(String, String)}.
+     */
+    protected CompletableFuture<Response> postByBodyAsync(final String url, final String body) {
+        return async(() -> postByBody(url, body));
+    }
+
+    /**
+     * Asynchronous {@link #postByBody(String, String, Map)}.
+     */
+    protected CompletableFuture<Response> postByBodyAsync(final String url, final String body,
+                                                          final Map<String, ?> headers) {
+        return async(() -> postByBody(url, body, headers));
+    }
+
+    /**
+     * Asynchronous {@link #patchByPathParams(String, String, Map)}.
+     */
+    protected CompletableFuture<Response> patchByPathParamsAsync(final String url, final String body,
+                                                                 final Map<String, ?> pathParams) {
+        return async(() -> patchByPathParams(url, body, pathParams));
+    }
+
+    /**
+     * Asynchronous {@link #patchByPathParams(String, String, Map, Map)}.
+     */
+    protected CompletableFuture<Response> patchByPathParamsAsync(final String url, final String body,
+                                                                 final Map<String, ?> pathParams,
+                                                                 final Map<String, ?> headers) {
+        return async(() -> patchByPathParams(url, body, pathParams, headers));
+    }
+
+    /**
+     * Asynchronous {@link #putByBody(String, String, Map)}.
+     */
+    protected CompletableFuture<Response> putByBodyAsync(final String url, final String body,
+                                                         final Map<String, ?> pathParams) {
+        return async(() -> putByBody(url, body, pathParams));
+    }
+
+    /**
+     * Asynchronous {@link #putByBody(String, String, Map, Map)}.
+     */
+    protected CompletableFuture<Response> putByBodyAsync(final String url, final String body,
+                                                         final Map<String, ?> pathParams,
+                                                         final Map<String, ?> headers) {
+        return async(() -> putByBody(url, body, pathParams, headers));
+    }
+
+    /**
+     * Asynchronous {@link #deleteByParams(String, Map)}.
+     */
+    protected CompletableFuture<Response> deleteByParamsAsync(final String url, final Map<String, String> params) {
+        return async(() -> deleteByParams(url, params));
+    }
+
+    /**
+     * Asynchronous {@link #deleteByParams(String, Map, Map)}.
+     */
+    protected CompletableFuture<Response> deleteByParamsAsync(final String url, final Map<String, String> params,
+                                                              final Map<String, ?> headers) {
+        return async(() -> deleteByParams(url, params, headers));
+    }
+
+    /**
+     * Asynchronous {@link #deleteByQueryParams(String, Map)}.
+     */
+    protected CompletableFuture<Response> deleteByQueryParamsAsync(final String url,
+                                                                   final Map<String, String> params) {
+        return async(() -> deleteByQueryParams(url, params));
+    }
+
+    /**
+     * Asynchronous {@link #deleteByQueryParams(String, Map, Map)}.
+     */
+    protected CompletableFuture<Response> deleteByQueryParamsAsync(final String url, final Map<String, String> params,
+                                                                   final Map<String, ?> headers) {
+        return async(() -> deleteByQueryParams(url, params, headers));
+    }
+
+    /**
+     * Send the request described by a template.
+     *
+     * @param template The request.
+     * @return The response of the request.
+     */
+    public Response execute(final RequestTemplate template) {
+        log.debug("{} request by url: {}", template.getMethod(), template.getUrl());
+        final RequestSpecification requestSpecification = loadContext()
+                .pathParams(template.getPathParams())
+                .queryParams(template.getQueryParams());
+        if (template.getHeaders().isEmpty()) {
+            requestSpecification.contentType(ContentType.JSON).accept(ContentType.JSON);
+        } else {
+            requestSpecification.headers(template.getHeaders());
+        }
+        if (template.getRawBody() != null) {
+            requestSpecification.body(template.getRawBody());
+        } else if (template.getBody() != null) {
+            requestSpecification.body(template.getBody());
+        }
+        return requestSpecification.request(template.getMethod(), template.getUrl()).thenReturn();
+    }
+
+    /**
+     * Send all requests concurrently with at most {@code REST_BATCH_CONCURRENCY} requests in flight.
+     *
+     * @param templates The requests.
+     * @return Responses and timings in the order of the templates, failures do not stop the batch.
+     */
+    public BatchResult executeAll(final List<RequestTemplate> templates) {
+        return executeAll(templates, AsyncRequestExecutor.getInstance().getBatchConcurrency());
+    }
 
+    /**
+     * Send all requests concurrently with a bounded number of requests in flight.
+     *
+     * @param templates   The requests.
+     * @param maxInFlight Maximum number of requests sent at the same time.
+     * @return Responses and timings in the order of the templates, failures do not stop the batch.
+     */
+    public BatchResult executeAll(final List<RequestTemplate> templates, final int maxInFlight) {
+        log.debug("Batch of {} requests with {} in flight", templates.size(), maxInFlight);
+        final long start = System.nanoTime();
+        final Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+        final List<CompletableFuture<BatchResult.Item>> items = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            final int index = i;
+            final RequestTemplate template = templates.get(i);
+            inFlight.acquireUninterruptibly();
+            final long submitted = System.nanoTime();
+            final CompletableFuture<BatchResult.Item> item;
+            try {
+                item = async(() -> timed(index, template));
+            } catch (RuntimeException ex) {
+                // rejected before it was queued, nothing will ever release its permit
+                inFlight.release();
+                items.add(CompletableFuture.completedFuture(new BatchResult.Item(index, template, null, ex,
+                        Duration.ofNanos(System.nanoTime() - submitted))));
+                continue;
+            }
+            items.add(item
+                    .exceptionally(ex -> new BatchResult.Item(index, template, null,
+                            ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex,
+                            Duration.ofNanos(System.nanoTime() - submitted)))
+                    .whenComplete((result, ex) -> inFlight.release()));
+        }
+        final List<BatchResult.Item> result = items.stream().map(CompletableFuture::join).toList();
+        final BatchResult batchResult = new BatchResult(result, Duration.ofNanos(System.nanoTime() - start));
+        log.debug("Batch of {} requests completed in {} with {} failures", templates.size(),
+                batchResult.getElapsed(), batchResult.getFailures().size());
+        return batchResult;
+    }
+
+    private BatchResult.Item timed(final int index, final RequestTemplate template) {
+        final long start = System.nanoTime();
+        try {
+            final Response response = execute(template);
+            return new BatchResult.Item(index, template, response, null, Duration.ofNanos(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            return new BatchResult.Item(index, template, null, ex, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+}
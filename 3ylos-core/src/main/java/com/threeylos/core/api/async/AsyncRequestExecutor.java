@@ -0,0 +1,185 @@
+package com.threeylos.core.api.async;
+
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.util.common.ThreadUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking rest-assured requests off the calling thread.
+ * <p>
+ * Requests run on virtual threads when the JVM supports them, otherwise on a
+ * bounded pool of daemon threads. The returned future owns the request:
+ * cancelling it, or completing it by a deadline ({@link #submit(Supplier, Duration)}
+ * or {@link CompletableFuture#orTimeout(long, TimeUnit)}), interrupts the
+ * thread running the request.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class AsyncRequestExecutor {
+
+    private static final String REST_ASYNC_EXECUTOR = "REST_ASYNC_EXECUTOR";
+    private static final String REST_ASYNC_THREADS = "REST_ASYNC_THREADS";
+    private static final String REST_ASYNC_TIMEOUT = "REST_ASYNC_TIMEOUT";
+    private static final String REST_BATCH_CONCURRENCY = "REST_BATCH_CONCURRENCY";
+
+    private static final String VIRTUAL = "virtual";
+
+    private static final int DEFAULT_THREADS = 64;
+
+    private static final int DEFAULT_BATCH_CONCURRENCY = 16;
+
+    private static final AsyncRequestExecutor INSTANCE = new AsyncRequestExecutor();
+
+    private final ScheduledThreadPoolExecutor deadlines;
+
+    private volatile ExecutorService executor;
+
+    private volatile Duration defaultTimeout;
+
+    private volatile int batchConcurrency;
+
+    private AsyncRequestExecutor() {
+        this.deadlines = new ScheduledThreadPoolExecutor(1, ThreadUtil.daemonThreadFactory("rest-async-deadline"));
+        this.deadlines.setRemoveOnCancelPolicy(true);
+        this.executor = createExecutor();
+        long timeout = ApplicationProperties.getLong(REST_ASYNC_TIMEOUT, 0);
+        this.defaultTimeout = timeout > 0 ? Duration.ofMillis(timeout) : null;
+        this.batchConcurrency = ApplicationProperties.getInt(REST_BATCH_CONCURRENCY, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    public static AsyncRequestExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Run a request with the default deadline ({@code REST_ASYNC_TIMEOUT} in milliseconds, none when unset).
+     *
+     * @param request The blocking request.
+     * @return The future result of the request.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> request) {
+        return submit(request, defaultTimeout);
+    }
+
+    /**
+     * Run a request that fails with a {@link TimeoutException} once the deadline passed.
+     *
+     * @param request  The blocking request.
+     * @param deadline Maximum time until the request completes, {@code null} for none.
+     * @return The future result of the request.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> request, Duration deadline) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(request.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        ScheduledFuture<?> timeout = deadline == null ? null : deadlines.schedule(
+                () -> result.completeExceptionally(new TimeoutException("Request exceeded deadline of " + deadline)),
+                deadline.toNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, ex) -> {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (ex != null && !task.isDone()) {
+                // cancelled or timed out, stop the blocking request
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Replace the executor requests run on, the previous executor is shut down
+     * after its running requests complete.
+     *
+     * @param executor The new executor.
+     */
+    public void setExecutor(ExecutorService executor) {
+        ExecutorService previous = this.executor;
+        this.executor = executor;
+        previous.shutdown();
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    /**
+     * @return Maximum number of requests of a batch in flight at the same time.
+     */
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+
+    public void setBatchConcurrency(int batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    /**
+     * An executor that never queues a task, for callers bounding the tasks in
+     * flight on their own like the open-model load generators.
+     *
+     * @param name Name of the threads.
+     * @return A virtual thread per task when the JVM supports them, otherwise a cached pool of daemon threads.
+     */
+    public static ExecutorService newUnboundedExecutor(String name) {
+        ExecutorService virtual = virtualThreadExecutor();
+        if (virtual != null) {
+            log.info("{} requests run on virtual threads", name);
+            return virtual;
+        }
+        log.info("{} requests run on a cached platform thread pool, virtual threads are not supported by this JVM",
+                name);
+        return Executors.newCachedThreadPool(ThreadUtil.daemonThreadFactory(name));
+    }
+
+    private static ExecutorService createExecutor() {
+        String type = ApplicationProperties.getValue(REST_ASYNC_EXECUTOR, VIRTUAL);
+        if (VIRTUAL.equalsIgnoreCase(type.trim())) {
+            ExecutorService virtual = virtualThreadExecutor();
+            if (virtual != null) {
+                log.debug("Async requests run on virtual threads");
+                return virtual;
+            }
+            log.debug("Virtual threads are not supported by this JVM, using a platform thread pool");
+        }
+        int threads = ApplicationProperties.getInt(REST_ASYNC_THREADS, DEFAULT_THREADS);
+        return Executors.newFixedThreadPool(threads, ThreadUtil.daemonThreadFactory("rest-async"));
+    }
+
+    /**
+     * @return An executor starting a virtual thread per task, {@code null} when the JVM does not support them.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+}
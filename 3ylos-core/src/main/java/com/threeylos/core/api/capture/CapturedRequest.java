@@ -0,0 +1,125 @@
+package com.threeylos.core.api.capture;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.http.Method;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One request of a traffic capture, a single line of the capture NDJSON file.
+ * <p>
+ * Empty values are left out of the line, so a hand written capture needs no
+ * more than {@code {"t":0,"method":"GET","path":"/homeworks"}}.
+ * </p>
+ *
+ * @param t       Microseconds from the start of the first captured request to the start of this one.
+ * @param method  The http method.
+ * @param path    Path template relative to the base url, e.g. {@code /homeworks/{id}}.
+ * @param params  Values of the path parameters of the template.
+ * @param query   Query parameters.
+ * @param headers Request headers, without the excluded ones, see {@code CAPTURE_EXCLUDE_HEADERS}.
+ * @param body    Inline request body, for hand written captures.
+ * @param bodyRef Name of the file holding the request body in the bodies directory of the capture.
+ * @param status  Status code of the original response, 0 when unknown.
+ * @param latency Microseconds the original request took, 0 when unknown.
+ * @author AbhinitKumar
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record CapturedRequest(long t, String method, String path, Map<String, String> params,
+                              Map<String, String> query, Map<String, String> headers, String body, String bodyRef,
+                              int status, long latency) {
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Directory of the request bodies next to a capture file, {@code traffic.ndjson} keeps its
+     * bodies in {@code traffic.bodies}.
+     *
+     * @param capture The capture file.
+     * @return The bodies directory.
+     */
+    public static Path bodiesDirectory(Path capture) {
+        String name = capture.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return capture.resolveSibling((extension > 0 ? name.substring(0, extension) : name) + ".bodies");
+    }
+
+    /**
+     * Read a capture file, blank lines and lines starting with {@code #} are skipped.
+     *
+     * @param capture The capture file.
+     * @return The requests ordered by start time.
+     * @throws IllegalStateException when the file cannot be read or a line is not a request.
+     */
+    public static List<CapturedRequest> read(Path capture) {
+        List<CapturedRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(capture, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                CapturedRequest request;
+                try {
+                    request = MAPPER.readValue(line, CapturedRequest.class);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Line " + number + " of " + capture + " is not a request: "
+                            + ex.getMessage(), ex);
+                }
+                if (request.method() == null || request.path() == null) {
+                    throw new IllegalStateException("Line " + number + " of " + capture
+                            + " needs a method and a path");
+                }
+                requests.add(request);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Reading the capture " + capture + " failed: " + ex.getMessage(), ex);
+        }
+        requests.sort(Comparator.comparingLong(CapturedRequest::t));
+        return requests;
+    }
+
+    /**
+     * @return The http method.
+     * @throws IllegalStateException when the method is unknown.
+     */
+    public Method httpMethod() {
+        try {
+            return Method.valueOf(method.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Unknown http method " + method + " of " + path, ex);
+        }
+    }
+
+    /**
+     * @param bodies The bodies directory of the capture.
+     * @return The bytes of the request body as captured, or {@code null} without one.
+     * @throws IllegalStateException when the referenced body cannot be read.
+     */
+    public byte[] bodyBytes(Path bodies) {
+        if (body != null || bodyRef == null) {
+            return body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return Files.readAllBytes(bodies.resolve(bodyRef));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Reading the body " + bodyRef + " of " + method + " " + path
+                    + " failed: " + ex.getMessage(), ex);
+        }
+    }
+}
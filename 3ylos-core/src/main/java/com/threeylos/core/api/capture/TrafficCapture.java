@@ -0,0 +1,278 @@
+package com.threeylos.core.api.capture;
+
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.util.api.log.MpscRingBuffer;
+import com.threeylos.core.util.common.ThreadUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the requests seen by the {@link TrafficCaptureFilter} to a capture
+ * file, one {@link CapturedRequest} per line, for a later replay.
+ * <p>
+ * Request bodies are written once per distinct content to the bodies
+ * directory of the capture and referenced by the hash of their content, so
+ * the capture of a long suite sending the same payloads stays small.
+ * </p>
+ * <p>
+ * Request threads only take the offset of the request and enqueue it into a
+ * bounded lock-free ring buffer like the request log does. A single
+ * background thread hashes and writes the bodies and serializes the lines.
+ * Unlike the request log no request is ever dropped, a request thread
+ * finding the buffer of {@code CAPTURE_BUFFER_SIZE} requests full waits for
+ * the writer.
+ * </p>
+ * <p>
+ * The capture is off unless {@code CAPTURE_ENABLED=true}. An existing capture
+ * file is replaced by the first captured request.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class TrafficCapture {
+
+    public static final String CAPTURE_ENABLED = "CAPTURE_ENABLED";
+    public static final String CAPTURE_FILE = "CAPTURE_FILE";
+    public static final String CAPTURE_EXCLUDE_HEADERS = "CAPTURE_EXCLUDE_HEADERS";
+    public static final String CAPTURE_BUFFER_SIZE = "CAPTURE_BUFFER_SIZE";
+
+    public static final String DEFAULT_FILE = "target/capture/traffic.ndjson";
+
+    private static final String DEFAULT_EXCLUDE_HEADERS = "Authorization,Proxy-Authorization,Cookie,Host,"
+            + "Content-Length";
+
+    private static final int BODY_REF_BYTES = 16;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static final TrafficCapture INSTANCE = new TrafficCapture();
+
+    private final boolean enabled;
+
+    private final Path file;
+
+    private final Path bodies;
+
+    private final Set<String> excludeHeaders;
+
+    private final MpscRingBuffer<Pending> buffer;
+
+    private final AtomicLong startNanos = new AtomicLong(NOT_STARTED);
+
+    private final Thread drainer;
+
+    private volatile boolean drainerParked;
+
+    private BufferedWriter writer;
+
+    private boolean opened;
+
+    private TrafficCapture() {
+        this.enabled = ApplicationProperties.getBoolean(CAPTURE_ENABLED, false);
+        this.file = Paths.get(ApplicationProperties.getValue(CAPTURE_FILE, DEFAULT_FILE));
+        this.bodies = CapturedRequest.bodiesDirectory(file);
+        this.excludeHeaders = Arrays.stream(ApplicationProperties.getValue(CAPTURE_EXCLUDE_HEADERS,
+                        DEFAULT_EXCLUDE_HEADERS).split(","))
+                .map(String::trim).filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        this.buffer = new MpscRingBuffer<>(ApplicationProperties.getInt(CAPTURE_BUFFER_SIZE, 8192));
+        this.drainer = ThreadUtil.daemonThreadFactory("traffic-capture-writer").newThread(this::drainLoop);
+        if (enabled) {
+            drainer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "traffic-capture-close"));
+        }
+    }
+
+    public static TrafficCapture getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @param name Name of a request header.
+     * @return Whether the header is left out of the capture.
+     */
+    boolean isExcluded(String name) {
+        return excludeHeaders.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} the request started at.
+     * @return Microseconds since the start of the first captured request.
+     */
+    long offsetMicros(long startNanos) {
+        long start = this.startNanos.get();
+        if (start == NOT_STARTED) {
+            start = this.startNanos.compareAndSet(NOT_STARTED, startNanos) ? startNanos : this.startNanos.get();
+        }
+        return Math.max(0, (startNanos - start) / 1000);
+    }
+
+    /**
+     * Enqueue a request for the background writer, waits while the buffer is full.
+     *
+     * @param request The request to append to the capture file, without its body reference.
+     * @param body    The request body, {@code null} without a body.
+     */
+    void write(CapturedRequest request, byte[] body) {
+        Pending pending = new Pending(request, body);
+        while (!buffer.offer(pending)) {
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        if (drainerParked) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    /**
+     * Write the enqueued requests to the capture file on the calling thread.
+     */
+    public synchronized void flush() {
+        Pending pending;
+        while ((pending = buffer.poll()) != null) {
+            write(pending);
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            log.warn("Flushing the capture {} failed", file, ex);
+        }
+    }
+
+    /**
+     * Flush and close the capture file.
+     */
+    public synchronized void close() {
+        flush();
+        closeWriter();
+    }
+
+    private void drainLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (buffer.isEmpty()) {
+                drainerParked = true;
+                if (buffer.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                drainerParked = false;
+            }
+            flush();
+        }
+    }
+
+    private void write(Pending pending) {
+        if (!opened) {
+            opened = true;
+            open();
+        }
+        if (writer == null) {
+            return;
+        }
+        CapturedRequest request = pending.request();
+        if (pending.body() != null) {
+            request = new CapturedRequest(request.t(), request.method(), request.path(), request.params(),
+                    request.query(), request.headers(), null, writeBody(pending.body()), request.status(),
+                    request.latency());
+        }
+        try {
+            writer.write(CapturedRequest.MAPPER.writeValueAsString(request));
+            writer.newLine();
+        } catch (IOException ex) {
+            log.warn("Writing to the capture {} failed, capture stopped", file, ex);
+            closeWriter();
+        }
+    }
+
+    /**
+     * Write a request body to the bodies directory unless a body with the same content was written before.
+     *
+     * @param body The request body.
+     * @return The name of the body file.
+     */
+    private String writeBody(byte[] body) {
+        String name = HexFormat.of().formatHex(Arrays.copyOf(sha256(body), BODY_REF_BYTES));
+        Path target = bodies.resolve(name);
+        if (Files.notExists(target)) {
+            try {
+                Files.createDirectories(bodies);
+                Files.write(target, body);
+            } catch (IOException ex) {
+                log.warn("Writing captured body {} failed", target, ex);
+            }
+        }
+        return name;
+    }
+
+    private void open() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            log.info("Capturing requests to {}", file.toAbsolutePath());
+        } catch (IOException ex) {
+            log.warn("Opening the capture {} failed, capture disabled", file, ex);
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            log.trace("Closing the capture {} failed", file, ex);
+        }
+        writer = null;
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * A request waiting for the writer, its body is written and referenced by the writer.
+     */
+    private record Pending(CapturedRequest request, byte[] body) {
+    }
+}
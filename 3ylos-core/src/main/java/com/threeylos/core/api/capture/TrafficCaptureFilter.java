@@ -0,0 +1,100 @@
+package com.threeylos.core.api.capture;
+
+import com.threeylos.core.api.metrics.LatencyTimingFilter;
+import com.threeylos.core.util.api.RestAssuredUtils;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Captures every request as a {@link CapturedRequest} of the {@link TrafficCapture}.
+ * <p>
+ * The path is kept as template relative to the base url together with the
+ * values of its path parameters, so a replay can target another build of
+ * the service and still groups the latency by endpoint. The body is captured
+ * as sent, see {@link RestAssuredUtils#requestBody}, multipart parts as a
+ * multipart body with its content type.
+ * </p>
+ * <p>
+ * Runs right outside of the latency timing, so the captured latency matches
+ * the latency of the {@code LatencyRegistry}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public class TrafficCaptureFilter implements OrderedFilter {
+
+    public static final int ORDER = LatencyTimingFilter.ORDER - 1;
+
+    private static final Pattern PATH_PARAM = Pattern.compile("\\{([^}/]+)}");
+
+    private final TrafficCapture capture;
+
+    public TrafficCaptureFilter() {
+        this(TrafficCapture.getInstance());
+    }
+
+    public TrafficCaptureFilter(TrafficCapture capture) {
+        this.capture = capture;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        byte[] body = RestAssuredUtils.requestBody(requestSpec);
+        long start = System.nanoTime();
+        int statusCode = 0;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            statusCode = response.getStatusCode();
+            return response;
+        } finally {
+            long latency = (System.nanoTime() - start) / 1000;
+            capture.write(capture(requestSpec, capture.offsetMicros(start), statusCode, latency), body);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private CapturedRequest capture(FilterableRequestSpecification requestSpec, long offset, int statusCode,
+                                    long latency) {
+        String path = LatencyTimingFilter.pathTemplate(requestSpec, true);
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : requestSpec.getHeaders()) {
+            if (!capture.isExcluded(header.getName())) {
+                headers.merge(header.getName(), header.getValue(), (first, second) -> first + "," + second);
+            }
+        }
+        if (!requestSpec.getMultiPartParams().isEmpty()) {
+            headers.keySet().removeIf(name -> name.equalsIgnoreCase("Content-Type"));
+            headers.put("Content-Type", RestAssuredUtils.multiPartContentType());
+        }
+        return new CapturedRequest(offset, requestSpec.getMethod(), path, pathParams(requestSpec, path),
+                new LinkedHashMap<>(requestSpec.getQueryParams()), headers, null, null, statusCode, latency);
+    }
+
+    /**
+     * @return The named path parameters and the unnamed ones by the name of their placeholder.
+     */
+    private static Map<String, String> pathParams(FilterableRequestSpecification requestSpec, String path) {
+        Map<String, String> params = new LinkedHashMap<>(requestSpec.getNamedPathParams());
+        Iterator<String> unnamed = requestSpec.getUnnamedPathParamValues().iterator();
+        Matcher matcher = PATH_PARAM.matcher(path);
+        while (unnamed.hasNext() && matcher.find()) {
+            params.putIfAbsent(matcher.group(1), unnamed.next());
+        }
+        return params;
+    }
+}
@@ -38,7 +38,7 @@ public final class ApiAuthContext {
 	 * @param type           +' ' @param token The header value
 	 */
 	public void headerAuth(String authHeaderName, String type, String token) {
-		requestSpecBuilder.addHeader(authHeaderName, type + " " + token);
+		requestSpecification.header(authHeaderName, type + " " + token);
 	}
 
 	/**
@@ -1,10 +1,13 @@
 package com.threeylos.core.api.config;
 
+import com.threeylos.core.api.proxy.FaultProxy;
 import com.threeylos.core.config.ApplicationProperties;
-import com.threeylos.core.util.api.RestAssuredRequestFilter;
 import io.restassured.RestAssured;
+import io.restassured.specification.ProxySpecification;
 import lombok.extern.log4j.Log4j2;
 
+import java.util.Optional;
+
 /**
  * @author AbhinitKumar
  */
@@ -19,14 +22,38 @@ public final class ApiConfig {
     private static final String ROOT_API_URL;
 
     static {
-        String systemURL = System.getenv("API_BASE_URL");
-        ROOT_API_URL = systemURL == null ? ApplicationProperties.getValue("API_BASE_URL") : systemURL;
+        ROOT_API_URL = ApplicationProperties.getValue("API_BASE_URL");
+
+    }
+
+    /**
+     * @return The root url of the api under test.
+     */
+    public static String getRootApiUrl() {
+        return ROOT_API_URL;
+    }
 
+    /**
+     * The proxy every request is routed through, the {@link FaultProxy} is
+     * started on first use when {@code FAULT_PROXY_ENABLED=true}.
+     *
+     * @return The proxy, empty when requests go to the api directly.
+     */
+    public static Optional<ProxySpecification> getProxy() {
+        return FaultProxy.startIfEnabled()
+                .map(proxy -> ProxySpecification.host("localhost").withPort(proxy.getPort()));
     }
 
+    /**
+     * Point the global rest-assured base URI at the api under test.
+     *
+     * @deprecated Every {@link RestAssuredContext} carries its own base URI, writing
+     * the rest-assured statics races with scenarios running in parallel.
+     */
+    @Deprecated
     public static void setApiConfig() {
         RestAssured.baseURI = ROOT_API_URL;
-        RestAssured.filters(new RestAssuredRequestFilter());
+        // Request filters are scoped to a context, see RequestFilterPipeline.
         // RestAssured.basePath = "/api";
         // RestAssured.port=8080
 
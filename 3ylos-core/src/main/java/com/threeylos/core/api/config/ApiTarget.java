@@ -0,0 +1,127 @@
+package com.threeylos.core.api.config;
+
+import com.threeylos.core.config.ApplicationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A named base url of the api under test.
+ * <p>
+ * With {@code API_BASE_URLS} set, e.g. {@code stable=https://a/hmwk,canary=https://b/hmwk},
+ * every scenario runs once against each target, see
+ * {@link com.threeylos.core.runner.BaseRunner}. Targets without a name are
+ * named by their position. The target of the running scenario is bound to
+ * its thread and applied by {@link com.threeylos.core.api.RestApiBase#init()}.
+ * </p>
+ *
+ * @param name    The name used in reports.
+ * @param baseUri The absolute base url.
+ * @author AbhinitKumar
+ */
+public record ApiTarget(String name, String baseUri) {
+
+    public static final String API_BASE_URLS = "API_BASE_URLS";
+
+    private static final ThreadLocal<ApiTarget> CURRENT = new ThreadLocal<>();
+
+    private static volatile Parsed parsed = new Parsed(-1, List.of());
+
+    /**
+     * @return The configured targets, empty when {@code API_BASE_URLS} is not set.
+     */
+    public static List<ApiTarget> all() {
+        long version = ApplicationProperties.getSnapshot().getVersion();
+        Parsed current = parsed;
+        if (current.version() != version) {
+            current = new Parsed(version, parse(ApplicationProperties.getValue(API_BASE_URLS)));
+            parsed = current;
+        }
+        return current.targets();
+    }
+
+    /**
+     * @return Whether more than one target is configured.
+     */
+    public static boolean isMultiTarget() {
+        return all().size() > 1;
+    }
+
+    /**
+     * @return The target bound to the current thread.
+     */
+    public static Optional<ApiTarget> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Bind a target to the current thread, {@code null} removes the binding.
+     *
+     * @param target The target.
+     */
+    public static void setCurrent(ApiTarget target) {
+        if (target == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(target);
+        }
+    }
+
+    /**
+     * Find the target a request was sent to by its base uri.
+     *
+     * @param baseUri The base uri of the request.
+     * @return The target, empty when no target has this base uri.
+     */
+    public static Optional<ApiTarget> forBaseUri(String baseUri) {
+        if (baseUri == null) {
+            return Optional.empty();
+        }
+        String normalized = stripTrailingSlash(baseUri);
+        return all().stream().filter(target -> target.baseUri().equals(normalized)).findFirst();
+    }
+
+    /**
+     * @param settings The configuration.
+     * @return The configuration pointing at the target bound to the current thread.
+     */
+    public static RestAssuredSettings apply(RestAssuredSettings settings) {
+        ApiTarget target = CURRENT.get();
+        return target == null || target.baseUri().equals(settings.baseUri()) ? settings
+                : settings.withBaseUri(target.baseUri());
+    }
+
+    static List<ApiTarget> parse(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<ApiTarget> targets = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf('=');
+            String name = separator < 0 ? "target" + (targets.size() + 1) : trimmed.substring(0, separator).trim();
+            String url = separator < 0 ? trimmed : trimmed.substring(separator + 1).trim();
+            if (targets.stream().anyMatch(target -> target.name().equals(name))) {
+                throw new IllegalStateException(API_BASE_URLS + " contains the target name " + name + " twice");
+            }
+            targets.add(new ApiTarget(name, stripTrailingSlash(url)));
+        }
+        return List.copyOf(targets);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + baseUri;
+    }
+
+    private record Parsed(long version, List<ApiTarget> targets) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.threeylos.core.api.config;
+
+import com.threeylos.core.util.common.ThreadUtil;
+import io.restassured.specification.ProxySpecification;
+import lombok.extern.log4j.Log4j2;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.params.ConnRouteParams;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultHttpRoutePlanner;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HTTP;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of keep-alive http connections shared by all rest-assured requests of the same pool settings.
+ * <p>
+ * Rest-assured creates a new {@link DefaultHttpClient} for every request, the
+ * clients created by {@link #createHttpClient()} are cheap wrappers around the
+ * same pooled connection manager, so connections (and TLS sessions) are reused
+ * across requests and threads.
+ * </p>
+ * <p>
+ * There is one pool per {@link Settings}, see {@link #forSettings(Settings)},
+ * so contexts with different pool settings, e.g. of several api targets, do
+ * not resize each other's pool. The pools share one evictor thread.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@SuppressWarnings("deprecation")
+@Log4j2
+public final class HttpConnectionPool {
+
+    private static final Map<Settings, HttpConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(
+            ThreadUtil.daemonThreadFactory("http-pool-evictor"));
+
+    private final PoolingClientConnectionManager connectionManager;
+
+    private final ValidatingConnectionManager validatingConnectionManager;
+
+    private final Settings settings;
+
+    private HttpConnectionPool(Settings settings) {
+        this.settings = settings;
+        this.connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault());
+        this.connectionManager.setMaxTotal(settings.maxTotal());
+        this.connectionManager.setDefaultMaxPerRoute(settings.maxPerRoute());
+        this.validatingConnectionManager = new ValidatingConnectionManager(connectionManager,
+                settings.validateAfterInactivityMillis());
+        long period = Math.max(1000, settings.idleTimeoutMillis() / 2);
+        EVICTOR.scheduleWithFixedDelay(() -> evictIdle(settings.idleTimeoutMillis()), period, period,
+                TimeUnit.MILLISECONDS);
+        log.debug("Http connection pool created: {}", settings);
+    }
+
+    /**
+     * @return The pool of the default settings.
+     */
+    public static HttpConnectionPool getInstance() {
+        return forSettings(Settings.DEFAULT);
+    }
+
+    /**
+     * @param settings The pool settings.
+     * @return The pool of the settings, created on first use.
+     */
+    public static HttpConnectionPool forSettings(Settings settings) {
+        return POOLS.computeIfAbsent(settings, HttpConnectionPool::new);
+    }
+
+    /**
+     * @return A new http client backed by the shared connection pool.
+     */
+    public HttpClient createHttpClient() {
+        DefaultHttpClient httpClient = new DefaultHttpClient(validatingConnectionManager);
+        httpClient.setKeepAliveStrategy(keepAliveStrategy(settings.keepAliveMillis()));
+        return httpClient;
+    }
+
+    /**
+     * Open connections to the host of the uri ahead of the first requests, so
+     * connection setup and TLS handshakes do not show up in their latency.
+     * Connections already open in the pool are counted, not opened again.
+     * <p>
+     * The route is planned like the clients of the pool plan it, so with a
+     * proxy, e.g. the fault proxy, the connections are opened to the proxy and
+     * reused by the requests sent through it.
+     * </p>
+     *
+     * @param uri           Base uri of the requests.
+     * @param proxy         Proxy the requests are sent through, {@code null} without a proxy.
+     * @param connections   Number of connections, at most the maximum per route.
+     * @param timeoutMillis Timeout to lease a connection from the pool and to connect it.
+     * @return Number of connections opened.
+     */
+    public int preOpen(URI uri, ProxySpecification proxy, int connections, int timeoutMillis) {
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, timeoutMillis);
+        if (proxy != null) {
+            ConnRouteParams.setDefaultProxy(params, new HttpHost(proxy.getHost(), proxy.getPort(), proxy.getScheme()));
+        }
+        HttpRoute route = route(uri, params);
+        int count = Math.min(connections, settings.maxPerRoute());
+        List<ManagedClientConnection> leased = new ArrayList<>(count);
+        int opened = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                ManagedClientConnection connection = validatingConnectionManager.requestConnection(route, null)
+                        .getConnection(timeoutMillis, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    connection.open(route, new BasicHttpContext(), params);
+                    opened++;
+                }
+                connection.markReusable();
+            }
+        } catch (IOException ex) {
+            log.warn("Opening connections to {} failed after {} of {}: {}", route, opened, count, ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (ManagedClientConnection connection : leased) {
+                validatingConnectionManager.releaseConnection(connection, settings.keepAliveMillis(),
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+        log.debug("Opened {} connection(s) to {}, pool stats: {}", opened, route, connectionManager.getTotalStats());
+        return opened;
+    }
+
+    /**
+     * @return The route the route planner of {@link DefaultHttpClient} picks for requests to the uri.
+     */
+    private HttpRoute route(URI uri, HttpParams params) {
+        BasicHttpRequest request = new BasicHttpRequest("GET", uri.toString());
+        request.setParams(params);
+        try {
+            return new DefaultHttpRoutePlanner(connectionManager.getSchemeRegistry())
+                    .determineRoute(URIUtils.extractHost(uri), request, new BasicHttpContext());
+        } catch (HttpException ex) {
+            throw new IllegalArgumentException("No route to " + uri + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return Leased, available and pending connections of the pool.
+     */
+    public PoolStats getStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    private void evictIdle(long idleTimeoutMillis) {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        validatingConnectionManager.prune(TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis));
+        log.trace("Http connection pool stats: {}", connectionManager.getTotalStats());
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveMillis) {
+        return (response, context) -> {
+            HeaderElementIterator iterator = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (iterator.hasNext()) {
+                HeaderElement element = iterator.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Long.parseLong(element.getValue()) * 1000;
+                    } catch (NumberFormatException ignore) {
+                        // fall back to the configured keep-alive
+                    }
+                }
+            }
+            return defaultKeepAliveMillis;
+        };
+    }
+
+    /**
+     * Connection pool settings.
+     *
+     * @param maxTotal                      Maximum number of connections in the pool.
+     * @param maxPerRoute                   Maximum number of connections per route (host).
+     * @param idleTimeoutMillis             Connections idle for longer are closed by the evictor.
+     * @param validateAfterInactivityMillis Connections idle for longer are checked for staleness before reuse.
+     * @param keepAliveMillis               Keep-alive used when the server does not send one.
+     */
+    public record Settings(int maxTotal, int maxPerRoute, long idleTimeoutMillis, long validateAfterInactivityMillis,
+                           long keepAliveMillis) {
+
+        public static final Settings DEFAULT = new Settings(200, 50, 30_000, 2_000, 30_000);
+    }
+
+    /**
+     * Delegates to the pooling manager and checks connections that were idle
+     * in the pool for longer than the configured inactivity for staleness
+     * before handing them out again.
+     * <p>
+     * The wrapper handed out per lease changes, so connections are tracked by
+     * their socket from the time they are released to the pool.
+     * </p>
+     */
+    private static final class ValidatingConnectionManager implements ClientConnectionManager {
+
+        private final PoolingClientConnectionManager delegate;
+
+        private final Map<Socket, Long> releasedAt = new ConcurrentHashMap<>();
+
+        private final long validateAfterInactivityMillis;
+
+        private ValidatingConnectionManager(PoolingClientConnectionManager delegate,
+                                            long validateAfterInactivityMillis) {
+            this.delegate = delegate;
+            this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+        }
+
+        @Override
+        public SchemeRegistry getSchemeRegistry() {
+            return delegate.getSchemeRegistry();
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ClientConnectionRequest request = delegate.requestConnection(route, state);
+            return new ClientConnectionRequest() {
+                @Override
+                public ManagedClientConnection getConnection(long timeout, TimeUnit unit)
+                        throws InterruptedException, ConnectionPoolTimeoutException {
+                    return validate(request.getConnection(timeout, unit));
+                }
+
+                @Override
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+
+        @Override
+        public void releaseConnection(ManagedClientConnection connection, long validDuration, TimeUnit timeUnit) {
+            Socket socket = socket(connection);
+            if (socket != null && connection.isMarkedReusable()) {
+                releasedAt.put(socket, System.nanoTime());
+            }
+            delegate.releaseConnection(connection, validDuration, timeUnit);
+        }
+
+        @Override
+        public void closeIdleConnections(long idletime, TimeUnit timeUnit) {
+            delegate.closeIdleConnections(idletime, timeUnit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            delegate.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        private void prune(long idleNanos) {
+            long now = System.nanoTime();
+            releasedAt.entrySet().removeIf(entry -> entry.getKey().isClosed() || now - entry.getValue() > idleNanos);
+        }
+
+        private ManagedClientConnection validate(ManagedClientConnection connection) {
+            Socket socket = socket(connection);
+            Long released = socket == null ? null : releasedAt.remove(socket);
+            if (released != null && validateAfterInactivityMillis >= 0
+                    && System.nanoTime() - released > TimeUnit.MILLISECONDS.toNanos(validateAfterInactivityMillis)
+                    && connection.isStale()) {
+                try {
+                    connection.close();
+                } catch (IOException ex) {
+                    log.trace("Closing stale connection failed", ex);
+                }
+            }
+            return connection;
+        }
+
+        /**
+         * @return The socket of an open connection, {@code null} otherwise.
+         */
+        private static Socket socket(ManagedClientConnection connection) {
+            try {
+                return connection.isOpen() ? connection.getSocket() : null;
+            } catch (RuntimeException ex) {
+                return null;
+            }
+        }
+    }
+}
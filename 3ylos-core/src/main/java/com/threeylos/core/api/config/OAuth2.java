@@ -9,21 +9,23 @@ import java.time.Instant;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
+/**
+ * OAuth2 client-credentials token for a set of credentials. Tokens are shared
+ * through the {@link OAuth2TokenCache}, creating an instance does not call the
+ * token issuer.
+ */
 public final class OAuth2 {
 
     private final OAuth2Credentials creds;
 
     private final boolean isCredentialsInBody;
 
-    private TokenResponse tokenResponse;
-
     public OAuth2(final OAuth2Credentials creds, final boolean isCredentialsInBody) {
         this.creds = creds;
         this.isCredentialsInBody = isCredentialsInBody;
-        tokenResponse = getTokenResponse(creds);
     }
 
-    private TokenResponse getTokenResponse(final OAuth2Credentials creds) {
+    static TokenResponse requestToken(final OAuth2Credentials creds, final boolean isCredentialsInBody) {
         try {
             final var requestSpec = RestAssured.given()
                     .contentType(ContentType.URLENC)
@@ -51,18 +53,10 @@ public final class OAuth2 {
     }
 
     public String getToken() {
-        refreshTokenResponse();
-        return tokenResponse.getAccessToken();
-    }
-
-    public synchronized void refreshTokenResponse() {
-        if (!isActual(tokenResponse)) {
-            tokenResponse = getTokenResponse(creds);
-        }
+        return OAuth2TokenCache.getInstance().getToken(creds, isCredentialsInBody);
     }
 
-    private boolean isActual(final TokenResponse tokenResponse) {
-        return tokenResponse.getRefreshTime() > Instant.now()
-                .getEpochSecond();
+    public void refreshTokenResponse() {
+        OAuth2TokenCache.getInstance().getTokenResponse(creds, isCredentialsInBody);
     }
 }
@@ -0,0 +1,251 @@
+package com.threeylos.core.api.config;
+
+import com.threeylos.core.api.model.OAuth2Credentials;
+import com.threeylos.core.api.model.TokenResponse;
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.util.common.ThreadUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Process wide cache of OAuth2 client-credentials tokens keyed by client id,
+ * scope and token issuer url.
+ * <p>
+ * A cached token is handed out without locking. Tokens are refreshed on a
+ * background thread ahead of their expiry while they are in use, and
+ * concurrent refreshes of the same token are coalesced into a single call to
+ * the token issuer.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class OAuth2TokenCache {
+
+    private static final String OAUTH2_REFRESH_AHEAD = "OAUTH2_REFRESH_AHEAD";
+
+    /**
+     * Seconds before the refresh time a used token is refreshed in the background.
+     */
+    private static final long DEFAULT_REFRESH_AHEAD = 60;
+
+    /**
+     * Tokens living shorter than this are not refreshed in the background but on their first use after expiry.
+     */
+    private static final long MIN_REFRESH_DELAY = 5;
+
+    private static final OAuth2TokenCache INSTANCE =
+            new OAuth2TokenCache(OAuth2::requestToken, OAuth2TokenStore.fromConfig());
+
+    private final Map<TokenKey, Entry> entries = new ConcurrentHashMap<>();
+
+    private final BiFunction<OAuth2Credentials, Boolean, TokenResponse> tokenIssuer;
+
+    /**
+     * Shares tokens with other JVMs, {@code null} when the on-disk store is disabled.
+     */
+    private final OAuth2TokenStore tokenStore;
+
+    private final ScheduledExecutorService refresher;
+
+    private final long refreshAheadSeconds;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+
+    OAuth2TokenCache(BiFunction<OAuth2Credentials, Boolean, TokenResponse> tokenIssuer) {
+        this(tokenIssuer, null);
+    }
+
+    OAuth2TokenCache(BiFunction<OAuth2Credentials, Boolean, TokenResponse> tokenIssuer, OAuth2TokenStore tokenStore) {
+        this.tokenIssuer = tokenIssuer;
+        this.tokenStore = tokenStore;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(
+                ThreadUtil.daemonThreadFactory("oauth2-token-refresh"));
+        this.refreshAheadSeconds = ApplicationProperties.getLong(OAUTH2_REFRESH_AHEAD, DEFAULT_REFRESH_AHEAD);
+    }
+
+    public static OAuth2TokenCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a valid access token, requesting one from the token issuer only
+     * when no valid token is cached.
+     *
+     * @param creds               The client credentials.
+     * @param isCredentialsInBody Send the credentials as form params instead of basic auth.
+     * @return The access token.
+     */
+    public String getToken(OAuth2Credentials creds, boolean isCredentialsInBody) {
+        return getTokenResponse(creds, isCredentialsInBody).getAccessToken();
+    }
+
+    public TokenResponse getTokenResponse(OAuth2Credentials creds, boolean isCredentialsInBody) {
+        Entry entry = entries.computeIfAbsent(TokenKey.of(creds), key -> new Entry(creds, isCredentialsInBody));
+        if (!entry.used) {
+            entry.used = true;
+        }
+        TokenResponse token = entry.token;
+        if (isActual(token)) {
+            hits.increment();
+            return token;
+        }
+        misses.increment();
+        return refresh(entry, false);
+    }
+
+    /**
+     * Force a new token for the credentials, concurrent callers share the same request.
+     *
+     * @param creds               The client credentials.
+     * @param isCredentialsInBody Send the credentials as form params instead of basic auth.
+     * @return The new token.
+     */
+    public TokenResponse refresh(OAuth2Credentials creds, boolean isCredentialsInBody) {
+        return refresh(entries.computeIfAbsent(TokenKey.of(creds), key -> new Entry(creds, isCredentialsInBody)), true);
+    }
+
+    /**
+     * Drop all cached tokens.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(hits.sum(), misses.sum(), refreshes.sum(), failures.sum(), storeHits.sum());
+    }
+
+    private TokenResponse refresh(Entry entry, boolean force) {
+        CompletableFuture<TokenResponse> request = new CompletableFuture<>();
+        CompletableFuture<TokenResponse> inFlight = entry.inFlight.compareAndExchange(null, request);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            if (!force && isActual(entry.token)) {
+                // another caller refreshed the token in the meantime
+                request.complete(entry.token);
+                return entry.token;
+            }
+            TokenResponse token = tokenStore == null ? requestToken(entry) : loadOrRequestToken(entry);
+            entry.token = token;
+            entry.used = false;
+            scheduleRefresh(entry, token);
+            request.complete(token);
+            return token;
+        } catch (RuntimeException ex) {
+            failures.increment();
+            request.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            entry.inFlight.set(null);
+        }
+    }
+
+    private TokenResponse requestToken(Entry entry) {
+        refreshes.increment();
+        return tokenIssuer.apply(entry.creds, entry.isCredentialsInBody);
+    }
+
+    private TokenResponse loadOrRequestToken(Entry entry) {
+        boolean[] requested = {false};
+        TokenResponse token = tokenStore.loadOrFetch(entry.creds, entry.token, () -> {
+            requested[0] = true;
+            return requestToken(entry);
+        });
+        if (!requested[0]) {
+            storeHits.increment();
+        }
+        return token;
+    }
+
+    private void scheduleRefresh(Entry entry, TokenResponse token) {
+        // refresh ahead but not before half of the lifetime, so short lived tokens are not refreshed in a loop
+        long lifetime = token.getRefreshTime() - Instant.now().getEpochSecond();
+        long delay = Math.max(lifetime / 2, lifetime - refreshAheadSeconds);
+        if (delay < MIN_REFRESH_DELAY) {
+            log.debug("Token for: {} lives {} s, it is refreshed on use after expiry", entry.creds.getClientId(),
+                    lifetime);
+            return;
+        }
+        refresher.schedule(() -> {
+            if (!entry.used || entry.token != token) {
+                log.debug("Skipping background refresh of unused token for: {}", entry.creds.getClientId());
+                return;
+            }
+            try {
+                refresh(entry, true);
+            } catch (RuntimeException ex) {
+                log.warn("Background refresh of OAuth2 token failed, the cached token is kept until it expires", ex);
+            }
+        }, delay, TimeUnit.SECONDS);
+    }
+
+    private static TokenResponse join(CompletableFuture<TokenResponse> request) {
+        try {
+            return request.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtimeException ? runtimeException : ex;
+        }
+    }
+
+    static boolean isActual(final TokenResponse tokenResponse) {
+        return tokenResponse != null && tokenResponse.getRefreshTime() > Instant.now().getEpochSecond();
+    }
+
+    /**
+     * Token cache counters.
+     *
+     * @param hits      Tokens served from the cache.
+     * @param misses    Requests that found no valid token.
+     * @param refreshes Calls made to the token issuer.
+     * @param failures  Failed calls to the token issuer.
+     * @param storeHits Tokens loaded from the on-disk token store instead of the token issuer.
+     */
+    public record Metrics(long hits, long misses, long refreshes, long failures, long storeHits) {
+    }
+
+    private record TokenKey(String clientId, String scope, String tokenIssuerURL) {
+
+        private static TokenKey of(OAuth2Credentials creds) {
+            return new TokenKey(creds.getClientId(), creds.getScope(), creds.getTokenIssuerURL());
+        }
+    }
+
+    private static final class Entry {
+
+        private final OAuth2Credentials creds;
+
+        private final boolean isCredentialsInBody;
+
+        private final AtomicReference<CompletableFuture<TokenResponse>> inFlight = new AtomicReference<>();
+
+        private volatile TokenResponse token;
+
+        /**
+         * Whether the token was handed out since it was fetched.
+         */
+        private volatile boolean used;
+
+        private Entry(OAuth2Credentials creds, boolean isCredentialsInBody) {
+            this.creds = creds;
+            this.isCredentialsInBody = isCredentialsInBody;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.threeylos.core.api.config;
+
+import com.threeylos.core.api.model.OAuth2Credentials;
+import com.threeylos.core.api.model.TokenResponse;
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.extern.log4j.Log4j2;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Encrypted on-disk store of OAuth2 tokens shared by all JVMs on the machine.
+ * <p>
+ * One file per set of {@link OAuth2Credentials}. The token is encrypted with
+ * AES-GCM using a key derived from the client secret, so only a JVM holding the
+ * same credentials can read it. Reads and token requests happen under an
+ * exclusive file lock, concurrent forks wait for the first one to fetch the
+ * token and then reuse it without calling the token issuer.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class OAuth2TokenStore {
+
+    private static final String OAUTH2_TOKEN_STORE = "OAUTH2_TOKEN_STORE";
+    private static final String OAUTH2_TOKEN_STORE_DIR = "OAUTH2_TOKEN_STORE_DIR";
+    private static final String OAUTH2_TOKEN_STORE_KEY = "OAUTH2_TOKEN_STORE_KEY";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final int KEY_ITERATIONS = 10_000;
+
+    private final Path directory;
+
+    private final String storeKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<String, SecretKey> keys = new ConcurrentHashMap<>();
+
+    public OAuth2TokenStore(Path directory, String storeKey) {
+        this.directory = directory;
+        this.storeKey = storeKey == null ? "" : storeKey;
+    }
+
+    /**
+     * @return The store configured by {@code OAUTH2_TOKEN_STORE} or {@code null} when it is disabled.
+     */
+    public static OAuth2TokenStore fromConfig() {
+        if (!ApplicationProperties.getBoolean(OAUTH2_TOKEN_STORE, false)) {
+            return null;
+        }
+        String dir = ApplicationProperties.getValue(OAUTH2_TOKEN_STORE_DIR);
+        Path directory = dir == null ? Paths.get(System.getProperty("java.io.tmpdir"), "3ylos-oauth2-tokens")
+                : Paths.get(dir);
+        log.debug("OAuth2 token store: {}", directory);
+        return new OAuth2TokenStore(directory, ApplicationProperties.getValue(OAUTH2_TOKEN_STORE_KEY));
+    }
+
+    /**
+     * Returns the stored token when it is still valid and newer than {@code current},
+     * otherwise fetches a new token and stores it. Other JVMs wait while the token is fetched.
+     *
+     * @param creds   The client credentials the token belongs to.
+     * @param current The token the caller already holds, may be {@code null}.
+     * @param fetcher Requests a new token from the token issuer.
+     * @return A valid token.
+     */
+    public TokenResponse loadOrFetch(OAuth2Credentials creds, TokenResponse current, Supplier<TokenResponse> fetcher) {
+        String name;
+        try {
+            Files.createDirectories(directory);
+            name = fileName(creds);
+        } catch (IOException | GeneralSecurityException ex) {
+            log.warn("OAuth2 token store is not usable, requesting a new token", ex);
+            return fetcher.get();
+        }
+        Path tokenFile = directory.resolve(name + ".token");
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(name + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = lockChannel.lock();
+            try {
+                TokenResponse stored = read(tokenFile, creds);
+                if (OAuth2TokenCache.isActual(stored)
+                        && (current == null || stored.getRefreshTime() > current.getRefreshTime())) {
+                    log.debug("Reusing stored OAuth2 token for: {}", creds.getClientId());
+                    return stored;
+                }
+                TokenResponse token = fetcher.get();
+                write(tokenFile, creds, token);
+                return token;
+            } finally {
+                release(lock);
+            }
+        } catch (IOException ex) {
+            log.warn("OAuth2 token store lock failed, requesting a new token", ex);
+            return fetcher.get();
+        }
+    }
+
+    private static void release(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException ex) {
+            log.debug("Releasing the OAuth2 token store lock failed, closing its channel releases it", ex);
+        }
+    }
+
+    private TokenResponse read(Path tokenFile, OAuth2Credentials creds) {
+        if (!Files.exists(tokenFile)) {
+            return null;
+        }
+        try {
+            byte[] data = Files.readAllBytes(tokenFile);
+            if (data.length <= IV_LENGTH + 1 || data[0] != FORMAT_VERSION) {
+                return null;
+            }
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key(creds), new GCMParameterSpec(TAG_LENGTH, data, 1, IV_LENGTH));
+            byte[] plain = cipher.doFinal(data, 1 + IV_LENGTH, data.length - 1 - IV_LENGTH);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(plain))) {
+                TokenResponse token = new TokenResponse();
+                token.setAccessToken(in.readUTF());
+                token.setTokenLifetime(in.readLong());
+                token.setRefreshTime(in.readLong());
+                return token;
+            }
+        } catch (IOException | GeneralSecurityException ex) {
+            log.debug("Ignoring unreadable OAuth2 token file: {}", tokenFile, ex);
+            return null;
+        }
+    }
+
+    private void write(Path tokenFile, OAuth2Credentials creds, TokenResponse token) {
+        try {
+            ByteArrayOutputStream plain = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(plain)) {
+                out.writeUTF(token.getAccessToken());
+                out.writeLong(token.getTokenLifetime());
+                out.writeLong(token.getRefreshTime());
+            }
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key(creds), new GCMParameterSpec(TAG_LENGTH, iv));
+            byte[] encrypted = cipher.doFinal(plain.toByteArray());
+
+            Path temp = Files.createTempFile(directory, tokenFile.getFileName().toString(), ".tmp");
+            restrictToOwner(temp);
+            try (var out = Files.newOutputStream(temp)) {
+                out.write(FORMAT_VERSION);
+                out.write(iv);
+                out.write(encrypted);
+            }
+            Files.move(temp, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | GeneralSecurityException ex) {
+            log.warn("Storing OAuth2 token failed", ex);
+        }
+    }
+
+    private SecretKey key(OAuth2Credentials creds) throws GeneralSecurityException {
+        String identity = identity(creds);
+        SecretKey key = keys.get(identity);
+        if (key == null) {
+            char[] password = (storeKey + '\0' + nullToEmpty(creds.getClientSecret())).toCharArray();
+            byte[] salt = sha256(identity);
+            byte[] encoded = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                    .generateSecret(new PBEKeySpec(password, salt, KEY_ITERATIONS, 256))
+                    .getEncoded();
+            key = new SecretKeySpec(encoded, "AES");
+            keys.put(identity, key);
+        }
+        return key;
+    }
+
+    private static String fileName(OAuth2Credentials creds) throws GeneralSecurityException {
+        return HexFormat.of().formatHex(sha256(identity(creds) + '\0' + nullToEmpty(creds.getClientSecret())));
+    }
+
+    private static String identity(OAuth2Credentials creds) {
+        return nullToEmpty(creds.getClientId()) + '\0' + nullToEmpty(creds.getScope()) + '\0'
+                + nullToEmpty(creds.getTokenIssuerURL());
+    }
+
+    private static byte[] sha256(String value) throws GeneralSecurityException {
+        return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void restrictToOwner(Path file) {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException | IOException ex) {
+            log.trace("Owner only permissions are not supported for: {}", file);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.threeylos.core.api.config;
 
+import com.threeylos.core.api.model.OAuth2Credentials;
 import com.threeylos.core.config.ApplicationProperties;
 import com.threeylos.core.constant.AuthType;
 import io.restassured.http.ContentType;
@@ -7,11 +8,16 @@ import lombok.ToString;
 
 /**
  * This class loaded all the rest-assured configuration
+ * <p>
+ * Every getter looks the value up again, use {@link #resolve()} to look all
+ * values up once into an immutable {@link RestAssuredSettings}.
+ * </p>
  *
  * @author AbhinitKumar
  */
 @ToString
 public final class RestAssuredConfig {
+    private static final String API_BASE_URL = "API_BASE_URL";
     private static final String IS_AUTH = "IS_AUTH";
     private static final String CONNECTION_TIMEOUT = "CONNECTION_TIMEOUT";
     private static final String AUTH_TYPE = "AUTH_TYPE";
@@ -27,7 +33,13 @@ public final class RestAssuredConfig {
     private static final String OAUTH1_SECRET = "OAUTH1_SECRET";
     private static final String OAUTH1_SECRET_TOKEN = "OAUTH1_SECRET_TOKEN";
     private static final String OAUTH1_ACCESS_TOKEN = "OAUTH1_ACCESS_TOKEN";
+    private static final String HTTP_POOL_MAX_TOTAL = "HTTP_POOL_MAX_TOTAL";
+    private static final String HTTP_POOL_MAX_PER_ROUTE = "HTTP_POOL_MAX_PER_ROUTE";
+    private static final String HTTP_POOL_IDLE_TIMEOUT = "HTTP_POOL_IDLE_TIMEOUT";
+    private static final String HTTP_POOL_VALIDATE_AFTER_INACTIVITY = "HTTP_POOL_VALIDATE_AFTER_INACTIVITY";
+    private static final String HTTP_KEEP_ALIVE = "HTTP_KEEP_ALIVE";
 
+    private String baseUri;
     private boolean isAuth = false;
     private int connectionTimeout = 9000;
     private String authType;
@@ -42,9 +54,35 @@ public final class RestAssuredConfig {
     private String oAuth1Secret;
     private String oAuth1SecretToken;
     private String oAuth1AccessToken;
+    private HttpConnectionPool.Settings poolSettings;
+
+    /**
+     * Resolve and validate all values once.
+     *
+     * @return {@link RestAssuredSettings} The immutable configuration.
+     * @throws IllegalStateException when the configuration is invalid.
+     */
+    public RestAssuredSettings resolve() {
+        OAuth2Credentials oAuth2Credentials = new OAuth2Credentials();
+        return new RestAssuredSettings(getBaseUri(), isAuth(), getConnectionTimeout(), getAuthType(),
+                getHeaderAuthName(), getHeaderAuthType(), getHeaderAuthToken(), getBasicAuthUser(),
+                getBasicAuthPassword(), getPreemptiveAuthUser(), getPreemptiveAuthPassword(), getOAuth1Key(),
+                getOauth1Secret(), getOAuth1AccessToken(), getOAuth1SecretToken(), oAuth2Credentials.getClientId(),
+                oAuth2Credentials.getClientSecret(), oAuth2Credentials.getTokenIssuerURL(),
+                oAuth2Credentials.getScope(), getPoolSettings()).validate();
+    }
+
+    public String getBaseUri() {
+        String baseUri = ApplicationProperties.getValue(API_BASE_URL);
+        return this.baseUri == null ? baseUri : this.baseUri;
+    }
+
+    public void setBaseUri(String baseUri) {
+        this.baseUri = baseUri;
+    }
 
     public boolean isAuth() {
-        String isAuth = System.getenv(IS_AUTH) == null ? ApplicationProperties.getValue(IS_AUTH) : System.getenv(IS_AUTH);
+        String isAuth = ApplicationProperties.getValue(IS_AUTH);
         return isAuth == null ? this.isAuth : Boolean.parseBoolean(isAuth);
     }
 
@@ -53,10 +91,7 @@ public final class RestAssuredConfig {
     }
 
     public int getConnectionTimeout() {
-        int connectionTimeout = System.getenv(CONNECTION_TIMEOUT) == null
-                ? ApplicationProperties.getValue(CONNECTION_TIMEOUT) == null ? 9000
-                : Integer.parseInt(ApplicationProperties.getValue(CONNECTION_TIMEOUT))
-                : Integer.parseInt(System.getenv(CONNECTION_TIMEOUT));
+        int connectionTimeout = ApplicationProperties.getInt(CONNECTION_TIMEOUT, 9000);
         return connectionTimeout==0?this.connectionTimeout:connectionTimeout;
     }
 
@@ -65,9 +100,7 @@ public final class RestAssuredConfig {
     }
 
     public String getAuthType() {
-        String authType = System.getenv(AUTH_TYPE) == null
-                ? ApplicationProperties.getValue(AUTH_TYPE) == null ? AuthType.BASIC_AUTH : ApplicationProperties.getValue(AUTH_TYPE)
-                : System.getenv(AUTH_TYPE);
+        String authType = ApplicationProperties.getValue(AUTH_TYPE, AuthType.BASIC_AUTH);
         if (this.authType == null) {
             this.authType = authType;
         }
@@ -80,8 +113,7 @@ public final class RestAssuredConfig {
     }
 
     public String getHeaderAuthToken() {
-        String headerAuthToken = System.getenv(HEADER_AUTH_TOKEN) == null ? ApplicationProperties.getValue(HEADER_AUTH_TOKEN)
-                : System.getenv(HEADER_AUTH_TOKEN);
+        String headerAuthToken = ApplicationProperties.getValue(HEADER_AUTH_TOKEN);
         if (this.headerAuthToken == null) {
             this.headerAuthToken = headerAuthToken;
         }
@@ -93,8 +125,7 @@ public final class RestAssuredConfig {
     }
 
     public String getHeaderAuthName() {
-        String headerAuthName = System.getenv(HEADER_AUTH_NAME) == null ? ApplicationProperties.getValue(HEADER_AUTH_NAME)
-                : System.getenv(HEADER_AUTH_NAME);
+        String headerAuthName = ApplicationProperties.getValue(HEADER_AUTH_NAME);
         if (this.headerAuthName == null) {
             this.headerAuthName = headerAuthName;
         }
@@ -107,8 +138,7 @@ public final class RestAssuredConfig {
     }
 
     public String getHeaderAuthType() {
-        String headerAuthName = System.getenv(HEADER_AUTH_TYPE) == null ? ApplicationProperties.getValue(HEADER_AUTH_TYPE)
-                : System.getenv(HEADER_AUTH_TYPE);
+        String headerAuthName = ApplicationProperties.getValue(HEADER_AUTH_TYPE);
         if (this.headerAuthType == null) {
             this.headerAuthType = headerAuthName;
         }
@@ -120,8 +150,7 @@ public final class RestAssuredConfig {
     }
 
     public String getBasicAuthUser() {
-        String basicAuthUser = System.getenv(BASIC_AUTH_USER) == null ? ApplicationProperties.getValue(BASIC_AUTH_USER)
-                : System.getenv(BASIC_AUTH_USER);
+        String basicAuthUser = ApplicationProperties.getValue(BASIC_AUTH_USER);
         if (this.basicAuthUser == null) {
             this.basicAuthUser = basicAuthUser;
         }
@@ -133,8 +162,7 @@ public final class RestAssuredConfig {
     }
 
     public String getBasicAuthPassword() {
-        String basicAuthPassword = System.getenv(BASIC_AUTH_PASSWORD) == null ? ApplicationProperties.getValue(BASIC_AUTH_PASSWORD)
-                : System.getenv(BASIC_AUTH_PASSWORD);
+        String basicAuthPassword = ApplicationProperties.getValue(BASIC_AUTH_PASSWORD);
         if (this.basicAuthPassword == null) {
             this.basicAuthPassword = basicAuthPassword;
         }
@@ -147,8 +175,7 @@ public final class RestAssuredConfig {
 
     public String getPreemptiveAuthUser() {
         String preemptiveAuthUser =
-                System.getenv(PREEMPTIVE_AUTH_USER) == null ? ApplicationProperties.getValue(PREEMPTIVE_AUTH_USER)
-                        : System.getenv(PREEMPTIVE_AUTH_USER);
+                ApplicationProperties.getValue(PREEMPTIVE_AUTH_USER);
         if (this.preemptiveAuthUser == null) {
             this.preemptiveAuthUser = preemptiveAuthUser;
         }
@@ -161,8 +188,7 @@ public final class RestAssuredConfig {
 
     public String getPreemptiveAuthPassword() {
         String preemptiveAuthPassword =
-                System.getenv(PREEMPTIVE_AUTH_PASSWORD) == null ? ApplicationProperties.getValue(PREEMPTIVE_AUTH_PASSWORD)
-                        : System.getenv(PREEMPTIVE_AUTH_PASSWORD);
+                ApplicationProperties.getValue(PREEMPTIVE_AUTH_PASSWORD);
         if (this.preemptiveAuthPassword == null) {
             this.preemptiveAuthPassword = preemptiveAuthPassword;
         }
@@ -176,7 +202,7 @@ public final class RestAssuredConfig {
 
     public String getOAuth1Key() {
         String oAuth1Key =
-                System.getenv(OAUTH1_KEY) == null ? ApplicationProperties.getValue(OAUTH1_KEY) : System.getenv(OAUTH1_KEY);
+                ApplicationProperties.getValue(OAUTH1_KEY);
         if (this.oAuth1Key == null) {
             this.oAuth1Key = oAuth1Key;
         }
@@ -190,8 +216,7 @@ public final class RestAssuredConfig {
 
     public String getOauth1Secret() {
 
-        String oAuth1Secret = System.getenv(OAUTH1_SECRET) == null ? ApplicationProperties.getValue(OAUTH1_SECRET)
-                : System.getenv(OAUTH1_SECRET);
+        String oAuth1Secret = ApplicationProperties.getValue(OAUTH1_SECRET);
         if (this.oAuth1Secret == null) {
             this.oAuth1Secret = oAuth1Secret;
         }
@@ -204,8 +229,7 @@ public final class RestAssuredConfig {
     }
 
     public String getOAuth1SecretToken() {
-        String oAuth1SecretToken = System.getenv(OAUTH1_SECRET_TOKEN) == null ? ApplicationProperties.getValue(OAUTH1_SECRET_TOKEN)
-                : System.getenv(OAUTH1_SECRET_TOKEN);
+        String oAuth1SecretToken = ApplicationProperties.getValue(OAUTH1_SECRET_TOKEN);
         if (this.oAuth1SecretToken == null) {
             this.oAuth1SecretToken = oAuth1SecretToken;
         }
@@ -219,8 +243,7 @@ public final class RestAssuredConfig {
     }
 
     public String getOAuth1AccessToken() {
-        String oAuth1AccessToken = System.getenv(OAUTH1_ACCESS_TOKEN) == null ? ApplicationProperties.getValue(OAUTH1_ACCESS_TOKEN)
-                : System.getenv(OAUTH1_ACCESS_TOKEN);
+        String oAuth1AccessToken = ApplicationProperties.getValue(OAUTH1_ACCESS_TOKEN);
         if (this.oAuth1AccessToken == null) {
             this.oAuth1AccessToken = oAuth1AccessToken;
         }
@@ -232,4 +255,27 @@ public final class RestAssuredConfig {
         this.oAuth1AccessToken = oAuth1AccessToken;
     }
 
+    /**
+     * Shared http connection pool settings, all values are in milliseconds
+     * except the connection counts.
+     *
+     * @return {@link HttpConnectionPool.Settings} The pool settings.
+     */
+    public HttpConnectionPool.Settings getPoolSettings() {
+        if (this.poolSettings == null) {
+            HttpConnectionPool.Settings defaults = HttpConnectionPool.Settings.DEFAULT;
+            this.poolSettings = new HttpConnectionPool.Settings(
+                    ApplicationProperties.getInt(HTTP_POOL_MAX_TOTAL, defaults.maxTotal()),
+                    ApplicationProperties.getInt(HTTP_POOL_MAX_PER_ROUTE, defaults.maxPerRoute()),
+                    ApplicationProperties.getLong(HTTP_POOL_IDLE_TIMEOUT, defaults.idleTimeoutMillis()),
+                    ApplicationProperties.getLong(HTTP_POOL_VALIDATE_AFTER_INACTIVITY, defaults.validateAfterInactivityMillis()),
+                    ApplicationProperties.getLong(HTTP_KEEP_ALIVE, defaults.keepAliveMillis()));
+        }
+        return this.poolSettings;
+    }
+
+    public void setPoolSettings(HttpConnectionPool.Settings poolSettings) {
+        this.poolSettings = poolSettings;
+    }
+
 }
@@ -1,7 +1,9 @@
 package com.threeylos.core.api.config;
 
-import com.threeylos.core.api.model.OAuth2Credentials;
+import com.threeylos.core.api.vcr.Vcr;
 import com.threeylos.core.constant.AuthType;
+import com.threeylos.core.util.api.RequestFilterPipeline;
+import com.threeylos.core.util.api.ResponseBufferingFilter;
 import com.threeylos.core.util.common.StringUtil;
 import io.restassured.RestAssured;
 import io.restassured.authentication.OAuthSignature;
@@ -10,21 +12,55 @@ import io.restassured.config.HttpClientConfig;
 import io.restassured.specification.RequestSpecification;
 import lombok.extern.log4j.Log4j2;
 
-import static com.threeylos.core.api.config.ApiConfig.setApiConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Load and Build rest-assured configuration.
+ * <p>
+ * The base {@link RequestSpecification} (base URI, auth, timeouts, the
+ * proxy of {@link ApiConfig#getProxy()} and the pooled
+ * {@link HttpConnectionPool} http client) is built
+ * once per resolved configuration and cached. Every request then starts from a
+ * copy of the cached base specification instead of building it from scratch.
+ * </p>
+ * <p>
+ * The context owns everything a request needs: base URI, http client
+ * configuration, auth and the filters of its {@link RequestFilterPipeline}.
+ * None of the rest-assured statics ({@code RestAssured.baseURI},
+ * {@code RestAssured.config}, the global filter list) are written, so
+ * contexts of parallel scenarios can point at different hosts.
+ * </p>
  *
  * @author AbhinitKumar
  */
 @Log4j2
 public class RestAssuredContext {
 
-    private static final String CONNECTION_MANAGER_TIMEOUT = "CONNECTION_MANAGER_TIMEOUT";
-    private final RestAssuredConfig restAssuredConfig;
+    private static final String CONNECTION_TIMEOUT = "http.connection.timeout";
+    private static final String SOCKET_TIMEOUT = "http.socket.timeout";
+    private static final String CONNECTION_MANAGER_TIMEOUT = "http.conn-manager.timeout";
+
+    /**
+     * Immutable base specifications by resolved configuration.
+     */
+    private static final Map<RestAssuredSettings, RequestSpecification> SPEC_CACHE = new ConcurrentHashMap<>();
+
+    private final RestAssuredSettings settings;
+
+    private final RequestFilterPipeline filterPipeline;
 
     public RestAssuredContext(RestAssuredConfig restAssuredConfig) {
-        this.restAssuredConfig = restAssuredConfig;
+        this(restAssuredConfig.resolve(), RequestFilterPipeline.defaultPipeline());
+    }
+
+    public RestAssuredContext(RestAssuredConfig restAssuredConfig, RequestFilterPipeline filterPipeline) {
+        this(restAssuredConfig.resolve(), filterPipeline);
+    }
+
+    public RestAssuredContext(RestAssuredSettings settings, RequestFilterPipeline filterPipeline) {
+        this.settings = settings;
+        this.filterPipeline = filterPipeline;
     }
 
     /**
@@ -33,16 +69,74 @@ public class RestAssuredContext {
      * @return {@link RequestSpecification} The assembled request specification.
      */
     public RequestSpecification build() {
-        setApiConfig();
-        RestAssured.config()
-                .httpClient(HttpClientConfig.httpClientConfig()
-                        .setParam(CONNECTION_MANAGER_TIMEOUT, restAssuredConfig.getConnectionTimeout()));
-        log.debug("Http-Request time-out: {}", restAssuredConfig.getConnectionTimeout());
-
-        final RequestSpecBuilder requestSpecBuilder = new RequestSpecBuilder();
-        final RequestSpecification requestSpecification = RestAssured.given();
-        auth(requestSpecification, requestSpecBuilder);
+        final RequestSpecification baseSpec = SPEC_CACHE.computeIfAbsent(settings, key -> createBaseSpec());
+        final RequestSpecification requestSpecification = RestAssured.given().spec(baseSpec)
+                .filters(filterPipeline.getFilters());
+        if (settings.isAuth() && AuthType.OAUTH2.equals(settings.authType()) && !Vcr.getInstance().isPlayback()) {
+            // OAuth2 tokens expire, so they are never baked into the cached base specification.
+            // Playback answers from the cassette, fetching a token would be the only network call.
+            String token = OAuth2TokenCache.getInstance().getToken(settings.oAuth2Credentials(), true);
+            new ApiAuthContext(requestSpecification, null).oAuth2(token);
+        }
+        return requestSpecification;
+    }
+
+    /**
+     * @return The resolved configuration of this context.
+     */
+    public RestAssuredSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return The filters applied to every request of this context.
+     */
+    public RequestFilterPipeline getFilterPipeline() {
+        return filterPipeline;
+    }
+
+    /**
+     * Returns {@code true} when both contexts resolve to the same base specification.
+     *
+     * @param other The context to compare with.
+     */
+    public boolean hasSameSettings(RestAssuredContext other) {
+        return other != null && settings.equals(other.settings);
+    }
 
+    /**
+     * Evict the cached base specification of this context, the next request rebuilds it.
+     */
+    public void invalidate() {
+        if (SPEC_CACHE.remove(settings) != null) {
+            log.debug("Evicted cached request specification for: {}", settings);
+        }
+    }
+
+    /**
+     * Evict all cached base specifications.
+     */
+    public static void clearCache() {
+        SPEC_CACHE.clear();
+    }
+
+    private RequestSpecification createBaseSpec() {
+        log.debug("Building request specification for: {}", settings);
+        final HttpConnectionPool connectionPool = HttpConnectionPool.forSettings(settings.poolSettings());
+        final RequestSpecBuilder requestSpecBuilder = new RequestSpecBuilder()
+                .setConfig(io.restassured.config.RestAssuredConfig.config()
+                        .httpClient(HttpClientConfig.httpClientConfig()
+                                .httpClientFactory(connectionPool::createHttpClient)
+                                .setParam(CONNECTION_TIMEOUT, settings.connectionTimeout())
+                                .setParam(SOCKET_TIMEOUT, settings.connectionTimeout())
+                                .setParam(CONNECTION_MANAGER_TIMEOUT, (long) settings.connectionTimeout())))
+                .addFilter(new ResponseBufferingFilter());
+        if (settings.baseUri() != null) {
+            requestSpecBuilder.setBaseUri(settings.baseUri());
+        }
+        ApiConfig.getProxy().ifPresent(requestSpecBuilder::setProxy);
+        final RequestSpecification requestSpecification = requestSpecBuilder.build();
+        auth(requestSpecification, requestSpecBuilder);
         return requestSpecification;
     }
 
@@ -54,44 +148,41 @@ public class RestAssuredContext {
      */
     private void auth(RequestSpecification requestSpecification, RequestSpecBuilder requestSpecBuilder) {
 
-        if (restAssuredConfig.isAuth()) {
+        if (settings.isAuth()) {
 
-            String authType = restAssuredConfig.getAuthType();
+            String authType = settings.authType();
             if (authType != null && !StringUtil.isEmpty(authType)) {
                 ApiAuthContext apiAuthUtil = new ApiAuthContext(requestSpecification, requestSpecBuilder);
 
                 switch (authType) {
                     case AuthType.HEADER_AUTH -> {
-                        apiAuthUtil.headerAuth(restAssuredConfig.getHeaderAuthName(), restAssuredConfig.getHeaderAuthType(),
-                                restAssuredConfig.getHeaderAuthToken());
+                        apiAuthUtil.headerAuth(settings.headerAuthName(), settings.headerAuthType(),
+                                settings.headerAuthToken());
                         log.trace("Header auth by headerName: {} and headerValue: {}",
-                                restAssuredConfig.getHeaderAuthType(), restAssuredConfig.getHeaderAuthToken());
+                                settings.headerAuthType(), settings.headerAuthToken());
                     }
                     case AuthType.BASIC_AUTH -> {
-                        apiAuthUtil.basicAuth(restAssuredConfig.getBasicAuthUser(),
-                                restAssuredConfig.getBasicAuthPassword());
-                        log.trace("Base auth by userName: {} and password: {}", restAssuredConfig.getBasicAuthUser(),
-                                restAssuredConfig.getBasicAuthPassword());
+                        apiAuthUtil.basicAuth(settings.basicAuthUser(),
+                                settings.basicAuthPassword());
+                        log.trace("Base auth by userName: {} and password: {}", settings.basicAuthUser(),
+                                settings.basicAuthPassword());
                     }
                     case AuthType.PREEMPTIVE_AUTH -> {
-                        apiAuthUtil.preemptiveAuth(restAssuredConfig.getPreemptiveAuthUser(),
-                                restAssuredConfig.getPreemptiveAuthUser());
+                        apiAuthUtil.preemptiveAuth(settings.preemptiveAuthUser(),
+                                settings.preemptiveAuthPassword());
                         log.trace("Preemptive auth by userName: {} and password: {}",
-                                restAssuredConfig.getPreemptiveAuthUser(), restAssuredConfig.getPreemptiveAuthPassword());
+                                settings.preemptiveAuthUser(), settings.preemptiveAuthPassword());
                     }
                     case AuthType.OAUTH1 -> {
-                        apiAuthUtil.oAuth1(restAssuredConfig.getOAuth1Key(), restAssuredConfig.getOauth1Secret(),
-                                restAssuredConfig.getOAuth1AccessToken(), restAssuredConfig.getOAuth1SecretToken(),
+                        apiAuthUtil.oAuth1(settings.oAuth1Key(), settings.oAuth1Secret(),
+                                settings.oAuth1AccessToken(), settings.oAuth1SecretToken(),
                                 OAuthSignature.HEADER);
                         log.trace("OAuth1 key: {} secret:{} accessToken:{} secretToken:{} and oAuthSignature:{}",
-                                restAssuredConfig.getOAuth1Key(), restAssuredConfig.getOauth1Secret(),
-                                restAssuredConfig.getOAuth1AccessToken(), restAssuredConfig.getOAuth1SecretToken(),
+                                settings.oAuth1Key(), settings.oAuth1Secret(),
+                                settings.oAuth1AccessToken(), settings.oAuth1SecretToken(),
                                 OAuthSignature.HEADER);
                     }
-                    case AuthType.OAUTH2 -> {
-                        OAuth2 auth = new OAuth2(new OAuth2Credentials(), true);
-                        apiAuthUtil.oAuth2(auth.getToken());
-                    }
+                    case AuthType.OAUTH2 -> log.trace("OAuth2 token is applied per request");
                     default -> log.info("Authentication is skipping due authType: {} is not supporting", authType);
                 }
             }
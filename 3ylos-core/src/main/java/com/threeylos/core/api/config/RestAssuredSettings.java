@@ -0,0 +1,187 @@
+package com.threeylos.core.api.config;
+
+import com.threeylos.core.api.model.OAuth2Credentials;
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.constant.AuthType;
+import com.threeylos.core.util.common.StringUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable, validated rest-assured configuration.
+ * <p>
+ * Environment variables and application properties are looked up once by
+ * {@link RestAssuredConfig#resolve()}, requests only read the fields of the
+ * snapshot. The snapshot of the default configuration is shared by all threads
+ * through {@link #current()} and is replaced whenever the application
+ * properties are reloaded.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public record RestAssuredSettings(String baseUri, boolean isAuth, int connectionTimeout, String authType,
+                                  String headerAuthName, String headerAuthType, String headerAuthToken,
+                                  String basicAuthUser, String basicAuthPassword,
+                                  String preemptiveAuthUser, String preemptiveAuthPassword,
+                                  String oAuth1Key, String oAuth1Secret, String oAuth1AccessToken,
+                                  String oAuth1SecretToken,
+                                  String oAuth2ClientId, String oAuth2ClientSecret, String oAuth2TokenUrl,
+                                  String oAuth2Scope,
+                                  HttpConnectionPool.Settings poolSettings) {
+
+    private static final Set<String> AUTH_TYPES = Set.of(AuthType.HEADER_AUTH, AuthType.BASIC_AUTH,
+            AuthType.PREEMPTIVE_AUTH, AuthType.OAUTH1, AuthType.OAUTH2);
+
+    private static volatile RestAssuredSettings current;
+
+    static {
+        ApplicationProperties.addListener(snapshot -> {
+            try {
+                refresh();
+            } catch (IllegalStateException ex) {
+                log.warn("Reloaded configuration is invalid, the previous one stays active: {}", ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return The validated default configuration, resolved on first use.
+     */
+    public static RestAssuredSettings current() {
+        RestAssuredSettings settings = current;
+        if (settings == null) {
+            synchronized (RestAssuredSettings.class) {
+                settings = current;
+                if (settings == null) {
+                    settings = new RestAssuredConfig().resolve();
+                    current = settings;
+                }
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Re-read the application properties and resolve the default configuration
+     * again, requests started afterwards use the new snapshot.
+     *
+     * @return The new default configuration.
+     * @throws IllegalStateException when the new configuration is invalid, the previous one stays active.
+     */
+    public static RestAssuredSettings reload() {
+        ApplicationProperties.reload();
+        return refresh();
+    }
+
+    private static synchronized RestAssuredSettings refresh() {
+        RestAssuredSettings settings = new RestAssuredConfig().resolve();
+        if (!settings.equals(current)) {
+            log.info("Rest-assured configuration reloaded: {}", settings);
+            RestAssuredContext.clearCache();
+        }
+        current = settings;
+        return settings;
+    }
+
+    /**
+     * A copy of this configuration sending requests to another host, e.g. to
+     * point the scenarios of one thread at a different environment.
+     *
+     * @param baseUri The absolute base url.
+     * @return The validated copy.
+     */
+    public RestAssuredSettings withBaseUri(String baseUri) {
+        return new RestAssuredSettings(baseUri, isAuth, connectionTimeout, authType,
+                headerAuthName, headerAuthType, headerAuthToken, basicAuthUser, basicAuthPassword,
+                preemptiveAuthUser, preemptiveAuthPassword, oAuth1Key, oAuth1Secret, oAuth1AccessToken,
+                oAuth1SecretToken, oAuth2ClientId, oAuth2ClientSecret, oAuth2TokenUrl, oAuth2Scope,
+                poolSettings).validate();
+    }
+
+    /**
+     * @return The OAuth2 client credentials of this configuration.
+     */
+    public OAuth2Credentials oAuth2Credentials() {
+        return new OAuth2Credentials(oAuth2ClientId, oAuth2ClientSecret, oAuth2TokenUrl, oAuth2Scope);
+    }
+
+    /**
+     * Check the configuration for missing or invalid values.
+     *
+     * @return This configuration.
+     * @throws IllegalStateException listing all problems found.
+     */
+    public RestAssuredSettings validate() {
+        List<String> problems = new ArrayList<>();
+        if (connectionTimeout <= 0) {
+            problems.add("CONNECTION_TIMEOUT must be positive but was " + connectionTimeout);
+        }
+        if (baseUri != null) {
+            try {
+                URI uri = URI.create(baseUri);
+                if (uri.getScheme() == null || uri.getHost() == null) {
+                    problems.add("API_BASE_URL must be an absolute url but was " + baseUri);
+                }
+            } catch (IllegalArgumentException ex) {
+                problems.add("API_BASE_URL is not a valid url: " + ex.getMessage());
+            }
+        }
+        if (poolSettings.maxTotal() <= 0 || poolSettings.maxPerRoute() <= 0
+                || poolSettings.maxPerRoute() > poolSettings.maxTotal()) {
+            problems.add("HTTP_POOL_MAX_PER_ROUTE must be between 1 and HTTP_POOL_MAX_TOTAL but was "
+                    + poolSettings.maxPerRoute() + " of " + poolSettings.maxTotal());
+        }
+        if (isAuth) {
+            validateAuth(problems);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid rest-assured configuration: " + String.join("; ", problems));
+        }
+        return this;
+    }
+
+    private void validateAuth(List<String> problems) {
+        if (StringUtil.isEmpty(authType) || !AUTH_TYPES.contains(authType)) {
+            problems.add("AUTH_TYPE must be one of " + AUTH_TYPES + " but was " + authType);
+            return;
+        }
+        switch (authType) {
+            case AuthType.HEADER_AUTH -> require(problems, "HEADER_AUTH_NAME", headerAuthName,
+                    "HEADER_AUTH_TOKEN", headerAuthToken);
+            case AuthType.BASIC_AUTH -> require(problems, "BASIC_AUTH_USER", basicAuthUser,
+                    "BASIC_AUTH_PASSWORD", basicAuthPassword);
+            case AuthType.PREEMPTIVE_AUTH -> require(problems, "PREEMPTIVE_AUTH_USER", preemptiveAuthUser,
+                    "PREEMPTIVE_AUTH_PASSWORD", preemptiveAuthPassword);
+            case AuthType.OAUTH1 -> {
+                require(problems, "OAUTH1_KEY", oAuth1Key, "OAUTH1_SECRET", oAuth1Secret);
+                require(problems, "OAUTH1_ACCESS_TOKEN", oAuth1AccessToken, "OAUTH1_SECRET_TOKEN", oAuth1SecretToken);
+            }
+            case AuthType.OAUTH2 -> require(problems, "OAUTH2_CLIENT_ID", oAuth2ClientId,
+                    "OAUTH2_TOKEN_URL", oAuth2TokenUrl);
+            default -> {
+                // all auth types are covered above
+            }
+        }
+    }
+
+    private static void require(List<String> problems, String firstKey, String firstValue, String secondKey,
+                                String secondValue) {
+        if (StringUtil.isEmpty(firstValue)) {
+            problems.add(firstKey + " is required");
+        }
+        if (StringUtil.isEmpty(secondValue)) {
+            problems.add(secondKey + " is required");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RestAssuredSettings(baseUri=" + baseUri + ", isAuth=" + isAuth + ", connectionTimeout="
+                + connectionTimeout + ", authType=" + authType + ", poolSettings=" + poolSettings + ")";
+    }
+}
@@ -11,7 +11,7 @@ public class TokenConfig {
 	private static final String TOKEN = "token";
 
 	public String getToken() {
-		return System.getenv(TOKEN) == null ? ApplicationProperties.getValue(TOKEN) : System.getenv(TOKEN);
+		return ApplicationProperties.getValue(TOKEN);
 	}
 
 }
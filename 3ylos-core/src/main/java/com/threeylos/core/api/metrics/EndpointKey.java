@@ -0,0 +1,52 @@
+package com.threeylos.core.api.metrics;
+
+/**
+ * Identifies the latency histogram of an endpoint.
+ *
+ * @param target       Name of the {@link com.threeylos.core.api.config.ApiTarget}, empty with a single target.
+ * @param method       The http method.
+ * @param pathTemplate The path before path params are applied, e.g. {@code /hmwk/homeworks/{homeworkId}}.
+ * @param statusClass  Class of the response status, e.g. {@code 2xx}, or {@code ERR} when no response was received.
+ * @author AbhinitKumar
+ */
+public record EndpointKey(String target, String method, String pathTemplate, String statusClass)
+        implements Comparable<EndpointKey> {
+
+    public static final String NO_RESPONSE = "ERR";
+
+    public static EndpointKey of(String method, String pathTemplate, int statusCode) {
+        return of("", method, pathTemplate, statusCode);
+    }
+
+    public static EndpointKey of(String target, String method, String pathTemplate, int statusCode) {
+        return new EndpointKey(target, method, pathTemplate,
+                statusCode <= 0 ? NO_RESPONSE : (statusCode / 100) + "xx");
+    }
+
+    /**
+     * @return Whether the request failed, i.e. no response or a status of 400 and above.
+     */
+    public boolean isError() {
+        return NO_RESPONSE.equals(statusClass) || statusClass.startsWith("4") || statusClass.startsWith("5");
+    }
+
+    /**
+     * Keys of the same endpoint sort next to each other, ordered by status class and then by target.
+     */
+    @Override
+    public int compareTo(EndpointKey other) {
+        int result = pathTemplate.compareTo(other.pathTemplate);
+        if (result == 0) {
+            result = method.compareTo(other.method);
+        }
+        if (result == 0) {
+            result = statusClass.compareTo(other.statusClass);
+        }
+        return result == 0 ? target.compareTo(other.target) : result;
+    }
+
+    @Override
+    public String toString() {
+        return (target.isEmpty() ? "" : target + " ") + method + " " + pathTemplate + " " + statusClass;
+    }
+}
@@ -0,0 +1,240 @@
+package com.threeylos.core.api.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed log-linear buckets in microseconds.
+ * <p>
+ * Like an HDR histogram every power of two range is split into 64 equal
+ * buckets, so values are recorded with a relative error below 1.6% from one
+ * microsecond up to {@link #MAX_TRACKABLE_MICROS}. Recording is a single atomic
+ * increment on one of several stripes to spread contention between threads.
+ * Histograms share the same bucket layout and can be merged without loss.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values are exact below this, bucketed above.
+     */
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+
+    private static final int MAX_EXPONENT = 36;
+
+    /**
+     * Larger values are recorded as this value, about 19 hours.
+     */
+    public static final long MAX_TRACKABLE_MICROS = (1L << MAX_EXPONENT) - 1;
+
+    /**
+     * Number of buckets of every histogram, the length of {@link #getCounts()}.
+     */
+    public static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+    private static final int STRIPES = Math.min(4, Integer.highestOneBit(Math.max(1,
+            Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sumMicros = new LongAdder();
+
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    private final LongAccumulator firstNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    private final LongAccumulator lastNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+    }
+
+    /**
+     * Record a single latency.
+     *
+     * @param durationNanos The latency in nanoseconds.
+     */
+    public void record(long durationNanos) {
+        long micros = Math.min(MAX_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(durationNanos)));
+        long now = System.nanoTime();
+        stripes[(int) (Thread.currentThread().getId() & (STRIPES - 1))].incrementAndGet(bucketIndex(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+        firstNanos.accumulate(now - durationNanos);
+        lastNanos.accumulate(now);
+    }
+
+    /**
+     * Add all recordings of another histogram to this one.
+     *
+     * @param other The histogram to merge.
+     */
+    public void merge(LatencyHistogram other) {
+        Snapshot snapshot = other.snapshot();
+        add(snapshot.counts(), snapshot.sumMicros(), snapshot.maxMicros());
+        if (snapshot.count() > 0) {
+            firstNanos.accumulate(other.firstNanos.get());
+            lastNanos.accumulate(other.lastNanos.get());
+        }
+    }
+
+    /**
+     * Add raw bucket counts, e.g. received from another JVM.
+     *
+     * @param counts    Bucket counts with the layout of {@link #getCounts()}.
+     * @param sumMicros Sum of the recorded values.
+     * @param maxMicros Largest recorded value.
+     */
+    public void add(long[] counts, long sumMicros, long maxMicros) {
+        AtomicLongArray stripe = stripes[0];
+        long total = 0;
+        for (int i = 0; i < Math.min(counts.length, BUCKET_COUNT); i++) {
+            if (counts[i] != 0) {
+                stripe.addAndGet(i, counts[i]);
+                total += counts[i];
+            }
+        }
+        count.add(total);
+        this.sumMicros.add(sumMicros);
+        this.maxMicros.accumulate(maxMicros);
+    }
+
+    /**
+     * @return Merged bucket counts of all stripes.
+     */
+    public long[] getCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return counts;
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = getCounts();
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        long first = firstNanos.get();
+        long last = lastNanos.get();
+        return new Snapshot(counts, total, sumMicros.sum(), maxMicros.get(),
+                total == 0 || last <= first ? 0 : last - first);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (micros >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Point in time copy of a histogram.
+     *
+     * @param counts      Bucket counts.
+     * @param count       Number of recorded values.
+     * @param sumMicros   Sum of the recorded values.
+     * @param maxMicros   Largest recorded value.
+     * @param spanNanos   Time between the start of the first and the end of the last recorded request.
+     */
+    public record Snapshot(long[] counts, long count, long sumMicros, long maxMicros, long spanNanos) {
+
+        /**
+         * @param percentile Percentile between 0 and 100.
+         * @return Highest value below which the percentile of recordings fall, in microseconds.
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        /**
+         * Combine with the snapshot of a histogram recorded over the same time,
+         * e.g. by another worker of a distributed load run. Both share the
+         * bucket layout, so the counts are added without loss. The span is the
+         * longer one of both spans.
+         *
+         * @param other The other snapshot.
+         * @return The combined snapshot.
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = Arrays.copyOf(counts, Math.max(counts.length, other.counts.length));
+            for (int i = 0; i < other.counts.length; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, sumMicros + other.sumMicros,
+                    Math.max(maxMicros, other.maxMicros), Math.max(spanNanos, other.spanNanos));
+        }
+
+        /**
+         * Largest difference between the cumulative distributions of both
+         * snapshots (Kolmogorov-Smirnov distance), 0 for the same distribution
+         * and 1 when all values of one are below all values of the other.
+         *
+         * @param other The other snapshot.
+         * @return The distance between 0 and 1, 0 when either snapshot is empty.
+         */
+        public double distance(Snapshot other) {
+            if (count == 0 || other.count == 0) {
+                return 0;
+            }
+            long seen = 0;
+            long otherSeen = 0;
+            double distance = 0;
+            for (int i = 0; i < Math.max(counts.length, other.counts.length); i++) {
+                seen += i < counts.length ? counts[i] : 0;
+                otherSeen += i < other.counts.length ? other.counts[i] : 0;
+                distance = Math.max(distance, Math.abs((double) seen / count - (double) otherSeen / other.count));
+            }
+            return distance;
+        }
+
+        public double meanMicros() {
+            return count == 0 ? 0 : (double) sumMicros / count;
+        }
+
+        /**
+         * @return Requests per second over the recorded span.
+         */
+        public double throughput() {
+            return spanNanos == 0 ? 0 : count / (spanNanos / 1_000_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.threeylos.core.api.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide latency histograms per {@link EndpointKey}.
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class LatencyRegistry {
+
+    private static final String API_METRICS_ENABLED = "API_METRICS_ENABLED";
+    private static final String API_METRICS_DIR = "API_METRICS_DIR";
+
+    private static final String REPORT_NAME = "api-latency";
+
+    private static final LatencyRegistry INSTANCE = new LatencyRegistry();
+
+    private final Map<EndpointKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    private final Path reportDirectory;
+
+    private LatencyRegistry() {
+        this.enabled = ApplicationProperties.getBoolean(API_METRICS_ENABLED, true);
+        this.reportDirectory = Paths.get(ApplicationProperties.getValue(API_METRICS_DIR, "target").trim());
+    }
+
+    public static LatencyRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record the latency of a request.
+     *
+     * @param key           The endpoint.
+     * @param durationNanos The latency in nanoseconds.
+     */
+    public void record(EndpointKey key, long durationNanos) {
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(durationNanos);
+    }
+
+    public Path getReportDirectory() {
+        return reportDirectory;
+    }
+
+    public LatencyHistogram getHistogram(EndpointKey key) {
+        return histograms.get(key);
+    }
+
+    /**
+     * @return Snapshots of all histograms sorted by endpoint.
+     */
+    public Map<EndpointKey, LatencyHistogram.Snapshot> snapshot() {
+        Map<EndpointKey, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((key, histogram) -> snapshots.put(key, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Drop all recorded latencies.
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Write the latency report as {@code api-latency.json} and {@code api-latency.txt}
+     * to {@code API_METRICS_DIR} ({@code target} by default). With several api
+     * targets the comparison by target is written to {@code api-latency-targets.*}.
+     */
+    public void writeReport() {
+        writeReport(reportDirectory, REPORT_NAME, snapshot());
+    }
+
+    /**
+     * Write a latency report of the snapshots as json and as a text table.
+     *
+     * @param directory The report directory.
+     * @param name      The report file name without extension.
+     * @param snapshots The histograms to report.
+     */
+    public static void writeReport(Path directory, String name, Map<EndpointKey, LatencyHistogram.Snapshot> snapshots) {
+        writeReport(directory, name, "Api latency", snapshots);
+    }
+
+    /**
+     * Write a report of the snapshots as json and as a text table.
+     *
+     * @param directory The report directory.
+     * @param name      The report file name without extension.
+     * @param title     What the histograms measure, the title of the logged tables.
+     * @param snapshots The histograms to report.
+     */
+    public static void writeReport(Path directory, String name, String title,
+                                   Map<EndpointKey, LatencyHistogram.Snapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        List<LatencyReport.Row> rows = LatencyReport.rows(snapshots);
+        String table = LatencyReport.table(rows);
+        write(directory, name, rows, table);
+        log.info("{}:\n{}", title, table);
+        List<LatencyReport.TargetRow> targetRows = LatencyReport.targetRows(snapshots);
+        if (!targetRows.isEmpty()) {
+            String targetTable = LatencyReport.targetTable(targetRows);
+            write(directory, name + "-targets", targetRows, targetTable);
+            log.info("{} by target:\n{}", title, targetTable);
+        }
+    }
+
+    private static void write(Path directory, String name, List<?> rows, String table) {
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve(name + ".json").toFile(), rows);
+            Files.writeString(directory.resolve(name + ".txt"), table);
+        } catch (IOException ex) {
+            log.warn("Writing latency report to {} failed", directory, ex);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.threeylos.core.api.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Formats latency histograms as report rows and as a text table, latencies are in milliseconds.
+ *
+ * @author AbhinitKumar
+ */
+public final class LatencyReport {
+
+    private static final String ROW_FORMAT = "%-8s %-48s %-6s %9s %9s %9s %9s %9s %9s %9s %9s%n";
+
+    private static final String TARGET_ROW_FORMAT = "%-8s %-48s %-12s %9s %9s %9s %9s %9s %9s %9s%n";
+
+    private LatencyReport() {
+    }
+
+    public static List<Row> rows(Map<EndpointKey, LatencyHistogram.Snapshot> snapshots) {
+        List<Row> rows = new ArrayList<>(snapshots.size());
+        snapshots.forEach((key, snapshot) -> rows.add(Row.of(key, snapshot)));
+        return rows;
+    }
+
+    public static String table(List<Row> rows) {
+        boolean targets = rows.stream().anyMatch(row -> !row.target().isEmpty());
+        String rowFormat = targets ? "%-12s " + ROW_FORMAT : ROW_FORMAT;
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, rowFormat, columns(targets, "TARGET", "METHOD", "ENDPOINT",
+                "STATUS", "COUNT", "RPS", "MEAN", "P50", "P90", "P99", "P99.9", "MAX")));
+        for (Row row : rows) {
+            builder.append(String.format(Locale.ROOT, rowFormat, columns(targets, row.target(), row.method(),
+                    row.endpoint(), row.status(), row.count(), format(row.throughput()), format(row.mean()),
+                    format(row.p50()), format(row.p90()), format(row.p99()), format(row.p999()),
+                    format(row.max()))));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * One row per endpoint and target over all status classes, so the targets
+     * of an endpoint are listed next to each other.
+     *
+     * @param snapshots Histograms keyed by target.
+     * @return The comparison rows, empty when no key has a target.
+     */
+    public static List<TargetRow> targetRows(Map<EndpointKey, LatencyHistogram.Snapshot> snapshots) {
+        Map<EndpointKey, LatencyHistogram> merged = new TreeMap<>();
+        Map<EndpointKey, Long> errors = new TreeMap<>();
+        snapshots.forEach((key, snapshot) -> {
+            if (key.target().isEmpty()) {
+                return;
+            }
+            EndpointKey endpoint = new EndpointKey(key.target(), key.method(), key.pathTemplate(), "");
+            merged.computeIfAbsent(endpoint, k -> new LatencyHistogram())
+                    .add(snapshot.counts(), snapshot.sumMicros(), snapshot.maxMicros());
+            errors.merge(endpoint, key.isError() ? snapshot.count() : 0L, Long::sum);
+        });
+        List<TargetRow> rows = new ArrayList<>(merged.size());
+        merged.forEach((endpoint, histogram) -> rows.add(TargetRow.of(endpoint, histogram.snapshot(),
+                errors.get(endpoint))));
+        return rows;
+    }
+
+    public static String targetTable(List<TargetRow> rows) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, TARGET_ROW_FORMAT, "METHOD", "ENDPOINT", "TARGET", "COUNT",
+                "ERRORS", "ERROR%", "MEAN", "P50", "P90", "P99"));
+        for (TargetRow row : rows) {
+            builder.append(String.format(Locale.ROOT, TARGET_ROW_FORMAT, row.method(), row.endpoint(), row.target(),
+                    row.count(), row.errors(), format(row.errorRate() * 100), format(row.mean()),
+                    format(row.p50()), format(row.p90()), format(row.p99())));
+        }
+        return builder.toString();
+    }
+
+    private static Object[] columns(boolean target, Object... values) {
+        if (target) {
+            return values;
+        }
+        Object[] columns = new Object[values.length - 1];
+        System.arraycopy(values, 1, columns, 0, columns.length);
+        return columns;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Latency summary of one endpoint.
+     */
+    public record Row(String target, String method, String endpoint, String status, long count, double throughput,
+                      double mean, double p50, double p90, double p99, double p999, double max) {
+
+        public static Row of(EndpointKey key, LatencyHistogram.Snapshot snapshot) {
+            return new Row(key.target(), key.method(), key.pathTemplate(), key.statusClass(), snapshot.count(),
+                    snapshot.throughput(), snapshot.meanMicros() / 1000.0,
+                    millis(snapshot.percentile(50)), millis(snapshot.percentile(90)),
+                    millis(snapshot.percentile(99)), millis(snapshot.percentile(99.9)),
+                    millis(snapshot.maxMicros()));
+        }
+    }
+
+    /**
+     * Latency and error rate of one endpoint on one target.
+     */
+    public record TargetRow(String method, String endpoint, String target, long count, long errors,
+                            double errorRate, double mean, double p50, double p90, double p99) {
+
+        public static TargetRow of(EndpointKey key, LatencyHistogram.Snapshot snapshot, long errors) {
+            return new TargetRow(key.method(), key.pathTemplate(), key.target(), snapshot.count(), errors,
+                    snapshot.count() == 0 ? 0 : (double) errors / snapshot.count(), snapshot.meanMicros() / 1000.0,
+                    millis(snapshot.percentile(50)), millis(snapshot.percentile(90)),
+                    millis(snapshot.percentile(99)));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.threeylos.core.api.metrics;
+
+import com.threeylos.core.api.config.ApiTarget;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Records the latency of every request in the {@link LatencyRegistry} by
+ * method, path template and status class.
+ * <p>
+ * With several {@link ApiTarget}s the latency is also keyed by the target
+ * the request was sent to, and the path template is relative to the target
+ * base url so the same endpoint of all targets can be compared.
+ * </p>
+ * <p>
+ * Runs right outside of the response buffering, so the latency covers sending
+ * the request and reading the whole response body but no other filter.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public class LatencyTimingFilter implements OrderedFilter {
+
+    /**
+     * Just before the response buffering filter.
+     */
+    public static final int ORDER = LOWEST_PRECEDENCE - 1;
+
+    private static final Pattern SCHEME_AND_AUTHORITY = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/]*");
+
+    private final LatencyRegistry registry;
+
+    public LatencyTimingFilter() {
+        this(LatencyRegistry.getInstance());
+    }
+
+    public LatencyTimingFilter(LatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        if (!registry.isEnabled()) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        long start = System.nanoTime();
+        int statusCode = 0;
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            statusCode = response.getStatusCode();
+            return response;
+        } finally {
+            long duration = System.nanoTime() - start;
+            Optional<ApiTarget> target = ApiTarget.isMultiTarget() ? ApiTarget.forBaseUri(requestSpec.getBaseUri())
+                    : Optional.empty();
+            registry.record(EndpointKey.of(target.map(ApiTarget::name).orElse(""), requestSpec.getMethod(),
+                    pathTemplate(requestSpec, target.isPresent()), statusCode), duration);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * @param relative Whether the path of the base uri is left out.
+     * @return Path of the base uri, the base path and the user defined path before path params are applied.
+     */
+    public static String pathTemplate(FilterableRequestSpecification requestSpec, boolean relative) {
+        String path = requestSpec.getUserDefinedPath();
+        if (path == null) {
+            path = "";
+        }
+        if (SCHEME_AND_AUTHORITY.matcher(path).find()) {
+            return stripQuery(SCHEME_AND_AUTHORITY.matcher(path).replaceFirst(""));
+        }
+        String baseUri = relative || requestSpec.getBaseUri() == null ? ""
+                : SCHEME_AND_AUTHORITY.matcher(requestSpec.getBaseUri()).replaceFirst("");
+        return stripQuery(join(join(baseUri, requestSpec.getBasePath()), path));
+    }
+
+    private static String join(String left, String right) {
+        if (right == null || right.isEmpty() || "/".equals(right)) {
+            return left;
+        }
+        if (left.endsWith("/")) {
+            left = left.substring(0, left.length() - 1);
+        }
+        return right.startsWith("/") ? left + right : left + "/" + right;
+    }
+
+    private static String stripQuery(String path) {
+        int query = path.indexOf('?');
+        String result = query < 0 ? path : path.substring(0, query);
+        return result.isEmpty() ? "/" : result;
+    }
+}
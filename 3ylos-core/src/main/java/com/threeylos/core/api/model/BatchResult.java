@@ -0,0 +1,88 @@
+package com.threeylos.core.api.model;
+
+import io.restassured.response.Response;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a batch of requests, the items are in the order the requests were given.
+ * <p>
+ * A request fails only when no response was received, a response with an error
+ * status code is a successful item and is checked by the caller.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class BatchResult {
+
+    private final List<Item> items;
+
+    private final Duration elapsed;
+
+    public BatchResult(List<Item> items, Duration elapsed) {
+        this.items = List.copyOf(items);
+        this.elapsed = elapsed;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Responses in request order, {@code null} for failed requests.
+     */
+    public List<Response> getResponses() {
+        return items.stream().map(Item::response).toList();
+    }
+
+    public List<Item> getFailures() {
+        return items.stream().filter(item -> !item.isSuccessful()).toList();
+    }
+
+    public boolean isSuccessful() {
+        return items.stream().allMatch(Item::isSuccessful);
+    }
+
+    /**
+     * @return Wall clock time of the whole batch.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Throws one exception listing every failed request, the individual errors are added as suppressed.
+     *
+     * @return This result when all requests succeeded.
+     */
+    public BatchResult throwIfFailed() {
+        List<Item> failures = getFailures();
+        if (failures.isEmpty()) {
+            return this;
+        }
+        IllegalStateException exception = new IllegalStateException(
+                failures.size() + " of " + items.size() + " requests failed: " + failures.stream()
+                        .map(item -> "#" + item.index() + " " + item.request().getMethod() + " " + item.request().getUrl()
+                                + ": " + item.error())
+                        .toList());
+        failures.forEach(item -> exception.addSuppressed(item.error()));
+        throw exception;
+    }
+
+    /**
+     * A single request of the batch.
+     *
+     * @param index    Position of the request in the batch.
+     * @param request  The request.
+     * @param response The response, {@code null} when the request failed.
+     * @param error    The failure, {@code null} when a response was received.
+     * @param duration Time from sending the request until the response was read.
+     */
+    public record Item(int index, RequestTemplate request, Response response, Throwable error, Duration duration) {
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+}
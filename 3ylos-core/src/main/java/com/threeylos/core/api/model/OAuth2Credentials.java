@@ -44,15 +44,19 @@ public class OAuth2Credentials {
     private String scope;
 
     public OAuth2Credentials() {
-        this.clientId = System.getenv(OAUTH2_CLIENT_ID) == null ? ApplicationProperties.getValue(OAUTH2_CLIENT_ID)
-                : System.getenv(OAUTH2_CLIENT_ID);
-        this.clientSecret = System.getenv(OAUTH2_CLIENT_SECRET) == null ? ApplicationProperties.getValue(OAUTH2_CLIENT_SECRET)
-                : System.getenv(OAUTH2_CLIENT_SECRET);
-        this.tokenIssuerURL = System.getenv(OAUTH2_TOKEN_URL) == null ? ApplicationProperties.getValue(OAUTH2_TOKEN_URL)
-                : System.getenv(OAUTH2_TOKEN_URL);
+        this.clientId = ApplicationProperties.getValue(OAUTH2_CLIENT_ID);
+        this.clientSecret = ApplicationProperties.getValue(OAUTH2_CLIENT_SECRET);
+        this.tokenIssuerURL = ApplicationProperties.getValue(OAUTH2_TOKEN_URL);
         this.scope =
-                System.getenv(OAUTH2_SCOPE) == null ? ApplicationProperties.getValue(OAUTH2_SCOPE) : System.getenv(OAUTH2_SCOPE);
+                ApplicationProperties.getValue(OAUTH2_SCOPE);
 
     }
 
+    public OAuth2Credentials(String clientId, String clientSecret, String tokenIssuerURL, String scope) {
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.tokenIssuerURL = tokenIssuerURL;
+        this.scope = scope;
+    }
+
 }
@@ -0,0 +1,44 @@
+package com.threeylos.core.api.model;
+
+import io.restassured.http.Method;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Description of a single request of a batch, see {@code RestApiBase#executeAll}.
+ * <p>
+ * Json is used as content type and accept header when no headers are given.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class RequestTemplate {
+
+    @Builder.Default
+    private final Method method = Method.GET;
+
+    private final String url;
+
+    @Builder.Default
+    private final Map<String, ?> pathParams = Map.of();
+
+    @Builder.Default
+    private final Map<String, ?> queryParams = Map.of();
+
+    @Builder.Default
+    private final Map<String, ?> headers = Map.of();
+
+    private final String body;
+
+    /**
+     * Body sent as is instead of {@link #body}, e.g. a binary payload.
+     */
+    @ToString.Exclude
+    private final byte[] rawBody;
+}
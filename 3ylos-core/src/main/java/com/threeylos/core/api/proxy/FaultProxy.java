@@ -0,0 +1,208 @@
+package com.threeylos.core.api.proxy;
+
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.util.common.ThreadUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local http proxy between the tests and the service that injects delays,
+ * bandwidth limits, connection resets and error responses by path, see
+ * {@link FaultRule}, to see how timeouts and parallel runners cope with a
+ * slow or failing service.
+ * <p>
+ * With {@code FAULT_PROXY_ENABLED=true} every rest-assured request is sent
+ * through the proxy, see {@link com.threeylos.core.api.config.ApiConfig#getProxy()}.
+ * The base uri stays the same, the proxy learns the service from the
+ * absolute url of each request. Https requests are tunneled, so only the
+ * rule of the path {@code *} applies to them.
+ * </p>
+ * <p>
+ * Every client connection has its own thread and its own kept alive
+ * connection to the service, heads are parsed and bodies are streamed as
+ * they are, so requests without a matching rule pass with next to no
+ * overhead. The proxy listens on the loopback interface only.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class FaultProxy implements Closeable {
+
+    public static final String FAULT_PROXY_ENABLED = "FAULT_PROXY_ENABLED";
+    public static final String FAULT_PROXY_PORT = "FAULT_PROXY_PORT";
+    public static final String FAULT_PROXY_RULES = "FAULT_PROXY_RULES";
+
+    private static FaultProxy shared;
+
+    private final List<FaultRule> rules;
+
+    private final ServerSocket server;
+
+    private final ExecutorService connections;
+
+    private final Set<ProxyConnection> open = ConcurrentHashMap.newKeySet();
+
+    private final Counters counters = new Counters();
+
+    private volatile boolean running;
+
+    /**
+     * @param rules The rules, the first matching rule applies to a request.
+     * @param port  Port to listen on, 0 for any free port.
+     * @throws IllegalStateException when the port cannot be bound.
+     */
+    public FaultProxy(List<FaultRule> rules, int port) {
+        this.rules = List.copyOf(rules);
+        try {
+            this.server = new ServerSocket();
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Binding the fault proxy to port " + port + " failed: "
+                    + ex.getMessage(), ex);
+        }
+        this.connections = Executors.newCachedThreadPool(ThreadUtil.daemonThreadFactory("fault-proxy"));
+    }
+
+    /**
+     * @return A proxy of the {@code FAULT_PROXY_*} application properties, not started yet.
+     */
+    public static FaultProxy fromConfig() {
+        return new FaultProxy(FaultRule.parse(ApplicationProperties.getValue(FAULT_PROXY_RULES)),
+                ApplicationProperties.getInt(FAULT_PROXY_PORT, 0));
+    }
+
+    /**
+     * Start the proxy of the application properties once per JVM when {@code FAULT_PROXY_ENABLED=true}.
+     *
+     * @return The running proxy, empty when the proxy is disabled.
+     */
+    public static synchronized Optional<FaultProxy> startIfEnabled() {
+        if (!ApplicationProperties.getBoolean(FAULT_PROXY_ENABLED, false)) {
+            return Optional.empty();
+        }
+        if (shared == null) {
+            shared = fromConfig().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "fault-proxy-stop"));
+        }
+        return Optional.of(shared);
+    }
+
+    public FaultProxy start() {
+        running = true;
+        Thread acceptor = ThreadUtil.daemonThreadFactory("fault-proxy-accept").newThread(this::accept);
+        acceptor.start();
+        log.info("Fault proxy listening on localhost:{} with rules {}", getPort(), rules.isEmpty() ? "none" : rules);
+        return this;
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public List<FaultRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return What the proxy did so far.
+     */
+    public Stats getStats() {
+        return new Stats(counters.forwarded.sum(), counters.tunnels.sum(), counters.delayed.sum(),
+                counters.errors.sum(), counters.resets.sum());
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            server.close();
+        } catch (IOException ex) {
+            log.debug("Closing the fault proxy socket failed", ex);
+        }
+        open.forEach(ProxyConnection::close);
+        connections.shutdownNow();
+        log.info("Fault proxy stopped: {}", getStats());
+    }
+
+    /**
+     * @return The first rule matching the request, {@code null} when none does.
+     */
+    FaultRule rule(String method, String path) {
+        for (FaultRule rule : rules) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    Counters counters() {
+        return counters;
+    }
+
+    Future<?> submit(Runnable task) {
+        return connections.submit(task);
+    }
+
+    void closed(ProxyConnection connection) {
+        open.remove(connection);
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket client = server.accept();
+                ProxyConnection connection = new ProxyConnection(this, client);
+                open.add(connection);
+                connections.execute(connection);
+            } catch (IOException ex) {
+                if (running) {
+                    log.warn("Accepting a fault proxy connection failed", ex);
+                }
+            } catch (RuntimeException ex) {
+                log.debug("Fault proxy stopped accepting connections", ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counted from the connection threads without contention.
+     */
+    static final class Counters {
+        final LongAdder forwarded = new LongAdder();
+        final LongAdder tunnels = new LongAdder();
+        final LongAdder delayed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder resets = new LongAdder();
+    }
+
+    /**
+     * @param forwarded Requests sent on to the service.
+     * @param tunnels   Https connections tunneled to the service.
+     * @param delayed   Requests and tunnels delayed.
+     * @param errors    Requests answered with an injected error.
+     * @param resets    Connections reset.
+     */
+    public record Stats(long forwarded, long tunnels, long delayed, long errors, long resets) {
+    }
+}
@@ -0,0 +1,197 @@
+package com.threeylos.core.api.proxy;
+
+import com.threeylos.core.load.ThinkTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Faults the {@link FaultProxy} injects into the requests of matching paths.
+ * <p>
+ * A rule is an optional method, a path template and its faults separated by
+ * spaces, e.g. {@code GET /hmwk/homeworks/{homeworkId} delay=exponential:50 error=503:0.05}.
+ * A {@code {name}} of the template matches one path segment, a trailing
+ * {@code *} any rest of the path and a template of {@code *} alone every
+ * path. The faults:
+ * </p>
+ * <ul>
+ *     <li>{@code delay=<think time>} holds the request before it is sent on,
+ *     with the distributions of a {@link ThinkTime}, e.g. {@code delay=uniform:20-200}.</li>
+ *     <li>{@code bandwidth=<bytes per second>} paces the bytes of the request and the response.</li>
+ *     <li>{@code reset=<fraction>} resets the connection of that fraction of the requests instead of sending
+ *     them on.</li>
+ *     <li>{@code error=<status>:<fraction>} answers that fraction of the requests with the status instead of sending
+ *     them on.</li>
+ * </ul>
+ *
+ * @param method    Upper case method the rule is limited to, {@code null} for every method.
+ * @param template  The path template as configured.
+ * @param pattern   Pattern of the paths of the template.
+ * @param delay     Delay before a request is sent on.
+ * @param bandwidth Bytes per second, 0 for no limit.
+ * @param resetRate Fraction of the requests whose connection is reset.
+ * @param status    Status of the injected errors.
+ * @param errorRate Fraction of the requests answered with the status.
+ * @author AbhinitKumar
+ */
+public record FaultRule(String method, String template, Pattern pattern, ThinkTime delay, long bandwidth,
+                        double resetRate, int status, double errorRate) {
+
+    /**
+     * The template of the rule matching every path, the only rule applied to
+     * tunneled https connections as their paths are encrypted.
+     */
+    public static final String ANY_PATH = "*";
+
+    /**
+     * @param method Method of the request.
+     * @param path   Path of the request without the query.
+     * @return Whether the rule applies to the request.
+     */
+    public boolean matches(String method, String path) {
+        return (this.method == null || this.method.equals(method)) && pattern.matcher(path).matches();
+    }
+
+    /**
+     * @return Whether the next request is answered with the error status.
+     */
+    public boolean nextFails() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    /**
+     * @return Whether the connection of the next request is reset.
+     */
+    public boolean nextResets() {
+        return resetRate > 0 && ThreadLocalRandom.current().nextDouble() < resetRate;
+    }
+
+    /**
+     * Parse rules separated by {@code ;}.
+     *
+     * @param value The rules, none when empty.
+     * @return The rules in order, the first matching rule applies to a request.
+     * @throws IllegalStateException when a rule is invalid.
+     */
+    public static List<FaultRule> parse(String value) {
+        List<FaultRule> rules = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return rules;
+        }
+        for (String rule : value.split(";")) {
+            if (!rule.isBlank()) {
+                rules.add(parseRule(rule.trim()));
+            }
+        }
+        return rules;
+    }
+
+    private static FaultRule parseRule(String rule) {
+        List<String> tokens = new ArrayList<>(Arrays.asList(rule.split("\\s+")));
+        String method = null;
+        if (!tokens.get(0).startsWith("/") && !tokens.get(0).equals(ANY_PATH)) {
+            method = tokens.remove(0).toUpperCase(Locale.ROOT);
+        }
+        if (tokens.isEmpty() || !tokens.get(0).startsWith("/") && !tokens.get(0).equals(ANY_PATH)) {
+            throw new IllegalStateException("Fault rule must start with an optional method and a path template "
+                    + "but was " + rule);
+        }
+        String template = tokens.remove(0);
+        ThinkTime delay = ThinkTime.none();
+        long bandwidth = 0;
+        double resetRate = 0;
+        int status = 0;
+        double errorRate = 0;
+        try {
+            for (String fault : tokens) {
+                int equals = fault.indexOf('=');
+                String name = equals < 0 ? fault : fault.substring(0, equals).toLowerCase(Locale.ROOT);
+                String setting = equals < 0 ? "" : fault.substring(equals + 1);
+                switch (name) {
+                    case "delay" -> delay = ThinkTime.parse(setting);
+                    case "bandwidth" -> bandwidth = positive(name, Long.parseLong(setting));
+                    case "reset" -> resetRate = fraction(name, Double.parseDouble(setting));
+                    case "error" -> {
+                        String[] parts = setting.split(":");
+                        if (parts.length != 2) {
+                            throw new IllegalArgumentException("error must be status:fraction but was " + setting);
+                        }
+                        status = Integer.parseInt(parts[0]);
+                        if (status < 100 || status > 599) {
+                            throw new IllegalArgumentException("error status must be 100 to 599 but was " + status);
+                        }
+                        errorRate = fraction(name, Double.parseDouble(parts[1]));
+                    }
+                    default -> throw new IllegalArgumentException("unknown fault " + fault
+                            + ", expected delay, bandwidth, reset or error");
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Fault rule " + rule + " is invalid: " + ex.getMessage(), ex);
+        }
+        return new FaultRule(method, template, templatePattern(template), delay, bandwidth, resetRate, status,
+                errorRate);
+    }
+
+    /**
+     * @param template A path template, {@code *} for every path.
+     * @return Pattern of the paths of the template, a {@code {name}} matches one path segment and a trailing
+     * {@code *} any rest of the path.
+     */
+    public static Pattern templatePattern(String template) {
+        if (template.equals(ANY_PATH)) {
+            return Pattern.compile(".*");
+        }
+        StringBuilder regex = new StringBuilder();
+        Matcher placeholder = Pattern.compile("\\{[^}/]+}").matcher(template);
+        int at = 0;
+        while (placeholder.find()) {
+            regex.append(Pattern.quote(template.substring(at, placeholder.start()))).append("[^/]+");
+            at = placeholder.end();
+        }
+        String rest = template.substring(at);
+        if (rest.endsWith("*")) {
+            regex.append(Pattern.quote(rest.substring(0, rest.length() - 1))).append(".*");
+        } else {
+            regex.append(Pattern.quote(rest));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static long positive(String name, long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value);
+        }
+        return value;
+    }
+
+    private static double fraction(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1 but was " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(method == null ? "" : method + " ").append(template);
+        if (!delay.isNone()) {
+            builder.append(" delay=").append(delay);
+        }
+        if (bandwidth > 0) {
+            builder.append(" bandwidth=").append(bandwidth);
+        }
+        if (resetRate > 0) {
+            builder.append(" reset=").append(resetRate);
+        }
+        if (errorRate > 0) {
+            builder.append(" error=").append(status).append(':').append(errorRate);
+        }
+        return builder.toString();
+    }
+}
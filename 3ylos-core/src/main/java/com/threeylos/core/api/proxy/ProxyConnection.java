@@ -0,0 +1,571 @@
+package com.threeylos.core.api.proxy;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One client connection of the {@link FaultProxy}, handled by one thread.
+ * <p>
+ * Requests of the connection are sent on one after the other over one
+ * upstream connection, which is kept open as long as both sides keep the
+ * connection alive. Before a kept alive connection is reused it is checked
+ * for an end of stream, so a connection the service closed while it was idle
+ * is replaced by a new one before the request is written. When the service
+ * closes it in between, a request without a body is sent again over a new
+ * connection and a request with a body, which is streamed and cannot be sent
+ * again, is answered with a 502. Heads are parsed, bodies are streamed
+ * through a fixed buffer without being parsed or copied onto the heap.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+final class ProxyConnection implements Runnable, Closeable {
+
+    private static final int BUFFER_BYTES = 16 * 1024;
+    private static final int MAX_HEAD_BYTES = 64 * 1024;
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final int STALE_CHECK_MILLIS = 1;
+    private static final Set<String> HOP_BY_HOP = Set.of("proxy-connection", "proxy-authorization", "keep-alive");
+
+    private final FaultProxy proxy;
+
+    private final Socket client;
+
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+
+    private Socket upstream;
+
+    private String upstreamAuthority;
+
+    private InputStream upstreamIn;
+
+    private OutputStream upstreamOut;
+
+    ProxyConnection(FaultProxy proxy, Socket client) {
+        this.proxy = proxy;
+        this.client = client;
+    }
+
+    @Override
+    public void run() {
+        try {
+            client.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(client.getInputStream(), BUFFER_BYTES);
+            OutputStream out = new BufferedOutputStream(client.getOutputStream(), BUFFER_BYTES);
+            Head request;
+            while ((request = Head.read(in)) != null && exchange(request, in, out)) {
+                // Next request of the kept alive connection.
+            }
+        } catch (IOException ex) {
+            log.debug("Proxy connection of {} ended: {}", client.getRemoteSocketAddress(), ex.getMessage());
+        } finally {
+            close();
+            proxy.closed(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeUpstream();
+        try {
+            client.close();
+        } catch (IOException ex) {
+            log.trace("Closing the proxy client connection failed", ex);
+        }
+    }
+
+    /**
+     * @return Whether the connection stays open for the next request.
+     */
+    private boolean exchange(Head request, InputStream in, OutputStream out) throws IOException {
+        String[] line = request.startLine().split(" ");
+        if (line.length != 3) {
+            return reject(out, 400, "Malformed request line: " + request.startLine());
+        }
+        String method = line[0].toUpperCase(Locale.ROOT);
+        if (method.equals("CONNECT")) {
+            tunnel(line[1], in, out);
+            return false;
+        }
+        URI uri;
+        try {
+            uri = URI.create(line[1]);
+        } catch (IllegalArgumentException ex) {
+            return reject(out, 400, "Malformed request target: " + line[1]);
+        }
+        if (!"http".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            return reject(out, 400, "The fault proxy is a forward proxy, requests must use an absolute http url "
+                    + "but used " + line[1]);
+        }
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        FaultRule rule = proxy.rule(method, path);
+        Pacer pacer = new Pacer(rule == null ? 0 : rule.bandwidth());
+        Outcome outcome = rule == null ? Outcome.SEND : injectBeforeSending(rule, request, in, out);
+        if (outcome != Outcome.SEND) {
+            return outcome == Outcome.ANSWERED && request.keepAlive();
+        }
+        proxy.counters().forwarded.increment();
+
+        String host = uri.getHost();
+        int port = uri.getPort() < 0 ? 80 : uri.getPort();
+        String target = uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+        String startLine = method + " " + target + " " + line[2];
+        boolean reused = connect(host, port);
+        Head response;
+        try {
+            response = send(request, startLine, in, out, pacer);
+        } catch (IOException ex) {
+            if (!reused) {
+                throw ex;
+            }
+            response = null;
+        }
+        if (response == null && reused) {
+            // the service closed the kept alive connection while it was idle
+            closeUpstream();
+            if (request.hasBody()) {
+                log.debug("Kept alive connection to {} was closed by the service while sending {} {}",
+                        upstreamAuthority, method, path);
+                return reject(out, 502, "The service closed the kept alive connection while the request was sent");
+            }
+            connect(host, port);
+            response = send(request, startLine, in, out, pacer);
+        }
+        if (response == null) {
+            closeUpstream();
+            return reject(out, 502, "The service closed the connection without a response");
+        }
+        response.write(out, response.startLine());
+        boolean delimited = true;
+        int status = response.status();
+        if (!method.equals("HEAD") && status != 204 && status != 304) {
+            delimited = copyBody(response, upstreamIn, out, pacer);
+        }
+        out.flush();
+        return delimited && request.keepAlive() && response.keepAlive();
+    }
+
+    /**
+     * Send the request on and read the head of the response, informational
+     * responses are passed to the client.
+     *
+     * @return The head of the response, {@code null} when the service closed the connection before it.
+     */
+    private Head send(Head request, String startLine, InputStream in, OutputStream out, Pacer pacer)
+            throws IOException {
+        request.write(upstreamOut, startLine);
+        copyBody(request, in, upstreamOut, pacer);
+        upstreamOut.flush();
+        Head response = Head.read(upstreamIn);
+        while (response != null && isInformational(response)) {
+            response.write(out, response.startLine());
+            response = Head.read(upstreamIn);
+        }
+        return response;
+    }
+
+    /**
+     * Delay the request, and reset or answer it instead of sending it on.
+     */
+    private Outcome injectBeforeSending(FaultRule rule, Head request, InputStream in, OutputStream out)
+            throws IOException {
+        long delay = rule.delay().nextNanos();
+        if (delay > 0) {
+            proxy.counters().delayed.increment();
+            LockSupport.parkNanos(delay);
+        }
+        if (rule.nextResets()) {
+            proxy.counters().resets.increment();
+            reset();
+            return Outcome.RESET;
+        }
+        if (rule.nextFails()) {
+            proxy.counters().errors.increment();
+            copyBody(request, in, OutputStream.nullOutputStream(), new Pacer(0));
+            respond(out, rule.status(), "Injected by the fault proxy rule " + rule, request.keepAlive());
+            return Outcome.ANSWERED;
+        }
+        return Outcome.SEND;
+    }
+
+    private void tunnel(String authority, InputStream in, OutputStream out) throws IOException {
+        int colon = authority.lastIndexOf(':');
+        if (colon < 0) {
+            reject(out, 400, "CONNECT needs host:port but was " + authority);
+            return;
+        }
+        FaultRule rule = proxy.rule("CONNECT", FaultRule.ANY_PATH);
+        Pacer pacer = new Pacer(rule == null ? 0 : rule.bandwidth());
+        Head connect = new Head("CONNECT " + authority + " HTTP/1.1",
+                List.<String[]>of(new String[]{"Connection", "close"}));
+        if (rule != null && injectBeforeSending(rule, connect, in, out) != Outcome.SEND) {
+            return;
+        }
+        proxy.counters().tunnels.increment();
+        connect(authority.substring(0, colon), Integer.parseInt(authority.substring(colon + 1)));
+        out.write("HTTP/1.1 200 Connection Established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        Socket server = upstream;
+        InputStream serverIn = upstreamIn;
+        Future<?> toClient = proxy.submit(() -> {
+            try {
+                pump(serverIn, out, new byte[BUFFER_BYTES], new Pacer(pacer.bytesPerSecond));
+            } catch (IOException ex) {
+                log.trace("Tunnel to {} ended", authority, ex);
+            } finally {
+                close();
+            }
+        });
+        try {
+            pump(in, upstreamOut, buffer, pacer);
+            server.shutdownOutput();
+            toClient.get();
+        } catch (IOException ex) {
+            log.trace("Tunnel from {} ended", client.getRemoteSocketAddress(), ex);
+        } catch (ExecutionException ex) {
+            log.trace("Tunnel to {} failed", authority, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void pump(InputStream in, OutputStream out, byte[] buffer, Pacer pacer) throws IOException {
+        int read;
+        while ((read = in.read(buffer, 0, pacer.chunk(buffer.length))) >= 0) {
+            out.write(buffer, 0, read);
+            out.flush();
+            pacer.sent(read);
+        }
+    }
+
+    /**
+     * Stream a body framed by the head.
+     *
+     * @return Whether the body had a length, {@code false} when it ended with the connection.
+     */
+    private boolean copyBody(Head head, InputStream in, OutputStream out, Pacer pacer) throws IOException {
+        if (head.chunked()) {
+            String size;
+            do {
+                size = readLine(in);
+                if (size == null) {
+                    throw new IOException("Chunked body ended early");
+                }
+                writeLine(out, size);
+                int extension = size.indexOf(';');
+                long length = Long.parseLong((extension < 0 ? size : size.substring(0, extension)).trim(), 16);
+                copy(in, out, length, pacer);
+                if (length > 0) {
+                    writeLine(out, readLine(in));
+                } else {
+                    String trailer;
+                    do {
+                        trailer = readLine(in);
+                        writeLine(out, trailer == null ? "" : trailer);
+                    } while (trailer != null && !trailer.isEmpty());
+                    return true;
+                }
+            } while (true);
+        }
+        long length = head.contentLength();
+        if (length >= 0) {
+            copy(in, out, length, pacer);
+            return true;
+        }
+        if (head.isResponse()) {
+            pump(in, out, buffer, pacer);
+            return false;
+        }
+        return true;
+    }
+
+    private void copy(InputStream in, OutputStream out, long length, Pacer pacer) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(remaining, pacer.chunk(buffer.length)));
+            if (read < 0) {
+                throw new IOException("Body ended " + remaining + " bytes early");
+            }
+            out.write(buffer, 0, read);
+            if (pacer.isPaced()) {
+                out.flush();
+            }
+            pacer.sent(read);
+            remaining -= read;
+        }
+    }
+
+    /**
+     * @return Whether the kept alive connection to the service is reused.
+     */
+    private boolean connect(String host, int port) throws IOException {
+        String authority = host + ":" + port;
+        if (upstream != null && authority.equals(upstreamAuthority) && !upstream.isClosed() && !isStale()) {
+            return true;
+        }
+        closeUpstream();
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+        upstream = socket;
+        upstreamAuthority = authority;
+        upstreamIn = new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES);
+        upstreamOut = new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES);
+        return false;
+    }
+
+    /**
+     * @return Whether the service ended the idle upstream connection, checked with a read of a millisecond.
+     */
+    private boolean isStale() {
+        try {
+            if (upstreamIn.available() > 0) {
+                return false;
+            }
+            int timeout = upstream.getSoTimeout();
+            upstream.setSoTimeout(STALE_CHECK_MILLIS);
+            try {
+                upstreamIn.mark(1);
+                if (upstreamIn.read() < 0) {
+                    return true;
+                }
+                upstreamIn.reset();
+                return false;
+            } finally {
+                upstream.setSoTimeout(timeout);
+            }
+        } catch (SocketTimeoutException ex) {
+            return false;
+        } catch (IOException ex) {
+            return true;
+        }
+    }
+
+    private void closeUpstream() {
+        Socket socket = upstream;
+        upstream = null;
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            log.trace("Closing the upstream connection to {} failed", upstreamAuthority, ex);
+        }
+    }
+
+    /**
+     * Close the client connection with a TCP reset instead of an orderly close.
+     */
+    private void reset() throws IOException {
+        client.setSoLinger(true, 0);
+        client.close();
+    }
+
+    private static boolean isInformational(Head response) {
+        int status = response.status();
+        return status >= 100 && status < 200 && status != 101;
+    }
+
+    private boolean reject(OutputStream out, int status, String message) throws IOException {
+        respond(out, status, message, false);
+        return false;
+    }
+
+    private static void respond(OutputStream out, int status, String message, boolean keepAlive)
+            throws IOException {
+        byte[] body = ("{\"code\":\"" + status + "\",\"message\":\"" + message.replace("\\", "\\\\")
+                .replace("\"", "\\\"") + "\"}").getBytes(StandardCharsets.UTF_8);
+        out.write(("HTTP/1.1 " + status + " " + (status >= 500 ? "Fault Proxy Error" : "Fault Proxy Rejected")
+                + "\r\nContent-Type: application/json\r\nContent-Length: " + body.length
+                + (keepAlive ? "" : "\r\nConnection: close") + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(body);
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                int length = line.size();
+                byte[] bytes = line.toByteArray();
+                return new String(bytes, 0, length > 0 && bytes[length - 1] == '\r' ? length - 1 : length,
+                        StandardCharsets.ISO_8859_1);
+            }
+            if (line.size() >= MAX_HEAD_BYTES) {
+                throw new IOException("Line longer than " + MAX_HEAD_BYTES + " bytes");
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : line.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.ISO_8859_1));
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private enum Outcome {
+        /**
+         * The request is sent on.
+         */
+        SEND,
+        /**
+         * The proxy answered the request.
+         */
+        ANSWERED,
+        /**
+         * The connection was reset.
+         */
+        RESET
+    }
+
+    /**
+     * Start line and headers of a request or a response.
+     */
+    private record Head(String startLine, List<String[]> headers) {
+
+        /**
+         * @return The head, {@code null} when the connection ended before it.
+         */
+        static Head read(InputStream in) throws IOException {
+            String startLine = readLine(in);
+            while (startLine != null && startLine.isEmpty()) {
+                startLine = readLine(in);
+            }
+            if (startLine == null) {
+                return null;
+            }
+            List<String[]> headers = new ArrayList<>();
+            int bytes = startLine.length();
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                bytes += line.length();
+                if (bytes > MAX_HEAD_BYTES) {
+                    throw new IOException("Head larger than " + MAX_HEAD_BYTES + " bytes");
+                }
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.add(new String[]{line.substring(0, colon).trim(), line.substring(colon + 1).trim()});
+                }
+            }
+            return new Head(startLine, headers);
+        }
+
+        String header(String name) {
+            for (String[] header : headers) {
+                if (header[0].equalsIgnoreCase(name)) {
+                    return header[1];
+                }
+            }
+            return null;
+        }
+
+        boolean isResponse() {
+            return startLine.startsWith("HTTP/");
+        }
+
+        int status() {
+            String[] parts = startLine.split(" ", 3);
+            return parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        }
+
+        boolean hasBody() {
+            return chunked() || contentLength() > 0;
+        }
+
+        boolean chunked() {
+            String encoding = header("Transfer-Encoding");
+            return encoding != null && encoding.toLowerCase(Locale.ROOT).contains("chunked");
+        }
+
+        /**
+         * @return The content length, -1 when the head has none.
+         */
+        long contentLength() {
+            String length = header("Content-Length");
+            return length == null ? -1 : Long.parseLong(length);
+        }
+
+        boolean keepAlive() {
+            String connection = header("Connection");
+            boolean http10 = startLine.contains("HTTP/1.0");
+            if (connection == null) {
+                return !http10;
+            }
+            String value = connection.toLowerCase(Locale.ROOT);
+            return !value.contains("close") && (!http10 || value.contains("keep-alive"));
+        }
+
+        void write(OutputStream out, String firstLine) throws IOException {
+            StringBuilder head = new StringBuilder(256).append(firstLine).append("\r\n");
+            for (String[] header : headers) {
+                if (!HOP_BY_HOP.contains(header[0].toLowerCase(Locale.ROOT))) {
+                    head.append(header[0]).append(": ").append(header[1]).append("\r\n");
+                }
+            }
+            out.write(head.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * Paces the bytes of a request and its response to a bandwidth.
+     */
+    private static final class Pacer {
+
+        private final long bytesPerSecond;
+
+        private final long start = System.nanoTime();
+
+        private long bytes;
+
+        Pacer(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        boolean isPaced() {
+            return bytesPerSecond > 0;
+        }
+
+        /**
+         * @return Bytes to move at once, about a tenth of a second worth when paced.
+         */
+        int chunk(int max) {
+            return bytesPerSecond <= 0 ? max : (int) Math.max(1, Math.min(max, bytesPerSecond / 10));
+        }
+
+        void sent(int count) {
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+            bytes += count;
+            long due = start + bytes * 1_000_000_000L / bytesPerSecond;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.threeylos.core.api.throttle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket of a {@link ThrottleRule}.
+ * <p>
+ * Kept as the time the next token is available, the way of the generic cell
+ * rate algorithm, so taking a token is a single compare and set and there is
+ * no refill thread. A caller reserves the next free token and waits until its
+ * time on its own, so waiting callers never contend.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    /**
+     * {@link System#nanoTime()} the bucket is full again at, the next token is available a burst less one
+     * token before.
+     */
+    private final AtomicLong fullAt;
+
+    /**
+     * @param rate  Tokens per second.
+     * @param burst Tokens available at once after a pause.
+     */
+    RateLimiter(double rate, int burst) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        this.burstNanos = intervalNanos * (burst - 1);
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Reserve the next free token unless it is later than the longest wait.
+     *
+     * @param now          {@link System#nanoTime()}.
+     * @param maxWaitNanos The longest wait.
+     * @return Nanoseconds to wait for the reserved token, -1 when no token is reserved.
+     */
+    long reserve(long now, long maxWaitNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long wait = Math.max(0, current - burstNanos - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (fullAt.compareAndSet(current, Math.max(current, now) + intervalNanos)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Give back a reserved token the caller does not use, unless the bucket is full again by now.
+     *
+     * @param now {@link System#nanoTime()}.
+     */
+    void refund(long now) {
+        while (true) {
+            long current = fullAt.get();
+            if (current <= now || fullAt.compareAndSet(current, Math.max(now, current - intervalNanos))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.threeylos.core.api.throttle;
+
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Client side rate limits and concurrency bulkheads per path template, see
+ * {@link ThrottleRule}, so a parallel suite cannot overload a shared service.
+ * <p>
+ * With {@code THROTTLE_ENABLED=true} every request of a {@link com.threeylos.core.api.RestApiBase}
+ * waits for a permit of every rule matching it, see {@link ThrottleFilter}.
+ * Rate limits are lock-free token buckets and bulkheads are semaphores, the
+ * rules of a path are looked up once per method and path, so a request
+ * without a wait costs a few compare and sets. A request waiting longer than
+ * {@code THROTTLE_MAX_WAIT_MS} fails.
+ * </p>
+ * <p>
+ * The time spent waiting for permits is not part of the request latency, it
+ * is recorded per endpoint on its own and written as {@code api-permit-wait.*}
+ * next to the latency report. The load generators take it out of the service
+ * time of their tasks, see {@link #takeThreadWaitNanos()}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class Throttle {
+
+    public static final String THROTTLE_ENABLED = "THROTTLE_ENABLED";
+    public static final String THROTTLE_RULES = "THROTTLE_RULES";
+    public static final String THROTTLE_MAX_WAIT_MS = "THROTTLE_MAX_WAIT_MS";
+
+    private static final String REPORT_NAME = "api-permit-wait";
+
+    /**
+     * Paths with their values instead of a template are not cached beyond this many.
+     */
+    private static final int MAX_CACHED_PATHS = 4096;
+
+    private static final Throttle INSTANCE = new Throttle();
+
+    /**
+     * Permit waits of the requests of the current thread since {@link #takeThreadWaitNanos()}.
+     */
+    private static final ThreadLocal<long[]> THREAD_WAIT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final boolean enabled;
+
+    private final List<Limits> limits;
+
+    private final long maxWaitNanos;
+
+    private final Map<String, Limits[]> byPath = new ConcurrentHashMap<>();
+
+    private final Map<EndpointKey, LatencyHistogram> waits = new ConcurrentHashMap<>();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private Throttle() {
+        this(ApplicationProperties.getBoolean(THROTTLE_ENABLED, false),
+                ThrottleRule.parse(ApplicationProperties.getValue(THROTTLE_RULES)),
+                ApplicationProperties.getInt(THROTTLE_MAX_WAIT_MS, 60000));
+    }
+
+    /**
+     * @param enabled   Whether requests are throttled.
+     * @param rules     The rules, every matching rule applies to a request.
+     * @param maxWaitMs The longest wait of a request for its permits.
+     */
+    public Throttle(boolean enabled, List<ThrottleRule> rules, long maxWaitMs) {
+        if (maxWaitMs < 0) {
+            throw new IllegalStateException(THROTTLE_MAX_WAIT_MS + " must not be negative but was " + maxWaitMs);
+        }
+        this.enabled = enabled && !rules.isEmpty();
+        this.limits = rules.stream().map(Limits::new).toList();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        if (this.enabled) {
+            log.info("Throttling requests with rules {}", rules);
+        }
+    }
+
+    public static Throttle getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait for the permits of every rule matching the request. The tokens of
+     * the rate limits are reserved first, then the slots of the bulkheads are
+     * taken in the order of the rules while the reserved tokens come due, so
+     * a request waits for the longer of both and not for their sum. The tokens
+     * are given back when a later permit is not available.
+     *
+     * @param method Method of the request.
+     * @param path   Path of the request without the query.
+     * @return The permit to release once the response is read.
+     * @throws IllegalStateException when the permits are not available within {@code THROTTLE_MAX_WAIT_MS}
+     *                               or the thread is interrupted.
+     */
+    public Permit acquire(String method, String path) {
+        Limits[] matching = matching(method, path);
+        if (matching.length == 0) {
+            return Permit.NONE;
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+        long until = start;
+        int reserved = 0;
+        List<Semaphore> held = new ArrayList<>(matching.length);
+        try {
+            for (; reserved < matching.length; reserved++) {
+                Limits limit = matching[reserved];
+                if (limit.rateLimiter != null) {
+                    long wait = limit.rateLimiter.reserve(start, deadline - start);
+                    if (wait < 0) {
+                        throw rejected(method, path, limit.rule);
+                    }
+                    until = Math.max(until, start + wait);
+                }
+            }
+            for (Limits limit : matching) {
+                if (limit.bulkhead != null) {
+                    if (!limit.bulkhead.tryAcquire() && !limit.bulkhead.tryAcquire(Math.max(0,
+                            deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        throw rejected(method, path, limit.rule);
+                    }
+                    held.add(limit.bulkhead);
+                }
+            }
+            long now;
+            while ((now = System.nanoTime()) < until) {
+                LockSupport.parkNanos(until - now);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } catch (InterruptedException ex) {
+            release(matching, reserved, held);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a permit of " + method + " " + path, ex);
+        } catch (RuntimeException ex) {
+            release(matching, reserved, held);
+            throw ex;
+        }
+        return new Permit(held, System.nanoTime() - start);
+    }
+
+    /**
+     * Record the time a request waited for its permits.
+     *
+     * @param key       The endpoint.
+     * @param waitNanos The wait in nanoseconds.
+     */
+    public void record(EndpointKey key, long waitNanos) {
+        THREAD_WAIT.get()[0] += waitNanos;
+        waits.computeIfAbsent(key, k -> new LatencyHistogram()).record(waitNanos);
+    }
+
+    /**
+     * Take the time the requests of the current thread waited for their
+     * permits since the last call, so a load generator can tell it apart from
+     * the service time of a task.
+     *
+     * @return The wait in nanoseconds.
+     */
+    public static long takeThreadWaitNanos() {
+        long[] wait = THREAD_WAIT.get();
+        long nanos = wait[0];
+        wait[0] = 0;
+        return nanos;
+    }
+
+    /**
+     * @return Snapshots of the permit waits sorted by endpoint.
+     */
+    public Map<EndpointKey, LatencyHistogram.Snapshot> snapshot() {
+        Map<EndpointKey, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        waits.forEach((key, histogram) -> snapshots.put(key, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * @return Requests failed as their permits were not available in time.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Drop all recorded waits.
+     */
+    public void reset() {
+        waits.clear();
+        rejected.reset();
+    }
+
+    /**
+     * Write the permit waits as {@code api-permit-wait.json} and {@code api-permit-wait.txt}
+     * to the directory of the latency report.
+     */
+    public void writeReport() {
+        if (!enabled) {
+            return;
+        }
+        LatencyRegistry.writeReport(LatencyRegistry.getInstance().getReportDirectory(), REPORT_NAME,
+                "Api permit wait", snapshot());
+        if (rejected.sum() > 0) {
+            log.warn("{} requests failed waiting longer than {} ms for a permit", rejected.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        }
+    }
+
+    private Limits[] matching(String method, String path) {
+        String key = method + " " + path;
+        Limits[] matching = byPath.get(key);
+        if (matching == null) {
+            matching = limits.stream().filter(limit -> limit.rule.matches(method, path)).toArray(Limits[]::new);
+            if (byPath.size() < MAX_CACHED_PATHS) {
+                byPath.put(key, matching);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Give back the reserved tokens and the bulkhead slots of a request that did not get all its permits.
+     */
+    private static void release(Limits[] matching, int reserved, List<Semaphore> held) {
+        long now = System.nanoTime();
+        for (int index = 0; index < reserved; index++) {
+            if (matching[index].rateLimiter != null) {
+                matching[index].rateLimiter.refund(now);
+            }
+        }
+        held.forEach(Semaphore::release);
+    }
+
+    private IllegalStateException rejected(String method, String path, ThrottleRule rule) {
+        rejected.increment();
+        return new IllegalStateException("No permit of throttle rule " + rule + " for " + method + " " + path
+                + " within " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+    }
+
+    private static final class Limits {
+        private final ThrottleRule rule;
+        private final RateLimiter rateLimiter;
+        private final Semaphore bulkhead;
+
+        private Limits(ThrottleRule rule) {
+            this.rule = rule;
+            this.rateLimiter = rule.rate() > 0 ? new RateLimiter(rule.rate(), rule.burst()) : null;
+            this.bulkhead = rule.concurrency() > 0 ? new Semaphore(rule.concurrency()) : null;
+        }
+    }
+
+    /**
+     * The bulkhead slots a request holds until its response is read.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        static final Permit NONE = new Permit(List.of(), -1);
+
+        private final List<Semaphore> held;
+
+        private final long waitNanos;
+
+        private Permit(List<Semaphore> held, long waitNanos) {
+            this.held = held;
+            this.waitNanos = waitNanos;
+        }
+
+        /**
+         * @return Whether a rule matched the request.
+         */
+        public boolean isThrottled() {
+            return this != NONE;
+        }
+
+        /**
+         * @return Nanoseconds the request waited for its permits.
+         */
+        public long getWaitNanos() {
+            return Math.max(0, waitNanos);
+        }
+
+        @Override
+        public void close() {
+            held.forEach(Semaphore::release);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.threeylos.core.api.throttle;
+
+import com.threeylos.core.api.capture.TrafficCaptureFilter;
+import com.threeylos.core.api.config.ApiTarget;
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyTimingFilter;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.Optional;
+
+/**
+ * Holds every request until it has the permits of the {@link Throttle} and
+ * releases them once the response is read.
+ * <p>
+ * Runs outside of the traffic capture and the latency timing, so the wait
+ * for a permit is neither captured nor part of the request latency. The wait
+ * is recorded in the {@link Throttle} by endpoint and status class like the
+ * latency.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public class ThrottleFilter implements OrderedFilter {
+
+    /**
+     * Just before the traffic capture.
+     */
+    public static final int ORDER = TrafficCaptureFilter.ORDER - 1;
+
+    private final Throttle throttle;
+
+    public ThrottleFilter() {
+        this(Throttle.getInstance());
+    }
+
+    public ThrottleFilter(Throttle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        if (!throttle.isEnabled()) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        int statusCode = 0;
+        Throttle.Permit permit = throttle.acquire(requestSpec.getMethod(),
+                LatencyTimingFilter.pathTemplate(requestSpec, false));
+        try (permit) {
+            Response response = ctx.next(requestSpec, responseSpec);
+            statusCode = response.getStatusCode();
+            return response;
+        } finally {
+            if (permit.isThrottled()) {
+                Optional<ApiTarget> target = ApiTarget.isMultiTarget()
+                        ? ApiTarget.forBaseUri(requestSpec.getBaseUri()) : Optional.empty();
+                throttle.record(EndpointKey.of(target.map(ApiTarget::name).orElse(""), requestSpec.getMethod(),
+                        LatencyTimingFilter.pathTemplate(requestSpec, target.isPresent()), statusCode),
+                        permit.getWaitNanos());
+            }
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
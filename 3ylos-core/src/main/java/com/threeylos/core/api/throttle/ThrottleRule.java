@@ -0,0 +1,130 @@
+package com.threeylos.core.api.throttle;
+
+import com.threeylos.core.api.proxy.FaultRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Limits the {@link Throttle} puts on the requests of matching paths.
+ * <p>
+ * A rule is an optional method, a path template and its limits separated by
+ * spaces, e.g. {@code POST /hmwk/homeworks rate=20 burst=5 concurrency=2}.
+ * Templates match like the templates of a {@link FaultRule}, {@code *} alone
+ * matches every path. The limits:
+ * </p>
+ * <ul>
+ *     <li>{@code rate=<requests per second>} paces the requests with a token bucket.</li>
+ *     <li>{@code burst=<requests>} size of the token bucket, the requests sent at once after a pause, 1 by
+ *     default.</li>
+ *     <li>{@code concurrency=<requests>} the requests in flight at the same time.</li>
+ * </ul>
+ * <p>
+ * The limits of a rule are shared by all requests it matches, so {@code * rate=100}
+ * limits the whole suite and {@code /hmwk/homeworks/* concurrency=4} all
+ * homework endpoints together.
+ * </p>
+ *
+ * @param method      Upper case method the rule is limited to, {@code null} for every method.
+ * @param template    The path template as configured.
+ * @param pattern     Pattern of the paths of the template.
+ * @param rate        Requests per second, 0 for no limit.
+ * @param burst       Requests sent at once after a pause.
+ * @param concurrency Requests in flight, 0 for no limit.
+ * @author AbhinitKumar
+ */
+public record ThrottleRule(String method, String template, Pattern pattern, double rate, int burst,
+                           int concurrency) {
+
+    /**
+     * @param method Method of the request.
+     * @param path   Path of the request without the query.
+     * @return Whether the rule applies to the request.
+     */
+    public boolean matches(String method, String path) {
+        return (this.method == null || this.method.equals(method)) && pattern.matcher(path).matches();
+    }
+
+    /**
+     * Parse rules separated by {@code ;}.
+     *
+     * @param value The rules, none when empty.
+     * @return The rules in order, every matching rule applies to a request.
+     * @throws IllegalStateException when a rule is invalid.
+     */
+    public static List<ThrottleRule> parse(String value) {
+        List<ThrottleRule> rules = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return rules;
+        }
+        for (String rule : value.split(";")) {
+            if (!rule.isBlank()) {
+                rules.add(parseRule(rule.trim()));
+            }
+        }
+        return rules;
+    }
+
+    private static ThrottleRule parseRule(String rule) {
+        List<String> tokens = new ArrayList<>(Arrays.asList(rule.split("\\s+")));
+        String method = null;
+        if (!tokens.get(0).startsWith("/") && !tokens.get(0).equals(FaultRule.ANY_PATH)) {
+            method = tokens.remove(0).toUpperCase(Locale.ROOT);
+        }
+        if (tokens.isEmpty() || !tokens.get(0).startsWith("/") && !tokens.get(0).equals(FaultRule.ANY_PATH)) {
+            throw new IllegalStateException("Throttle rule must start with an optional method and a path template "
+                    + "but was " + rule);
+        }
+        String template = tokens.remove(0);
+        double rate = 0;
+        int burst = 1;
+        int concurrency = 0;
+        try {
+            for (String limit : tokens) {
+                int equals = limit.indexOf('=');
+                String name = equals < 0 ? limit : limit.substring(0, equals).toLowerCase(Locale.ROOT);
+                String setting = equals < 0 ? "" : limit.substring(equals + 1);
+                switch (name) {
+                    case "rate" -> {
+                        rate = Double.parseDouble(setting);
+                        if (!(rate > 0) || Double.isInfinite(rate)) {
+                            throw new IllegalArgumentException("rate must be positive but was " + setting);
+                        }
+                    }
+                    case "burst" -> burst = positive(name, Integer.parseInt(setting));
+                    case "concurrency" -> concurrency = positive(name, Integer.parseInt(setting));
+                    default -> throw new IllegalArgumentException("unknown limit " + limit
+                            + ", expected rate, burst or concurrency");
+                }
+            }
+            if (rate == 0 && concurrency == 0) {
+                throw new IllegalArgumentException("rate or concurrency is required");
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Throttle rule " + rule + " is invalid: " + ex.getMessage(), ex);
+        }
+        return new ThrottleRule(method, template, FaultRule.templatePattern(template), rate, burst, concurrency);
+    }
+
+    private static int positive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(method == null ? "" : method + " ").append(template);
+        if (rate > 0) {
+            builder.append(" rate=").append(rate).append(" burst=").append(burst);
+        }
+        if (concurrency > 0) {
+            builder.append(" concurrency=").append(concurrency);
+        }
+        return builder.toString();
+    }
+}
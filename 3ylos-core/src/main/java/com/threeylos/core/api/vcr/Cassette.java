@@ -0,0 +1,334 @@
+package com.threeylos.core.api.vcr;
+
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only file of recorded http interactions, memory-mapped so a
+ * cassette of tens of thousands of interactions is never read onto the heap.
+ * <p>
+ * Only an index from the request fingerprint to the position of the
+ * interaction is kept in memory, a response is read from the mapped file when
+ * it is played back. Recording the same request again appends a new
+ * interaction that replaces the older one in the index.
+ * </p>
+ * <p>
+ * Layout: a header of magic and version, then one record per interaction:
+ * the length of the rest of the record, the 16 byte fingerprint, the status
+ * code and the length prefixed request line, status line, headers and body.
+ * The file grows in steps while recording, a record length of 0 marks the
+ * end, so a cassette of an aborted recording is still readable.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class Cassette implements Closeable {
+
+    private static final int MAGIC = 0x56435231;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FINGERPRINT_BYTES = 16;
+    private static final long GROWTH = 16L << 20;
+    private static final long MAX_BYTES = Integer.MAX_VALUE;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final boolean writable;
+
+    private final Map<Fingerprint, Integer> index = new ConcurrentHashMap<>();
+
+    private volatile MappedByteBuffer buffer;
+
+    private volatile int end;
+
+    private Cassette(Path file, FileChannel channel, boolean writable) {
+        this.file = file;
+        this.channel = channel;
+        this.writable = writable;
+    }
+
+    /**
+     * Open a cassette to append interactions to, the file is created if missing.
+     *
+     * @param file The cassette file.
+     * @return The cassette.
+     * @throws IllegalStateException when the file cannot be opened or is not a cassette.
+     */
+    public static Cassette record(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            return open(file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE), true);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Opening the cassette " + file + " failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Open a cassette to play its interactions back.
+     *
+     * @param file The cassette file.
+     * @return The cassette.
+     * @throws IllegalStateException when the file is missing or is not a cassette.
+     */
+    public static Cassette playback(Path file) {
+        if (Files.notExists(file)) {
+            throw new IllegalStateException("The cassette " + file.toAbsolutePath() + " does not exist, record it "
+                    + "first with " + Vcr.VCR_MODE + "=record");
+        }
+        try {
+            return open(file, FileChannel.open(file, StandardOpenOption.READ), false);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Opening the cassette " + file + " failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static Cassette open(Path file, FileChannel channel, boolean writable) throws IOException {
+        Cassette cassette = new Cassette(file, channel, writable);
+        try {
+            long size = channel.size();
+            if (size > MAX_BYTES) {
+                throw new IllegalStateException("The cassette " + file + " is larger than " + MAX_BYTES + " bytes");
+            }
+            if (size == 0 && writable) {
+                cassette.map(GROWTH);
+                cassette.buffer.putInt(0, MAGIC);
+                cassette.buffer.putInt(4, VERSION);
+            } else {
+                cassette.map(size);
+            }
+            cassette.scan();
+            log.info("Opened cassette {} with {} interaction(s) for {}", file.toAbsolutePath(),
+                    cassette.index.size(), writable ? "recording" : "playback");
+            return cassette;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Number of distinct requests in the cassette.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Never locks, so parallel scenarios play back concurrently.
+     *
+     * @param fingerprint Fingerprint of the request.
+     * @return The latest interaction recorded for the request.
+     */
+    public Optional<Interaction> find(Fingerprint fingerprint) {
+        Integer position = index.get(fingerprint);
+        return position == null ? Optional.empty() : Optional.of(read(position));
+    }
+
+    /**
+     * Read the request lines of all interactions, to explain why a request was not found.
+     *
+     * @return The request lines in recording order.
+     */
+    public List<String> requests() {
+        List<String> requests = new ArrayList<>();
+        ByteBuffer mapped = buffer;
+        int limit = end;
+        int position = HEADER_BYTES;
+        while (position < limit) {
+            requests.add(new String(bytes(mapped, position + 4 + FINGERPRINT_BYTES + 4), StandardCharsets.UTF_8));
+            position += 4 + mapped.getInt(position);
+        }
+        return requests;
+    }
+
+    /**
+     * Append an interaction.
+     *
+     * @param fingerprint Fingerprint of the request.
+     * @param interaction The request line and the response.
+     * @throws IllegalStateException when the cassette is opened for playback or exceeds the maximum size.
+     */
+    public synchronized void append(Fingerprint fingerprint, Interaction interaction) {
+        if (!writable) {
+            throw new IllegalStateException("The cassette " + file + " is opened for playback");
+        }
+        byte[] request = interaction.request().getBytes(StandardCharsets.UTF_8);
+        byte[] statusLine = interaction.statusLine().getBytes(StandardCharsets.UTF_8);
+        byte[] headers = encode(interaction.headers());
+        long length = FINGERPRINT_BYTES + 4L + 4 + request.length + 4 + statusLine.length + 4 + headers.length + 4
+                + interaction.body().length;
+        long required = end + 4 + length;
+        try {
+            if (required > buffer.capacity()) {
+                if (required > MAX_BYTES) {
+                    throw new IllegalStateException("The cassette " + file + " would exceed " + MAX_BYTES
+                            + " bytes, record into another cassette");
+                }
+                map(Math.min(MAX_BYTES, (required / GROWTH + 1) * GROWTH));
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Growing the cassette " + file + " failed: " + ex.getMessage(), ex);
+        }
+        int position = end;
+        ByteBuffer target = buffer.duplicate().position(position + 4);
+        target.putLong(fingerprint.high()).putLong(fingerprint.low()).putInt(interaction.status());
+        target.putInt(request.length).put(request);
+        target.putInt(statusLine.length).put(statusLine);
+        target.putInt(headers.length).put(headers);
+        target.putInt(interaction.body().length).put(interaction.body());
+        // The length is written last, a record is only visible once it is complete.
+        buffer.putInt(position, (int) length);
+        end = target.position();
+        index.put(fingerprint, position);
+    }
+
+    /**
+     * Write the recorded interactions to disk and release the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        if (writable) {
+            buffer.force();
+            buffer = null;
+            try {
+                channel.truncate(end);
+            } catch (IOException ex) {
+                log.debug("Trimming the cassette {} failed, the unused tail stays empty", file, ex);
+            }
+        }
+        channel.close();
+    }
+
+    private void map(long capacity) throws IOException {
+        buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, capacity);
+    }
+
+    private void scan() {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException(file + " is not a cassette");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("The cassette " + file + " has the unsupported version "
+                    + buffer.getInt(4));
+        }
+        int position = HEADER_BYTES;
+        while (position + 4 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0) {
+                break;
+            }
+            if ((long) position + 4 + length > buffer.capacity()) {
+                log.warn("The cassette {} ends with an incomplete interaction, it is ignored", file);
+                break;
+            }
+            index.put(new Fingerprint(buffer.getLong(position + 4), buffer.getLong(position + 12)), position);
+            position += 4 + length;
+        }
+        end = position;
+    }
+
+    private Interaction read(int position) {
+        ByteBuffer mapped = buffer;
+        int status = mapped.getInt(position + 4 + FINGERPRINT_BYTES);
+        int at = position + 4 + FINGERPRINT_BYTES + 4;
+        byte[] request = bytes(mapped, at);
+        at += 4 + request.length;
+        byte[] statusLine = bytes(mapped, at);
+        at += 4 + statusLine.length;
+        byte[] headers = bytes(mapped, at);
+        at += 4 + headers.length;
+        return new Interaction(new String(request, StandardCharsets.UTF_8), status,
+                new String(statusLine, StandardCharsets.UTF_8), decode(headers), bytes(mapped, at));
+    }
+
+    /**
+     * Absolute reads only, the shared buffer is never repositioned.
+     */
+    private static byte[] bytes(ByteBuffer mapped, int position) {
+        byte[] bytes = new byte[mapped.getInt(position)];
+        mapped.get(position + 4, bytes);
+        return bytes;
+    }
+
+    private static byte[] encode(Headers headers) {
+        StringBuilder builder = new StringBuilder();
+        for (Header header : headers) {
+            builder.append(header.getName()).append('\n').append(header.getValue()).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Headers decode(byte[] bytes) {
+        String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n", -1);
+        List<Header> headers = new ArrayList<>(lines.length / 2);
+        for (int i = 0; i + 1 < lines.length; i += 2) {
+            headers.add(new Header(lines[i], lines[i + 1]));
+        }
+        return new Headers(headers);
+    }
+
+    /**
+     * First 16 bytes of the SHA-256 of the canonical form of a request.
+     */
+    public record Fingerprint(long high, long low) {
+
+        public static Fingerprint of(byte[] canonicalRequest) {
+            try {
+                ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(canonicalRequest));
+                return new Fingerprint(digest.getLong(), digest.getLong());
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 is not available", ex);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%016x%016x", high, low);
+        }
+    }
+
+    /**
+     * A recorded request and its response.
+     *
+     * @param request    Method, path and query of the request.
+     * @param status     Status code of the response.
+     * @param statusLine Status line of the response.
+     * @param headers    Headers of the response.
+     * @param body       Body of the response.
+     */
+    public record Interaction(String request, int status, String statusLine, Headers headers, byte[] body) {
+    }
+}
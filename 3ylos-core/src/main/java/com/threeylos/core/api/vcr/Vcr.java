@@ -0,0 +1,132 @@
+package com.threeylos.core.api.vcr;
+
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Record and playback of http interactions for fast local runs without the
+ * service, see {@link VcrFilter}.
+ * <p>
+ * {@code VCR_MODE=record} sends every request to the service and appends the
+ * interaction to the {@code VCR_CASSETTE}, {@code VCR_MODE=playback} answers
+ * every request from the cassette without any network i/o and fails a
+ * request that was never recorded. The default {@code off} leaves requests
+ * untouched.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class Vcr {
+
+    public static final String VCR_MODE = "VCR_MODE";
+    public static final String VCR_CASSETTE = "VCR_CASSETTE";
+    public static final String VCR_MATCH_HEADERS = "VCR_MATCH_HEADERS";
+
+    /**
+     * What happens to a request.
+     */
+    public enum Mode {
+        /**
+         * Requests go to the service.
+         */
+        OFF,
+        /**
+         * Requests go to the service and the interactions are appended to the cassette.
+         */
+        RECORD,
+        /**
+         * Requests are answered from the cassette.
+         */
+        PLAYBACK
+    }
+
+    private static final Vcr INSTANCE = new Vcr();
+
+    private final Mode mode;
+
+    private final Path file;
+
+    private final List<String> matchHeaders;
+
+    private volatile Cassette cassette;
+
+    private Vcr() {
+        String value = ApplicationProperties.getValue(VCR_MODE, Mode.OFF.name()).trim();
+        try {
+            this.mode = Mode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException(VCR_MODE + " must be off, record or playback but was " + value, ex);
+        }
+        this.file = Paths.get(ApplicationProperties.getValue(VCR_CASSETTE, "cassettes/api.cassette"));
+        this.matchHeaders = Arrays.stream(ApplicationProperties.getValue(VCR_MATCH_HEADERS, "").split(","))
+                .map(String::trim).filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT)).sorted().toList();
+        if (mode != Mode.OFF) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "vcr-cassette-close"));
+        }
+    }
+
+    public static Vcr getInstance() {
+        return INSTANCE;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isPlayback() {
+        return mode == Mode.PLAYBACK;
+    }
+
+    /**
+     * @return Lower case names of the request headers that are part of the request fingerprint, sorted.
+     */
+    public List<String> getMatchHeaders() {
+        return matchHeaders;
+    }
+
+    /**
+     * @return The cassette of the mode, opened on first use.
+     * @throws IllegalStateException when the mode is off or the cassette cannot be opened.
+     */
+    public Cassette cassette() {
+        Cassette current = cassette;
+        if (current == null) {
+            synchronized (this) {
+                current = cassette;
+                if (current == null) {
+                    current = switch (mode) {
+                        case RECORD -> Cassette.record(file);
+                        case PLAYBACK -> Cassette.playback(file);
+                        case OFF -> throw new IllegalStateException("No cassette, " + VCR_MODE + " is off");
+                    };
+                    cassette = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Write the recorded interactions to disk and release the cassette.
+     */
+    public synchronized void close() {
+        if (cassette == null) {
+            return;
+        }
+        try {
+            cassette.close();
+        } catch (IOException ex) {
+            log.warn("Closing the cassette {} failed", file, ex);
+        }
+        cassette = null;
+    }
+}
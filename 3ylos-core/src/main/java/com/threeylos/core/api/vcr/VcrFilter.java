@@ -0,0 +1,146 @@
+package com.threeylos.core.api.vcr;
+
+import com.threeylos.core.api.throttle.ThrottleFilter;
+import com.threeylos.core.util.api.RestAssuredUtils;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Records interactions to, or plays them back from, the cassette of the {@link Vcr}.
+ * <p>
+ * A request is matched by a fingerprint of its method, path, query
+ * parameters in any order, body as sent, multipart parts included, see
+ * {@link RestAssuredUtils#requestBody}, and the {@code VCR_MATCH_HEADERS}, never by
+ * host, port or credentials, so a cassette recorded against one environment
+ * plays back in any other. A request without a recorded interaction fails
+ * with the recorded requests of the same method and path, so the difference
+ * is easy to spot.
+ * </p>
+ * <p>
+ * Runs outside of the throttle, the traffic capture and the latency timing,
+ * so in playback none of them is called, nothing is sent and a cassette
+ * lookup is never timed as endpoint latency. A recorded response is buffered
+ * by the filters inside of it.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public class VcrFilter implements OrderedFilter {
+
+    /**
+     * Just before the throttle.
+     */
+    public static final int ORDER = ThrottleFilter.ORDER - 1;
+
+    private static final int MAX_LISTED = 5;
+
+    private final Vcr vcr;
+
+    public VcrFilter() {
+        this(Vcr.getInstance());
+    }
+
+    public VcrFilter(Vcr vcr) {
+        this.vcr = vcr;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        if (vcr.getMode() == Vcr.Mode.OFF) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        String request = requestLine(requestSpec);
+        Cassette.Fingerprint fingerprint = Cassette.Fingerprint.of(canonical(request, requestSpec));
+        Cassette cassette = vcr.cassette();
+        if (vcr.isPlayback()) {
+            Cassette.Interaction interaction = cassette.find(fingerprint)
+                    .orElseThrow(() -> new IllegalStateException(miss(cassette, request, fingerprint)));
+            ResponseBuilder builder = new ResponseBuilder()
+                    .setStatusCode(interaction.status())
+                    .setStatusLine(interaction.statusLine())
+                    .setHeaders(interaction.headers())
+                    .setBody(interaction.body());
+            if (interaction.headers().hasHeaderWithName("Content-Type")) {
+                builder.setContentType(interaction.headers().getValue("Content-Type"));
+            }
+            return builder.build();
+        }
+        Response response = ctx.next(requestSpec, responseSpec);
+        cassette.append(fingerprint, new Cassette.Interaction(request, response.getStatusCode(),
+                response.getStatusLine(), response.getHeaders(), response.getBody().asByteArray()));
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * @return Method, path and the query parameters sorted.
+     */
+    private static String requestLine(FilterableRequestSpecification requestSpec) {
+        URI uri = URI.create(requestSpec.getURI());
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        String query = uri.getRawQuery() == null ? ""
+                : Arrays.stream(uri.getRawQuery().split("&")).sorted().collect(Collectors.joining("&"));
+        return requestSpec.getMethod().toUpperCase(Locale.ROOT) + " " + (query.isEmpty() ? path : path + "?" + query);
+    }
+
+    private byte[] canonical(String request, FilterableRequestSpecification requestSpec) {
+        ByteArrayOutputStream canonical = new ByteArrayOutputStream();
+        canonical.writeBytes(request.getBytes(StandardCharsets.UTF_8));
+        canonical.write('\n');
+        for (String header : vcr.getMatchHeaders()) {
+            List<String> values = requestSpec.getHeaders().getValues(header);
+            canonical.writeBytes((header + ":" + String.join(",", values) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] body = RestAssuredUtils.requestBody(requestSpec);
+        if (body != null) {
+            canonical.writeBytes(body);
+        }
+        return canonical.toByteArray();
+    }
+
+    private static String miss(Cassette cassette, String request, Cassette.Fingerprint fingerprint) {
+        String methodAndPath = stripQuery(request);
+        List<String> similar = cassette.requests().stream()
+                .filter(recorded -> stripQuery(recorded).equals(methodAndPath))
+                .distinct()
+                .toList();
+        StringBuilder message = new StringBuilder("No recorded interaction for ").append(request)
+                .append(" (fingerprint ").append(fingerprint).append(") in the cassette ")
+                .append(cassette.getFile().toAbsolutePath()).append(" of ").append(cassette.size())
+                .append(" interaction(s).");
+        if (similar.isEmpty()) {
+            message.append(" Nothing was recorded for ").append(methodAndPath).append('.');
+        } else if (similar.contains(request)) {
+            message.append(" ").append(request).append(" was recorded with another body or ")
+                    .append(Vcr.VCR_MATCH_HEADERS).append(" headers.");
+        } else {
+            message.append(" Recorded for ").append(methodAndPath).append(": ")
+                    .append(String.join(", ", similar.subList(0, Math.min(MAX_LISTED, similar.size()))))
+                    .append(similar.size() > MAX_LISTED ? " and " + (similar.size() - MAX_LISTED) + " more" : "")
+                    .append('.');
+        }
+        return message.append(" Record it with ").append(Vcr.VCR_MODE).append("=record.").toString();
+    }
+
+    private static String stripQuery(String request) {
+        int query = request.indexOf('?');
+        return query < 0 ? request : request.substring(0, query);
+    }
+}
@@ -1,46 +1,161 @@
 package com.threeylos.core.config;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+import com.threeylos.core.util.common.ThreadUtil;
 import lombok.extern.log4j.Log4j2;
 
-import com.threeylos.core.util.common.FileUtil;
-
 /**
- * 
+ *
  * This class loaded all the configuration
- * 
+ * <p>
+ * Values are merged from the classpath {@code application.properties} and the
+ * files of the profiles in {@code APP_PROFILE}, a system property overrides a
+ * file and an environment variable overrides both, see {@link ConfigLoader}.
+ * {@link #getProperties()} lists the keys of the files only. Lookups read an immutable
+ * {@link ConfigSnapshot}, a reload publishes a new snapshot atomically and
+ * notifies the registered listeners. With {@code CONFIG_WATCH=true} the
+ * configuration files are watched and reloaded when they change.
+ * </p>
+ *
  * @author AbhinitKumar
  *
  */
 @Log4j2
 public final class ApplicationProperties {
 
-	/**
-	 * Configuration property file name.
-	 */
-	private static final String TEST_CONFIG = "application.properties";
+	private static final String CONFIG_WATCH = "CONFIG_WATCH";
+
+	private static final ConfigLoader LOADER = new ConfigLoader();
+
+	private static final List<Consumer<ConfigSnapshot>> LISTENERS = new CopyOnWriteArrayList<>();
 
 	/**
 	 * Configuration property data
 	 */
-	private static final Properties PROP;
+	private static volatile ConfigSnapshot snapshot;
+
+	private static ConfigWatcher watcher;
 
 	private ApplicationProperties() {
 	}
 
 	static {
-		PROP = FileUtil.getProperties(TEST_CONFIG);
+		snapshot = load(1);
+		if (snapshot.getBoolean(CONFIG_WATCH, false)) {
+			startWatching();
+		}
+	}
 
+	/**
+	 * @return The current configuration snapshot.
+	 */
+	public static ConfigSnapshot getSnapshot() {
+		return snapshot;
 	}
 
+	/**
+	 * @return A copy of all configuration values.
+	 */
 	public static Properties getProperties() {
-		return PROP;
+		return snapshot.toProperties();
 	}
 
 	public static String getValue(final String key) {
-		log.debug("Get property value by key:{} and value: {}", key,PROP.getProperty(key));
-		return PROP.getProperty(key);
+		return snapshot.getString(key);
+	}
+
+	public static String getValue(final String key, final String defaultValue) {
+		return snapshot.getString(key, defaultValue);
+	}
+
+	public static int getInt(final String key, final int defaultValue) {
+		return snapshot.getInt(key, defaultValue);
+	}
+
+	public static long getLong(final String key, final long defaultValue) {
+		return snapshot.getLong(key, defaultValue);
+	}
+
+	public static double getDouble(final String key, final double defaultValue) {
+		return snapshot.getDouble(key, defaultValue);
+	}
+
+	public static boolean getBoolean(final String key, final boolean defaultValue) {
+		return snapshot.getBoolean(key, defaultValue);
+	}
+
+	public static Duration getDuration(final String key, final Duration defaultValue) {
+		return snapshot.getDuration(key, defaultValue);
+	}
+
+	/**
+	 * Read all configuration layers again and publish the new snapshot.
+	 *
+	 * @return The new snapshot.
+	 */
+	public static synchronized ConfigSnapshot reload() {
+		ConfigSnapshot reloaded = load(snapshot.getVersion() + 1);
+		snapshot = reloaded;
+		for (Consumer<ConfigSnapshot> listener : LISTENERS) {
+			try {
+				listener.accept(reloaded);
+			} catch (RuntimeException ex) {
+				log.warn("Configuration listener failed", ex);
+			}
+		}
+		return reloaded;
+	}
+
+	/**
+	 * Register a listener called with every snapshot published by {@link #reload()}.
+	 *
+	 * @param listener The listener.
+	 */
+	public static void addListener(final Consumer<ConfigSnapshot> listener) {
+		LISTENERS.add(listener);
+	}
+
+	public static void removeListener(final Consumer<ConfigSnapshot> listener) {
+		LISTENERS.remove(listener);
+	}
+
+	/**
+	 * Reload the configuration whenever one of its files changes.
+	 */
+	public static synchronized void startWatching() {
+		if (watcher != null) {
+			return;
+		}
+		try {
+			watcher = new ConfigWatcher(LOADER.getWatchedFiles(), ApplicationProperties::reload);
+			ThreadUtil.daemonThreadFactory("config-watcher").newThread(watcher).start();
+		} catch (IOException ex) {
+			log.warn("Watching configuration files failed", ex);
+		}
+	}
+
+	public static synchronized void stopWatching() {
+		if (watcher != null) {
+			try {
+				watcher.close();
+			} catch (IOException ex) {
+				log.debug("Closing configuration watcher failed", ex);
+			}
+			watcher = null;
+		}
+	}
+
+	private static ConfigSnapshot load(long version) {
+		ConfigSnapshot loaded = LOADER.load(version);
+		log.debug("Configuration version: {} loaded from: {} with profiles: {}", loaded.getVersion(),
+				loaded.getSources(), loaded.getProfiles());
+		return loaded;
 	}
 
 }
@@ -0,0 +1,129 @@
+package com.threeylos.core.config;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Merges the configuration layers, later layers override earlier ones:
+ * <ol>
+ *     <li>classpath {@code application.properties}</li>
+ *     <li>{@code application.properties} in {@code CONFIG_DIR}</li>
+ *     <li>classpath {@code application-{profile}.properties} for every profile of {@code APP_PROFILE}</li>
+ *     <li>{@code application-{profile}.properties} in {@code CONFIG_DIR}</li>
+ *     <li>system properties</li>
+ *     <li>environment variables</li>
+ * </ol>
+ * <p>
+ * Only the files are merged into the snapshot. The system properties and
+ * the environment are looked up by the snapshot for the keys asked for, so
+ * the values of the process environment are never listed as configuration.
+ * {@code CONFIG_DIR} and {@code APP_PROFILE} are taken from the environment,
+ * the system properties and, for the profiles, the files in this order.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+final class ConfigLoader {
+
+    static final String APP_PROFILE = "APP_PROFILE";
+    static final String CONFIG_DIR = "CONFIG_DIR";
+
+    private static final String BASE_NAME = "application";
+    private static final String EXTENSION = ".properties";
+
+    private final Set<Path> watchedFiles = new LinkedHashSet<>();
+
+    ConfigSnapshot load(long version) {
+        Map<String, String> values = new HashMap<>();
+        List<String> sources = new ArrayList<>();
+        Map<String, String> environment = System.getenv();
+        Properties systemProperties = System.getProperties();
+        String configDir = firstNonNull(environment.get(CONFIG_DIR), systemProperties.getProperty(CONFIG_DIR));
+
+        watchedFiles.clear();
+        loadLayer(BASE_NAME + EXTENSION, configDir, values, sources);
+
+        String profileValue = firstNonNull(environment.get(APP_PROFILE), systemProperties.getProperty(APP_PROFILE),
+                values.get(APP_PROFILE));
+        List<String> profiles = profileValue == null ? List.of() : Arrays.stream(profileValue.split(","))
+                .map(String::trim).filter(profile -> !profile.isEmpty()).toList();
+        for (String profile : profiles) {
+            loadLayer(BASE_NAME + "-" + profile + EXTENSION, configDir, values, sources);
+        }
+
+        Map<String, String> system = new HashMap<>();
+        systemProperties.stringPropertyNames().forEach(key -> system.put(key, systemProperties.getProperty(key)));
+        sources.add("system properties");
+        sources.add("environment");
+        return new ConfigSnapshot(values, system, environment, sources, profiles, version);
+    }
+
+    /**
+     * @return Files of the last load that exist on disk and can be watched for changes.
+     */
+    Set<Path> getWatchedFiles() {
+        return Set.copyOf(watchedFiles);
+    }
+
+    private void loadLayer(String fileName, String configDir, Map<String, String> values, List<String> sources) {
+        URL resource = Thread.currentThread().getContextClassLoader() == null ? null
+                : Thread.currentThread().getContextClassLoader().getResource(fileName);
+        if (resource == null) {
+            resource = ConfigLoader.class.getClassLoader().getResource(fileName);
+        }
+        if (resource != null) {
+            try (InputStream inputStream = resource.openStream()) {
+                merge(inputStream, values);
+                sources.add("classpath:" + fileName);
+                if ("file".equals(resource.getProtocol())) {
+                    watchedFiles.add(Paths.get(resource.toURI()));
+                }
+            } catch (IOException | URISyntaxException ex) {
+                log.error("Error is getting property file name: {} reading", fileName, ex);
+            }
+        }
+        if (configDir != null) {
+            Path file = Paths.get(configDir, fileName);
+            watchedFiles.add(file.toAbsolutePath());
+            if (Files.isRegularFile(file)) {
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    merge(inputStream, values);
+                    sources.add(file.toString());
+                } catch (IOException ex) {
+                    log.error("Error is getting property file name: {} reading", file, ex);
+                }
+            }
+        }
+    }
+
+    private static void merge(InputStream inputStream, Map<String, String> values) throws IOException {
+        Properties properties = new Properties();
+        properties.load(inputStream);
+        properties.stringPropertyNames().forEach(key -> values.put(key, properties.getProperty(key)));
+    }
+
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
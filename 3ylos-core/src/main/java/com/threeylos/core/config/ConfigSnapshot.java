@@ -0,0 +1,143 @@
+package com.threeylos.core.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable view of the merged configuration layers.
+ * <p>
+ * A key is looked up in the environment, then in the system properties and
+ * then in the merged files, see {@link ConfigLoader}.
+ * </p>
+ * <p>
+ * Typed values are parsed on first access and cached for the lifetime of the
+ * snapshot, a reload publishes a new snapshot with an empty cache.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class ConfigSnapshot {
+
+    private static final Object MISSING = new Object();
+
+    private final Map<String, String> values;
+
+    private final Map<String, String> systemProperties;
+
+    private final Map<String, String> environment;
+
+    private final List<String> sources;
+
+    private final List<String> profiles;
+
+    private final long version;
+
+    private final Map<String, Object> typed = new ConcurrentHashMap<>();
+
+    /**
+     * @param values           The merged files.
+     * @param systemProperties The system properties, override the files.
+     * @param environment      The environment variables, override the system properties.
+     */
+    ConfigSnapshot(Map<String, String> values, Map<String, String> systemProperties, Map<String, String> environment,
+                   List<String> sources, List<String> profiles, long version) {
+        this.values = Map.copyOf(values);
+        this.systemProperties = Map.copyOf(systemProperties);
+        this.environment = Map.copyOf(environment);
+        this.sources = List.copyOf(sources);
+        this.profiles = List.copyOf(profiles);
+        this.version = version;
+    }
+
+    /**
+     * @return The value or {@code null} when the key is not configured.
+     */
+    public String getString(String key) {
+        String value = environment.get(key);
+        if (value == null) {
+            value = systemProperties.get(key);
+        }
+        return value == null ? values.get(key) : value;
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = getString(key);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return get(key, "int", Integer::parseInt, defaultValue);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return get(key, "long", Long::parseLong, defaultValue);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        return get(key, "double", Double::parseDouble, defaultValue);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return get(key, "boolean", Boolean::parseBoolean, defaultValue);
+    }
+
+    /**
+     * @param key          The key of a value in milliseconds.
+     * @param defaultValue Used when the key is not configured.
+     */
+    public Duration getDuration(String key, Duration defaultValue) {
+        return get(key, "duration", value -> Duration.ofMillis(Long.parseLong(value)), defaultValue);
+    }
+
+    public boolean contains(String key) {
+        return getString(key) != null;
+    }
+
+    /**
+     * @return The keys of the files with their values, changes to the returned object are not visible to the
+     * snapshot.
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        values.keySet().forEach(key -> properties.setProperty(key, getString(key)));
+        return properties;
+    }
+
+    /**
+     * @return Descriptions of the loaded layers, lowest precedence first.
+     */
+    public List<String> getSources() {
+        return sources;
+    }
+
+    public List<String> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * @return Incremented with every reload.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, String type, Function<String, T> parser, T defaultValue) {
+        Object value = typed.computeIfAbsent(type + ':' + key, cacheKey -> {
+            String raw = getString(key);
+            if (raw == null || raw.isBlank()) {
+                return MISSING;
+            }
+            try {
+                return parser.apply(raw.trim());
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Configuration " + key + "=" + raw + " is not a valid " + type, ex);
+            }
+        });
+        return value == MISSING ? defaultValue : (T) value;
+    }
+}
@@ -0,0 +1,89 @@
+package com.threeylos.core.config;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Watches the configuration files with a {@link WatchService} and triggers a
+ * reload when one of them changes. Bursts of events, e.g. an editor writing a
+ * file in several steps, are collapsed into a single reload.
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+final class ConfigWatcher implements Runnable {
+
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private final WatchService watchService;
+
+    private final Set<Path> files;
+
+    private final Runnable onChange;
+
+    ConfigWatcher(Set<Path> files, Runnable onChange) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.files = files.stream().map(Path::toAbsolutePath).collect(Collectors.toUnmodifiableSet());
+        this.onChange = onChange;
+        for (Path directory : this.files.stream().map(Path::getParent).collect(Collectors.toSet())) {
+            if (directory != null && directory.toFile().isDirectory()) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                log.debug("Watching configuration directory: {}", directory);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = collect(key);
+                // collapse the events of the following moments into this reload
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= collect(next);
+                }
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException ex) {
+                        log.warn("Reloading configuration failed, the previous configuration stays active", ex);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            log.debug("Configuration watcher closed");
+        }
+    }
+
+    void close() throws IOException {
+        watchService.close();
+    }
+
+    private boolean collect(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && files.contains(directory.resolve(name).toAbsolutePath())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,181 @@
+package com.threeylos.core.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When the requests of an open-model load run are due, see {@link ArrivalRateScheduler}.
+ *
+ * @author AbhinitKumar
+ */
+public interface ArrivalPattern {
+
+    /**
+     * Returned by {@link #next(long)} when no further request is due.
+     */
+    long END = Long.MAX_VALUE;
+
+    /**
+     * @param previousNanos Time the previous request was due, in nanoseconds since the start of the run,
+     *                      negative for the first request.
+     * @return Time the next request is due, in nanoseconds since the start of the run, or {@link #END}.
+     */
+    long next(long previousNanos);
+
+    /**
+     * @param elapsedNanos Time since the start of the run.
+     * @return The target rate in requests per second at that time.
+     */
+    double rateAt(long elapsedNanos);
+
+    /**
+     * @param elapsedNanos Time since the start of the run.
+     * @return Index of the stage of {@link #getStages()} at that time.
+     */
+    default int stageAt(long elapsedNanos) {
+        return 0;
+    }
+
+    /**
+     * @return The stages of the pattern, a single open ended stage for patterns without stages.
+     */
+    default List<Stage> getStages() {
+        return List.of(Stage.plateau(Duration.ofNanos(Long.MAX_VALUE), rateAt(0)));
+    }
+
+    /**
+     * @param factor Factor of the rate, e.g. the share of a worker of a distributed run.
+     * @return This pattern at the rate multiplied by the factor.
+     * @throws UnsupportedOperationException when the pattern cannot be scaled.
+     */
+    default ArrivalPattern scale(double factor) {
+        throw new UnsupportedOperationException("Arrival pattern " + this + " cannot be scaled");
+    }
+
+    /**
+     * Evenly spaced requests.
+     *
+     * @param ratePerSecond Requests per second.
+     */
+    static ArrivalPattern constant(double ratePerSecond) {
+        requirePositive(ratePerSecond);
+        return new StageArrivalPattern(List.of(Stage.plateau(Duration.ofNanos(Long.MAX_VALUE), ratePerSecond)),
+                String.format(Locale.ROOT, "constant(%.2f/s)", ratePerSecond));
+    }
+
+    /**
+     * Requests arriving independently of each other with exponentially
+     * distributed gaps, like the requests of many unrelated clients.
+     *
+     * @param ratePerSecond Mean requests per second.
+     */
+    static ArrivalPattern poisson(double ratePerSecond) {
+        requirePositive(ratePerSecond);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        return new ArrivalPattern() {
+            @Override
+            public long next(long previousNanos) {
+                double gap = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos;
+                return Math.max(previousNanos, 0) + (long) gap;
+            }
+
+            @Override
+            public double rateAt(long elapsedNanos) {
+                return ratePerSecond;
+            }
+
+            @Override
+            public ArrivalPattern scale(double factor) {
+                return poisson(ratePerSecond * factor);
+            }
+
+            @Override
+            public String toString() {
+                return String.format(Locale.ROOT, "poisson(%.2f/s)", ratePerSecond);
+            }
+        };
+    }
+
+    /**
+     * Requests at a rate changing stage by stage: plateaus hold a rate, a
+     * rate of 0 pauses, ramps change the rate linearly. No request is due
+     * after the last stage.
+     *
+     * @param stages The stages in order.
+     */
+    static ArrivalPattern stages(List<Stage> stages) {
+        return new StageArrivalPattern(stages);
+    }
+
+    /**
+     * Parse {@code rate:millis} plateaus and {@code from-to:millis} ramps,
+     * e.g. {@code 0-100:30000,100:60000}.
+     *
+     * @param value The stages.
+     * @return The stages in order.
+     */
+    static List<Stage> parseStages(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(stage -> !stage.isEmpty())
+                .map(stage -> {
+                    String[] parts = stage.split(":");
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Stage must be rate:millis or from-to:millis but was "
+                                + stage);
+                    }
+                    Duration duration = Duration.ofMillis(Long.parseLong(parts[1].trim()));
+                    String[] rates = parts[0].split("-");
+                    return rates.length == 2
+                            ? Stage.ramp(duration, Double.parseDouble(rates[0].trim()), Double.parseDouble(rates[1].trim()))
+                            : Stage.plateau(duration, Double.parseDouble(parts[0].trim()));
+                })
+                .toList();
+    }
+
+    private static void requirePositive(double ratePerSecond) {
+        if (!(ratePerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be positive but was " + ratePerSecond);
+        }
+    }
+
+    /**
+     * A rate held, or changed linearly, for a duration.
+     *
+     * @param duration How long the stage lasts.
+     * @param fromRate Requests per second at the start of the stage.
+     * @param toRate   Requests per second at the end of the stage.
+     */
+    record Stage(Duration duration, double fromRate, double toRate) {
+
+        public Stage {
+            if (duration.isNegative() || fromRate < 0 || toRate < 0) {
+                throw new IllegalArgumentException("Invalid stage: " + fromRate + "-" + toRate + "/s for "
+                        + duration);
+            }
+        }
+
+        public static Stage plateau(Duration duration, double ratePerSecond) {
+            return new Stage(duration, ratePerSecond, ratePerSecond);
+        }
+
+        public static Stage ramp(Duration duration, double fromRate, double toRate) {
+            return new Stage(duration, fromRate, toRate);
+        }
+
+        public boolean isPlateau() {
+            return fromRate == toRate;
+        }
+
+        @Override
+        public String toString() {
+            String rate = isPlateau() ? String.format(Locale.ROOT, "%.2f/s", fromRate)
+                    : String.format(Locale.ROOT, "%.2f-%.2f/s", fromRate, toRate);
+            return duration.toNanos() == Long.MAX_VALUE ? rate : rate + " for " + duration.toMillis() + " ms";
+        }
+    }
+}
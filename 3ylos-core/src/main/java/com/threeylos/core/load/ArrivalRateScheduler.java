@@ -0,0 +1,235 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.RestApiBase;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.api.model.RequestTemplate;
+import io.restassured.response.Response;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load generator sending requests at the rate of an {@link ArrivalPattern},
+ * however long the responses take.
+ * <p>
+ * A single scheduler thread dispatches every request when it is due with a
+ * {@link DueTimeDispatcher}. Latency is measured from the time a request was
+ * due, not from the time it was actually sent, so stalls of the server or of
+ * the load generator show up in the latency instead of silently lowering the
+ * rate (coordinated omission). The service time from the actual send is
+ * reported next to it. Requests due while {@code maxInFlight} requests are
+ * outstanding are dropped and counted instead of being sent.
+ * </p>
+ * <p>
+ * Every stage of the pattern, e.g. every plateau of a step load, has its own
+ * latency histogram, so the knee of the latency curve is visible in the report.
+ * </p>
+ * <p>
+ * A warm-up of the profile runs the arrival pattern from its start for the
+ * warm-up duration or number of requests before the measured run, its samples
+ * are dropped, see {@link WarmUp}. With an iteration count the run ends after
+ * that many requests were due.
+ * </p>
+ * <p>
+ * Several JVMs can send the load together, see {@link LoadCoordinator}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public class ArrivalRateScheduler {
+
+    private final LoadProfile profile;
+
+    private final String name;
+
+    private final Supplier<?> task;
+
+    private final LoadMetrics metrics = new LoadMetrics();
+
+    private long scheduled;
+
+    /**
+     * @param profile The workload, its arrival pattern is required.
+     * @param name    Name of the task in the report.
+     * @param task    The blocking request, a {@link Response} with a status of 400 and above counts as failed.
+     */
+    public ArrivalRateScheduler(LoadProfile profile, String name, Supplier<?> task) {
+        if (profile.getArrivalPattern() == null) {
+            throw new IllegalStateException("An arrival pattern is required, see " + LoadProfile.LOAD_ARRIVAL);
+        }
+        this.profile = profile.validate();
+        this.name = name;
+        this.task = task;
+    }
+
+    /**
+     * Send the request of the template through the api at the rate of the profile.
+     *
+     * @param profile  The workload.
+     * @param api      The api sending the request.
+     * @param template The request.
+     */
+    public static ArrivalRateScheduler forRequest(LoadProfile profile, RestApiBase api, RequestTemplate template) {
+        return new ArrivalRateScheduler(profile, template.getMethod() + " " + template.getUrl(),
+                () -> api.execute(template));
+    }
+
+    /**
+     * Run the load, write the report to the report directory of the profile.
+     *
+     * @return The report of the run.
+     */
+    public ArrivalReport run() {
+        return run(LoadDistribution.standalone());
+    }
+
+    /**
+     * Run the load alone, as coordinator or as a worker of a distributed run.
+     * Standalone and coordinator write the report to the report directory of
+     * the profile, a worker sends its samples to the coordinator. Every worker
+     * sends its share of the rate, offset by its index so the arrivals of the
+     * workers interleave.
+     *
+     * @param distribution The role of this JVM.
+     * @return The report of the run, of a worker the report of its share.
+     * @throws IllegalStateException when a worker fails.
+     */
+    public ArrivalReport run(LoadDistribution distribution) {
+        ArrivalPattern pattern = profile.getArrivalPattern();
+        return switch (distribution.getRole()) {
+            case STANDALONE -> write(sample(() -> {
+            }));
+            case COORDINATOR -> {
+                log.info("Coordinating the open-model load run of {}: {}", name, profile);
+                yield write(new LoadCoordinator(distribution).coordinate(profile, ArrivalSamples.class,
+                        ArrivalSamples::merge));
+            }
+            case WORKER -> {
+                try (LoadWorker worker = LoadWorker.connect(distribution, profile)) {
+                    LoadProfile share = worker.share(profile);
+                    double rate = pattern.rateAt(0);
+                    long offsetNanos = rate > 0 ? (long) (worker.getIndex() * 1e9 / rate) : 0;
+                    try {
+                        ArrivalSamples samples = new ArrivalRateScheduler(share, name, task).sample(() -> {
+                            worker.awaitStart();
+                            LockSupport.parkNanos(this, offsetNanos);
+                        });
+                        worker.sendResult(samples);
+                        ArrivalReport report = ArrivalReport.of(name, share.getArrivalPattern(), samples);
+                        log.info("Open-model load run share of worker {} of {}:\n{}", worker.getIndex() + 1,
+                                worker.getWorkers(), report.table());
+                        yield report;
+                    } catch (RuntimeException | Error ex) {
+                        worker.fail(ex);
+                        throw ex;
+                    }
+                }
+            }
+        };
+    }
+
+    private ArrivalReport write(ArrivalSamples samples) {
+        ArrivalReport report = ArrivalReport.of(name, profile.getArrivalPattern(), samples);
+        report.write(profile.getReportDirectory(), samples.requestSnapshots());
+        return report;
+    }
+
+    /**
+     * Run the load without writing a report.
+     *
+     * @return The report of the run.
+     */
+    public ArrivalReport measure() {
+        return ArrivalReport.of(name, profile.getArrivalPattern(), sample(() -> {
+        }));
+    }
+
+    /**
+     * Warm up, then run the load of the profile.
+     *
+     * @param awaitStart Called between the warm-up and the measured part of the run.
+     * @return The samples of the measured part of the run.
+     */
+    private ArrivalSamples sample(Runnable awaitStart) {
+        long warmUpRequests = 0;
+        if (profile.hasWarmUp()) {
+            WarmUp.prepare(profile.getMaxInFlight());
+            ArrivalSamples warmUp = new ArrivalRateScheduler(profile.warmUpProfile(), name, task).sample(() -> {
+            });
+            warmUpRequests = warmUp.scheduled();
+            log.info("Warm-up done, dropping {} request sample(s)", warmUpRequests);
+        }
+        awaitStart.run();
+        ArrivalPattern pattern = profile.getArrivalPattern();
+        long iterations = profile.getIterations() > 0 ? profile.getIterations() : Long.MAX_VALUE;
+        long durationNanos = profile.getDuration().toNanos();
+        StageStats[] stages = new StageStats[pattern.getStages().size()];
+        Arrays.setAll(stages, index -> new StageStats());
+        log.info("Open-model load run of {}: {} for {} ms", name, pattern, profile.getDuration().toMillis());
+        LatencyRegistry.getInstance().reset();
+        try (DueTimeDispatcher dispatcher = new DueTimeDispatcher("load-arrival", profile.getMaxInFlight(),
+                profile.getLateThreshold()).start()) {
+            long due = pattern.next(-1);
+            while (due != ArrivalPattern.END && due < durationNanos && scheduled < iterations
+                    && !Thread.currentThread().isInterrupted()) {
+                StageStats stage = stages[Math.min(pattern.stageAt(due), stages.length - 1)];
+                scheduled++;
+                stage.scheduled.increment();
+                if (!dispatcher.dispatch(due, this::send, stage::completed)) {
+                    stage.failed.increment();
+                }
+                due = pattern.next(due);
+            }
+            int unfinished = dispatcher.drain(profile.getDrainTimeout());
+            List<ArrivalSamples.Stage> stageSamples = new ArrayList<>(stages.length);
+            for (StageStats stage : stages) {
+                stageSamples.add(new ArrivalSamples.Stage(stage.scheduled.sum(), stage.succeeded.sum(),
+                        stage.failed.sum(), stage.latency.snapshot()));
+            }
+            return new ArrivalSamples(1, dispatcher.elapsedNanos(), dispatcher.dispatchNanos(), scheduled,
+                    dispatcher.completed(), dispatcher.failed(), dispatcher.late(), dispatcher.dropped(), unfinished,
+                    warmUpRequests, dispatcher.latency(), dispatcher.serviceTime(), stageSamples,
+                    metrics.getErrors(), LoadSamples.Request.of(LatencyRegistry.getInstance().snapshot()));
+        }
+    }
+
+    private boolean send() {
+        try {
+            Object result = task.get();
+            if (result instanceof Response response && response.getStatusCode() >= 400) {
+                metrics.recordError(name, response.getStatusLine());
+                return false;
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            metrics.recordError(name, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Requests of one stage of the arrival pattern.
+     */
+    private static final class StageStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LongAdder scheduled = new LongAdder();
+
+        private final LongAdder succeeded = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private void completed(long latencyNanos, long serviceNanos, boolean success) {
+            latency.record(latencyNanos);
+            (success ? succeeded : failed).increment();
+        }
+    }
+}
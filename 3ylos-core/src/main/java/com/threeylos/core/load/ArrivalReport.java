@@ -0,0 +1,167 @@
+package com.threeylos.core.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.api.metrics.LatencyReport;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of an open-model load run, latencies are in milliseconds.
+ *
+ * @param name           Name of the task.
+ * @param pattern        The arrival pattern.
+ * @param workers        Number of load generating JVMs, see {@link LoadCoordinator}.
+ * @param elapsedSeconds Wall clock time of the run including the wait for outstanding requests.
+ * @param scheduledRate  Requests per second that were due while dispatching.
+ * @param achievedRate   Completed requests per second.
+ * @param scheduled      Number of requests that were due.
+ * @param completed      Number of completed requests.
+ * @param failed         Number of requests failing or answered with a status of 400 and above.
+ * @param late           Number of requests dispatched later than the late threshold.
+ * @param dropped        Number of requests not sent because too many were outstanding.
+ * @param unfinished     Number of requests still outstanding when the run ended.
+ * @param warmUpRequests Number of dropped request samples of the warm-up.
+ * @param latency        Latency from the time a request was due.
+ * @param serviceTime    Latency from the time a request was actually sent.
+ * @param stages         Offered load and latency from the due time by stage of the arrival pattern.
+ * @param errors         Number of errors by error.
+ * @param requests       Latency of the http requests by endpoint.
+ * @author AbhinitKumar
+ */
+@Log4j2
+public record ArrivalReport(String name, String pattern, int workers, double elapsedSeconds, double scheduledRate,
+                            double achievedRate, long scheduled, long completed, long failed, long late,
+                            long dropped, long unfinished, long warmUpRequests, LoadReport.Row latency,
+                            LoadReport.Row serviceTime, List<StageRow> stages, Map<String, Long> errors,
+                            List<LatencyReport.Row> requests) {
+
+    private static final String SUMMARY_NAME = "arrival-summary";
+    private static final String REQUESTS_NAME = "api-latency";
+    private static final String STAGE_FORMAT = "%-40s %10s %10s %9s %9s %9s %9s %9s %9s%n";
+
+    /**
+     * @param name    Name of the task.
+     * @param pattern The arrival pattern of the whole run.
+     * @param samples The samples of the run, or the merged samples of all workers.
+     * @return The report of the samples.
+     */
+    public static ArrivalReport of(String name, ArrivalPattern pattern, ArrivalSamples samples) {
+        double elapsedSeconds = samples.elapsedNanos() / 1e9;
+        double dispatchSeconds = samples.dispatchNanos() / 1e9;
+        return new ArrivalReport(name, pattern.toString(), samples.workers(), elapsedSeconds,
+                dispatchSeconds <= 0 ? 0 : samples.scheduled() / dispatchSeconds,
+                elapsedSeconds <= 0 ? 0 : samples.completed() / elapsedSeconds, samples.scheduled(),
+                samples.completed(), samples.failed(), samples.late(), samples.dropped(), samples.unfinished(),
+                samples.warmUpRequests(),
+                LoadReport.Row.of("latency from due time", samples.latency(), samples.failed()),
+                LoadReport.Row.of("service time", samples.serviceTime(), samples.failed()),
+                stageRows(pattern.getStages(), samples), samples.errors(),
+                LatencyReport.rows(samples.requestSnapshots()));
+    }
+
+    private static List<StageRow> stageRows(List<ArrivalPattern.Stage> stageList, ArrivalSamples samples) {
+        List<StageRow> rows = new ArrayList<>();
+        long remaining = samples.dispatchNanos();
+        for (int i = 0; i < samples.stages().size() && i < stageList.size() && remaining > 0; i++) {
+            long stageNanos = Math.min(remaining, stageList.get(i).duration().toNanos());
+            remaining -= stageNanos;
+            ArrivalSamples.Stage stage = samples.stages().get(i);
+            rows.add(StageRow.of(stageList.get(i).toString(), stageNanos / 1e9, stage.scheduled(),
+                    stage.succeeded(), stage.failed(), stage.latency()));
+        }
+        return rows;
+    }
+
+    /**
+     * @return The report as text.
+     */
+    public String table() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "Task: %s, arrival: %s, elapsed: %.1f s%n", name, pattern,
+                elapsedSeconds));
+        builder.append(String.format(Locale.ROOT, "Scheduled: %d (%.2f/s), completed: %d (%.2f/s), failed: %d, "
+                        + "late: %d, dropped: %d, unfinished: %d%n%n", scheduled, scheduledRate, completed,
+                achievedRate, failed, late, dropped, unfinished));
+        if (workers > 1) {
+            builder.append(String.format(Locale.ROOT, "Workers: %d%n%n", workers));
+        }
+        if (warmUpRequests > 0) {
+            builder.append(String.format(Locale.ROOT, "Warm-up samples dropped: %d requests%n%n", warmUpRequests));
+        }
+        builder.append(LoadReport.table("LATENCY", List.of(latency, serviceTime)));
+        if (stages.size() > 1) {
+            builder.append(String.format(Locale.ROOT, STAGE_FORMAT, "STAGE", "OFFERED/S", "GOOD/S", "COUNT",
+                    "ERROR%", "P50", "P90", "P99", "MAX"));
+            for (StageRow stage : stages) {
+                builder.append(String.format(Locale.ROOT, STAGE_FORMAT, stage.stage(),
+                        format(stage.offeredRate()), format(stage.goodRate()), stage.count(),
+                        format(stage.errorRate() * 100), format(stage.p50()), format(stage.p90()),
+                        format(stage.p99()), format(stage.max())));
+            }
+            builder.append(System.lineSeparator());
+        }
+        if (!errors.isEmpty()) {
+            builder.append(LoadReport.errorTable(errors));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write {@code arrival-summary.json}, {@code arrival-summary.txt} and the http
+     * request latencies as {@code api-latency.*} to the directory.
+     *
+     * @param directory The report directory.
+     * @param requests  The request histograms of the run.
+     */
+    public void write(Path directory, Map<EndpointKey, LatencyHistogram.Snapshot> requests) {
+        String table = table();
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve(SUMMARY_NAME + ".json").toFile(), this);
+            Files.writeString(directory.resolve(SUMMARY_NAME + ".txt"), table);
+        } catch (IOException ex) {
+            log.warn("Writing load report to {} failed", directory, ex);
+        }
+        log.info("Open-model load run:\n{}", table);
+        LatencyRegistry.writeReport(directory, REQUESTS_NAME, requests);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Offered load and latency of one stage of the arrival pattern.
+     *
+     * @param stage       The stage.
+     * @param seconds     Time spent dispatching the stage.
+     * @param offeredRate Requests due per second.
+     * @param goodRate    Successful requests per second.
+     * @param count       Number of requests due.
+     * @param errorRate   Share of failed and dropped requests.
+     */
+    public record StageRow(String stage, double seconds, double offeredRate, double goodRate, long count,
+                           double errorRate, double p50, double p90, double p99, double max) {
+
+        public static StageRow of(String stage, double seconds, long count, long succeeded, long failed,
+                                  LatencyHistogram.Snapshot latency) {
+            return new StageRow(stage, seconds, seconds <= 0 ? 0 : count / seconds,
+                    seconds <= 0 ? 0 : succeeded / seconds, count,
+                    count == 0 ? 0 : (double) failed / count, latency.percentile(50) / 1000.0,
+                    latency.percentile(90) / 1000.0, latency.percentile(99) / 1000.0,
+                    latency.maxMicros() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw samples of an open-model load run, see {@link ArrivalRateScheduler}.
+ * <p>
+ * Latencies are kept as histogram snapshots, so the samples of the workers
+ * of a distributed run are merged without loss, see {@link #merge(List)}.
+ * </p>
+ *
+ * @param workers        Number of workers that recorded the samples.
+ * @param elapsedNanos   Wall clock time of the run including the wait for outstanding requests.
+ * @param dispatchNanos  Time spent dispatching requests.
+ * @param scheduled      Number of requests that were due.
+ * @param completed      Number of completed requests.
+ * @param failed         Number of requests failing or answered with a status of 400 and above.
+ * @param late           Number of requests dispatched later than the late threshold.
+ * @param dropped        Number of requests not sent because too many were outstanding.
+ * @param unfinished     Number of requests still outstanding when the run ended.
+ * @param warmUpRequests Number of dropped request samples of the warm-up.
+ * @param latency        Latency from the time a request was due.
+ * @param serviceTime    Latency from the time a request was actually sent.
+ * @param stages         Samples by stage of the arrival pattern.
+ * @param errors         Number of errors by error.
+ * @param requests       Latency of the http requests by endpoint.
+ * @author AbhinitKumar
+ */
+public record ArrivalSamples(int workers, long elapsedNanos, long dispatchNanos, long scheduled, long completed,
+                             long failed, long late, long dropped, long unfinished, long warmUpRequests,
+                             LatencyHistogram.Snapshot latency, LatencyHistogram.Snapshot serviceTime,
+                             List<Stage> stages, Map<String, Long> errors, List<LoadSamples.Request> requests) {
+
+    /**
+     * Combine the samples of workers that ran the same arrival pattern at the
+     * same time. Counts are added, histograms merged and times are the longest ones.
+     *
+     * @param samples The samples of the workers.
+     * @return The samples of the whole run.
+     */
+    public static ArrivalSamples merge(List<ArrivalSamples> samples) {
+        int stageCount = samples.stream().mapToInt(sample -> sample.stages().size()).max().orElse(0);
+        List<Stage> stages = new ArrayList<>(stageCount);
+        for (int i = 0; i < stageCount; i++) {
+            int index = i;
+            stages.add(samples.stream()
+                    .filter(sample -> index < sample.stages().size())
+                    .map(sample -> sample.stages().get(index))
+                    .reduce(Stage::merge)
+                    .orElseThrow());
+        }
+        return new ArrivalSamples(
+                samples.stream().mapToInt(ArrivalSamples::workers).sum(),
+                samples.stream().mapToLong(ArrivalSamples::elapsedNanos).max().orElse(0),
+                samples.stream().mapToLong(ArrivalSamples::dispatchNanos).max().orElse(0),
+                samples.stream().mapToLong(ArrivalSamples::scheduled).sum(),
+                samples.stream().mapToLong(ArrivalSamples::completed).sum(),
+                samples.stream().mapToLong(ArrivalSamples::failed).sum(),
+                samples.stream().mapToLong(ArrivalSamples::late).sum(),
+                samples.stream().mapToLong(ArrivalSamples::dropped).sum(),
+                samples.stream().mapToLong(ArrivalSamples::unfinished).sum(),
+                samples.stream().mapToLong(ArrivalSamples::warmUpRequests).sum(),
+                samples.stream().map(ArrivalSamples::latency).reduce(LatencyHistogram.Snapshot::merge).orElseThrow(),
+                samples.stream().map(ArrivalSamples::serviceTime).reduce(LatencyHistogram.Snapshot::merge)
+                        .orElseThrow(),
+                stages,
+                LoadSamples.mergeCounts(samples.stream().map(ArrivalSamples::errors).toList()),
+                LoadSamples.Request.merge(samples.stream().map(ArrivalSamples::requests).toList()));
+    }
+
+    /**
+     * @return The http request histograms by endpoint.
+     */
+    public Map<EndpointKey, LatencyHistogram.Snapshot> requestSnapshots() {
+        return LoadSamples.Request.toMap(requests);
+    }
+
+    /**
+     * Requests of one stage of the arrival pattern.
+     *
+     * @param scheduled Number of requests that were due.
+     * @param succeeded Number of successful requests.
+     * @param failed    Number of failed and dropped requests.
+     * @param latency   Latency from the time a request was due.
+     */
+    public record Stage(long scheduled, long succeeded, long failed, LatencyHistogram.Snapshot latency) {
+
+        Stage merge(Stage other) {
+            return new Stage(scheduled + other.scheduled, succeeded + other.succeeded, failed + other.failed,
+                    latency.merge(other.latency));
+        }
+    }
+}
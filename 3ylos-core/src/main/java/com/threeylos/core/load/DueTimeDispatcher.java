@@ -0,0 +1,226 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.async.AsyncRequestExecutor;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.throttle.Throttle;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dispatches requests at their due time onto threads of their own, however
+ * long the responses take, for the open-model load generators
+ * {@link ArrivalRateScheduler} and {@link TrafficReplay}.
+ * <p>
+ * A single thread calls {@link #dispatch(long, Request, Completion)} in due
+ * order, it parks until the request is due and hands it to an unbounded
+ * executor, see {@link AsyncRequestExecutor#newUnboundedExecutor(String)}, so
+ * no request waits in a queue unmeasured. Latency is measured from the due
+ * time, not from the time the request was actually sent (coordinated
+ * omission), the service time from the actual send is recorded next to it.
+ * The time the requests of a task waited for permits of the {@link Throttle}
+ * is not part of its service time.
+ * </p>
+ * <p>
+ * Requests dispatched later than the late threshold are counted as late,
+ * requests due while {@code maxInFlight} requests are outstanding are
+ * dropped and counted instead of being sent.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+final class DueTimeDispatcher implements AutoCloseable {
+
+    /**
+     * Sends one request.
+     */
+    @FunctionalInterface
+    interface Request {
+
+        /**
+         * @return Whether the request succeeded.
+         */
+        boolean send();
+    }
+
+    /**
+     * Called on the request thread once a request completed.
+     */
+    @FunctionalInterface
+    interface Completion {
+
+        /**
+         * @param latencyNanos Nanoseconds from the due time to the end of the request.
+         * @param serviceNanos Nanoseconds from the actual send to the end of the request without the permit wait.
+         * @param success      Whether the request succeeded.
+         */
+        void completed(long latencyNanos, long serviceNanos, boolean success);
+    }
+
+    private final String name;
+
+    private final int maxInFlight;
+
+    private final long lateNanos;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private ExecutorService executor;
+
+    private long start;
+
+    private long dispatched;
+
+    private long drained;
+
+    private long late;
+
+    private long dropped;
+
+    /**
+     * @param name          Name of the request threads.
+     * @param maxInFlight   Requests outstanding at most, further due requests are dropped.
+     * @param lateThreshold Requests dispatched later than this after their due time are counted as late.
+     */
+    DueTimeDispatcher(String name, int maxInFlight, Duration lateThreshold) {
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.lateNanos = lateThreshold.toNanos();
+    }
+
+    /**
+     * Start the clock the due times are relative to.
+     *
+     * @return This dispatcher.
+     */
+    DueTimeDispatcher start() {
+        executor = AsyncRequestExecutor.newUnboundedExecutor(name);
+        start = System.nanoTime();
+        return this;
+    }
+
+    /**
+     * Wait until the request is due, then send it on a thread of its own.
+     *
+     * @param dueNanos   Nanoseconds after the start the request is due at.
+     * @param request    The request.
+     * @param completion Called once the request completed.
+     * @return Whether the request was sent, {@code false} when it was dropped.
+     */
+    boolean dispatch(long dueNanos, Request request, Completion completion) {
+        long dueAt = start + dueNanos;
+        long wait;
+        while ((wait = dueAt - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, wait);
+        }
+        if (System.nanoTime() - dueAt > lateNanos) {
+            late++;
+        }
+        if (inFlight.get() >= maxInFlight) {
+            dropped++;
+            return false;
+        }
+        inFlight.incrementAndGet();
+        executor.execute(() -> send(dueAt, request, completion));
+        return true;
+    }
+
+    /**
+     * Wait for the outstanding requests after the last one was dispatched.
+     *
+     * @param timeout The longest wait.
+     * @return Number of requests still outstanding at the deadline.
+     */
+    int drain(Duration timeout) {
+        dispatched = System.nanoTime();
+        long deadline = dispatched + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        drained = System.nanoTime();
+        return inFlight.get();
+    }
+
+    /**
+     * @return Nanoseconds from the start until the last request was dispatched.
+     */
+    long dispatchNanos() {
+        return dispatched - start;
+    }
+
+    /**
+     * @return Nanoseconds from the start until the outstanding requests were drained.
+     */
+    long elapsedNanos() {
+        return drained - start;
+    }
+
+    long completed() {
+        return completed.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long late() {
+        return late;
+    }
+
+    long dropped() {
+        return dropped;
+    }
+
+    LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+
+    LatencyHistogram.Snapshot serviceTime() {
+        return serviceTime.snapshot();
+    }
+
+    /**
+     * Stop the request threads, requests still outstanding run to their end.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void send(long dueAt, Request request, Completion completion) {
+        Throttle.takeThreadWaitNanos();
+        long sent = System.nanoTime();
+        boolean success = false;
+        try {
+            success = request.send();
+        } finally {
+            long done = System.nanoTime();
+            long service = Math.max(0, done - sent - Throttle.takeThreadWaitNanos());
+            latency.record(done - dueAt);
+            serviceTime.record(service);
+            if (!success) {
+                failed.increment();
+            }
+            completed.increment();
+            try {
+                completion.completed(done - dueAt, service, success);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
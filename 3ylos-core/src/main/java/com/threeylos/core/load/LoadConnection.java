@@ -0,0 +1,96 @@
+package com.threeylos.core.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Socket between the {@link LoadCoordinator} and a {@link LoadWorker}
+ * carrying one {@link LoadMessage} per line.
+ *
+ * @author AbhinitKumar
+ */
+final class LoadConnection implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Socket socket;
+
+    private final BufferedReader reader;
+
+    private final BufferedWriter writer;
+
+    private String peer;
+
+    LoadConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.peer = String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    String getPeer() {
+        return peer;
+    }
+
+    void setPeer(String peer) {
+        this.peer = peer;
+    }
+
+    synchronized void send(LoadMessage message) throws IOException {
+        writer.write(MAPPER.writeValueAsString(message));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * @param deadlineNanos {@link System#nanoTime()} to wait until, 0 waits without limit.
+     * @return The next message.
+     * @throws SocketTimeoutException when no message arrived before the deadline.
+     * @throws EOFException           when the other side closed the connection.
+     */
+    LoadMessage receive(long deadlineNanos) throws IOException {
+        if (deadlineNanos == 0) {
+            socket.setSoTimeout(0);
+        } else {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remaining <= 0) {
+                throw new SocketTimeoutException("Deadline passed");
+            }
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remaining));
+        }
+        String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException(peer + " closed the connection");
+        }
+        return MAPPER.readValue(line, LoadMessage.class);
+    }
+
+    static JsonNode toTree(Object samples) {
+        return MAPPER.valueToTree(samples);
+    }
+
+    static <T> T fromTree(JsonNode samples, Class<T> type) throws JsonProcessingException {
+        return MAPPER.treeToValue(samples, type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,150 @@
+package com.threeylos.core.load;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coordinator of a load run generated by several worker JVMs on one or more machines.
+ * <p>
+ * The coordinator listens on the port of {@code LOAD_COORDINATOR} until
+ * {@code LOAD_WORKERS} workers have connected, see {@link LoadWorker}. Every
+ * worker runs the same load profile, the coordinator only assigns each one
+ * its index, from which the worker derives its share of the users, the
+ * iterations and the rate, see {@link LoadProfile#share(int, int)}. Once all
+ * workers finished their warm-up the coordinator starts them at the same
+ * time, collects their samples and merges the histograms without loss into
+ * the samples of the whole run.
+ * </p>
+ * <p>
+ * Messages are lines of json over plain TCP, see {@link LoadMessage}. A
+ * worker that fails or does not answer within {@code LOAD_WORKER_TIMEOUT}
+ * fails the whole run.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public class LoadCoordinator {
+
+    private final LoadDistribution distribution;
+
+    public LoadCoordinator(LoadDistribution distribution) {
+        this.distribution = distribution.validate();
+    }
+
+    /**
+     * Run the profile on the workers.
+     *
+     * @param profile     The workload of the whole run.
+     * @param samplesType Type of the samples the workers send.
+     * @param merge       Merges the samples of all workers.
+     * @param <T>         Type of the samples.
+     * @return The merged samples.
+     * @throws IllegalStateException when a worker fails, does not answer in time or the port is not available.
+     */
+    public <T> T coordinate(LoadProfile profile, Class<T> samplesType, Function<List<T>, T> merge) {
+        long timeoutNanos = distribution.getTimeout().toNanos();
+        List<LoadConnection> workers = new ArrayList<>(distribution.getWorkers());
+        try (ServerSocket server = new ServerSocket()) {
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(distribution.getPort()));
+            log.info("Waiting for {} load worker(s) on port {}", distribution.getWorkers(), distribution.getPort());
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (workers.size() < distribution.getWorkers()) {
+                workers.add(accept(server, profile, deadline));
+            }
+            for (int index = 0; index < workers.size(); index++) {
+                workers.get(index).send(LoadMessage.assign(index, workers.size()));
+            }
+            Duration warmUp = profile.hasWarmUp() ? profile.warmUpProfile().getDuration() : Duration.ZERO;
+            deadline = System.nanoTime() + timeoutNanos + warmUp.toNanos();
+            for (LoadConnection worker : workers) {
+                expect(worker, LoadMessage.Type.READY, deadline);
+            }
+            for (LoadConnection worker : workers) {
+                worker.send(LoadMessage.of(LoadMessage.Type.START));
+            }
+            log.info("Started {} load worker(s)", workers.size());
+            deadline = System.nanoTime() + timeoutNanos + profile.getDuration().toNanos()
+                    + profile.getDrainTimeout().toNanos();
+            List<T> samples = new ArrayList<>(workers.size());
+            for (LoadConnection worker : workers) {
+                LoadMessage result = expect(worker, LoadMessage.Type.RESULT, deadline);
+                samples.add(LoadConnection.fromTree(result.samples(), samplesType));
+                log.info("Received the samples of load worker {}", worker.getPeer());
+            }
+            return merge.apply(samples);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Coordinating the load workers on port " + distribution.getPort()
+                    + " failed: " + ex.getMessage(), ex);
+        } finally {
+            for (LoadConnection worker : workers) {
+                closeQuietly(worker);
+            }
+        }
+    }
+
+    private LoadConnection accept(ServerSocket server, LoadProfile profile, long deadline) throws IOException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new IllegalStateException("Only some of " + distribution.getWorkers()
+                    + " load workers connected within " + distribution.getTimeout().toMillis() + " ms");
+        }
+        server.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remaining));
+        LoadConnection worker;
+        try {
+            worker = new LoadConnection(server.accept());
+        } catch (SocketTimeoutException ex) {
+            throw new IllegalStateException("Only some of " + distribution.getWorkers()
+                    + " load workers connected within " + distribution.getTimeout().toMillis() + " ms", ex);
+        }
+        try {
+            LoadMessage hello = expect(worker, LoadMessage.Type.HELLO, deadline);
+            worker.setPeer(hello.worker());
+            if (!profile.toString().equals(hello.profile())) {
+                log.warn("Load worker {} runs a different profile: {}", hello.worker(), hello.profile());
+            }
+            log.info("Load worker {} connected", hello.worker());
+            return worker;
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly(worker);
+            throw ex;
+        }
+    }
+
+    private static LoadMessage expect(LoadConnection worker, LoadMessage.Type type, long deadline)
+            throws IOException {
+        LoadMessage message;
+        try {
+            message = worker.receive(deadline);
+        } catch (SocketTimeoutException ex) {
+            throw new IllegalStateException("Load worker " + worker.getPeer() + " did not send " + type + " in time",
+                    ex);
+        }
+        if (message.type() == LoadMessage.Type.ERROR) {
+            throw new IllegalStateException("Load worker " + worker.getPeer() + " failed: " + message.error());
+        }
+        if (message.type() != type) {
+            throw new IllegalStateException("Load worker " + worker.getPeer() + " sent " + message.type()
+                    + " instead of " + type);
+        }
+        return message;
+    }
+
+    private static void closeQuietly(LoadConnection worker) {
+        try {
+            worker.close();
+        } catch (IOException ex) {
+            log.trace("Closing the connection of load worker {} failed", worker.getPeer(), ex);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Where the load of a run is generated, by this JVM alone or by several
+ * worker JVMs started by a coordinator, see {@link LoadCoordinator}.
+ *
+ * @author AbhinitKumar
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class LoadDistribution {
+
+    public static final String LOAD_ROLE = "LOAD_ROLE";
+    public static final String LOAD_COORDINATOR = "LOAD_COORDINATOR";
+    public static final String LOAD_WORKERS = "LOAD_WORKERS";
+    public static final String LOAD_WORKER_TIMEOUT = "LOAD_WORKER_TIMEOUT";
+
+    /**
+     * Role of this JVM in a run.
+     */
+    public enum Role {
+        /**
+         * Generates the whole load.
+         */
+        STANDALONE,
+        /**
+         * Generates no load, starts the workers at the same time and merges their samples into the report.
+         */
+        COORDINATOR,
+        /**
+         * Generates its share of the load and sends its samples to the coordinator.
+         */
+        WORKER
+    }
+
+    @Builder.Default
+    private final Role role = Role.STANDALONE;
+
+    /**
+     * {@code host:port} of the coordinator, the coordinator listens on the port.
+     */
+    @Builder.Default
+    private final String coordinator = "localhost:7071";
+
+    /**
+     * Number of workers the coordinator waits for before the run starts.
+     */
+    @Builder.Default
+    private final int workers = 1;
+
+    /**
+     * How long the coordinator waits for workers to connect, to be ready and,
+     * beyond the duration of the run, for their samples.
+     */
+    @Builder.Default
+    private final Duration timeout = Duration.ofMinutes(1);
+
+    /**
+     * @return A single JVM generating the whole load.
+     */
+    public static LoadDistribution standalone() {
+        return LoadDistribution.builder().build();
+    }
+
+    /**
+     * @return The distribution of the {@code LOAD_ROLE}, {@code LOAD_COORDINATOR},
+     * {@code LOAD_WORKERS} and {@code LOAD_WORKER_TIMEOUT} application properties.
+     */
+    public static LoadDistribution fromConfig() {
+        String role = ApplicationProperties.getValue(LOAD_ROLE, Role.STANDALONE.name()).trim();
+        Role parsed;
+        try {
+            parsed = Role.valueOf(role.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException(LOAD_ROLE + " must be standalone, coordinator or worker but was " + role,
+                    ex);
+        }
+        return LoadDistribution.builder()
+                .role(parsed)
+                .coordinator(ApplicationProperties.getValue(LOAD_COORDINATOR, "localhost:7071").trim())
+                .workers(ApplicationProperties.getInt(LOAD_WORKERS, 1))
+                .timeout(ApplicationProperties.getDuration(LOAD_WORKER_TIMEOUT, Duration.ofMinutes(1)))
+                .build()
+                .validate();
+    }
+
+    /**
+     * @return This distribution.
+     * @throws IllegalStateException when a value is out of range.
+     */
+    public LoadDistribution validate() {
+        if (workers < 1) {
+            throw new IllegalStateException(LOAD_WORKERS + " must be positive but was " + workers);
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalStateException(LOAD_WORKER_TIMEOUT + " must be positive but was " + timeout.toMillis());
+        }
+        if (role != Role.STANDALONE) {
+            getPort();
+        }
+        return this;
+    }
+
+    /**
+     * @return The host of the coordinator.
+     */
+    public String getHost() {
+        int separator = coordinator.lastIndexOf(':');
+        return separator <= 0 ? "localhost" : coordinator.substring(0, separator);
+    }
+
+    /**
+     * @return The port of the coordinator.
+     * @throws IllegalStateException when the coordinator has no valid port.
+     */
+    public int getPort() {
+        int separator = coordinator.lastIndexOf(':');
+        try {
+            int port = Integer.parseInt(coordinator.substring(separator + 1).trim());
+            if (port < 1 || port > 65535) {
+                throw new NumberFormatException();
+            }
+            return port;
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException(LOAD_COORDINATOR + " must be host:port but was " + coordinator, ex);
+        }
+    }
+}
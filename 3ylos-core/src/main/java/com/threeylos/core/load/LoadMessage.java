@@ -0,0 +1,53 @@
+package com.threeylos.core.load;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Message between the {@link LoadCoordinator} and a {@link LoadWorker}, sent
+ * as a single line of json.
+ * <p>
+ * A worker sends {@code HELLO}, the coordinator answers with {@code ASSIGN}
+ * once all workers are connected. A worker sends {@code READY} after its
+ * warm-up, the coordinator sends {@code START} to all workers once all are
+ * ready, and the workers send their samples with {@code RESULT}. Either side
+ * sends {@code ERROR} when it cannot go on.
+ * </p>
+ *
+ * @param type    The kind of message.
+ * @param worker  Name of the worker, of {@code HELLO}.
+ * @param profile Description of the load profile of the worker, of {@code HELLO}.
+ * @param index   Index of the worker, of {@code ASSIGN}.
+ * @param workers Number of workers, of {@code ASSIGN}.
+ * @param samples The samples of the worker, of {@code RESULT}.
+ * @param error   Description of the failure, of {@code ERROR}.
+ * @author AbhinitKumar
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record LoadMessage(Type type, String worker, String profile, Integer index, Integer workers, JsonNode samples,
+                   String error) {
+
+    enum Type {
+        HELLO, ASSIGN, READY, START, RESULT, ERROR
+    }
+
+    static LoadMessage hello(String worker, String profile) {
+        return new LoadMessage(Type.HELLO, worker, profile, null, null, null, null);
+    }
+
+    static LoadMessage assign(int index, int workers) {
+        return new LoadMessage(Type.ASSIGN, null, null, index, workers, null, null);
+    }
+
+    static LoadMessage of(Type type) {
+        return new LoadMessage(type, null, null, null, null, null, null);
+    }
+
+    static LoadMessage result(JsonNode samples) {
+        return new LoadMessage(Type.RESULT, null, null, null, null, samples, null);
+    }
+
+    static LoadMessage error(String error) {
+        return new LoadMessage(Type.ERROR, null, null, null, null, null, error);
+    }
+}
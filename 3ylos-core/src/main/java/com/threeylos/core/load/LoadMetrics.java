@@ -0,0 +1,175 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Step and scenario latencies and error counts of a load run.
+ * <p>
+ * Failed assertions do not stop the run, they are counted by step and error.
+ * Errors are grouped by their first message line, after
+ * {@value #MAX_ERROR_KINDS} distinct errors further ones are counted as
+ * {@value #OTHER_ERRORS}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class LoadMetrics {
+
+    static final int MAX_ERROR_KINDS = 100;
+    static final String OTHER_ERRORS = "other errors";
+
+    private static final int MAX_MESSAGE_LENGTH = 160;
+
+    private static volatile LoadMetrics active;
+
+    private final Map<String, LatencyHistogram> steps = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyHistogram> scenarios = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> stepFailures = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> scenarioFailures = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final LongAdder iterations = new LongAdder();
+
+    private final LongAdder failedIterations = new LongAdder();
+
+    /**
+     * @return The metrics of the running load run, {@code null} outside of a load run.
+     */
+    public static LoadMetrics active() {
+        return active;
+    }
+
+    static void activate(LoadMetrics metrics) {
+        active = metrics;
+    }
+
+    /**
+     * @param step          The step definition pattern.
+     * @param durationNanos The step duration.
+     * @param error         The failure of the step, {@code null} when it passed.
+     */
+    public void recordStep(String step, long durationNanos, Throwable error) {
+        steps.computeIfAbsent(step, k -> new LatencyHistogram()).record(durationNanos);
+        if (error != null) {
+            stepFailures.computeIfAbsent(step, k -> new LongAdder()).increment();
+            recordError(step, error);
+        }
+    }
+
+    /**
+     * @param scenario      The scenario name.
+     * @param durationNanos The duration of the whole scenario including hooks.
+     * @param failed        Whether any step failed.
+     */
+    public void recordScenario(String scenario, long durationNanos, boolean failed) {
+        scenarios.computeIfAbsent(scenario, k -> new LatencyHistogram()).record(durationNanos);
+        iterations.increment();
+        if (failed) {
+            failedIterations.increment();
+            scenarioFailures.computeIfAbsent(scenario, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Count an error, e.g. a failed assertion.
+     *
+     * @param source Where the error happened.
+     * @param error  The error.
+     */
+    public void recordError(String source, Throwable error) {
+        recordError(source, describe(error));
+    }
+
+    /**
+     * Count an error, e.g. an unexpected status code.
+     *
+     * @param source Where the error happened.
+     * @param error  Description of the error.
+     */
+    public void recordError(String source, String error) {
+        String key = source + " -> " + error;
+        LongAdder counter = errors.get(key);
+        if (counter == null) {
+            counter = errors.size() >= MAX_ERROR_KINDS ? errors.computeIfAbsent(OTHER_ERRORS, k -> new LongAdder())
+                    : errors.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public long getIterations() {
+        return iterations.sum();
+    }
+
+    public long getFailedIterations() {
+        return failedIterations.sum();
+    }
+
+    public Map<String, LatencyHistogram.Snapshot> stepSnapshots() {
+        return snapshots(steps);
+    }
+
+    public Map<String, LatencyHistogram.Snapshot> scenarioSnapshots() {
+        return snapshots(scenarios);
+    }
+
+    public long getStepFailures(String step) {
+        return sum(stepFailures.get(step));
+    }
+
+    public long getScenarioFailures(String scenario) {
+        return sum(scenarioFailures.get(scenario));
+    }
+
+    /**
+     * @return Error counts by error, sorted by error.
+     */
+    public Map<String, Long> getErrors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((key, counter) -> result.put(key, counter.sum()));
+        return result;
+    }
+
+    /**
+     * Drop everything recorded so far.
+     */
+    public void reset() {
+        steps.clear();
+        scenarios.clear();
+        stepFailures.clear();
+        scenarioFailures.clear();
+        errors.clear();
+        iterations.reset();
+        failedIterations.reset();
+    }
+
+    private static Map<String, LatencyHistogram.Snapshot> snapshots(Map<String, LatencyHistogram> histograms) {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((key, histogram) -> snapshots.put(key, histogram.snapshot()));
+        return snapshots;
+    }
+
+    private static long sum(LongAdder counter) {
+        return counter == null ? 0 : counter.sum();
+    }
+
+    private static String describe(Throwable error) {
+        String message = error.getMessage() == null ? "" : error.getMessage().strip();
+        int lineEnd = message.indexOf('\n');
+        if (lineEnd >= 0) {
+            message = message.substring(0, lineEnd).strip();
+        }
+        if (message.length() > MAX_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+        }
+        return message.isEmpty() ? error.getClass().getSimpleName() : error.getClass().getSimpleName() + ": " + message;
+    }
+}
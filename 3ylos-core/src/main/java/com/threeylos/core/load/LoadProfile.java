@@ -0,0 +1,256 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Workload of a load run, see {@link LoadRunner}.
+ * <p>
+ * The run ends when the duration is over or, when an iteration count is
+ * given, after that many scenario iterations of all virtual users together,
+ * whichever comes first.
+ * </p>
+ * <p>
+ * Without a mix the virtual users run the scenarios in turn, with a
+ * {@link ScenarioMix} they pick the scenario of every iteration by weight.
+ * </p>
+ * <p>
+ * A warm-up, by duration or iteration count, runs the same workload before
+ * the measured part of the run and its samples are dropped, see {@link WarmUp}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class LoadProfile {
+
+    public static final String LOAD_TAGS = "LOAD_TAGS";
+    public static final String LOAD_USERS = "LOAD_USERS";
+    public static final String LOAD_DURATION = "LOAD_DURATION";
+    public static final String LOAD_ITERATIONS = "LOAD_ITERATIONS";
+    public static final String LOAD_REPORT_DIR = "LOAD_REPORT_DIR";
+    public static final String LOAD_MIX = "LOAD_MIX";
+    public static final String LOAD_THINK_TIME = "LOAD_THINK_TIME";
+    public static final String LOAD_WARM_UP = "LOAD_WARM_UP";
+    public static final String LOAD_WARM_UP_ITERATIONS = "LOAD_WARM_UP_ITERATIONS";
+    public static final String LOAD_ARRIVAL = "LOAD_ARRIVAL";
+    public static final String LOAD_RATE = "LOAD_RATE";
+    public static final String LOAD_RATE_STAGES = "LOAD_RATE_STAGES";
+    public static final String LOAD_MAX_IN_FLIGHT = "LOAD_MAX_IN_FLIGHT";
+    public static final String LOAD_LATE_THRESHOLD = "LOAD_LATE_THRESHOLD";
+    public static final String LOAD_DRAIN_TIMEOUT = "LOAD_DRAIN_TIMEOUT";
+
+    /**
+     * Cucumber tag expression of the scenarios to run, all scenarios of the runner when empty.
+     */
+    private final String tags;
+
+    /**
+     * Number of virtual users, each runs one scenario after the other.
+     */
+    @Builder.Default
+    private final int users = 1;
+
+    @Builder.Default
+    private final Duration duration = Duration.ofMinutes(1);
+
+    /**
+     * Total number of scenario iterations, 0 runs until the duration is over.
+     */
+    private final long iterations;
+
+    @Builder.Default
+    private final Path reportDirectory = Paths.get("target", "load");
+
+    /**
+     * Weighted tag expressions picking the scenario of every iteration, the scenarios take turns when empty.
+     */
+    @Builder.Default
+    private final List<ScenarioMix.Entry> mix = List.of();
+
+    /**
+     * Pause of a virtual user after every step.
+     */
+    @Builder.Default
+    private final ThinkTime thinkTime = ThinkTime.none();
+
+    /**
+     * How long the warm-up runs, without a warm-up iteration count zero means no warm-up.
+     */
+    @Builder.Default
+    private final Duration warmUp = Duration.ZERO;
+
+    /**
+     * Iterations, or requests of an open-model run, of the warm-up, 0 warms up for the warm-up duration.
+     */
+    private final long warmUpIterations;
+
+    /**
+     * When requests are due in an open-model run, see {@link ArrivalRateScheduler}.
+     */
+    private final ArrivalPattern arrivalPattern;
+
+    /**
+     * Requests of an open-model run that may be outstanding at once, further ones are dropped.
+     */
+    @Builder.Default
+    private final int maxInFlight = 10_000;
+
+    /**
+     * A request of an open-model run dispatched later than this after it was due is counted as late.
+     */
+    @Builder.Default
+    private final Duration lateThreshold = Duration.ofMillis(10);
+
+    /**
+     * How long an open-model run waits for outstanding requests after the last one was dispatched.
+     */
+    @Builder.Default
+    private final Duration drainTimeout = Duration.ofSeconds(30);
+
+    /**
+     * @return The profile of the {@code LOAD_*} application properties.
+     */
+    public static LoadProfile fromConfig() {
+        return LoadProfile.builder()
+                .tags(ApplicationProperties.getValue(LOAD_TAGS))
+                .users(ApplicationProperties.getInt(LOAD_USERS, 1))
+                .duration(ApplicationProperties.getDuration(LOAD_DURATION, Duration.ofMinutes(1)))
+                .iterations(ApplicationProperties.getLong(LOAD_ITERATIONS, 0))
+                .reportDirectory(Paths.get(ApplicationProperties.getValue(LOAD_REPORT_DIR, "target/load")))
+                .mix(ScenarioMix.parse(ApplicationProperties.getValue(LOAD_MIX)))
+                .thinkTime(ThinkTime.parse(ApplicationProperties.getValue(LOAD_THINK_TIME)))
+                .warmUp(ApplicationProperties.getDuration(LOAD_WARM_UP, Duration.ZERO))
+                .warmUpIterations(ApplicationProperties.getLong(LOAD_WARM_UP_ITERATIONS, 0))
+                .arrivalPattern(arrivalPatternFromConfig())
+                .maxInFlight(ApplicationProperties.getInt(LOAD_MAX_IN_FLIGHT, 10_000))
+                .lateThreshold(ApplicationProperties.getDuration(LOAD_LATE_THRESHOLD, Duration.ofMillis(10)))
+                .drainTimeout(ApplicationProperties.getDuration(LOAD_DRAIN_TIMEOUT, Duration.ofSeconds(30)))
+                .build()
+                .validate();
+    }
+
+    /**
+     * @return This profile.
+     * @throws IllegalStateException when a value is out of range.
+     */
+    public LoadProfile validate() {
+        if (users < 1) {
+            throw new IllegalStateException(LOAD_USERS + " must be positive but was " + users);
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalStateException(LOAD_DURATION + " must be positive but was " + duration.toMillis());
+        }
+        if (iterations < 0) {
+            throw new IllegalStateException(LOAD_ITERATIONS + " must not be negative but was " + iterations);
+        }
+        if (warmUp.isNegative()) {
+            throw new IllegalStateException(LOAD_WARM_UP + " must not be negative but was " + warmUp.toMillis());
+        }
+        if (warmUpIterations < 0) {
+            throw new IllegalStateException(LOAD_WARM_UP_ITERATIONS + " must not be negative but was "
+                    + warmUpIterations);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalStateException(LOAD_MAX_IN_FLIGHT + " must be positive but was " + maxInFlight);
+        }
+        return this;
+    }
+
+    /**
+     * @return Whether a warm-up runs before the measured part of the run.
+     */
+    public boolean hasWarmUp() {
+        return !warmUp.isZero() || warmUpIterations > 0;
+    }
+
+    /**
+     * @return This profile limited to its warm-up, the warm-up by iterations ends after the duration at the latest.
+     */
+    public LoadProfile warmUpProfile() {
+        return toBuilder()
+                .duration(warmUp.isZero() ? duration : warmUp)
+                .iterations(warmUpIterations)
+                .warmUp(Duration.ZERO)
+                .warmUpIterations(0)
+                .build();
+    }
+
+    /**
+     * The share of a worker of a distributed run. Users and iterations are
+     * split between the workers, the rate of the arrival pattern is divided
+     * by the number of workers.
+     *
+     * @param index   Index of the worker, from 0.
+     * @param workers Number of workers.
+     * @return The profile of the worker.
+     * @throws IllegalStateException when there are more workers than users or iterations.
+     */
+    public LoadProfile share(int index, int workers) {
+        if (workers == 1) {
+            return this;
+        }
+        if (arrivalPattern == null && users < workers) {
+            throw new IllegalStateException(LOAD_USERS + " of " + users + " cannot be split between " + workers
+                    + " workers");
+        }
+        if (iterations > 0 && iterations < workers) {
+            throw new IllegalStateException(LOAD_ITERATIONS + " of " + iterations + " cannot be split between "
+                    + workers + " workers");
+        }
+        return toBuilder()
+                .users(Math.max(1, share(users, index, workers)))
+                .iterations(share(iterations, index, workers))
+                .warmUpIterations(warmUpIterations == 0 ? 0 : Math.max(1, share(warmUpIterations, index, workers)))
+                .maxInFlight(Math.max(1, share(maxInFlight, index, workers)))
+                .arrivalPattern(arrivalPattern == null ? null : arrivalPattern.scale(1.0 / workers))
+                .build();
+    }
+
+    /**
+     * @return This profile without a warm-up.
+     */
+    public LoadProfile withoutWarmUp() {
+        return toBuilder().warmUp(Duration.ZERO).warmUpIterations(0).build();
+    }
+
+    private static int share(int total, int index, int workers) {
+        return (int) share((long) total, index, workers);
+    }
+
+    /**
+     * @return Worker {@code index} of {@code workers} gets this part of the total, the first ones one more.
+     */
+    private static long share(long total, int index, int workers) {
+        return total / workers + (index < total % workers ? 1 : 0);
+    }
+
+    /**
+     * {@code LOAD_ARRIVAL} is {@code constant} or {@code poisson} at {@code LOAD_RATE}
+     * requests per second, or {@code stages} of {@code LOAD_RATE_STAGES}.
+     */
+    private static ArrivalPattern arrivalPatternFromConfig() {
+        String arrival = ApplicationProperties.getValue(LOAD_ARRIVAL);
+        if (arrival == null || arrival.isBlank()) {
+            return null;
+        }
+        return switch (arrival.trim().toLowerCase(Locale.ROOT)) {
+            case "constant" -> ArrivalPattern.constant(ApplicationProperties.getDouble(LOAD_RATE, 0));
+            case "poisson" -> ArrivalPattern.poisson(ApplicationProperties.getDouble(LOAD_RATE, 0));
+            case "stages" -> ArrivalPattern.stages(ArrivalPattern.parseStages(
+                    ApplicationProperties.getValue(LOAD_RATE_STAGES, "")));
+            default -> throw new IllegalStateException(LOAD_ARRIVAL
+                    + " must be constant, poisson or stages but was " + arrival);
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package com.threeylos.core.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.api.metrics.LatencyReport;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of a load run: throughput, scenario and step latencies, the error
+ * breakdown and the latencies of the http requests, latencies are in milliseconds.
+ *
+ * @param tags             The tag expression of the run.
+ * @param users            Number of virtual users.
+ * @param workers          Number of load generating JVMs, see {@link LoadCoordinator}.
+ * @param elapsedSeconds   Wall clock time of the measured part of the run.
+ * @param iterations       Number of scenario iterations.
+ * @param failedIterations Number of iterations with a failed step.
+ * @param throughput       Iterations per second.
+ * @param scenarios        Latency of the scenarios.
+ * @param steps            Latency of the steps by step definition.
+ * @param errors           Number of errors by step and error.
+ * @param requests         Latency of the http requests by endpoint.
+ * @param mix              Target and achieved share of the entries of the scenario mix, empty without a mix.
+ * @param warmUpIterations Number of dropped scenario iterations of the warm-up.
+ * @param warmUpRequests   Number of dropped http request samples of the warm-up.
+ * @author AbhinitKumar
+ */
+@Log4j2
+public record LoadReport(String tags, int users, int workers, double elapsedSeconds, long iterations, long failedIterations,
+                         double throughput, List<Row> scenarios, List<Row> steps, Map<String, Long> errors,
+                         List<LatencyReport.Row> requests, List<MixRow> mix, long warmUpIterations,
+                         long warmUpRequests) {
+
+    private static final String SUMMARY_NAME = "load-summary";
+    private static final String REQUESTS_NAME = "api-latency";
+    private static final String ROW_FORMAT = "%-64s %9s %9s %9s %9s %9s %9s %9s %9s%n";
+    private static final String MIX_FORMAT = "%-64s %9s %9s %9s%n";
+
+    /**
+     * @param profile The workload of the run.
+     * @param samples The samples of the run, or the merged samples of all workers.
+     * @return The report of the samples.
+     */
+    public static LoadReport of(LoadProfile profile, LoadSamples samples) {
+        double seconds = samples.elapsedNanos() / 1e9;
+        List<Row> steps = new ArrayList<>();
+        samples.steps().forEach((step, snapshot) ->
+                steps.add(Row.of(step, snapshot, samples.stepFailures().getOrDefault(step, 0L))));
+        List<Row> scenarios = new ArrayList<>();
+        samples.scenarios().forEach((scenario, snapshot) ->
+                scenarios.add(Row.of(scenario, snapshot, samples.scenarioFailures().getOrDefault(scenario, 0L))));
+        return new LoadReport(profile.getTags(), profile.getUsers(), samples.workers(), seconds,
+                samples.iterations(), samples.failedIterations(),
+                seconds <= 0 ? 0 : samples.iterations() / seconds, scenarios, steps, samples.errors(),
+                LatencyReport.rows(samples.requestSnapshots()), samples.mix(), samples.warmUpIterations(),
+                samples.warmUpRequests());
+    }
+
+    /**
+     * @return The report as text tables.
+     */
+    public String table() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "Tags: %s, users: %d, elapsed: %.1f s, iterations: %d, "
+                        + "failed: %d, throughput: %.2f/s%n%n", tags, users, elapsedSeconds, iterations,
+                failedIterations, throughput));
+        if (workers > 1) {
+            builder.append(String.format(Locale.ROOT, "Workers: %d%n%n", workers));
+        }
+        if (warmUpIterations > 0 || warmUpRequests > 0) {
+            builder.append(String.format(Locale.ROOT, "Warm-up samples dropped: %d iterations, %d requests%n%n",
+                    warmUpIterations, warmUpRequests));
+        }
+        if (!mix.isEmpty()) {
+            builder.append(mixTable(mix));
+        }
+        builder.append(table("SCENARIO", scenarios));
+        builder.append(table("STEP", steps));
+        if (!errors.isEmpty()) {
+            builder.append(errorTable(errors));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write {@code load-summary.json}, {@code load-summary.txt} and the http
+     * request latencies as {@code api-latency.*} to the directory.
+     *
+     * @param directory The report directory.
+     * @param requests  The request histograms of the run.
+     */
+    public void write(Path directory, Map<EndpointKey, LatencyHistogram.Snapshot> requests) {
+        String table = table();
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve(SUMMARY_NAME + ".json").toFile(), this);
+            Files.writeString(directory.resolve(SUMMARY_NAME + ".txt"), table);
+        } catch (IOException ex) {
+            log.warn("Writing load report to {} failed", directory, ex);
+        }
+        log.info("Load run:\n{}", table);
+        LatencyRegistry.writeReport(directory, REQUESTS_NAME, requests);
+    }
+
+    /**
+     * @param title Title of the name column.
+     * @param rows  The latency rows.
+     * @return The rows as text table.
+     */
+    public static String table(String title, List<Row> rows) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, ROW_FORMAT, title, "COUNT", "FAILED", "MEAN", "P50", "P90",
+                "P99", "P99.9", "MAX"));
+        for (Row row : rows) {
+            builder.append(String.format(Locale.ROOT, ROW_FORMAT, row.name(), row.count(),
+                    row.failures(), format(row.mean()), format(row.p50()),
+                    format(row.p90()), format(row.p99()), format(row.p999()), format(row.max())));
+        }
+        builder.append(System.lineSeparator());
+        return builder.toString();
+    }
+
+    /**
+     * @param errors Number of errors by error.
+     * @return The errors as text table.
+     */
+    public static String errorTable(Map<String, Long> errors) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%n%9s  %s%n", "COUNT", "ERROR"));
+        errors.forEach((error, count) -> builder.append(String.format(Locale.ROOT, "%9d  %s%n", count, error)));
+        return builder.toString();
+    }
+
+    /**
+     * @param mix The entries of the scenario mix.
+     * @return Target and achieved share of the entries as text table.
+     */
+    public static String mixTable(List<MixRow> mix) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, MIX_FORMAT, "MIX", "COUNT", "TARGET%", "ACHIEVED%"));
+        for (MixRow row : mix) {
+            builder.append(String.format(Locale.ROOT, MIX_FORMAT, row.tags(), row.count(),
+                    format(row.targetPercent()), format(row.achievedPercent())));
+        }
+        builder.append(System.lineSeparator());
+        return builder.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Latency summary of a scenario or step.
+     */
+    public record Row(String name, long count, long failures, double mean, double p50, double p90, double p99,
+                      double p999, double max) {
+
+        public static Row of(String name, LatencyHistogram.Snapshot snapshot, long failures) {
+            return new Row(name, snapshot.count(), failures, snapshot.meanMicros() / 1000.0,
+                    snapshot.percentile(50) / 1000.0, snapshot.percentile(90) / 1000.0,
+                    snapshot.percentile(99) / 1000.0, snapshot.percentile(99.9) / 1000.0,
+                    snapshot.maxMicros() / 1000.0);
+        }
+    }
+
+    /**
+     * Share of an entry of the scenario mix.
+     *
+     * @param tags            The tag expression of the entry.
+     * @param targetPercent   The share of its weight in all weights.
+     * @param count           Iterations run for the entry.
+     * @param achievedPercent The share of its iterations in all iterations.
+     */
+    public record MixRow(String tags, double targetPercent, long count, double achievedPercent) {
+    }
+}
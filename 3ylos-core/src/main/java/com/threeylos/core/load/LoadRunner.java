@@ -0,0 +1,265 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.load.glue.ThinkTimeHooks;
+import com.threeylos.core.util.common.ThreadUtil;
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Closed-model load generator running existing cucumber scenarios.
+ * <p>
+ * The scenarios of a runner class matching the tag expression of the
+ * {@link LoadProfile} are run in a loop by a fixed number of virtual users,
+ * each user starts its next scenario as soon as the previous one finished,
+ * or after the think time of the profile. The scenarios take turns or are
+ * picked by the weights of the {@link ScenarioMix} of the profile.
+ * Steps, glue and hooks are the same as in the functional run. Failing
+ * assertions end the iteration and are counted, they do not stop the run.
+ * </p>
+ * <p>
+ * The cucumber report plugins of the runner are replaced by
+ * {@link LoadStepListener}, so the run does not build reports of every
+ * iteration in memory. With a think time the glue package of
+ * {@link ThinkTimeHooks} is added to the glue of the runner.
+ * </p>
+ * <p>
+ * With a warm-up the users first run the workload for the warm-up of the
+ * profile, see {@link WarmUp}, then its samples are dropped and the measured
+ * part of the run starts.
+ * </p>
+ * <p>
+ * Several JVMs can generate the load together, see {@link LoadCoordinator}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public class LoadRunner {
+
+    private static final String TAGS_PROPERTY = "cucumber.filter.tags";
+    private static final String PLUGIN_PROPERTY = "cucumber.plugin";
+    private static final String PUBLISH_QUIET_PROPERTY = "cucumber.publish.quiet";
+    private static final String GLUE_PROPERTY = "cucumber.glue";
+
+    private static volatile LoadProfile active;
+
+    private final Class<?> runnerClass;
+
+    private final LoadProfile profile;
+
+    /**
+     * @param runnerClass Class with the {@code CucumberOptions} of the scenarios, e.g. the functional runner.
+     * @param profile     The workload.
+     */
+    public LoadRunner(Class<?> runnerClass, LoadProfile profile) {
+        this.runnerClass = runnerClass;
+        this.profile = profile.validate();
+    }
+
+    /**
+     * @return The profile of the running load run, {@code null} outside of a load run.
+     */
+    public static LoadProfile activeProfile() {
+        return active;
+    }
+
+    /**
+     * Run the load, write the report to the report directory of the profile.
+     *
+     * @return The report of the run.
+     * @throws IllegalStateException when no scenario matches the tag expression.
+     */
+    public LoadReport run() {
+        return run(LoadDistribution.standalone());
+    }
+
+    /**
+     * Run the load alone, as coordinator or as a worker of a distributed run.
+     * Standalone and coordinator write the report to the report directory of
+     * the profile, a worker sends its samples to the coordinator.
+     *
+     * @param distribution The role of this JVM.
+     * @return The report of the run, of a worker the report of its share.
+     * @throws IllegalStateException when no scenario matches the tag expression or a worker fails.
+     */
+    public LoadReport run(LoadDistribution distribution) {
+        return switch (distribution.getRole()) {
+            case STANDALONE -> write(measure(profile, () -> {
+            }));
+            case COORDINATOR -> {
+                log.info("Coordinating the load run: {}", profile);
+                yield write(new LoadCoordinator(distribution).coordinate(profile, LoadSamples.class,
+                        LoadSamples::merge));
+            }
+            case WORKER -> work(distribution);
+        };
+    }
+
+    private LoadReport write(LoadSamples samples) {
+        LoadReport report = LoadReport.of(profile, samples);
+        report.write(profile.getReportDirectory(), samples.requestSnapshots());
+        return report;
+    }
+
+    private LoadReport work(LoadDistribution distribution) {
+        try (LoadWorker worker = LoadWorker.connect(distribution, profile)) {
+            LoadProfile share = worker.share(profile);
+            try {
+                LoadSamples samples = measure(share, worker::awaitStart);
+                worker.sendResult(samples);
+                LoadReport report = LoadReport.of(share, samples);
+                log.info("Load run share of worker {} of {}:\n{}", worker.getIndex() + 1, worker.getWorkers(),
+                        report.table());
+                return report;
+            } catch (RuntimeException | Error ex) {
+                worker.fail(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Warm up, then run the users of the profile.
+     *
+     * @param phase      The profile of this JVM.
+     * @param awaitStart Called between the warm-up and the measured part of the run.
+     * @return The samples of the measured part of the run.
+     */
+    private LoadSamples measure(LoadProfile phase, Runnable awaitStart) {
+        TestNGCucumberRunner cucumber = new TestNGCucumberRunner(runnerClass, this::cucumberProperty);
+        try {
+            List<Pickle> scenarios = Arrays.stream(cucumber.provideScenarios())
+                    .map(row -> ((PickleWrapper) row[0]).getPickle())
+                    .toList();
+            if (scenarios.isEmpty()) {
+                throw new IllegalStateException("No scenario of " + runnerClass.getName() + " matches the tags: "
+                        + phase.getTags());
+            }
+            ScenarioMix mix = phase.getMix().isEmpty() ? null : ScenarioMix.of(phase.getMix(), scenarios);
+            log.info("Load run of {} scenario(s): {}", scenarios.size(), phase);
+            LoadMetrics metrics = new LoadMetrics();
+            LatencyRegistry.getInstance().reset();
+            LoadMetrics.activate(metrics);
+            active = phase;
+            Duration elapsed;
+            long warmUpIterations = 0;
+            long warmUpRequests = 0;
+            try {
+                if (phase.hasWarmUp()) {
+                    WarmUp.prepare(phase.getUsers());
+                    runUsers(cucumber, scenarios, mix, phase.warmUpProfile());
+                    warmUpIterations = metrics.getIterations();
+                    warmUpRequests = WarmUp.requestSamples();
+                    log.info("Warm-up done, dropping {} iteration(s) and {} request sample(s)", warmUpIterations,
+                            warmUpRequests);
+                    metrics.reset();
+                    LatencyRegistry.getInstance().reset();
+                    if (mix != null) {
+                        mix.reset();
+                    }
+                }
+                awaitStart.run();
+                long start = System.nanoTime();
+                runUsers(cucumber, scenarios, mix, phase);
+                elapsed = Duration.ofNanos(System.nanoTime() - start);
+            } finally {
+                active = null;
+                LoadMetrics.activate(null);
+            }
+            return LoadSamples.of(metrics, elapsed, LatencyRegistry.getInstance().snapshot(), mix, warmUpIterations,
+                    warmUpRequests);
+        } finally {
+            cucumber.finish();
+        }
+    }
+
+    /**
+     * Run the scenarios on the users of the phase until its duration is over or its iterations are done.
+     */
+    private static void runUsers(TestNGCucumberRunner cucumber, List<Pickle> scenarios, ScenarioMix mix,
+                                 LoadProfile phase) {
+        long deadline = System.nanoTime() + phase.getDuration().toNanos();
+        AtomicLong remaining = new AtomicLong(phase.getIterations() > 0 ? phase.getIterations() : Long.MAX_VALUE);
+        List<Thread> users = new ArrayList<>(phase.getUsers());
+        ThreadFactory userThreads = ThreadUtil.daemonThreadFactory("load-user");
+        for (int user = 0; user < phase.getUsers(); user++) {
+            int first = user;
+            Thread thread = userThreads.newThread(() -> {
+                int next = first;
+                while (System.nanoTime() < deadline && remaining.getAndDecrement() > 0) {
+                    if (mix == null) {
+                        runScenario(cucumber, scenarios.get(next++ % scenarios.size()));
+                    } else {
+                        int entry = mix.sample();
+                        runScenario(cucumber, mix.scenario(entry));
+                        mix.recordIteration(entry);
+                    }
+                }
+            });
+            users.add(thread);
+            thread.start();
+        }
+        for (Thread thread : users) {
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                users.forEach(Thread::interrupt);
+                throw new IllegalStateException("Load run interrupted", ex);
+            }
+        }
+    }
+
+    private static void runScenario(TestNGCucumberRunner cucumber, Pickle scenario) {
+        try {
+            cucumber.runScenario(scenario);
+        } catch (RuntimeException | AssertionError ex) {
+            // counted by the LoadStepListener
+            log.trace("Scenario: {} failed", scenario.getName(), ex);
+        }
+    }
+
+    private String cucumberProperty(String key) {
+        return switch (key) {
+            case TAGS_PROPERTY -> profile.getTags() == null || profile.getTags().isBlank()
+                    ? System.getProperty(key) : profile.getTags();
+            case PLUGIN_PROPERTY -> LoadStepListener.class.getName();
+            case PUBLISH_QUIET_PROPERTY -> "true";
+            case GLUE_PROPERTY -> profile.getThinkTime().isNone() ? System.getProperty(key) : thinkTimeGlue();
+            default -> System.getProperty(key);
+        };
+    }
+
+    /**
+     * The glue of the runner, which the glue property would replace, and the think time hooks.
+     */
+    private String thinkTimeGlue() {
+        String glue = System.getProperty(GLUE_PROPERTY);
+        if (glue == null || glue.isBlank()) {
+            CucumberOptions options = runnerClass.getAnnotation(CucumberOptions.class);
+            List<String> annotated = options == null ? List.of()
+                    : Stream.concat(Arrays.stream(options.glue()), Arrays.stream(options.extraGlue())).toList();
+            glue = annotated.isEmpty() ? runnerClass.getPackageName() : String.join(",", annotated);
+        }
+        return Stream.concat(Arrays.stream(glue.split(",")).map(String::trim),
+                        Stream.of(ThinkTimeHooks.class.getPackageName()))
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,145 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Raw samples of a closed-model load run, see {@link LoadRunner}.
+ * <p>
+ * Latencies are kept as histogram snapshots, so the samples of the workers
+ * of a distributed run are merged without loss, see {@link #merge(List)}.
+ * </p>
+ *
+ * @param workers          Number of workers that recorded the samples.
+ * @param elapsedNanos     Wall clock time of the measured part of the run.
+ * @param iterations       Number of scenario iterations.
+ * @param failedIterations Number of iterations with a failed step.
+ * @param warmUpIterations Number of dropped scenario iterations of the warm-up.
+ * @param warmUpRequests   Number of dropped http request samples of the warm-up.
+ * @param scenarios        Latency of the scenarios by scenario name.
+ * @param scenarioFailures Number of failed iterations by scenario name.
+ * @param steps            Latency of the steps by step definition.
+ * @param stepFailures     Number of failures by step definition.
+ * @param errors           Number of errors by step and error.
+ * @param requests         Latency of the http requests by endpoint.
+ * @param mix              Iterations of the entries of the scenario mix, empty without a mix.
+ * @author AbhinitKumar
+ */
+public record LoadSamples(int workers, long elapsedNanos, long iterations, long failedIterations,
+                          long warmUpIterations, long warmUpRequests,
+                          Map<String, LatencyHistogram.Snapshot> scenarios, Map<String, Long> scenarioFailures,
+                          Map<String, LatencyHistogram.Snapshot> steps, Map<String, Long> stepFailures,
+                          Map<String, Long> errors, List<Request> requests, List<LoadReport.MixRow> mix) {
+
+    /**
+     * @param metrics          The step and scenario metrics of the run.
+     * @param elapsed          Wall clock time of the measured part of the run.
+     * @param requests         The http request histograms of the run.
+     * @param mix              The scenario mix of the run, {@code null} without a mix.
+     * @param warmUpIterations Number of dropped scenario iterations of the warm-up.
+     * @param warmUpRequests   Number of dropped http request samples of the warm-up.
+     * @return The samples of a single load generator.
+     */
+    public static LoadSamples of(LoadMetrics metrics, Duration elapsed,
+                                 Map<EndpointKey, LatencyHistogram.Snapshot> requests, ScenarioMix mix,
+                                 long warmUpIterations, long warmUpRequests) {
+        Map<String, LatencyHistogram.Snapshot> scenarios = metrics.scenarioSnapshots();
+        Map<String, Long> scenarioFailures = new TreeMap<>();
+        scenarios.keySet().forEach(scenario -> scenarioFailures.put(scenario, metrics.getScenarioFailures(scenario)));
+        Map<String, LatencyHistogram.Snapshot> steps = metrics.stepSnapshots();
+        Map<String, Long> stepFailures = new TreeMap<>();
+        steps.keySet().forEach(step -> stepFailures.put(step, metrics.getStepFailures(step)));
+        return new LoadSamples(1, elapsed.toNanos(), metrics.getIterations(), metrics.getFailedIterations(),
+                warmUpIterations, warmUpRequests, scenarios, scenarioFailures, steps, stepFailures,
+                metrics.getErrors(), Request.of(requests), mix == null ? List.of() : mix.rows());
+    }
+
+    /**
+     * Combine the samples of workers that ran at the same time. Counts are
+     * added, histograms merged and the elapsed time is the longest one.
+     *
+     * @param samples The samples of the workers.
+     * @return The samples of the whole run.
+     */
+    public static LoadSamples merge(List<LoadSamples> samples) {
+        return new LoadSamples(
+                samples.stream().mapToInt(LoadSamples::workers).sum(),
+                samples.stream().mapToLong(LoadSamples::elapsedNanos).max().orElse(0),
+                samples.stream().mapToLong(LoadSamples::iterations).sum(),
+                samples.stream().mapToLong(LoadSamples::failedIterations).sum(),
+                samples.stream().mapToLong(LoadSamples::warmUpIterations).sum(),
+                samples.stream().mapToLong(LoadSamples::warmUpRequests).sum(),
+                mergeSnapshots(samples.stream().map(LoadSamples::scenarios).toList()),
+                mergeCounts(samples.stream().map(LoadSamples::scenarioFailures).toList()),
+                mergeSnapshots(samples.stream().map(LoadSamples::steps).toList()),
+                mergeCounts(samples.stream().map(LoadSamples::stepFailures).toList()),
+                mergeCounts(samples.stream().map(LoadSamples::errors).toList()),
+                Request.merge(samples.stream().map(LoadSamples::requests).toList()),
+                mergeMix(samples.stream().map(LoadSamples::mix).toList()));
+    }
+
+    /**
+     * @return The http request histograms by endpoint.
+     */
+    public Map<EndpointKey, LatencyHistogram.Snapshot> requestSnapshots() {
+        return Request.toMap(requests);
+    }
+
+    static <K> Map<K, LatencyHistogram.Snapshot> mergeSnapshots(Collection<Map<K, LatencyHistogram.Snapshot>> maps) {
+        Map<K, LatencyHistogram.Snapshot> merged = new TreeMap<>();
+        maps.forEach(map -> map.forEach((key, snapshot) ->
+                merged.merge(key, snapshot, LatencyHistogram.Snapshot::merge)));
+        return merged;
+    }
+
+    static Map<String, Long> mergeCounts(Collection<Map<String, Long>> maps) {
+        Map<String, Long> merged = new TreeMap<>();
+        maps.forEach(map -> map.forEach((key, count) -> merged.merge(key, count, Long::sum)));
+        return merged;
+    }
+
+    private static List<LoadReport.MixRow> mergeMix(Collection<List<LoadReport.MixRow>> mixes) {
+        Map<String, LoadReport.MixRow> merged = new LinkedHashMap<>();
+        mixes.forEach(mix -> mix.forEach(row -> merged.merge(row.tags(), row, (a, b) ->
+                new LoadReport.MixRow(a.tags(), a.targetPercent(), a.count() + b.count(), 0))));
+        long total = merged.values().stream().mapToLong(LoadReport.MixRow::count).sum();
+        return merged.values().stream()
+                .map(row -> new LoadReport.MixRow(row.tags(), row.targetPercent(), row.count(),
+                        total == 0 ? 0 : 100.0 * row.count() / total))
+                .toList();
+    }
+
+    /**
+     * Latency of the http requests of an endpoint.
+     *
+     * @param endpoint The endpoint.
+     * @param latency  The latency histogram.
+     */
+    public record Request(EndpointKey endpoint, LatencyHistogram.Snapshot latency) {
+
+        static List<Request> of(Map<EndpointKey, LatencyHistogram.Snapshot> snapshots) {
+            List<Request> requests = new ArrayList<>(snapshots.size());
+            snapshots.forEach((endpoint, latency) -> requests.add(new Request(endpoint, latency)));
+            return requests;
+        }
+
+        static Map<EndpointKey, LatencyHistogram.Snapshot> toMap(List<Request> requests) {
+            Map<EndpointKey, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+            requests.forEach(request -> snapshots.merge(request.endpoint(), request.latency(),
+                    LatencyHistogram.Snapshot::merge));
+            return snapshots;
+        }
+
+        static List<Request> merge(Collection<List<Request>> requests) {
+            return of(mergeSnapshots(requests.stream().map(Request::toMap).toList()));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.threeylos.core.load;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+/**
+ * Cucumber plugin feeding step and scenario results into the {@link LoadMetrics}
+ * of the running load run. Steps are grouped by their step definition pattern,
+ * so steps differing only in their arguments share a histogram.
+ *
+ * @author AbhinitKumar
+ */
+public class LoadStepListener implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::handleTestStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::handleTestCaseFinished);
+    }
+
+    private void handleTestStepFinished(TestStepFinished event) {
+        LoadMetrics metrics = LoadMetrics.active();
+        if (metrics == null) {
+            return;
+        }
+        Result result = event.getResult();
+        if (!(event.getTestStep() instanceof PickleStepTestStep step)) {
+            if (result.getError() != null) {
+                metrics.recordError("Hook", result.getError());
+            }
+            return;
+        }
+        if (result.getStatus() == Status.SKIPPED) {
+            return;
+        }
+        String name = step.getStep().getKeyword().strip() + " " + step.getPattern();
+        Throwable error = result.getError();
+        if (error == null && result.getStatus() != Status.PASSED) {
+            error = new IllegalStateException("Step is " + result.getStatus().name().toLowerCase());
+        }
+        metrics.recordStep(name, result.getDuration().toNanos(), error);
+    }
+
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        LoadMetrics metrics = LoadMetrics.active();
+        if (metrics != null) {
+            Result result = event.getResult();
+            metrics.recordScenario(event.getTestCase().getName(), result.getDuration().toNanos(),
+                    result.getStatus() != Status.PASSED);
+        }
+    }
+}
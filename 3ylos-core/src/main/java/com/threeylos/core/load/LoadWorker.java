@@ -0,0 +1,163 @@
+package com.threeylos.core.load;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker side of a load run generated by several JVMs, see {@link LoadCoordinator}.
+ * <p>
+ * A worker connects to the coordinator, retrying until {@code LOAD_WORKER_TIMEOUT}
+ * so workers may be started before the coordinator, and learns its share of
+ * the profile. It runs its warm-up, waits in {@link #awaitStart()} until the
+ * coordinator starts all workers and sends its samples when done.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class LoadWorker implements Closeable {
+
+    private static final long RETRY_MILLIS = 500;
+
+    private final LoadConnection connection;
+
+    private final int index;
+
+    private final int workers;
+
+    private LoadWorker(LoadConnection connection, int index, int workers) {
+        this.connection = connection;
+        this.index = index;
+        this.workers = workers;
+    }
+
+    /**
+     * Connect to the coordinator and wait for the assignment of this worker.
+     *
+     * @param distribution The address of the coordinator.
+     * @param profile      The profile of the whole run.
+     * @return The connected worker.
+     * @throws IllegalStateException when the coordinator cannot be reached.
+     */
+    public static LoadWorker connect(LoadDistribution distribution, LoadProfile profile) {
+        long deadline = System.nanoTime() + distribution.getTimeout().toNanos();
+        LoadConnection connection = null;
+        try {
+            while (connection == null) {
+                try {
+                    connection = new LoadConnection(new Socket(distribution.getHost(), distribution.getPort()));
+                } catch (ConnectException ex) {
+                    if (System.nanoTime() > deadline) {
+                        throw ex;
+                    }
+                    TimeUnit.MILLISECONDS.sleep(RETRY_MILLIS);
+                }
+            }
+            connection.setPeer(distribution.getCoordinator());
+            connection.send(LoadMessage.hello(ManagementFactory.getRuntimeMXBean().getName(), profile.toString()));
+            LoadMessage assignment = connection.receive(0);
+            if (assignment.type() != LoadMessage.Type.ASSIGN) {
+                throw new IllegalStateException("Load coordinator sent " + assignment.type() + " instead of "
+                        + LoadMessage.Type.ASSIGN + ": " + assignment.error());
+            }
+            log.info("Load worker {} of {} connected to {}", assignment.index() + 1, assignment.workers(),
+                    distribution.getCoordinator());
+            return new LoadWorker(connection, assignment.index(), assignment.workers());
+        } catch (IOException ex) {
+            close(connection);
+            throw new IllegalStateException("Connecting to the load coordinator " + distribution.getCoordinator()
+                    + " failed: " + ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            close(connection);
+            throw new IllegalStateException("Connecting to the load coordinator interrupted", ex);
+        } catch (RuntimeException ex) {
+            close(connection);
+            throw ex;
+        }
+    }
+
+    /**
+     * @return Index of this worker, from 0.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @param profile The profile of the whole run.
+     * @return The share of this worker.
+     */
+    public LoadProfile share(LoadProfile profile) {
+        return profile.share(index, workers);
+    }
+
+    /**
+     * Report this worker as ready and wait until the coordinator starts all workers.
+     *
+     * @throws IllegalStateException when the coordinator fails or goes away.
+     */
+    public void awaitStart() {
+        try {
+            connection.send(LoadMessage.of(LoadMessage.Type.READY));
+            LoadMessage start = connection.receive(0);
+            if (start.type() != LoadMessage.Type.START) {
+                throw new IllegalStateException("Load coordinator sent " + start.type() + " instead of "
+                        + LoadMessage.Type.START + ": " + start.error());
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Waiting for the start of the load run failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @param samples The samples of this worker.
+     */
+    public void sendResult(Object samples) {
+        try {
+            connection.send(LoadMessage.result(LoadConnection.toTree(samples)));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Sending the samples to the load coordinator failed: " + ex.getMessage(),
+                    ex);
+        }
+    }
+
+    /**
+     * Tell the coordinator that this worker cannot go on.
+     *
+     * @param error The failure.
+     */
+    public void fail(Throwable error) {
+        try {
+            connection.send(LoadMessage.error(error.getClass().getSimpleName() + ": " + error.getMessage()));
+        } catch (IOException ex) {
+            log.debug("Reporting the failure to the load coordinator failed", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        close(connection);
+    }
+
+    private static void close(LoadConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (IOException ex) {
+            log.trace("Closing the connection to the load coordinator failed", ex);
+        }
+    }
+}
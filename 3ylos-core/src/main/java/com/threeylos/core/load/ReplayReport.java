@@ -0,0 +1,131 @@
+package com.threeylos.core.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of a {@link TrafficReplay}, latencies are in milliseconds.
+ *
+ * @param capture           The capture file.
+ * @param speed             Factor the replay was faster than the capture.
+ * @param capturedSeconds   Time between the first and the last captured request.
+ * @param dispatchSeconds   Time spent dispatching the replayed requests.
+ * @param elapsedSeconds    Wall clock time of the replay including the wait for outstanding requests.
+ * @param requests          Number of captured requests.
+ * @param completed         Number of completed requests.
+ * @param failed            Number of requests failing or answered with a status of 400 and above.
+ * @param statusMismatches  Number of responses with another status than the captured one.
+ * @param late              Number of requests dispatched later than the late threshold.
+ * @param dropped           Number of requests not sent because too many were outstanding.
+ * @param unfinished        Number of requests still outstanding when the replay ended.
+ * @param latency           Latency from the time a request was due.
+ * @param serviceTime       Latency from the time a request was actually sent.
+ * @param endpoints         Captured and replayed latency by endpoint.
+ * @param errors            Number of errors by error.
+ * @author AbhinitKumar
+ */
+@Log4j2
+public record ReplayReport(String capture, double speed, double capturedSeconds, double dispatchSeconds,
+                           double elapsedSeconds, long requests, long completed, long failed, long statusMismatches,
+                           long late, long dropped, long unfinished, LoadReport.Row latency,
+                           LoadReport.Row serviceTime, List<EndpointRow> endpoints, Map<String, Long> errors) {
+
+    private static final String SUMMARY_NAME = "replay-summary";
+    private static final String REQUESTS_NAME = "api-latency";
+    private static final String ENDPOINT_FORMAT = "%-48s %7s %9s %9s %9s %9s %8s %6s %7s %6s%n";
+
+    /**
+     * @return The report as text.
+     */
+    public String table() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "Capture: %s, speed: %.2fx, captured: %.1f s, replayed: %.1f s, "
+                + "elapsed: %.1f s%n", capture, speed, capturedSeconds, dispatchSeconds, elapsedSeconds));
+        builder.append(String.format(Locale.ROOT, "Requests: %d, completed: %d, failed: %d, status mismatches: %d, "
+                + "late: %d, dropped: %d, unfinished: %d%n%n", requests, completed, failed, statusMismatches, late,
+                dropped, unfinished));
+        builder.append(LoadReport.table("LATENCY", List.of(latency, serviceTime)));
+        builder.append(String.format(Locale.ROOT, ENDPOINT_FORMAT, "ENDPOINT", "COUNT", "P50 WAS", "P50 NOW",
+                "P99 WAS", "P99 NOW", "P99 +/-%", "DIST", "FAILED", "STATUS"));
+        for (EndpointRow row : endpoints) {
+            boolean captured = row.capturedCount() > 0;
+            builder.append(String.format(Locale.ROOT, ENDPOINT_FORMAT, row.endpoint(), row.count(),
+                    captured ? format(row.capturedP50()) : "-", format(row.p50()),
+                    captured ? format(row.capturedP99()) : "-", format(row.p99()),
+                    captured && row.capturedP99() > 0 ? format(row.p99Change() * 100) : "-",
+                    captured ? format(row.distance()) : "-", row.failed(), row.statusMismatches()));
+        }
+        builder.append(System.lineSeparator());
+        if (!errors.isEmpty()) {
+            builder.append(LoadReport.errorTable(errors));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write {@code replay-summary.json}, {@code replay-summary.txt} and the http
+     * request latencies as {@code api-latency.*} to the directory.
+     *
+     * @param directory The report directory.
+     * @param requests  The request histograms of the replay.
+     */
+    public void write(Path directory, Map<EndpointKey, LatencyHistogram.Snapshot> requests) {
+        String table = table();
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve(SUMMARY_NAME + ".json").toFile(), this);
+            Files.writeString(directory.resolve(SUMMARY_NAME + ".txt"), table);
+        } catch (IOException ex) {
+            log.warn("Writing replay report to {} failed", directory, ex);
+        }
+        log.info("Traffic replay:\n{}", table);
+        LatencyRegistry.writeReport(directory, REQUESTS_NAME, requests);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Captured and replayed latency of one endpoint, the replayed latency is
+     * the service time like the captured one.
+     *
+     * @param endpoint         Method and path template.
+     * @param count            Number of replayed requests.
+     * @param capturedCount    Number of captured requests with a latency.
+     * @param capturedP50      Captured median latency.
+     * @param p50              Replayed median latency.
+     * @param capturedP99      Captured 99th percentile latency.
+     * @param p99              Replayed 99th percentile latency.
+     * @param p99Change        Relative change of the 99th percentile, 0.25 is 25% slower.
+     * @param distance         Largest difference of the captured and the replayed latency distributions, 0 to 1.
+     * @param failed           Number of failed and dropped requests.
+     * @param statusMismatches Number of responses with another status than the captured one.
+     */
+    public record EndpointRow(String endpoint, long count, long capturedCount, double capturedP50, double p50,
+                              double capturedP99, double p99, double p99Change, double distance, long failed,
+                              long statusMismatches) {
+
+        public static EndpointRow of(String endpoint, LatencyHistogram.Snapshot captured,
+                                     LatencyHistogram.Snapshot replayed, long failed, long statusMismatches) {
+            double capturedP99 = captured.percentile(99) / 1000.0;
+            double p99 = replayed.percentile(99) / 1000.0;
+            return new EndpointRow(endpoint, replayed.count(), captured.count(), captured.percentile(50) / 1000.0,
+                    replayed.percentile(50) / 1000.0, capturedP99, p99,
+                    capturedP99 <= 0 ? 0 : (p99 - capturedP99) / capturedP99, captured.distance(replayed), failed,
+                    statusMismatches);
+        }
+    }
+}
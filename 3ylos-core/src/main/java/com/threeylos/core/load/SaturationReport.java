@@ -0,0 +1,87 @@
+package com.threeylos.core.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Result of a {@link SaturationSearch}, latencies are in milliseconds.
+ *
+ * @param name               Name of the task.
+ * @param maxP99             The p99 latency threshold.
+ * @param maxErrorRate       The error rate threshold.
+ * @param maxSustainableRate Successful requests per second of the highest passing plateau, 0 when none passed.
+ * @param saturationRate     Lowest offered rate that failed, {@code null} when every plateau passed.
+ * @param plateaus           The plateaus in the order they ran.
+ * @author AbhinitKumar
+ */
+@Log4j2
+public record SaturationReport(String name, long maxP99, double maxErrorRate, double maxSustainableRate,
+                               Double saturationRate, List<Plateau> plateaus) {
+
+    private static final String SUMMARY_NAME = "saturation-summary";
+    private static final String ROW_FORMAT = "%10s %10s %10s %9s %9s %9s %9s %9s %9s %6s%n";
+
+    /**
+     * @return The report as text.
+     */
+    public String table() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "Task: %s, thresholds: p99 <= %d ms, errors <= %.2f%%%n", name,
+                maxP99, maxErrorRate * 100));
+        builder.append(String.format(Locale.ROOT, "Max sustainable throughput: %.2f/s, saturated at: %s%n%n",
+                maxSustainableRate, saturationRate == null ? "-" : format(saturationRate) + "/s"));
+        builder.append(String.format(Locale.ROOT, ROW_FORMAT, "TARGET/S", "OFFERED/S", "GOOD/S", "COUNT", "ERROR%",
+                "P50", "P90", "P99", "MAX", "PASS"));
+        plateaus.stream()
+                .sorted((left, right) -> Double.compare(left.targetRate(), right.targetRate()))
+                .forEach(plateau -> builder.append(String.format(Locale.ROOT, ROW_FORMAT,
+                        format(plateau.targetRate()), format(plateau.offeredRate()), format(plateau.goodRate()),
+                        plateau.count(), format(plateau.errorRate() * 100), format(plateau.p50()),
+                        format(plateau.p90()), format(plateau.p99()), format(plateau.max()),
+                        plateau.passed() ? "yes" : "no")));
+        return builder.toString();
+    }
+
+    /**
+     * Write {@code saturation-summary.json} and {@code saturation-summary.txt} to the directory.
+     *
+     * @param directory The report directory.
+     */
+    public void write(Path directory) {
+        String table = table();
+        try {
+            Files.createDirectories(directory);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(directory.resolve(SUMMARY_NAME + ".json").toFile(), this);
+            Files.writeString(directory.resolve(SUMMARY_NAME + ".txt"), table);
+        } catch (IOException ex) {
+            log.warn("Writing saturation report to {} failed", directory, ex);
+        }
+        log.info("Saturation search:\n{}", table);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * One constant rate plateau of the search, latency is measured from the due time.
+     *
+     * @param targetRate  Requests per second of the plateau.
+     * @param offeredRate Requests per second actually due.
+     * @param goodRate    Successful requests per second.
+     * @param count       Number of requests due.
+     * @param errorRate   Share of failed, dropped and unfinished requests.
+     * @param passed      Whether the plateau stayed within both thresholds.
+     */
+    public record Plateau(double targetRate, double offeredRate, double goodRate, long count, double errorRate,
+                          double p50, double p90, double p99, double max, boolean passed) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.RestApiBase;
+import com.threeylos.core.api.model.RequestTemplate;
+import com.threeylos.core.config.ApplicationProperties;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Finds the highest sustainable request rate of an endpoint.
+ * <p>
+ * The offered load is raised plateau by plateau, each plateau is an
+ * {@link ArrivalRateScheduler} run at a constant rate. The search stops at
+ * the first plateau whose p99 latency, measured from the due time, or error
+ * rate crosses its threshold and then bisects between the last passing and
+ * the failing rate. Every plateau is reported with its own latency
+ * percentiles, so the knee of the latency curve is visible. The warm-up of
+ * the profile runs once, before the first plateau.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public class SaturationSearch {
+
+    private final LoadProfile profile;
+
+    private final Settings settings;
+
+    private final String name;
+
+    private final Supplier<?> task;
+
+    private boolean warmedUp;
+
+    /**
+     * @param profile  Report directory, in-flight limit and thresholds of the plateau runs.
+     * @param settings The search.
+     * @param name     Name of the task in the report.
+     * @param task     The blocking request, see {@link ArrivalRateScheduler}.
+     */
+    public SaturationSearch(LoadProfile profile, Settings settings, String name, Supplier<?> task) {
+        this.profile = profile.validate();
+        this.settings = settings.validate();
+        this.name = name;
+        this.task = task;
+    }
+
+    public static SaturationSearch forRequest(LoadProfile profile, Settings settings, RestApiBase api,
+                                              RequestTemplate template) {
+        return new SaturationSearch(profile, settings, template.getMethod() + " " + template.getUrl(),
+                () -> api.execute(template));
+    }
+
+    /**
+     * Run the search, write the report to the report directory of the profile.
+     *
+     * @return The report of the search.
+     */
+    public SaturationReport run() {
+        log.info("Saturation search of {}: {}", name, settings);
+        List<SaturationReport.Plateau> plateaus = new ArrayList<>();
+        SaturationReport.Plateau lastPassed = null;
+        SaturationReport.Plateau firstFailed = null;
+        for (double rate = settings.getStartRate(); rate <= settings.getMaxRate(); rate *= settings.getFactor()) {
+            SaturationReport.Plateau plateau = plateau(rate);
+            plateaus.add(plateau);
+            if (!plateau.passed()) {
+                firstFailed = plateau;
+                break;
+            }
+            lastPassed = plateau;
+        }
+        for (int i = 0; i < settings.getRefineSteps() && lastPassed != null && firstFailed != null; i++) {
+            SaturationReport.Plateau plateau = plateau((lastPassed.targetRate() + firstFailed.targetRate()) / 2);
+            plateaus.add(plateau);
+            if (plateau.passed()) {
+                lastPassed = plateau;
+            } else {
+                firstFailed = plateau;
+            }
+        }
+        SaturationReport report = new SaturationReport(name, settings.getMaxP99().toMillis(),
+                settings.getMaxErrorRate(), lastPassed == null ? 0 : lastPassed.goodRate(),
+                firstFailed == null ? null : firstFailed.targetRate(), plateaus);
+        report.write(profile.getReportDirectory());
+        return report;
+    }
+
+    private SaturationReport.Plateau plateau(double rate) {
+        LoadProfile plateauProfile = (warmedUp ? profile.withoutWarmUp() : profile).toBuilder()
+                .arrivalPattern(ArrivalPattern.constant(rate))
+                .duration(settings.getPlateau())
+                .build();
+        ArrivalReport result = new ArrivalRateScheduler(plateauProfile, name, task).measure();
+        warmedUp = true;
+        long errors = result.failed() + result.dropped() + result.unfinished();
+        double errorRate = result.scheduled() == 0 ? 0 : (double) errors / result.scheduled();
+        boolean passed = result.latency().p99() <= settings.getMaxP99().toMillis()
+                && errorRate <= settings.getMaxErrorRate();
+        SaturationReport.Plateau plateau = new SaturationReport.Plateau(rate, result.scheduledRate(),
+                (result.completed() - result.failed()) / result.elapsedSeconds(), result.scheduled(), errorRate,
+                result.latency().p50(), result.latency().p90(), result.latency().p99(), result.latency().max(),
+                passed);
+        log.info("Plateau {}", plateau);
+        return plateau;
+    }
+
+    /**
+     * Rates, plateau length and thresholds of a search.
+     */
+    @Getter
+    @Builder(toBuilder = true)
+    @ToString
+    public static class Settings {
+
+        public static final String LOAD_SEARCH_START_RATE = "LOAD_SEARCH_START_RATE";
+        public static final String LOAD_SEARCH_MAX_RATE = "LOAD_SEARCH_MAX_RATE";
+        public static final String LOAD_SEARCH_FACTOR = "LOAD_SEARCH_FACTOR";
+        public static final String LOAD_SEARCH_PLATEAU = "LOAD_SEARCH_PLATEAU";
+        public static final String LOAD_SEARCH_MAX_P99 = "LOAD_SEARCH_MAX_P99";
+        public static final String LOAD_SEARCH_MAX_ERROR_RATE = "LOAD_SEARCH_MAX_ERROR_RATE";
+        public static final String LOAD_SEARCH_REFINE_STEPS = "LOAD_SEARCH_REFINE_STEPS";
+
+        /**
+         * Requests per second of the first plateau.
+         */
+        @Builder.Default
+        private final double startRate = 10;
+
+        /**
+         * The search stops after the plateau at or below this rate.
+         */
+        @Builder.Default
+        private final double maxRate = 10_000;
+
+        /**
+         * Rate of a plateau divided by the rate of the previous one.
+         */
+        @Builder.Default
+        private final double factor = 1.5;
+
+        @Builder.Default
+        private final Duration plateau = Duration.ofSeconds(30);
+
+        @Builder.Default
+        private final Duration maxP99 = Duration.ofSeconds(1);
+
+        /**
+         * Highest share of failed, dropped and unfinished requests of a passing plateau.
+         */
+        @Builder.Default
+        private final double maxErrorRate = 0.01;
+
+        /**
+         * Plateaus bisecting between the last passing and the first failing rate.
+         */
+        @Builder.Default
+        private final int refineSteps = 2;
+
+        /**
+         * @return The search of the {@code LOAD_SEARCH_*} application properties.
+         */
+        public static Settings fromConfig() {
+            return Settings.builder()
+                    .startRate(ApplicationProperties.getDouble(LOAD_SEARCH_START_RATE, 10))
+                    .maxRate(ApplicationProperties.getDouble(LOAD_SEARCH_MAX_RATE, 10_000))
+                    .factor(ApplicationProperties.getDouble(LOAD_SEARCH_FACTOR, 1.5))
+                    .plateau(ApplicationProperties.getDuration(LOAD_SEARCH_PLATEAU, Duration.ofSeconds(30)))
+                    .maxP99(ApplicationProperties.getDuration(LOAD_SEARCH_MAX_P99, Duration.ofSeconds(1)))
+                    .maxErrorRate(ApplicationProperties.getDouble(LOAD_SEARCH_MAX_ERROR_RATE, 0.01))
+                    .refineSteps(ApplicationProperties.getInt(LOAD_SEARCH_REFINE_STEPS, 2))
+                    .build()
+                    .validate();
+        }
+
+        /**
+         * @return These settings.
+         * @throws IllegalStateException when a value is out of range.
+         */
+        public Settings validate() {
+            if (!(startRate > 0) || maxRate < startRate) {
+                throw new IllegalStateException(LOAD_SEARCH_START_RATE + " must be positive and at most "
+                        + LOAD_SEARCH_MAX_RATE + " but was " + startRate + " of " + maxRate);
+            }
+            if (!(factor > 1)) {
+                throw new IllegalStateException(LOAD_SEARCH_FACTOR + " must be above 1 but was " + factor);
+            }
+            if (plateau.isNegative() || plateau.isZero()) {
+                throw new IllegalStateException(LOAD_SEARCH_PLATEAU + " must be positive but was "
+                        + plateau.toMillis());
+            }
+            if (maxErrorRate < 0 || maxErrorRate > 1) {
+                throw new IllegalStateException(LOAD_SEARCH_MAX_ERROR_RATE + " must be between 0 and 1 but was "
+                        + maxErrorRate);
+            }
+            if (refineSteps < 0) {
+                throw new IllegalStateException(LOAD_SEARCH_REFINE_STEPS + " must not be negative but was "
+                        + refineSteps);
+            }
+            return this;
+        }
+    }
+}
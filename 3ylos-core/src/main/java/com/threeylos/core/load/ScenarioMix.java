@@ -0,0 +1,184 @@
+package com.threeylos.core.load;
+
+import io.cucumber.tagexpressions.Expression;
+import io.cucumber.tagexpressions.TagExpressionParser;
+import io.cucumber.testng.Pickle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Weighted choice of the scenario of the next iteration of a load run.
+ * <p>
+ * Every entry is a tag expression with a weight, e.g.
+ * {@code @getPositive:70,@creates:20,@positiveDelete:10}. An iteration picks
+ * an entry with a probability proportional to its weight, then the scenarios
+ * matching the entry take turns. The iterations run per entry are counted, so
+ * the report can compare the achieved mix with the target mix.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class ScenarioMix {
+
+    private final List<Entry> entries;
+
+    private final List<List<Pickle>> scenarios;
+
+    private final double[] cumulativeWeights;
+
+    private final AtomicInteger[] turns;
+
+    private final LongAdder[] iterations;
+
+    private ScenarioMix(List<Entry> entries, List<List<Pickle>> scenarios) {
+        this.entries = entries;
+        this.scenarios = scenarios;
+        this.cumulativeWeights = new double[entries.size()];
+        this.turns = new AtomicInteger[entries.size()];
+        this.iterations = new LongAdder[entries.size()];
+        double total = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            total += entries.get(i).weight();
+            cumulativeWeights[i] = total;
+            turns[i] = new AtomicInteger();
+            iterations[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param entries   The weighted tag expressions.
+     * @param scenarios The scenarios of the run.
+     * @return The mix of the scenarios.
+     * @throws IllegalStateException when an entry matches no scenario.
+     */
+    public static ScenarioMix of(List<Entry> entries, List<Pickle> scenarios) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Scenario mix has no entries");
+        }
+        List<List<Pickle>> matching = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Expression expression = TagExpressionParser.parse(entry.tags());
+            List<Pickle> matches = scenarios.stream()
+                    .filter(scenario -> expression.evaluate(scenario.getTags()))
+                    .toList();
+            if (matches.isEmpty()) {
+                throw new IllegalStateException("No scenario of the load run matches the mix entry: " + entry);
+            }
+            matching.add(matches);
+        }
+        return new ScenarioMix(List.copyOf(entries), matching);
+    }
+
+    /**
+     * Parse {@code tags:weight} entries, e.g. {@code @getPositive:70,@creates:20}.
+     *
+     * @param value The entries, none when empty.
+     * @return The entries in order.
+     */
+    public static List<Entry> parse(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .map(entry -> {
+                    int separator = entry.lastIndexOf(':');
+                    if (separator < 0) {
+                        throw new IllegalArgumentException("Mix entry must be tags:weight but was " + entry);
+                    }
+                    return new Entry(entry.substring(0, separator).trim(),
+                            Double.parseDouble(entry.substring(separator + 1).trim()));
+                })
+                .toList();
+    }
+
+    /**
+     * @return Index of a randomly picked entry.
+     */
+    public int sample() {
+        double point = ThreadLocalRandom.current().nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (point < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    /**
+     * @param entry Index of the entry.
+     * @return The scenario of the entry whose turn it is.
+     */
+    public Pickle scenario(int entry) {
+        List<Pickle> matches = scenarios.get(entry);
+        return matches.get(Math.floorMod(turns[entry].getAndIncrement(), matches.size()));
+    }
+
+    /**
+     * Count an iteration run for the entry.
+     *
+     * @param entry Index of the entry.
+     */
+    public void recordIteration(int entry) {
+        iterations[entry].increment();
+    }
+
+    /**
+     * Drop the iteration counts, e.g. of the warm-up.
+     */
+    public void reset() {
+        for (LongAdder counter : iterations) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * @return Target and achieved share of every entry, in percent.
+     */
+    public List<LoadReport.MixRow> rows() {
+        double totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+        long totalIterations = Arrays.stream(iterations).mapToLong(LongAdder::sum).sum();
+        List<LoadReport.MixRow> rows = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            long count = iterations[i].sum();
+            rows.add(new LoadReport.MixRow(entries.get(i).tags(), 100.0 * entries.get(i).weight() / totalWeight,
+                    count, totalIterations == 0 ? 0 : 100.0 * count / totalIterations));
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return entries.toString();
+    }
+
+    /**
+     * Scenarios matching a tag expression and their weight in the mix.
+     *
+     * @param tags   Cucumber tag expression.
+     * @param weight Relative weight, the weights do not need to add up to 100.
+     */
+    public record Entry(String tags, double weight) {
+
+        public Entry {
+            if (tags == null || tags.isBlank()) {
+                throw new IllegalArgumentException("Mix entry has no tags");
+            }
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("Weight of mix entry " + tags + " must be positive but was "
+                        + weight);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return tags + ":" + weight;
+        }
+    }
+}
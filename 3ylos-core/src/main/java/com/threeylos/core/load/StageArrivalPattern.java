@@ -0,0 +1,131 @@
+package com.threeylos.core.load;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Requests at a rate changing stage by stage, within a stage the rate is
+ * constant or changes linearly.
+ *
+ * @author AbhinitKumar
+ */
+final class StageArrivalPattern implements ArrivalPattern {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Stage> stages;
+
+    /**
+     * End of every stage in nanoseconds since the start of the run.
+     */
+    private final long[] ends;
+
+    private final String description;
+
+    StageArrivalPattern(List<Stage> stages) {
+        this(stages, null);
+    }
+
+    StageArrivalPattern(List<Stage> stages, String description) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("At least one stage is required");
+        }
+        this.stages = List.copyOf(stages);
+        this.ends = new long[stages.size()];
+        this.description = description;
+        long end = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            long duration = stages.get(i).duration().toNanos();
+            end = end > Long.MAX_VALUE - duration ? Long.MAX_VALUE : end + duration;
+            ends[i] = end;
+        }
+    }
+
+    @Override
+    public long next(long previousNanos) {
+        long from = Math.max(previousNanos, 0);
+        boolean stageStart = previousNanos < 0;
+        int index = stageAt(from);
+        while (index < stages.size()) {
+            if (stageStart && rateAt(index, from) > 0) {
+                return from;
+            }
+            double gapSeconds = gapSeconds(index, from);
+            if (Double.isFinite(gapSeconds)) {
+                long due = from + Math.max(1, (long) (gapSeconds * NANOS_PER_SECOND));
+                if (due < ends[index]) {
+                    return due;
+                }
+            }
+            // the next request falls into a later stage, which starts with a request if its rate allows
+            from = ends[index];
+            index++;
+            stageStart = true;
+        }
+        return END;
+    }
+
+    @Override
+    public double rateAt(long elapsedNanos) {
+        int index = stageAt(elapsedNanos);
+        return index < stages.size() ? rateAt(index, elapsedNanos) : 0;
+    }
+
+    @Override
+    public int stageAt(long elapsedNanos) {
+        int index = 0;
+        while (index < ends.length && elapsedNanos >= ends[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    private double rateAt(int index, long elapsedNanos) {
+        Stage stage = stages.get(index);
+        long start = index == 0 ? 0 : ends[index - 1];
+        double durationSeconds = stage.duration().toNanos() / NANOS_PER_SECOND;
+        double fraction = durationSeconds <= 0 ? 0 : ((elapsedNanos - start) / NANOS_PER_SECOND) / durationSeconds;
+        return stage.fromRate() + (stage.toRate() - stage.fromRate()) * Math.min(1, fraction);
+    }
+
+    /**
+     * Time until one more request is due, i.e. until the integral of the linear rate from now reaches one.
+     *
+     * @return The gap in seconds, infinite when the rate does not allow another request.
+     */
+    private double gapSeconds(int index, long elapsedNanos) {
+        Stage stage = stages.get(index);
+        double rate = rateAt(index, elapsedNanos);
+        double durationSeconds = stage.duration().toNanos() / NANOS_PER_SECOND;
+        double slope = durationSeconds <= 0 ? 0 : (stage.toRate() - stage.fromRate()) / durationSeconds;
+        if (slope == 0) {
+            return rate > 0 ? 1 / rate : Double.POSITIVE_INFINITY;
+        }
+        // slope / 2 * gap^2 + rate * gap - 1 = 0
+        double discriminant = rate * rate + 2 * slope;
+        return discriminant < 0 ? Double.POSITIVE_INFINITY : (Math.sqrt(discriminant) - rate) / slope;
+    }
+
+    @Override
+    public ArrivalPattern scale(double factor) {
+        List<Stage> scaled = stages.stream()
+                .map(stage -> new Stage(stage.duration(), stage.fromRate() * factor, stage.toRate() * factor))
+                .toList();
+        return new StageArrivalPattern(scaled, description == null ? null
+                : String.format(Locale.ROOT, "%s x %.3f", description, factor));
+    }
+
+    @Override
+    public String toString() {
+        return description != null ? description : stages.stream()
+                .map(Stage::toString)
+                .collect(Collectors.joining(", ", "stages(", ")"));
+    }
+}
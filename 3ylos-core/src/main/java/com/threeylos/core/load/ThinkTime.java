@@ -0,0 +1,156 @@
+package com.threeylos.core.load;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pause of a virtual user after every step of a load run, like a user
+ * reading a page before the next click, see {@link com.threeylos.core.load.glue.ThinkTimeHooks}.
+ *
+ * @author AbhinitKumar
+ */
+public interface ThinkTime {
+
+    /**
+     * @return The next pause in nanoseconds.
+     */
+    long nextNanos();
+
+    /**
+     * @return Whether the pause is always 0.
+     */
+    default boolean isNone() {
+        return false;
+    }
+
+    /**
+     * No pause, steps run back to back.
+     */
+    static ThinkTime none() {
+        return new ThinkTime() {
+            @Override
+            public long nextNanos() {
+                return 0;
+            }
+
+            @Override
+            public boolean isNone() {
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return "none";
+            }
+        };
+    }
+
+    /**
+     * The same pause after every step.
+     *
+     * @param pause The pause.
+     */
+    static ThinkTime fixed(Duration pause) {
+        requireNotNegative(pause);
+        long nanos = pause.toNanos();
+        return new ThinkTime() {
+            @Override
+            public long nextNanos() {
+                return nanos;
+            }
+
+            @Override
+            public String toString() {
+                return "fixed(" + pause.toMillis() + " ms)";
+            }
+        };
+    }
+
+    /**
+     * Pauses evenly distributed between a minimum and a maximum.
+     *
+     * @param min The shortest pause.
+     * @param max The longest pause.
+     */
+    static ThinkTime uniform(Duration min, Duration max) {
+        requireNotNegative(min);
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("Think time maximum " + max.toMillis()
+                    + " ms is below the minimum " + min.toMillis() + " ms");
+        }
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        return new ThinkTime() {
+            @Override
+            public long nextNanos() {
+                return minNanos == maxNanos ? minNanos : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+            }
+
+            @Override
+            public String toString() {
+                return "uniform(" + min.toMillis() + "-" + max.toMillis() + " ms)";
+            }
+        };
+    }
+
+    /**
+     * Exponentially distributed pauses, mostly short ones with a few long ones.
+     *
+     * @param mean The mean pause.
+     */
+    static ThinkTime exponential(Duration mean) {
+        requireNotNegative(mean);
+        double meanNanos = mean.toNanos();
+        return new ThinkTime() {
+            @Override
+            public long nextNanos() {
+                return (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanNanos);
+            }
+
+            @Override
+            public String toString() {
+                return "exponential(" + mean.toMillis() + " ms)";
+            }
+        };
+    }
+
+    /**
+     * Parse {@code none}, {@code fixed:millis}, {@code uniform:min-max} or
+     * {@code exponential:mean}, all in milliseconds, e.g. {@code uniform:200-800}.
+     *
+     * @param value The think time, {@code none} when empty.
+     * @return The think time.
+     */
+    static ThinkTime parse(String value) {
+        if (value == null || value.isBlank() || value.trim().equalsIgnoreCase("none")) {
+            return none();
+        }
+        String[] parts = value.trim().split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Think time must be none, fixed:millis, uniform:min-max or "
+                    + "exponential:mean but was " + value);
+        }
+        String millis = parts[1].trim();
+        return switch (parts[0].trim().toLowerCase(Locale.ROOT)) {
+            case "fixed" -> fixed(Duration.ofMillis(Long.parseLong(millis)));
+            case "uniform" -> {
+                String[] range = millis.split("-");
+                if (range.length != 2) {
+                    throw new IllegalArgumentException("Think time must be uniform:min-max but was " + value);
+                }
+                yield uniform(Duration.ofMillis(Long.parseLong(range[0].trim())),
+                        Duration.ofMillis(Long.parseLong(range[1].trim())));
+            }
+            case "exponential" -> exponential(Duration.ofMillis(Long.parseLong(millis)));
+            default -> throw new IllegalArgumentException("Think time must be none, fixed, uniform or exponential "
+                    + "but was " + value);
+        };
+    }
+
+    private static void requireNotNegative(Duration pause) {
+        if (pause.isNegative()) {
+            throw new IllegalArgumentException("Think time must not be negative but was " + pause.toMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.RestApiBase;
+import com.threeylos.core.api.capture.CapturedRequest;
+import com.threeylos.core.api.capture.TrafficCapture;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.api.model.RequestTemplate;
+import com.threeylos.core.config.ApplicationProperties;
+import io.restassured.response.Response;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a traffic capture, see {@link TrafficCapture}, against the base url
+ * of an api, e.g. a new build of the service.
+ * <p>
+ * Requests are sent at the offsets they were captured at, divided by the
+ * speed, so the gaps between requests are kept and a speed of 2 replays the
+ * capture in half the time. Like the {@link ArrivalRateScheduler} a single
+ * thread dispatches every request when it is due with a
+ * {@link DueTimeDispatcher} however long the responses take, so the load is
+ * the captured load and not throttled by a slower build.
+ * </p>
+ * <p>
+ * The report compares the latency of every endpoint with the captured latency,
+ * by percentiles and by the largest difference of the latency distributions,
+ * and counts responses whose status differs from the captured status.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public class TrafficReplay {
+
+    public static final String REPLAY_FILE = "REPLAY_FILE";
+    public static final String REPLAY_SPEED = "REPLAY_SPEED";
+
+    private final LoadProfile profile;
+
+    private final RestApiBase api;
+
+    private final Path capture;
+
+    private final double speed;
+
+    private final LoadMetrics metrics = new LoadMetrics();
+
+    private final LongAdder statusMismatches = new LongAdder();
+
+    /**
+     * @param profile The max in flight requests, late threshold, drain timeout and report directory of the replay.
+     * @param api     The api sending the requests.
+     * @param capture The capture file.
+     * @param speed   Factor the replay is faster than the capture.
+     */
+    public TrafficReplay(LoadProfile profile, RestApiBase api, Path capture, double speed) {
+        if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new IllegalStateException(REPLAY_SPEED + " must be positive but was " + speed);
+        }
+        this.profile = profile.validate();
+        this.api = api;
+        this.capture = capture;
+        this.speed = speed;
+    }
+
+    /**
+     * Replay the {@code REPLAY_FILE}, by default the {@code CAPTURE_FILE}, at {@code REPLAY_SPEED}.
+     *
+     * @param api The api sending the requests.
+     */
+    public static TrafficReplay fromConfig(RestApiBase api) {
+        String captureFile = ApplicationProperties.getValue(TrafficCapture.CAPTURE_FILE, TrafficCapture.DEFAULT_FILE);
+        return new TrafficReplay(LoadProfile.fromConfig(), api,
+                Paths.get(ApplicationProperties.getValue(REPLAY_FILE, captureFile)),
+                ApplicationProperties.getDouble(REPLAY_SPEED, 1.0));
+    }
+
+    /**
+     * Replay the capture, write the report to the report directory of the profile.
+     *
+     * @return The report of the replay.
+     * @throws IllegalStateException when the capture cannot be read or is empty.
+     */
+    public ReplayReport run() {
+        ReplayReport report = measure();
+        report.write(profile.getReportDirectory(), LatencyRegistry.getInstance().snapshot());
+        return report;
+    }
+
+    /**
+     * Replay the capture without writing a report.
+     *
+     * @return The report of the replay.
+     * @throws IllegalStateException when the capture cannot be read or is empty.
+     */
+    public ReplayReport measure() {
+        List<CapturedRequest> requests = CapturedRequest.read(capture);
+        if (requests.isEmpty()) {
+            throw new IllegalStateException("The capture " + capture + " has no request");
+        }
+        Path bodies = CapturedRequest.bodiesDirectory(capture);
+        Map<String, byte[]> bodyCache = new HashMap<>();
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        List<RequestTemplate> templates = new ArrayList<>(requests.size());
+        List<Endpoint> endpointOfRequest = new ArrayList<>(requests.size());
+        for (CapturedRequest request : requests) {
+            byte[] body = request.bodyRef() == null ? request.bodyBytes(bodies)
+                    : bodyCache.computeIfAbsent(request.bodyRef(), ref -> request.bodyBytes(bodies));
+            templates.add(RequestTemplate.builder()
+                    .method(request.httpMethod())
+                    .url(request.path())
+                    .pathParams(request.params() == null ? Map.of() : request.params())
+                    .queryParams(request.query() == null ? Map.of() : request.query())
+                    .headers(request.headers() == null ? Map.of() : request.headers())
+                    .rawBody(body)
+                    .build());
+            Endpoint endpoint = endpoints.computeIfAbsent(request.httpMethod() + " " + request.path(),
+                    key -> new Endpoint());
+            if (request.latency() > 0) {
+                endpoint.original.record(TimeUnit.MICROSECONDS.toNanos(request.latency()));
+            }
+            endpointOfRequest.add(endpoint);
+        }
+        long first = requests.get(0).t();
+        double capturedSeconds = (requests.get(requests.size() - 1).t() - first) / 1e6;
+        log.info("Replaying {} request(s) of {} captured over {} s at {}x", requests.size(), capture,
+                String.format(Locale.ROOT, "%.1f", capturedSeconds), speed);
+        LatencyRegistry.getInstance().reset();
+        try (DueTimeDispatcher dispatcher = new DueTimeDispatcher("load-replay", profile.getMaxInFlight(),
+                profile.getLateThreshold()).start()) {
+            for (int i = 0; i < requests.size() && !Thread.currentThread().isInterrupted(); i++) {
+                long due = (long) (TimeUnit.MICROSECONDS.toNanos(requests.get(i).t() - first) / speed);
+                CapturedRequest request = requests.get(i);
+                RequestTemplate template = templates.get(i);
+                Endpoint endpoint = endpointOfRequest.get(i);
+                if (!dispatcher.dispatch(due, () -> send(request, template, endpoint), endpoint::completed)) {
+                    endpoint.failed.increment();
+                }
+            }
+            int unfinished = dispatcher.drain(profile.getDrainTimeout());
+            List<ReplayReport.EndpointRow> rows = new ArrayList<>(endpoints.size());
+            endpoints.forEach((name, endpoint) -> rows.add(ReplayReport.EndpointRow.of(name,
+                    endpoint.original.snapshot(), endpoint.replayed.snapshot(), endpoint.failed.sum(),
+                    endpoint.statusMismatches.sum())));
+            return new ReplayReport(capture.toString(), speed, capturedSeconds, dispatcher.dispatchNanos() / 1e9,
+                    dispatcher.elapsedNanos() / 1e9, requests.size(), dispatcher.completed(), dispatcher.failed(),
+                    statusMismatches.sum(), dispatcher.late(), dispatcher.dropped(), unfinished,
+                    LoadReport.Row.of("latency from due time", dispatcher.latency(), dispatcher.failed()),
+                    LoadReport.Row.of("service time", dispatcher.serviceTime(), dispatcher.failed()), rows,
+                    metrics.getErrors());
+        }
+    }
+
+    private boolean send(CapturedRequest request, RequestTemplate template, Endpoint endpoint) {
+        String name = template.getMethod() + " " + template.getUrl();
+        try {
+            Response response = api.execute(template);
+            if (request.status() > 0 && response.getStatusCode() != request.status()) {
+                statusMismatches.increment();
+                endpoint.statusMismatches.increment();
+            }
+            if (response.getStatusCode() >= 400) {
+                metrics.recordError(name, response.getStatusLine());
+                return false;
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            metrics.recordError(name, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Captured and replayed requests of one endpoint.
+     */
+    private static final class Endpoint {
+
+        private final LatencyHistogram original = new LatencyHistogram();
+
+        private final LatencyHistogram replayed = new LatencyHistogram();
+
+        private final LongAdder failed = new LongAdder();
+
+        private final LongAdder statusMismatches = new LongAdder();
+
+        private void completed(long latencyNanos, long serviceNanos, boolean success) {
+            replayed.record(serviceNanos);
+            if (!success) {
+                failed.increment();
+            }
+        }
+    }
+}
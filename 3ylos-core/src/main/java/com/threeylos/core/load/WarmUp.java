@@ -0,0 +1,72 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.config.ApiConfig;
+import com.threeylos.core.api.config.ApiTarget;
+import com.threeylos.core.api.config.HttpConnectionPool;
+import com.threeylos.core.api.config.OAuth2TokenCache;
+import com.threeylos.core.api.config.RestAssuredSettings;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.constant.AuthType;
+import io.restassured.specification.ProxySpecification;
+import lombok.extern.log4j.Log4j2;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Preparation of the warm-up of a load run.
+ * <p>
+ * The first seconds of a run are dominated by class loading, JIT compilation
+ * and connection setup. Before the warm-up workload runs, connections to all
+ * api targets are opened in the {@link HttpConnectionPool} of the settings and the
+ * OAuth2 token is fetched into the {@link OAuth2TokenCache}. The samples of
+ * the warm-up workload are counted and dropped afterwards.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class WarmUp {
+
+    private WarmUp() {
+    }
+
+    /**
+     * Open connections to the api targets and fetch the OAuth2 token, failures are logged, not thrown.
+     *
+     * @param connections Connections to open per target.
+     */
+    public static void prepare(int connections) {
+        RestAssuredSettings settings = RestAssuredSettings.current();
+        List<String> baseUris = ApiTarget.all().isEmpty() ? List.of(settings.baseUri())
+                : ApiTarget.all().stream().map(ApiTarget::baseUri).toList();
+        ProxySpecification proxy = ApiConfig.getProxy().orElse(null);
+        for (String baseUri : baseUris) {
+            try {
+                int opened = HttpConnectionPool.forSettings(settings.poolSettings())
+                        .preOpen(URI.create(baseUri), proxy, connections, settings.connectionTimeout());
+                log.info("Warm-up opened {} connection(s) to {}", opened, baseUri);
+            } catch (IllegalArgumentException ex) {
+                log.warn("Warm-up could not open connections to {}: {}", baseUri, ex.getMessage());
+            }
+        }
+        if (settings.isAuth() && AuthType.OAUTH2.equals(settings.authType())) {
+            try {
+                OAuth2TokenCache.getInstance().getToken(settings.oAuth2Credentials(), true);
+                log.info("Warm-up fetched the OAuth2 token");
+            } catch (RuntimeException ex) {
+                log.warn("Warm-up could not fetch the OAuth2 token: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return Number of http request samples in the {@link LatencyRegistry}.
+     */
+    static long requestSamples() {
+        return LatencyRegistry.getInstance().snapshot().values().stream()
+                .mapToLong(LatencyHistogram.Snapshot::count)
+                .sum();
+    }
+}
@@ -0,0 +1,29 @@
+package com.threeylos.core.load.glue;
+
+import com.threeylos.core.load.LoadProfile;
+import com.threeylos.core.load.LoadRunner;
+import io.cucumber.java.AfterStep;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Glue pausing the virtual user for the think time of the load profile after
+ * every step. The {@link LoadRunner} adds this package to the glue of a load
+ * run with a think time, outside of a load run the hook does nothing.
+ *
+ * @author AbhinitKumar
+ */
+public class ThinkTimeHooks {
+
+    @AfterStep
+    public void think() throws InterruptedException {
+        LoadProfile profile = LoadRunner.activeProfile();
+        if (profile == null) {
+            return;
+        }
+        long pause = profile.getThinkTime().nextNanos();
+        if (pause > 0) {
+            TimeUnit.NANOSECONDS.sleep(pause);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.threeylos.core.runner;
+
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.load.LoadDistribution;
+import com.threeylos.core.load.LoadProfile;
+import com.threeylos.core.load.LoadRunner;
+import com.threeylos.core.stub.StubServer;
+import lombok.extern.log4j.Log4j2;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Load runner classes must be extended this class.
+ * <p>
+ * Runs the scenarios of the {@code CucumberOptions} of the subclass as a
+ * closed-model load with the {@link LoadProfile} of the {@code LOAD_*}
+ * application properties, see {@link LoadRunner}. The test is skipped
+ * unless {@code LOAD_ENABLED=true}, so functional runs are not affected.
+ * </p>
+ * <p>
+ * With {@code LOAD_ROLE=coordinator} or {@code worker} the load is shared by
+ * several JVMs, see {@link LoadDistribution}.
+ * </p>
+ * <p>
+ * With {@code STUB_ENABLED=true} the in-process {@link StubServer} is
+ * started, with {@code API_BASE_URL} pointing at it the load measures the
+ * overhead of the framework itself.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public abstract class BaseLoadRunner {
+
+    public static final String LOAD_ENABLED = "LOAD_ENABLED";
+
+    @Test(groups = "load", description = "Runs Cucumber Scenarios as load")
+    public void runLoad() {
+        if (!ApplicationProperties.getBoolean(LOAD_ENABLED, false)) {
+            throw new SkipException("Load run is disabled, set " + LOAD_ENABLED + "=true to run it");
+        }
+        StubServer.startIfEnabled();
+        new LoadRunner(getClass(), LoadProfile.fromConfig()).run(LoadDistribution.fromConfig());
+    }
+
+}
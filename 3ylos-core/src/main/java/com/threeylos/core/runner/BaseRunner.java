@@ -1,14 +1,49 @@
 package com.threeylos.core.runner;
 
+import com.threeylos.core.api.config.ApiTarget;
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.stub.StubServer;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
 import io.cucumber.testng.CucumberOptions.SnippetType;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
+import lombok.extern.log4j.Log4j2;
+import org.testng.ITestContext;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * All runner class must be extended this class.
+ * <p>
+ * Scenarios run in parallel on {@code SCENARIO_THREADS} threads, one by
+ * default. Every thread has its own cucumber glue instances, so the
+ * rest-assured context and the web driver of a scenario are not shared.
+ * Scenarios tagged {@code @serial} never overlap with any other scenario.
+ * </p>
+ * <p>
+ * With several {@link ApiTarget}s every scenario runs once against each
+ * target. The order of the targets rotates from scenario to scenario, so
+ * the runs against the targets interleave and drifting conditions of the
+ * environment affect all targets alike.
+ * </p>
+ * <p>
+ * With {@code STUB_ENABLED=true} the in-process {@link StubServer} is
+ * started, with {@code API_BASE_URL} pointing at it the scenarios run
+ * against the stub instead of the service.
+ * </p>
  *
  * @author AbhinitKumar
  */
+@Log4j2
 @CucumberOptions(
         //features = "target/test-classes",
         plugin = {"json:target/cucumber/cucumber-report.json",
@@ -23,4 +58,82 @@ import io.cucumber.testng.CucumberOptions.SnippetType;
 )
 public abstract class BaseRunner extends AbstractTestNGCucumberTests {
 
+    public static final String SCENARIO_THREADS = "SCENARIO_THREADS";
+
+    public static final String SERIAL_TAG = "@serial";
+
+    private static final ReadWriteLock SERIAL_LOCK = new ReentrantReadWriteLock(true);
+
+    /**
+     * Apply the configured scenario thread count before the data provider runs.
+     *
+     * @param context The TestNG context of this runner.
+     */
+    @BeforeClass(alwaysRun = true)
+    public void configureScenarioThreads(ITestContext context) {
+        int threads = ApplicationProperties.getInt(SCENARIO_THREADS, 1);
+        if (threads < 1) {
+            throw new IllegalStateException(SCENARIO_THREADS + " must be positive but was " + threads);
+        }
+        context.getCurrentXmlTest().getSuite().setDataProviderThreadCount(threads);
+        log.info("Running scenarios on {} thread(s)", threads);
+    }
+
+    /**
+     * Start the in-process stub of the service when {@code STUB_ENABLED=true}, see {@link StubServer}.
+     */
+    @BeforeClass(alwaysRun = true)
+    public void startStubServer() {
+        StubServer.startIfEnabled();
+    }
+
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        Lock lock = isSerial(pickleWrapper) ? SERIAL_LOCK.writeLock() : SERIAL_LOCK.readLock();
+        lock.lock();
+        if (pickleWrapper instanceof TargetPickleWrapper targetPickle) {
+            ApiTarget.setCurrent(targetPickle.getTarget());
+        }
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            ApiTarget.setCurrent(null);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * All scenarios, once per api target, the {@code @serial} ones last so they
+     * do not hold back the parallel ones while waiting for their turn.
+     */
+    @Override
+    @DataProvider(parallel = true)
+    public Object[][] scenarios() {
+        Object[][] scenarios = super.scenarios();
+        List<ApiTarget> targets = ApiTarget.all();
+        if (targets.size() > 1) {
+            scenarios = perTarget(scenarios, targets);
+        }
+        Arrays.sort(scenarios, Comparator.comparing(scenario -> isSerial((PickleWrapper) scenario[0])));
+        return scenarios;
+    }
+
+    private static Object[][] perTarget(Object[][] scenarios, List<ApiTarget> targets) {
+        Object[][] result = new Object[scenarios.length * targets.size()][];
+        int index = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            for (int j = 0; j < targets.size(); j++) {
+                ApiTarget target = targets.get((i + j) % targets.size());
+                result[index++] = new Object[]{new TargetPickleWrapper((PickleWrapper) scenarios[i][0], target),
+                        scenarios[i][1]};
+            }
+        }
+        return result;
+    }
+
+    private static boolean isSerial(PickleWrapper pickleWrapper) {
+        return pickleWrapper.getPickle().getTags().contains(SERIAL_TAG);
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.threeylos.core.runner;
+
+import com.threeylos.core.api.config.ApiTarget;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+
+/**
+ * A scenario bound to the {@link ApiTarget} it runs against.
+ *
+ * @author AbhinitKumar
+ */
+final class TargetPickleWrapper implements PickleWrapper {
+
+    private final PickleWrapper delegate;
+
+    private final ApiTarget target;
+
+    TargetPickleWrapper(PickleWrapper delegate, ApiTarget target) {
+        this.delegate = delegate;
+        this.target = target;
+    }
+
+    @Override
+    public Pickle getPickle() {
+        return delegate.getPickle();
+    }
+
+    ApiTarget getTarget() {
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return delegate + " @" + target.name();
+    }
+}
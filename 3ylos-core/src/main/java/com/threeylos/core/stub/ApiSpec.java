@@ -0,0 +1,420 @@
+package com.threeylos.core.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The operations of an openapi 3 spec as the {@link StubServer} serves them.
+ * <p>
+ * Operations on a collection path and on the collection path followed by a
+ * single path parameter, like {@code /hmwk/homeworks} and
+ * {@code /hmwk/homeworks/{homeworkId}}, form a resource that is kept in the
+ * {@link ResourceStore}: post creates, get on the collection lists, get, put
+ * and delete on the item read, update and delete. Every other operation
+ * answers with an example of its response schema.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class ApiSpec {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final YAMLMapper YAML = new YAMLMapper();
+    private static final String REF_PREFIX = "#/components/schemas/";
+    private static final int MAX_EXAMPLE_DEPTH = 8;
+    private static final List<String> METHODS = List.of("get", "put", "post", "delete", "patch", "head", "options");
+
+    /**
+     * What the stub does for an operation.
+     */
+    public enum Kind {
+        CREATE, LIST, READ, UPDATE, DELETE, EXAMPLE
+    }
+
+    private final String title;
+
+    private final Map<String, Object> schemas;
+
+    private final List<Operation> operations;
+
+    private ApiSpec(Map<String, Object> document) {
+        this.title = text(map(document.get("info")).get("title"));
+        this.schemas = map(map(document.get("components")).get("schemas"));
+        Map<String, Object> paths = map(document.get("paths"));
+        if (paths.isEmpty()) {
+            throw new IllegalStateException("The spec " + title + " has no paths");
+        }
+        List<Operation> read = new ArrayList<>();
+        paths.forEach((path, item) -> map(item).forEach((method, operation) -> {
+            if (METHODS.contains(method)) {
+                read.add(operation(path, method.toUpperCase(Locale.ROOT), map(operation), paths.keySet()));
+            }
+        }));
+        this.operations = Collections.unmodifiableList(read);
+    }
+
+    /**
+     * Read a spec from the classpath, or from the file system when it is not on the classpath.
+     *
+     * @param location Classpath resource or file of the spec.
+     * @return The spec.
+     * @throws IllegalStateException when the spec cannot be found or read.
+     */
+    public static ApiSpec load(String location) {
+        String yaml;
+        try (InputStream resource = ApiSpec.class.getClassLoader().getResourceAsStream(location)) {
+            if (resource != null) {
+                yaml = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+            } else {
+                Path file = Paths.get(location);
+                if (Files.notExists(file)) {
+                    throw new IllegalStateException("The api spec " + location
+                            + " is neither on the classpath nor a file");
+                }
+                yaml = Files.readString(file);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Reading the api spec " + location + " failed: " + ex.getMessage(), ex);
+        }
+        return parse(yaml);
+    }
+
+    /**
+     * @param yaml The spec as yaml.
+     * @return The spec.
+     * @throws IllegalStateException when the spec is no yaml or no openapi spec with paths.
+     */
+    public static ApiSpec parse(String yaml) {
+        Object document;
+        try {
+            document = plain(YAML.readTree(yaml));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("The api spec is no valid yaml: " + ex.getOriginalMessage(), ex);
+        }
+        if (!(document instanceof Map<?, ?>) || map(document).get("openapi") == null) {
+            throw new IllegalStateException("The api spec is not an openapi 3 document");
+        }
+        return new ApiSpec(map(document));
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * @param method Http method of the request.
+     * @param path   Path of the request without the query.
+     * @return The operation and the values of its path parameters, empty when no path of the spec matches.
+     */
+    public Optional<Match> match(String method, String path) {
+        for (Operation operation : operations) {
+            if (!operation.method().equals(method)) {
+                continue;
+            }
+            Matcher matcher = operation.pattern().matcher(path);
+            if (matcher.matches()) {
+                Map<String, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < operation.pathParameters().size(); i++) {
+                    values.put(operation.pathParameters().get(i), matcher.group(i + 1));
+                }
+                return Optional.of(new Match(operation, values));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param path Path of the request without the query.
+     * @return Whether an operation of any method serves the path.
+     */
+    public boolean hasPath(String path) {
+        return operations.stream().anyMatch(operation -> operation.pattern().matcher(path).matches());
+    }
+
+    /**
+     * @param schema A schema, or a reference to one of the component schemas.
+     * @return The schema with the reference resolved, empty when there is none.
+     */
+    public Map<String, Object> resolve(Object schema) {
+        Map<String, Object> resolved = map(schema);
+        for (int depth = 0; resolved.get("$ref") != null; depth++) {
+            String ref = text(resolved.get("$ref"));
+            if (!ref.startsWith(REF_PREFIX) || depth > MAX_EXAMPLE_DEPTH) {
+                throw new IllegalStateException("The schema reference " + ref + " is not supported");
+            }
+            Object target = schemas.get(ref.substring(REF_PREFIX.length()));
+            if (target == null) {
+                throw new IllegalStateException("The schema " + ref + " is not defined in the spec " + title);
+            }
+            resolved = map(target);
+        }
+        return resolved;
+    }
+
+    /**
+     * @param schema A schema.
+     * @return The properties of an object schema by name.
+     */
+    public Map<String, Object> properties(Object schema) {
+        return map(resolve(schema).get("properties"));
+    }
+
+    /**
+     * @param schema A schema.
+     * @return The required properties of an object schema that a client sends, read only ones excluded.
+     */
+    public List<String> requiredProperties(Object schema) {
+        Map<String, Object> properties = properties(schema);
+        return list(resolve(schema).get("required")).stream()
+                .map(ApiSpec::text)
+                .filter(name -> !"true".equals(text(resolve(properties.get(name)).get("readOnly"))))
+                .toList();
+    }
+
+    /**
+     * An example of a schema, from the {@code example} of the spec where there is one.
+     *
+     * @param schema A schema.
+     * @return The example.
+     */
+    public JsonNode example(Object schema) {
+        return example(schema, 0);
+    }
+
+    private JsonNode example(Object schema, int depth) {
+        Map<String, Object> resolved = resolve(schema);
+        String type = text(resolved.get("type"));
+        Object example = resolved.get("example");
+        if (example instanceof String value) {
+            return scalar(type, value);
+        }
+        if ("array".equals(type)) {
+            ArrayNode array = NODES.arrayNode();
+            if (depth < MAX_EXAMPLE_DEPTH) {
+                array.add(example(resolved.get("items"), depth + 1));
+            }
+            return array;
+        }
+        if ("object".equals(type) || resolved.get("properties") != null) {
+            ObjectNode object = NODES.objectNode();
+            if (depth < MAX_EXAMPLE_DEPTH) {
+                map(resolved.get("properties")).forEach((name, property) ->
+                        object.set(name, example(property, depth + 1)));
+            }
+            return object;
+        }
+        List<Object> values = list(resolved.get("enum"));
+        if (!values.isEmpty()) {
+            return NODES.textNode(text(values.get(0)));
+        }
+        String format = text(resolved.get("format"));
+        return switch (type == null ? "string" : type) {
+            case "integer", "number" -> NODES.numberNode(0);
+            case "boolean" -> NODES.booleanNode(false);
+            default -> NODES.textNode(switch (format == null ? "" : format) {
+                case "uuid" -> UUID.randomUUID().toString();
+                case "date-time" -> Instant.now().truncatedTo(ChronoUnit.MILLIS).toString();
+                case "date" -> LocalDate.now().toString();
+                case "binary", "byte" -> "";
+                default -> "string";
+            });
+        };
+    }
+
+    private static JsonNode scalar(String type, String value) {
+        try {
+            return switch (type == null ? "string" : type) {
+                case "integer" -> NODES.numberNode(Long.parseLong(value));
+                case "number" -> NODES.numberNode(Double.parseDouble(value));
+                case "boolean" -> NODES.booleanNode(Boolean.parseBoolean(value));
+                default -> NODES.textNode(value);
+            };
+        } catch (NumberFormatException ex) {
+            return NODES.textNode(value);
+        }
+    }
+
+    private Operation operation(String path, String method, Map<String, Object> operation,
+                                Set<String> paths) {
+        String id = text(operation.get("operationId"));
+        if (id == null) {
+            id = method.toLowerCase(Locale.ROOT) + path;
+        }
+        List<String> pathParameters = new ArrayList<>();
+        StringBuilder regex = new StringBuilder();
+        Matcher placeholder = Pattern.compile("\\{([^}/]+)}").matcher(path);
+        int at = 0;
+        while (placeholder.find()) {
+            regex.append(Pattern.quote(path.substring(at, placeholder.start()))).append("([^/]+)");
+            pathParameters.add(placeholder.group(1));
+            at = placeholder.end();
+        }
+        regex.append(Pattern.quote(path.substring(at)));
+
+        List<Parameter> parameters = new ArrayList<>();
+        for (Object parameter : list(operation.get("parameters"))) {
+            Map<String, Object> values = map(parameter);
+            Map<String, Object> schema = resolve(values.get("schema"));
+            parameters.add(new Parameter(text(values.get("name")), text(values.get("in")),
+                    "true".equals(text(values.get("required"))), text(schema.get("type")),
+                    text(schema.get("format")), text(schema.get("default")),
+                    list(schema.get("enum")).stream().map(ApiSpec::text).toList()));
+        }
+
+        Map<String, Object> requestContent = map(map(operation.get("requestBody")).get("content"));
+        String requestContentType = requestContent.isEmpty() ? null : requestContent.keySet().iterator().next();
+        Object requestSchema = requestContentType == null ? null : map(requestContent.get(requestContentType))
+                .get("schema");
+
+        int status = 200;
+        String contentType = null;
+        Object responseSchema = null;
+        String errorContentType = "application/json";
+        for (Map.Entry<String, Object> response : map(operation.get("responses")).entrySet()) {
+            Map<String, Object> content = map(map(response.getValue()).get("content"));
+            String type = content.isEmpty() ? null : content.keySet().iterator().next();
+            int code = response.getKey().matches("\\d{3}") ? Integer.parseInt(response.getKey()) : 0;
+            if (code >= 200 && code < 300) {
+                status = code;
+                contentType = type;
+                responseSchema = type == null ? null : map(content.get(type)).get("schema");
+            } else if (type != null) {
+                errorContentType = type;
+            }
+        }
+
+        String collection = pathParameters.size() == 1 && path.endsWith("}")
+                ? path.substring(0, path.lastIndexOf('/')) : null;
+        Kind kind = Kind.EXAMPLE;
+        if (collection != null && paths.contains(collection)) {
+            kind = switch (method) {
+                case "GET" -> Kind.READ;
+                case "PUT", "PATCH" -> Kind.UPDATE;
+                case "DELETE" -> Kind.DELETE;
+                default -> Kind.EXAMPLE;
+            };
+        } else if (paths.contains(path) && paths.stream().anyMatch(other -> other.startsWith(path + "/{")
+                && other.indexOf('/', path.length() + 1) < 0)) {
+            collection = path;
+            kind = switch (method) {
+                case "POST" -> Kind.CREATE;
+                case "GET" -> Kind.LIST;
+                default -> Kind.EXAMPLE;
+            };
+        }
+        return new Operation(id, method, path, Pattern.compile(regex.toString()), List.copyOf(pathParameters),
+                List.copyOf(parameters), requestContentType, requestSchema, status, contentType, responseSchema,
+                errorContentType, kind, kind == Kind.EXAMPLE ? null : collection);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> map(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Object> list(Object value) {
+        return value instanceof List<?> list ? (List<Object>) list : List.of();
+    }
+
+    static String text(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    /**
+     * @return The node as nested {@link Map}s, {@link List}s and strings, {@code null} for a null or no node.
+     */
+    private static Object plain(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isObject()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            node.fields().forEachRemaining(field -> map.put(field.getKey(), plain(field.getValue())));
+            return map;
+        }
+        if (node.isArray()) {
+            List<Object> list = new ArrayList<>(node.size());
+            node.forEach(element -> list.add(plain(element)));
+            return list;
+        }
+        return node.asText();
+    }
+
+    /**
+     * An operation of the spec.
+     *
+     * @param id                  The operation id, method and path when the spec has none.
+     * @param method              Upper case http method.
+     * @param path                Path template.
+     * @param pattern             Pattern of the path with a group per path parameter.
+     * @param pathParameters      Names of the path parameters in order.
+     * @param parameters          Path, query and header parameters.
+     * @param requestContentType  Content type of the request body, {@code null} without a body.
+     * @param requestSchema       Schema of the request body.
+     * @param status              Status of a successful response.
+     * @param contentType         Content type of a successful response, {@code null} without a body.
+     * @param responseSchema      Schema of a successful response.
+     * @param errorContentType    Content type of an error response.
+     * @param kind                What the stub does.
+     * @param collection          Collection path of the resource, {@code null} for {@link Kind#EXAMPLE}.
+     */
+    public record Operation(String id, String method, String path, Pattern pattern, List<String> pathParameters,
+                            List<Parameter> parameters, String requestContentType, Object requestSchema,
+                            int status, String contentType, Object responseSchema, String errorContentType,
+                            Kind kind, String collection) {
+    }
+
+    /**
+     * A parameter of an operation.
+     *
+     * @param name         Name of the parameter.
+     * @param in           {@code path}, {@code query} or {@code header}.
+     * @param required     Whether the parameter must be sent.
+     * @param type         Schema type, e.g. {@code integer}.
+     * @param format       Schema format, e.g. {@code uuid}.
+     * @param defaultValue Value when the parameter is not sent.
+     * @param allowed      Allowed values, empty when any value is allowed.
+     */
+    public record Parameter(String name, String in, boolean required, String type, String format,
+                            String defaultValue, List<String> allowed) {
+    }
+
+    /**
+     * An operation matching a request.
+     *
+     * @param operation      The operation.
+     * @param pathParameters Values of the path parameters by name.
+     */
+    public record Match(Operation operation, Map<String, String> pathParameters) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.threeylos.core.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory resources of the {@link StubServer} by collection path and id,
+ * safe for concurrent requests. Nothing is persisted, a new server starts
+ * empty.
+ *
+ * @author AbhinitKumar
+ */
+public final class ResourceStore {
+
+    private final Map<String, Map<String, Stored>> collections = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Store a new resource, or replace the resource with the same id.
+     *
+     * @param collection Collection path of the resource.
+     * @param id         Id of the resource.
+     * @param resource   The resource.
+     */
+    public void put(String collection, String id, ObjectNode resource) {
+        collection(collection).put(id, new Stored(sequence.incrementAndGet(), resource));
+    }
+
+    /**
+     * Replace an existing resource, keeping its place in the listing.
+     *
+     * @return Whether the resource existed.
+     */
+    public boolean replace(String collection, String id, ObjectNode resource) {
+        return collection(collection).computeIfPresent(id, (key, stored) -> new Stored(stored.sequence(), resource))
+                != null;
+    }
+
+    public Optional<ObjectNode> get(String collection, String id) {
+        Stored stored = collection(collection).get(id);
+        return stored == null ? Optional.empty() : Optional.of(stored.resource().deepCopy());
+    }
+
+    /**
+     * @return Whether the resource existed.
+     */
+    public boolean remove(String collection, String id) {
+        return collection(collection).remove(id) != null;
+    }
+
+    /**
+     * One page of the resources with the given property values, in the order they were created.
+     *
+     * @param collection Collection path of the resources.
+     * @param filter     Property values a resource must have, compared as text.
+     * @param page       Zero based page number.
+     * @param size       Resources per page.
+     * @param descending Whether the newest resources come first.
+     * @return The page and the number of matching resources.
+     */
+    public Page page(String collection, Map<String, String> filter, int page, int size, boolean descending) {
+        Comparator<Stored> order = Comparator.comparingLong(Stored::sequence);
+        List<Stored> matching = collection(collection).values().stream()
+                .filter(stored -> filter.entrySet().stream().allMatch(entry -> {
+                    JsonNode value = stored.resource().get(entry.getKey());
+                    return value != null && entry.getValue().equals(value.asText());
+                }))
+                .sorted(descending ? order.reversed() : order)
+                .toList();
+        List<ObjectNode> content = matching.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .map(stored -> stored.resource().deepCopy())
+                .toList();
+        return new Page(content, matching.size());
+    }
+
+    /**
+     * @return Number of resources in the collection.
+     */
+    public int size(String collection) {
+        return collection(collection).size();
+    }
+
+    public void clear() {
+        collections.clear();
+    }
+
+    private Map<String, Stored> collection(String collection) {
+        return collections.computeIfAbsent(collection, key -> new ConcurrentHashMap<>());
+    }
+
+    private record Stored(long sequence, ObjectNode resource) {
+    }
+
+    /**
+     * @param content       The resources of the page.
+     * @param totalElements Number of resources matching the filter on all pages.
+     */
+    public record Page(List<ObjectNode> content, long totalElements) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.threeylos.core.stub;
+
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.load.ThinkTime;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Latency and error rate of the operations of the {@link StubServer}.
+ * <p>
+ * Both are given per operation id as {@code operationId:value} entries
+ * separated by commas, the operation id {@code *} applies to every
+ * operation without an entry of its own. Latencies use the distributions of
+ * a {@link ThinkTime}, e.g.
+ * {@code *:uniform:2-5,getHomework:exponential:20}, error rates are
+ * fractions, e.g. {@code homework:0.01}.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public final class StubProfile {
+
+    public static final String STUB_LATENCY = "STUB_LATENCY";
+    public static final String STUB_ERROR_RATE = "STUB_ERROR_RATE";
+
+    private static final String ANY_OPERATION = "*";
+
+    private final Map<String, ThinkTime> latencies;
+
+    private final Map<String, Double> errorRates;
+
+    public StubProfile(Map<String, ThinkTime> latencies, Map<String, Double> errorRates) {
+        errorRates.forEach((operation, rate) -> {
+            if (rate < 0 || rate > 1) {
+                throw new IllegalStateException("Error rate of " + operation + " must be between 0 and 1 but was "
+                        + rate);
+            }
+        });
+        this.latencies = Map.copyOf(latencies);
+        this.errorRates = Map.copyOf(errorRates);
+    }
+
+    /**
+     * @return No latency and no errors.
+     */
+    public static StubProfile none() {
+        return new StubProfile(Map.of(), Map.of());
+    }
+
+    public static StubProfile fromConfig() {
+        return new StubProfile(parse(STUB_LATENCY, ApplicationProperties.getValue(STUB_LATENCY), ThinkTime::parse),
+                parse(STUB_ERROR_RATE, ApplicationProperties.getValue(STUB_ERROR_RATE), Double::parseDouble));
+    }
+
+    /**
+     * @param operationId Id of the operation.
+     * @return The next latency of the operation in nanoseconds.
+     */
+    public long nextLatencyNanos(String operationId) {
+        ThinkTime latency = latencies.getOrDefault(operationId, latencies.get(ANY_OPERATION));
+        return latency == null ? 0 : latency.nextNanos();
+    }
+
+    /**
+     * @param operationId Id of the operation.
+     * @return Whether the next request of the operation fails.
+     */
+    public boolean nextFails(String operationId) {
+        double rate = errorRates.getOrDefault(operationId, errorRates.getOrDefault(ANY_OPERATION, 0.0));
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    @Override
+    public String toString() {
+        return "latency " + (latencies.isEmpty() ? "none" : latencies) + ", error rate "
+                + (errorRates.isEmpty() ? "none" : errorRates);
+    }
+
+    private static <T> Map<String, T> parse(String key, String value, Function<String, T> parser) {
+        Map<String, T> entries = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return entries;
+        }
+        Arrays.stream(value.split(",")).map(String::trim).filter(entry -> !entry.isEmpty()).forEach(entry -> {
+            int colon = entry.indexOf(':');
+            if (colon <= 0 || colon == entry.length() - 1) {
+                throw new IllegalStateException(key + " entries must be operationId:value but was " + entry);
+            }
+            String operation = entry.substring(0, colon).trim();
+            try {
+                if (entries.put(operation, parser.apply(entry.substring(colon + 1).trim())) != null) {
+                    throw new IllegalStateException(key + " has two entries for " + operation);
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException(key + " entry " + entry + " is invalid: " + ex.getMessage(), ex);
+            }
+        });
+        return entries;
+    }
+}
@@ -0,0 +1,468 @@
+package com.threeylos.core.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.util.common.ThreadUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stub of the service under test inside the test JVM, serving the
+ * operations of an openapi spec from an in-memory {@link ResourceStore},
+ * see {@link ApiSpec}.
+ * <p>
+ * Every response is delayed by the latency of its operation and fails with
+ * the error rate of its operation, see {@link StubProfile}. A delayed
+ * response is scheduled on a timer and written by a handler thread once it
+ * is due, so slow operations hold no handler thread, a slow client holds no
+ * timer and a laptop serves thousands of outstanding requests.
+ * </p>
+ * <p>
+ * The server listens on the loopback interface only. With
+ * {@code STUB_ENABLED=true} the runners start it before the first scenario,
+ * the requests go to it once {@code API_BASE_URL} is set to
+ * {@code http://localhost:<STUB_PORT>}, the base url is not changed by the
+ * stub.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class StubServer implements Closeable {
+
+    public static final String STUB_ENABLED = "STUB_ENABLED";
+    public static final String STUB_PORT = "STUB_PORT";
+    public static final String STUB_SPEC = "STUB_SPEC";
+    public static final String STUB_THREADS = "STUB_THREADS";
+
+    private static final int UNPROCESSABLE = 422;
+    private static final String JSON = "application/json";
+
+    private static StubServer shared;
+
+    private final ApiSpec spec;
+
+    private final StubProfile profile;
+
+    private final ResourceStore store = new ResourceStore();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final HttpServer server;
+
+    private final ExecutorService handlers;
+
+    private final ScheduledExecutorService delays;
+
+    /**
+     * @param spec    The operations to serve.
+     * @param profile Latency and error rate of the operations.
+     * @param port    Port to listen on, 0 for any free port.
+     * @param threads Number of threads handling requests.
+     * @throws IllegalStateException when the port cannot be bound.
+     */
+    public StubServer(ApiSpec spec, StubProfile profile, int port, int threads) {
+        if (threads < 1) {
+            throw new IllegalStateException(STUB_THREADS + " must be positive but was " + threads);
+        }
+        this.spec = spec;
+        this.profile = profile;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Binding the stub server to port " + port + " failed: "
+                    + ex.getMessage(), ex);
+        }
+        this.handlers = Executors.newFixedThreadPool(threads, ThreadUtil.daemonThreadFactory("stub-server"));
+        this.delays = new ScheduledThreadPoolExecutor(1, ThreadUtil.daemonThreadFactory("stub-latency"));
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * @return A server of the {@code STUB_*} application properties, not started yet.
+     */
+    public static StubServer fromConfig() {
+        return new StubServer(ApiSpec.load(ApplicationProperties.getValue(STUB_SPEC, "api-docs.yaml")),
+                StubProfile.fromConfig(), ApplicationProperties.getInt(STUB_PORT, 8084),
+                ApplicationProperties.getInt(STUB_THREADS, 8));
+    }
+
+    /**
+     * Start the server of the application properties once per JVM when {@code STUB_ENABLED=true}.
+     *
+     * @return The running server, empty when the stub is disabled.
+     */
+    public static synchronized Optional<StubServer> startIfEnabled() {
+        if (!ApplicationProperties.getBoolean(STUB_ENABLED, false)) {
+            return Optional.empty();
+        }
+        if (shared == null) {
+            shared = fromConfig().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "stub-server-stop"));
+        }
+        return Optional.of(shared);
+    }
+
+    public StubServer start() {
+        server.start();
+        log.info("Stub of {} listening on {} with {} operation(s), {}", spec.getTitle(), getBaseUri(),
+                spec.getOperations().size(), profile);
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return Scheme, host and port of the server, the paths of the spec follow.
+     */
+    public String getBaseUri() {
+        return "http://localhost:" + getPort();
+    }
+
+    public ResourceStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) {
+        long start = System.nanoTime();
+        Reply reply;
+        try (InputStream in = exchange.getRequestBody()) {
+            reply = answer(exchange, in.readAllBytes());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Stub request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), ex);
+            reply = error(null, 500, JSON, "Stub failure: " + ex.getMessage());
+        }
+        long delay = reply.operationId() == null ? 0
+                : profile.nextLatencyNanos(reply.operationId()) - (System.nanoTime() - start);
+        Reply response = reply;
+        if (delay <= 0) {
+            send(exchange, response);
+        } else {
+            delays.schedule(() -> handlers.execute(() -> send(exchange, response)), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Reply answer(HttpExchange exchange, byte[] body) {
+        String method = exchange.getRequestMethod().toUpperCase(Locale.ROOT);
+        String path = exchange.getRequestURI().getPath();
+        Optional<ApiSpec.Match> match = spec.match(method, path);
+        if (match.isEmpty()) {
+            return spec.hasPath(path) ? error(null, 405, JSON, method + " is not allowed on " + path)
+                    : error(null, 404, JSON, "No operation of the spec serves " + path);
+        }
+        ApiSpec.Operation operation = match.get().operation();
+        if (profile.nextFails(operation.id())) {
+            return error(operation, 500, "Injected failure of " + operation.id());
+        }
+        Map<String, String> pathValues = match.get().pathParameters();
+        Map<String, String> queryValues = query(exchange.getRequestURI().getRawQuery());
+        for (ApiSpec.Parameter parameter : operation.parameters()) {
+            String problem = invalid(parameter, ("path".equals(parameter.in()) ? pathValues : queryValues)
+                    .get(parameter.name()));
+            if (problem != null) {
+                return error(operation, 400, problem);
+            }
+        }
+        return switch (operation.kind()) {
+            case CREATE -> create(operation, body);
+            case LIST -> list(operation, queryValues);
+            case READ -> read(operation, itemId(operation, match.get()));
+            case UPDATE -> update(operation, itemId(operation, match.get()), body);
+            case DELETE -> store.remove(operation.collection(), itemId(operation, match.get()))
+                    ? new Reply(operation.id(), operation.status(), null, new byte[0])
+                    : notFound(operation, itemId(operation, match.get()));
+            case EXAMPLE -> reply(operation, operation.status(), spec.example(operation.responseSchema()));
+        };
+    }
+
+    private Reply create(ApiSpec.Operation operation, byte[] body) {
+        ObjectNode resource = resource(body);
+        if (resource == null) {
+            return invalidBody(operation, body);
+        }
+        String missing = missing(operation, resource);
+        if (missing != null) {
+            return error(operation, UNPROCESSABLE, missing);
+        }
+        String idProperty = idProperty(operation);
+        String id = idProperty == null || !resource.path(idProperty).isValueNode()
+                ? newId(operation, idProperty) : resource.get(idProperty).asText();
+        if (idProperty != null) {
+            resource.put(idProperty, id);
+        }
+        store.put(operation.collection(), id, resource);
+        return reply(operation, operation.status(), resource);
+    }
+
+    private Reply list(ApiSpec.Operation operation, Map<String, String> values) {
+        Integer page = integer(values.getOrDefault("page", "0"));
+        Integer size = integer(values.getOrDefault("size", "50"));
+        if (page == null || size == null) {
+            String name = page == null ? "page" : "size";
+            return error(operation, 400, name + " must be an integer but was '" + values.get(name) + "'");
+        }
+        if (page < 0 || size < 1) {
+            return error(operation, 400, "page must not be negative and size must be positive but were " + page
+                    + " and " + size);
+        }
+        Map<String, Object> schema = spec.resolve(operation.responseSchema());
+        Map<String, Object> itemSchema = "array".equals(schema.get("type")) ? spec.resolve(schema.get("items"))
+                : spec.properties(schema).values().stream()
+                .map(spec::resolve)
+                .filter(property -> "array".equals(property.get("type")))
+                .map(property -> spec.resolve(property.get("items")))
+                .findFirst().orElse(Map.of());
+        Map<String, String> filter = new LinkedHashMap<>();
+        for (ApiSpec.Parameter parameter : operation.parameters()) {
+            String value = values.get(parameter.name());
+            if ("query".equals(parameter.in()) && value != null && !value.isEmpty()
+                    && spec.properties(itemSchema).containsKey(parameter.name())) {
+                filter.put(parameter.name(), value);
+            }
+        }
+        ResourceStore.Page result = store.page(operation.collection(), filter, page, size,
+                "DESCENDING".equalsIgnoreCase(values.get("direction")));
+        ArrayNode content = mapper.createArrayNode().addAll(result.content());
+        if ("array".equals(schema.get("type"))) {
+            return reply(operation, operation.status(), content);
+        }
+        ObjectNode wrapper = mapper.createObjectNode();
+        spec.properties(schema).forEach((name, property) -> {
+            if ("array".equals(spec.resolve(property).get("type"))) {
+                wrapper.set(name, content);
+            } else {
+                switch (name) {
+                    case "page", "number" -> wrapper.put(name, page);
+                    case "size" -> wrapper.put(name, size);
+                    case "totalElements" -> wrapper.put(name, result.totalElements());
+                    case "totalPages" -> wrapper.put(name, (result.totalElements() + size - 1) / size);
+                    default -> wrapper.set(name, spec.example(property));
+                }
+            }
+        });
+        return reply(operation, operation.status(), wrapper);
+    }
+
+    private Reply read(ApiSpec.Operation operation, String id) {
+        return store.get(operation.collection(), id)
+                .map(resource -> reply(operation, operation.status(), resource))
+                .orElseGet(() -> notFound(operation, id));
+    }
+
+    private Reply update(ApiSpec.Operation operation, String id, byte[] body) {
+        ObjectNode resource = resource(body);
+        if (resource == null) {
+            return invalidBody(operation, body);
+        }
+        String missing = missing(operation, resource);
+        if (missing != null) {
+            return error(operation, UNPROCESSABLE, missing);
+        }
+        String idProperty = idProperty(operation);
+        if (idProperty != null) {
+            resource.put(idProperty, id);
+        }
+        return store.replace(operation.collection(), id, resource)
+                ? reply(operation, operation.status(), resource) : notFound(operation, id);
+    }
+
+    /**
+     * @return The body as object, {@code null} when it is no json object.
+     */
+    private ObjectNode resource(byte[] body) {
+        try {
+            JsonNode json = mapper.readTree(body);
+            return json instanceof ObjectNode object ? object : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private Reply invalidBody(ApiSpec.Operation operation, byte[] body) {
+        return error(operation, 400, body.length == 0 ? "The request has no body" : "The body is no json object");
+    }
+
+    /**
+     * @return Why the resource misses a required property, {@code null} when it has all.
+     */
+    private String missing(ApiSpec.Operation operation, ObjectNode resource) {
+        for (String name : spec.requiredProperties(operation.requestSchema())) {
+            JsonNode value = resource.get(name);
+            if (value == null || value.isNull() || value.isTextual() && value.asText().isBlank()) {
+                return name + " is required";
+            }
+        }
+        return null;
+    }
+
+    private String itemId(ApiSpec.Operation operation, ApiSpec.Match match) {
+        return match.pathParameters().get(operation.pathParameters().get(0));
+    }
+
+    /**
+     * @return The property holding the id: {@code id}, or else the first read only property.
+     */
+    private String idProperty(ApiSpec.Operation operation) {
+        Object schema = operation.requestSchema() != null ? operation.requestSchema() : operation.responseSchema();
+        Map<String, Object> properties = spec.properties(schema);
+        if (properties.containsKey("id")) {
+            return "id";
+        }
+        return properties.entrySet().stream()
+                .filter(entry -> "true".equals(ApiSpec.text(spec.resolve(entry.getValue()).get("readOnly"))))
+                .map(Map.Entry::getKey)
+                .findFirst().orElse(null);
+    }
+
+    private String newId(ApiSpec.Operation operation, String idProperty) {
+        Map<String, Object> property = idProperty == null ? Map.of()
+                : spec.resolve(spec.properties(operation.requestSchema()).get(idProperty));
+        return "integer".equals(property.get("type")) ? String.valueOf(ids.incrementAndGet())
+                : UUID.randomUUID().toString();
+    }
+
+    private Reply notFound(ApiSpec.Operation operation, String id) {
+        return error(operation, UNPROCESSABLE, "No resource of " + operation.collection() + " has the id " + id);
+    }
+
+    /**
+     * @return Why the value does not fit the parameter, {@code null} when it does.
+     */
+    private static String invalid(ApiSpec.Parameter parameter, String value) {
+        if (value == null || value.isEmpty()) {
+            return parameter.required() && parameter.defaultValue() == null
+                    ? "The " + parameter.in() + " parameter " + parameter.name() + " is required" : null;
+        }
+        if (!parameter.allowed().isEmpty() && !parameter.allowed().contains(value)) {
+            return parameter.name() + " must be one of " + parameter.allowed() + " but was " + value;
+        }
+        try {
+            if ("integer".equals(parameter.type())) {
+                Long.parseLong(value);
+            } else if ("number".equals(parameter.type())) {
+                Double.parseDouble(value);
+            } else if ("uuid".equals(parameter.format())) {
+                UUID.fromString(value);
+            } else if ("date-time".equals(parameter.format())) {
+                Instant.parse(value);
+            }
+        } catch (RuntimeException ex) {
+            return parameter.name() + " is no valid " + ("string".equals(parameter.type())
+                    && parameter.format() != null ? parameter.format() : parameter.type()) + ": " + value;
+        }
+        return null;
+    }
+
+    /**
+     * @return The value as integer, {@code null} when it is none.
+     */
+    private static Integer integer(String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> values = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return values;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            values.putIfAbsent(name, equals < 0 ? ""
+                    : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private Reply reply(ApiSpec.Operation operation, int status, JsonNode body) {
+        try {
+            return new Reply(operation.id(), status,
+                    operation.contentType() == null ? JSON : operation.contentType(), mapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Writing the response of " + operation.id() + " failed", ex);
+        }
+    }
+
+    private Reply error(ApiSpec.Operation operation, int status, String message) {
+        return error(operation, status, operation.errorContentType(), message);
+    }
+
+    private Reply error(ApiSpec.Operation operation, int status, String contentType, String message) {
+        ObjectNode error = mapper.createObjectNode()
+                .put("code", String.valueOf(status))
+                .put("message", message)
+                .put("timestamp", Instant.now().toString());
+        try {
+            return new Reply(operation == null ? null : operation.id(), status, contentType,
+                    mapper.writeValueAsBytes(error));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Writing an error response failed", ex);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) {
+        try (exchange) {
+            if (reply.contentType() != null) {
+                exchange.getResponseHeaders().set("Content-Type", reply.contentType());
+            }
+            boolean empty = reply.body().length == 0;
+            exchange.sendResponseHeaders(reply.status(), empty ? -1 : reply.body().length);
+            if (!empty) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(reply.body());
+                }
+            }
+        } catch (IOException ex) {
+            log.debug("Sending the stub response to {} failed", exchange.getRemoteAddress(), ex);
+        }
+    }
+
+    /**
+     * @param operationId Operation of the response, {@code null} when no operation matched.
+     */
+    private record Reply(String operationId, int status, String contentType, byte[] body) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.threeylos.core.util.api;
 
+import com.threeylos.core.api.metrics.LatencyRegistry;
+import com.threeylos.core.api.throttle.Throttle;
 import io.cucumber.plugin.ConcurrentEventListener;
 import io.cucumber.plugin.event.EventPublisher;
 import lombok.extern.log4j.Log4j2;
@@ -7,6 +9,7 @@ import io.cucumber.plugin.event.Result;
 import io.cucumber.plugin.event.Status;
 import io.cucumber.plugin.event.TestCase;
 import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
 
 
 /**
@@ -17,6 +20,10 @@ public class ApiTestListener implements ConcurrentEventListener {
     @Override
     public void setEventPublisher(EventPublisher publisher) {
         publisher.registerHandlerFor(TestCaseFinished.class, this::handleTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> {
+            LatencyRegistry.getInstance().writeReport();
+            Throttle.getInstance().writeReport();
+        });
     }
 
     private void handleTestCaseFinished(TestCaseFinished event) {
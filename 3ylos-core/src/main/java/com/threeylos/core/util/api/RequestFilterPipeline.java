@@ -0,0 +1,135 @@
+package com.threeylos.core.util.api;
+
+import com.threeylos.core.api.capture.TrafficCapture;
+import com.threeylos.core.api.capture.TrafficCaptureFilter;
+import com.threeylos.core.api.metrics.LatencyTimingFilter;
+import com.threeylos.core.api.throttle.Throttle;
+import com.threeylos.core.api.throttle.ThrottleFilter;
+import com.threeylos.core.api.vcr.Vcr;
+import com.threeylos.core.api.vcr.VcrFilter;
+import io.restassured.filter.Filter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered set of rest-assured filters owned by a single request context.
+ * <p>
+ * Filters are registered once by name, registering the same name again is a
+ * no-op, so the chain never grows with the number of requests. Reads return an
+ * immutable snapshot and never lock.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class RequestFilterPipeline {
+
+    /**
+     * Order of the request/response log filter, runs closest to the wire.
+     */
+    public static final int REQUEST_LOG_ORDER = 1000;
+
+    public static final String REQUEST_LOG = "request-log";
+
+    public static final String LATENCY_TIMING = "latency-timing";
+
+    public static final String TRAFFIC_CAPTURE = "traffic-capture";
+
+    public static final String VCR = "vcr";
+
+    public static final String THROTTLE = "throttle";
+
+    private final Map<String, Registration> registrations = new LinkedHashMap<>();
+
+    private volatile List<Filter> filters = List.of();
+
+    private int sequence;
+
+    /**
+     * @return A pipeline with the default request/response log and latency timing filters registered,
+     * the traffic capture filter when {@code CAPTURE_ENABLED=true}, the record/playback filter unless
+     * {@code VCR_MODE=off} and the throttle filter when {@code THROTTLE_ENABLED=true}.
+     */
+    public static RequestFilterPipeline defaultPipeline() {
+        RequestFilterPipeline pipeline = new RequestFilterPipeline()
+                .register(REQUEST_LOG, REQUEST_LOG_ORDER, new RestAssuredRequestFilter())
+                .register(LATENCY_TIMING, LatencyTimingFilter.ORDER, new LatencyTimingFilter());
+        if (TrafficCapture.getInstance().isEnabled()) {
+            pipeline.register(TRAFFIC_CAPTURE, TrafficCaptureFilter.ORDER, new TrafficCaptureFilter());
+        }
+        if (Vcr.getInstance().getMode() != Vcr.Mode.OFF) {
+            pipeline.register(VCR, VcrFilter.ORDER, new VcrFilter());
+        }
+        if (Throttle.getInstance().isEnabled()) {
+            pipeline.register(THROTTLE, ThrottleFilter.ORDER, new ThrottleFilter());
+        }
+        return pipeline;
+    }
+
+    /**
+     * Register a filter, lower order runs first. Filters with the same order run
+     * in registration order.
+     *
+     * @param name   Unique name of the filter in this pipeline.
+     * @param order  The position of the filter in the chain.
+     * @param filter The filter to register.
+     * @return This pipeline.
+     */
+    public synchronized RequestFilterPipeline register(String name, int order, Filter filter) {
+        if (registrations.containsKey(name)) {
+            log.debug("Filter: {} is already registered", name);
+            return this;
+        }
+        registrations.put(name, new Registration(order, sequence++, filter));
+        publish();
+        return this;
+    }
+
+    /**
+     * Remove a filter by name.
+     *
+     * @param name Name the filter was registered with.
+     * @return {@code true} if a filter was removed.
+     */
+    public synchronized boolean remove(String name) {
+        boolean removed = registrations.remove(name) != null;
+        if (removed) {
+            publish();
+        }
+        return removed;
+    }
+
+    public synchronized boolean contains(String name) {
+        return registrations.containsKey(name);
+    }
+
+    /**
+     * @return Immutable snapshot of the registered filters in execution order.
+     */
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    /**
+     * @return A new pipeline with the same registrations.
+     */
+    public synchronized RequestFilterPipeline copy() {
+        RequestFilterPipeline copy = new RequestFilterPipeline();
+        registrations.forEach((name, registration) -> copy.register(name, registration.order(), registration.filter()));
+        return copy;
+    }
+
+    private void publish() {
+        List<Registration> sorted = new ArrayList<>(registrations.values());
+        sorted.sort(Comparator.comparingInt(Registration::order).thenComparingInt(Registration::sequence));
+        filters = sorted.stream().map(Registration::filter).toList();
+    }
+
+    private record Registration(int order, int sequence, Filter filter) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.threeylos.core.util.api;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Reads the response body into memory as soon as it arrives.
+ * <p>
+ * Rest-assured keeps the body as a stream until it is first accessed, which
+ * keeps the pooled connection leased. Buffering the body hands the connection
+ * back to the pool before the response reaches the test code.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+public class ResponseBufferingFilter implements OrderedFilter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        response.getBody().asByteArray();
+        return response;
+    }
+
+    /**
+     * Runs closest to the wire, after every other filter.
+     */
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+}
@@ -1,5 +1,7 @@
 package com.threeylos.core.util.api;
 
+import com.threeylos.core.util.api.log.AsyncRequestLog;
+import com.threeylos.core.util.api.log.RequestLogRecord;
 import io.restassured.filter.Filter;
 import io.restassured.filter.FilterContext;
 import io.restassured.response.Response;
@@ -8,24 +10,38 @@ import io.restassured.specification.FilterableResponseSpecification;
 import lombok.extern.log4j.Log4j2;
 
 /**
+ * Captures every request/response exchange for the {@link AsyncRequestLog}.
+ * <p>
+ * The request thread only takes references to the already buffered request
+ * and response data and enqueues them, formatting happens on the log writer thread.
+ * </p>
+ *
  * @author AbhinitKumar
  */
 @Log4j2
 public class RestAssuredRequestFilter implements Filter {
+
+    private final AsyncRequestLog requestLog;
+
+    public RestAssuredRequestFilter() {
+        this(AsyncRequestLog.getInstance());
+    }
+
+    public RestAssuredRequestFilter(AsyncRequestLog requestLog) {
+        this.requestLog = requestLog;
+    }
+
     @Override
     public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long timestamp = System.currentTimeMillis();
+        long start = System.nanoTime();
         Response response = ctx.next(requestSpec, responseSpec);
-        System.out.println();
-        System.out.println("Request details -------------------------------------------------------------");
-        System.out.println(
-                "Request Method     => " + requestSpec.getMethod() +
-                        "\nRequest URI        => " + requestSpec.getURI() +
-                        "\nRequest Headers:\n" + requestSpec.getHeaders() +
-                        "\nRequest Body:\n " + requestSpec.getBody() +
-                        "\n\nResponse details -------------------------------------------------------------" +
-                        "\nResponse Status    => " + response.getStatusLine() +
-                        "\nResponse Header:\n" + response.getHeaders() +
-                        "\nResponse Body:\n" + response.getBody().asString());
+        long duration = System.nanoTime() - start;
+        if (requestLog.isSampled(response.getStatusCode())) {
+            requestLog.enqueue(new RequestLogRecord(timestamp, Thread.currentThread().getName(), requestSpec.getMethod(),
+                    requestSpec.getURI(), requestSpec.getHeaders(), requestSpec.getBody(), response.getStatusLine(),
+                    response.getStatusCode(), response.getHeaders(), response.getBody().asByteArray(), duration));
+        }
         return response;
     }
 }
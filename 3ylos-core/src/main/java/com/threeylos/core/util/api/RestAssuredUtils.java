@@ -4,13 +4,24 @@ import com.threeylos.core.api.config.RestAssuredConfig;
 import com.threeylos.core.api.config.RestAssuredContext;
 import io.cucumber.datatable.DataTable;
 import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.MultiPartSpecification;
 import io.restassured.specification.RequestSpecification;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 
 /**
@@ -19,6 +30,12 @@ import java.util.Map;
 @Log4j2
 public final class RestAssuredUtils {
 
+    /**
+     * Boundary of the multipart bodies of {@link #requestBody(FilterableRequestSpecification)}, fixed so equal
+     * parts give equal bytes.
+     */
+    public static final String MULTIPART_BOUNDARY = "3ylos-multipart-5c1f7e0a9b2d4863";
+
     private RestAssuredUtils() {
     }
 
@@ -64,5 +81,112 @@ public final class RestAssuredUtils {
         return new String(Files.readAllBytes(Paths.get(fileName)));
     }
 
+    /**
+     * Body of a request as sent: a file or a stream body is read, a stream is
+     * replaced by its bytes so it is still sent, multipart parts are encoded
+     * with {@link #MULTIPART_BOUNDARY} and form parameters as url encoded body.
+     * Called before the request is sent. A multipart stream is read only when
+     * it supports mark and reset, otherwise the content of the part is left out.
+     *
+     * @param requestSpec The request seen by a filter.
+     * @return The body, or {@code null} without a body.
+     * @throws IllegalStateException when a file or a stream cannot be read.
+     */
+    public static byte[] requestBody(FilterableRequestSpecification requestSpec) {
+        Object body = requestSpec.getBody();
+        if (body instanceof InputStream) {
+            byte[] bytes = content(body);
+            requestSpec.body(bytes);
+            return bytes;
+        }
+        if (body != null) {
+            return content(body);
+        }
+        List<MultiPartSpecification> parts = requestSpec.getMultiPartParams();
+        if (!parts.isEmpty()) {
+            return multiPartBody(parts);
+        }
+        Map<String, String> form = requestSpec.getFormParams();
+        if (form.isEmpty()) {
+            return null;
+        }
+        return form.entrySet().stream()
+                .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Content type of a multipart body of {@link #requestBody(FilterableRequestSpecification)}.
+     */
+    public static String multiPartContentType() {
+        return "multipart/form-data; boundary=" + MULTIPART_BOUNDARY;
+    }
+
+    private static byte[] multiPartBody(List<MultiPartSpecification> parts) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (MultiPartSpecification part : parts) {
+            Object content = part.getContent();
+            StringBuilder head = new StringBuilder("--").append(MULTIPART_BOUNDARY)
+                    .append("\r\nContent-Disposition: form-data; name=\"").append(part.getControlName()).append('"');
+            String fileName = part.hasFileName() ? part.getFileName()
+                    : content instanceof File file ? file.getName() : null;
+            if (fileName != null) {
+                head.append("; filename=\"").append(fileName).append('"');
+            }
+            if (part.getMimeType() != null) {
+                head.append("\r\nContent-Type: ").append(part.getMimeType());
+            }
+            if (part.getHeaders() != null) {
+                part.getHeaders().forEach((name, value) -> head.append("\r\n").append(name).append(": ")
+                        .append(value));
+            }
+            body.writeBytes(head.append("\r\n\r\n").toString().getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(partContent(part));
+            body.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        body.writeBytes(("--" + MULTIPART_BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static byte[] partContent(MultiPartSpecification part) {
+        Object content = part.getContent();
+        if (!(content instanceof InputStream in)) {
+            return content instanceof String text && part.getCharset() != null
+                    ? text.getBytes(Charset.forName(part.getCharset())) : content(content);
+        }
+        if (!in.markSupported()) {
+            log.debug("Multipart stream of {} cannot be read twice, its content is left out", part.getControlName());
+            return new byte[0];
+        }
+        try {
+            in.mark(Integer.MAX_VALUE);
+            byte[] bytes = in.readAllBytes();
+            in.reset();
+            return bytes;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Reading the multipart stream of " + part.getControlName()
+                    + " failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static byte[] content(Object content) {
+        try {
+            if (content instanceof File file) {
+                return Files.readAllBytes(file.toPath());
+            }
+            if (content instanceof InputStream in) {
+                return in.readAllBytes();
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Reading the request body failed: " + ex.getMessage(), ex);
+        }
+        if (content instanceof byte[] bytes) {
+            return bytes;
+        }
+        return String.valueOf(content).getBytes(StandardCharsets.UTF_8);
+    }
+
 
 }
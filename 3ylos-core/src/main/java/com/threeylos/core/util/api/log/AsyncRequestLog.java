@@ -0,0 +1,235 @@
+package com.threeylos.core.util.api.log;
+
+import com.threeylos.core.config.ApplicationProperties;
+import com.threeylos.core.util.common.ThreadUtil;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous request/response log.
+ * <p>
+ * Request threads only decide whether an exchange is sampled and enqueue the
+ * raw {@link RequestLogRecord} into a bounded lock-free ring buffer. A single
+ * background thread drains the buffer and does all formatting, redaction and
+ * truncation before writing to the log. When the buffer is full records are
+ * dropped and counted instead of slowing down the requests.
+ * </p>
+ * <p>
+ * Exchanges with a status code of 400 and above are always logged, other
+ * exchanges are logged with the probability {@code REQUEST_LOG_SAMPLE_RATE},
+ * or never when {@code REQUEST_LOG_FAILURES_ONLY} is set.
+ * </p>
+ *
+ * @author AbhinitKumar
+ */
+@Log4j2
+public final class AsyncRequestLog {
+
+    private static final String REQUEST_LOG_ENABLED = "REQUEST_LOG_ENABLED";
+    private static final String REQUEST_LOG_BUFFER_SIZE = "REQUEST_LOG_BUFFER_SIZE";
+    private static final String REQUEST_LOG_MAX_BODY = "REQUEST_LOG_MAX_BODY";
+    private static final String REQUEST_LOG_SAMPLE_RATE = "REQUEST_LOG_SAMPLE_RATE";
+    private static final String REQUEST_LOG_FAILURES_ONLY = "REQUEST_LOG_FAILURES_ONLY";
+    private static final String REQUEST_LOG_REDACT_HEADERS = "REQUEST_LOG_REDACT_HEADERS";
+    private static final String REQUEST_LOG_REDACT_FIELDS = "REQUEST_LOG_REDACT_FIELDS";
+
+    private static final String DEFAULT_REDACT_HEADERS = "Authorization,Proxy-Authorization,Cookie,Set-Cookie";
+    private static final String DEFAULT_REDACT_FIELDS = "password,client_secret,access_token,refresh_token";
+    private static final String REDACTED = "***";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final AsyncRequestLog INSTANCE = new AsyncRequestLog();
+
+    private final boolean enabled;
+
+    private final int maxBody;
+
+    private final double sampleRate;
+
+    private final boolean failuresOnly;
+
+    private final Set<String> redactHeaders;
+
+    private final Pattern jsonFieldPattern;
+
+    private final Pattern formFieldPattern;
+
+    private final MpscRingBuffer<RequestLogRecord> buffer;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final Thread writer;
+
+    private volatile boolean writerParked;
+
+    private long reportedDropped;
+
+    private AsyncRequestLog() {
+        this.enabled = ApplicationProperties.getBoolean(REQUEST_LOG_ENABLED, true);
+        this.maxBody = ApplicationProperties.getInt(REQUEST_LOG_MAX_BODY, 2048);
+        this.sampleRate = ApplicationProperties.getDouble(REQUEST_LOG_SAMPLE_RATE, 1.0);
+        this.failuresOnly = ApplicationProperties.getBoolean(REQUEST_LOG_FAILURES_ONLY, false);
+        this.redactHeaders = Arrays.stream(ApplicationProperties.getValue(REQUEST_LOG_REDACT_HEADERS,
+                        DEFAULT_REDACT_HEADERS).split(","))
+                .map(String::trim).filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        String fields = Arrays.stream(ApplicationProperties.getValue(REQUEST_LOG_REDACT_FIELDS, DEFAULT_REDACT_FIELDS)
+                        .split(","))
+                .map(String::trim).filter(name -> !name.isEmpty()).map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        this.jsonFieldPattern = fields.isEmpty() ? null
+                : Pattern.compile("(\"(?:" + fields + ")\"\\s*:\\s*)(\"(?:[^\"\\\\]|\\\\.)*\"|[^,}\\]\\s]+)",
+                Pattern.CASE_INSENSITIVE);
+        this.formFieldPattern = fields.isEmpty() ? null
+                : Pattern.compile("((?:^|&)(?:" + fields + ")=)[^&]*", Pattern.CASE_INSENSITIVE);
+        this.buffer = new MpscRingBuffer<>(ApplicationProperties.getInt(REQUEST_LOG_BUFFER_SIZE, 8192));
+        this.writer = ThreadUtil.daemonThreadFactory("request-log-writer").newThread(this::drainLoop);
+        if (enabled) {
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "request-log-flush"));
+        }
+    }
+
+    public static AsyncRequestLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Whether an exchange with the status code is logged, decided on the request thread.
+     *
+     * @param statusCode The response status code.
+     */
+    public boolean isSampled(int statusCode) {
+        if (!enabled) {
+            return false;
+        }
+        if (statusCode >= 400) {
+            return true;
+        }
+        return !failuresOnly && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Enqueue a record for the background writer, never blocks.
+     *
+     * @param logRecord The captured exchange.
+     */
+    public void enqueue(RequestLogRecord logRecord) {
+        if (!buffer.offer(logRecord)) {
+            dropped.increment();
+            return;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Write all enqueued records on the calling thread, used when the JVM exits.
+     */
+    public synchronized void flush() {
+        drain();
+    }
+
+    /**
+     * @return Number of records dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    private void drainLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (buffer.isEmpty()) {
+                writerParked = true;
+                if (buffer.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+            }
+            flush();
+        }
+    }
+
+    private void drain() {
+        RequestLogRecord logRecord;
+        while ((logRecord = buffer.poll()) != null) {
+            try {
+                log.info(format(logRecord));
+                written.increment();
+            } catch (RuntimeException ex) {
+                log.warn("Writing request log record failed", ex);
+            }
+        }
+        long droppedNow = dropped.sum();
+        if (droppedNow != reportedDropped) {
+            log.warn("Request log buffer of {} records was full, {} records dropped so far", buffer.capacity(),
+                    droppedNow);
+            reportedDropped = droppedNow;
+        }
+    }
+
+    private String format(RequestLogRecord logRecord) {
+        return "\nRequest details -------------------------------------------------------------" +
+                "\nRequest Method     => " + logRecord.method() +
+                "\nRequest URI        => " + logRecord.uri() +
+                "\nRequest Thread     => " + logRecord.thread() +
+                "\nRequest Headers:\n" + headers(logRecord.requestHeaders()) +
+                "\nRequest Body:\n " + body(logRecord.requestBody() == null ? null : String.valueOf(logRecord.requestBody())) +
+                "\n\nResponse details -------------------------------------------------------------" +
+                "\nResponse Status    => " + logRecord.statusLine() +
+                "\nResponse Time      => " + TimeUnit.NANOSECONDS.toMillis(logRecord.durationNanos()) + " ms" +
+                "\nResponse Header:\n" + headers(logRecord.responseHeaders()) +
+                "\nResponse Body:\n" + body(logRecord.responseBody() == null ? null
+                : new String(logRecord.responseBody(), StandardCharsets.UTF_8));
+    }
+
+    private String headers(Headers headers) {
+        if (headers == null || !headers.exist()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder();
+        for (Header header : headers) {
+            builder.append(header.getName()).append('=')
+                    .append(redactHeaders.contains(header.getName().toLowerCase(Locale.ROOT)) ? REDACTED : header.getValue())
+                    .append('\n');
+        }
+        return builder.toString();
+    }
+
+    private String body(String body) {
+        if (body == null) {
+            return null;
+        }
+        String redacted = body;
+        if (jsonFieldPattern != null) {
+            redacted = jsonFieldPattern.matcher(redacted).replaceAll("$1\"" + Matcher.quoteReplacement(REDACTED) + "\"");
+            redacted = formFieldPattern.matcher(redacted).replaceAll("$1" + Matcher.quoteReplacement(REDACTED));
+        }
+        if (maxBody >= 0 && redacted.length() > maxBody) {
+            return redacted.substring(0, maxBody) + "... (" + (redacted.length() - maxBody) + " more characters)";
+        }
+        return redacted;
+    }
+
+}
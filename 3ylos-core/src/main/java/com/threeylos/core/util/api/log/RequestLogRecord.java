@@ -0,0 +1,25 @@
+package com.threeylos.core.util.api.log;
+
+import io.restassured.http.Headers;
+
+/**
+ * Raw data of a single request/response exchange as captured by the request filter.
+ * Nothing is formatted, truncated or redacted until the record is written.
+ *
+ * @param timestamp       Epoch milliseconds the request was sent at.
+ * @param thread          Name of the thread that sent the request.
+ * @param method          The http method.
+ * @param uri             The request uri.
+ * @param requestHeaders  The request headers.
+ * @param requestBody     The request body, may be {@code null}.
+ * @param statusLine      The response status line.
+ * @param statusCode      The response status code.
+ * @param responseHeaders The response headers.
+ * @param responseBody    The buffered response body.
+ * @param durationNanos   Time until the response was received.
+ * @author AbhinitKumar
+ */
+public record RequestLogRecord(long timestamp, String thread, String method, String uri, Headers requestHeaders,
+                               Object requestBody, String statusLine, int statusCode, Headers responseHeaders,
+                               byte[] responseBody, long durationNanos) {
+}
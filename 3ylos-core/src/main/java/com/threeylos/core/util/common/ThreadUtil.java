@@ -1,6 +1,8 @@
 package com.threeylos.core.util.common;
 
 import java.util.Collection;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.ThreadUtils;
 import org.apache.commons.lang3.ThreadUtils.ThreadGroupPredicate;
@@ -301,4 +303,20 @@ public class ThreadUtil {
 			final ThreadGroupPredicate predicate) {
 		return ThreadUtils.findThreadGroups(group, recurse, predicate);
 	}
+
+	/**
+	 * Return a factory of daemon threads named by the name and a counter, e.g.
+	 * {@code fault-proxy-1}, so thread pools never keep the JVM alive.
+	 *
+	 * @param name The name of the threads
+	 * @return The thread factory
+	 */
+	public static ThreadFactory daemonThreadFactory(final String name) {
+		final AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
 }
@@ -0,0 +1,94 @@
+package com.threeylos.core.api.metrics;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Bucket layout and percentiles of the {@link LatencyHistogram}.
+ *
+ * @author AbhinitKumar
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveTheirOwnBucket() {
+        for (long micros = 0; micros < 128; micros++) {
+            assertEquals(LatencyHistogram.bucketIndex(micros), micros);
+            assertEquals(LatencyHistogram.bucketUpperBound((int) micros), micros);
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguousAndWithinOnePercentAndAHalf() {
+        long previousUpperBound = -1;
+        for (int index = 0; index < LatencyHistogram.BUCKET_COUNT; index++) {
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            long lowerBound = previousUpperBound + 1;
+            assertEquals(LatencyHistogram.bucketIndex(lowerBound), index);
+            assertEquals(LatencyHistogram.bucketIndex(upperBound), index);
+            assertTrue(upperBound - lowerBound <= lowerBound / 64, "bucket " + index + " is " + lowerBound + "-"
+                    + upperBound);
+            previousUpperBound = upperBound;
+        }
+        assertEquals(previousUpperBound, LatencyHistogram.MAX_TRACKABLE_MICROS);
+    }
+
+    @Test
+    public void percentilesOfUniformLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(snapshot.count(), 10_000);
+        assertEquals(snapshot.maxMicros(), 10_000);
+        assertEquals(snapshot.meanMicros(), 5_000.5, 0.001);
+        assertWithinBucket(snapshot.percentile(50), 5_000);
+        assertWithinBucket(snapshot.percentile(90), 9_000);
+        assertWithinBucket(snapshot.percentile(99), 9_900);
+        assertEquals(snapshot.percentile(100), 10_000);
+        assertEquals(snapshot.percentile(0.01), 1);
+    }
+
+    @Test
+    public void emptyAndOutOfRangeLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.snapshot().percentile(99), 0);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(snapshot.count(), 2);
+        assertEquals(snapshot.percentile(50), 0);
+        assertEquals(snapshot.maxMicros(), LatencyHistogram.MAX_TRACKABLE_MICROS);
+    }
+
+    @Test
+    public void mergeKeepsEveryRecording() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        LatencyHistogram.Snapshot merged = fast.snapshot().merge(slow.snapshot());
+        assertEquals(merged.count(), 100);
+        assertEquals(merged.sumMicros(), 90 * 1_000 + 10 * 100_000);
+        assertWithinBucket(merged.percentile(90), 1_000);
+        assertWithinBucket(merged.percentile(91), 100_000);
+        assertEquals(merged.distance(fast.snapshot()), 0.1, 0.000_001);
+
+        fast.merge(slow);
+        assertEquals(fast.snapshot().counts(), merged.counts());
+    }
+
+    private static void assertWithinBucket(long actual, long expected) {
+        assertEquals(LatencyHistogram.bucketIndex(actual), LatencyHistogram.bucketIndex(expected),
+                actual + " and " + expected + " fall into different buckets");
+    }
+}
@@ -0,0 +1,76 @@
+package com.threeylos.core.api.proxy;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Parsing and matching of {@link FaultRule}s.
+ *
+ * @author AbhinitKumar
+ */
+public class FaultRuleTest {
+
+    @Test
+    public void parsesRulesInOrder() {
+        List<FaultRule> rules = FaultRule.parse("get /hmwk/homeworks/{homeworkId} delay=fixed:50 error=503:0.25;"
+                + "* bandwidth=1024 reset=1");
+        assertEquals(rules.size(), 2);
+
+        FaultRule read = rules.get(0);
+        assertEquals(read.method(), "GET");
+        assertEquals(read.template(), "/hmwk/homeworks/{homeworkId}");
+        assertEquals(read.delay().nextNanos(), TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(read.status(), 503);
+        assertEquals(read.errorRate(), 0.25);
+        assertEquals(read.bandwidth(), 0);
+        assertFalse(read.nextResets());
+        assertEquals(read.toString(), "GET /hmwk/homeworks/{homeworkId} delay=fixed(50 ms) error=503:0.25");
+
+        FaultRule all = rules.get(1);
+        assertNull(all.method());
+        assertTrue(all.delay().isNone());
+        assertEquals(all.bandwidth(), 1024);
+        assertTrue(all.nextResets());
+        assertFalse(all.nextFails());
+    }
+
+    @Test
+    public void templatesMatchSegmentsAndPrefixes() {
+        assertTrue(FaultRule.templatePattern("/hw/{id}").matcher("/hw/7").matches());
+        assertFalse(FaultRule.templatePattern("/hw/{id}").matcher("/hw/7/notes").matches());
+        assertTrue(FaultRule.templatePattern("/hw/{id}/notes").matcher("/hw/7/notes").matches());
+        assertTrue(FaultRule.templatePattern("/hw/*").matcher("/hw/7/notes").matches());
+        assertTrue(FaultRule.templatePattern("/a.b").matcher("/a.b").matches());
+        assertFalse(FaultRule.templatePattern("/a.b").matcher("/axb").matches());
+        assertTrue(FaultRule.templatePattern(FaultRule.ANY_PATH).matcher("/anything/at/all").matches());
+
+        FaultRule rule = FaultRule.parse("POST /hw error=500:1").get(0);
+        assertTrue(rule.matches("POST", "/hw"));
+        assertFalse(rule.matches("GET", "/hw"));
+        assertTrue(rule.nextFails());
+    }
+
+    @Test
+    public void emptyValueHasNoRules() {
+        assertTrue(FaultRule.parse(null).isEmpty());
+        assertTrue(FaultRule.parse(" ; ").isEmpty());
+    }
+
+    @Test
+    public void rejectsInvalidRules() {
+        for (String invalid : List.of("GET delay=fixed:5", "/hw error=503", "/hw error=99:0.5", "/hw error=503:2",
+                "/hw reset=-0.1", "/hw bandwidth=0", "/hw delay=gaussian:5", "/hw latency=5")) {
+            IllegalStateException failure = expectThrows(IllegalStateException.class,
+                    () -> FaultRule.parse(invalid));
+            assertTrue(failure.getMessage().contains(invalid), failure.getMessage());
+        }
+    }
+}
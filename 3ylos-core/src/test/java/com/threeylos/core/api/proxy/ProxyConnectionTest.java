@@ -0,0 +1,197 @@
+package com.threeylos.core.api.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Message framing of the {@link ProxyConnection}s of a {@link FaultProxy}, end to end over loopback sockets.
+ *
+ * @author AbhinitKumar
+ */
+public class ProxyConnectionTest {
+
+    private HttpServer service;
+
+    private FaultProxy proxy;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        service = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        service.createContext("/echo", exchange -> {
+            byte[] body = ("echo:" + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Client-Port",
+                    String.valueOf(exchange.getRemoteAddress().getPort()));
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        service.createContext("/chunked", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("part1".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                out.write("part2".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        service.createContext("/empty", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        service.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (proxy != null) {
+            proxy.close();
+        }
+        service.stop(0);
+    }
+
+    @Test
+    public void forwardsLengthAndChunkedBodiesOverKeptAliveConnections() throws IOException {
+        proxy = new FaultProxy(List.of(), 0).start();
+        try (Socket client = connect()) {
+            Response length = exchange(client, "POST", "/echo", "Content-Length: 5", "hello");
+            assertEquals(length.status(), 200, length.body());
+            assertEquals(length.body(), "echo:hello");
+
+            Response chunked = exchange(client, "POST", "/echo", "Transfer-Encoding: chunked",
+                    "4;ext=1\r\nwiki\r\n5\r\npedia\r\n0\r\n\r\n");
+            assertEquals(chunked.status(), 200, chunked.body());
+            assertEquals(chunked.body(), "echo:wikipedia");
+            assertEquals(chunked.header("x-client-port"), length.header("x-client-port"),
+                    "the connection to the service is kept alive");
+
+            Response chunkedResponse = exchange(client, "GET", "/chunked", null, null);
+            assertEquals(chunkedResponse.header("transfer-encoding"), "chunked");
+            assertEquals(chunkedResponse.body(), "part1part2");
+
+            Response empty = exchange(client, "DELETE", "/empty", null, null);
+            assertEquals(empty.status(), 204);
+            assertEquals(empty.body(), "");
+
+            assertEquals(exchange(client, "GET", "/echo", null, null).body(), "echo:");
+        }
+        assertEquals(proxy.getStats().forwarded(), 5);
+    }
+
+    @Test
+    public void injectedErrorSkipsTheBodyAndKeepsTheClientConnection() throws IOException {
+        proxy = new FaultProxy(FaultRule.parse("POST /fail error=503:1"), 0).start();
+        try (Socket client = connect()) {
+            Response failed = exchange(client, "POST", "/fail", "Content-Length: 3", "abc");
+            assertEquals(failed.status(), 503);
+            assertTrue(failed.body().contains("POST /fail error=503:1.0"), failed.body());
+
+            Response chunkedFailed = exchange(client, "POST", "/fail", "Transfer-Encoding: chunked",
+                    "3\r\nabc\r\n0\r\n\r\n");
+            assertEquals(chunkedFailed.status(), 503);
+
+            Response next = exchange(client, "POST", "/echo", "Content-Length: 1", "x");
+            assertEquals(next.status(), 200);
+            assertEquals(next.body(), "echo:x");
+        }
+        assertEquals(proxy.getStats().errors(), 2);
+        assertEquals(proxy.getStats().forwarded(), 1);
+    }
+
+    @Test
+    public void rejectsRequestsThatAreNotForAProxy() throws IOException {
+        proxy = new FaultProxy(List.of(), 0).start();
+        try (Socket client = connect()) {
+            OutputStream out = client.getOutputStream();
+            out.write("GET /echo HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            Response response = read(client.getInputStream());
+            assertEquals(response.status(), 400);
+            assertTrue(response.body().contains("absolute http url"), response.body());
+        }
+        assertEquals(proxy.getStats().forwarded(), 0);
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), proxy.getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private Response exchange(Socket client, String method, String path, String framing, String body)
+            throws IOException {
+        String authority = "127.0.0.1:" + service.getAddress().getPort();
+        StringBuilder request = new StringBuilder(method).append(" http://").append(authority).append(path)
+                .append(" HTTP/1.1\r\nHost: ").append(authority).append("\r\n");
+        if (framing != null) {
+            request.append(framing).append("\r\n");
+        }
+        request.append("\r\n");
+        if (body != null) {
+            request.append(body);
+        }
+        OutputStream out = client.getOutputStream();
+        out.write(request.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        return read(client.getInputStream());
+    }
+
+    private static Response read(InputStream in) throws IOException {
+        String statusLine = line(in);
+        Map<String, String> headers = new HashMap<>();
+        for (String header = line(in); !header.isEmpty(); header = line(in)) {
+            int colon = header.indexOf(':');
+            headers.put(header.substring(0, colon).trim().toLowerCase(Locale.ROOT), header.substring(colon + 1).trim());
+        }
+        int status = Integer.parseInt(statusLine.split(" ")[1]);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            for (int size = Integer.parseInt(line(in), 16); size > 0; size = Integer.parseInt(line(in), 16)) {
+                body.write(in.readNBytes(size));
+                line(in);
+            }
+            line(in);
+        } else if (headers.containsKey("content-length")) {
+            body.write(in.readNBytes(Integer.parseInt(headers.get("content-length"))));
+        }
+        return new Response(status, headers, body.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String line(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int read = in.read(); read != '\n'; read = in.read()) {
+            if (read < 0) {
+                throw new IOException("Connection closed after " + line);
+            }
+            if (read != '\r') {
+                line.append((char) read);
+            }
+        }
+        return line.toString();
+    }
+
+    private record Response(int status, Map<String, String> headers, String body) {
+
+        String header(String name) {
+            return headers.get(name);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.threeylos.core.api.throttle;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Token reservations of the {@link RateLimiter}.
+ *
+ * @author AbhinitKumar
+ */
+public class RateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstIsAvailableAtOnceThenTokensArePaced() {
+        RateLimiter limiter = new RateLimiter(10, 3);
+        long now = System.nanoTime();
+        assertEquals(limiter.reserve(now, 0), 0);
+        assertEquals(limiter.reserve(now, 0), 0);
+        assertEquals(limiter.reserve(now, 0), 0);
+        assertEquals(limiter.reserve(now, 0), -1);
+        assertEquals(limiter.reserve(now, ONE_SECOND), INTERVAL);
+        assertEquals(limiter.reserve(now, ONE_SECOND), 2 * INTERVAL);
+        assertEquals(limiter.reserve(now + INTERVAL, ONE_SECOND), 2 * INTERVAL);
+    }
+
+    @Test
+    public void reservationBeyondTheLongestWaitTakesNoToken() {
+        RateLimiter limiter = new RateLimiter(10, 1);
+        long now = System.nanoTime();
+        assertEquals(limiter.reserve(now, 0), 0);
+        assertEquals(limiter.reserve(now, INTERVAL / 2), -1);
+        assertEquals(limiter.reserve(now, INTERVAL / 2), -1);
+        assertEquals(limiter.reserve(now, INTERVAL), INTERVAL);
+    }
+
+    @Test
+    public void pauseRefillsTheBurstButNotMore() {
+        RateLimiter limiter = new RateLimiter(10, 2);
+        long now = System.nanoTime();
+        limiter.reserve(now, 0);
+        limiter.reserve(now, 0);
+        long later = now + 10 * ONE_SECOND;
+        assertEquals(limiter.reserve(later, 0), 0);
+        assertEquals(limiter.reserve(later, 0), 0);
+        assertEquals(limiter.reserve(later, 0), -1);
+    }
+
+    @Test
+    public void refundGivesBackTheLastToken() {
+        RateLimiter limiter = new RateLimiter(10, 1);
+        long now = System.nanoTime();
+        assertEquals(limiter.reserve(now, 0), 0);
+        assertEquals(limiter.reserve(now, ONE_SECOND), INTERVAL);
+        limiter.refund(now);
+        assertEquals(limiter.reserve(now, ONE_SECOND), INTERVAL);
+        limiter.refund(now);
+        limiter.refund(now);
+        assertEquals(limiter.reserve(now, 0), 0);
+    }
+
+    @Test
+    public void refundOfAFullBucketIsIgnored() {
+        RateLimiter limiter = new RateLimiter(10, 1);
+        long now = System.nanoTime();
+        limiter.refund(now);
+        assertEquals(limiter.reserve(now, 0), 0);
+        assertEquals(limiter.reserve(now, 0), -1);
+    }
+}
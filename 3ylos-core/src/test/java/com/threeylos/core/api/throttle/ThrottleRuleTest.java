@@ -0,0 +1,68 @@
+package com.threeylos.core.api.throttle;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Parsing and matching of {@link ThrottleRule}s.
+ *
+ * @author AbhinitKumar
+ */
+public class ThrottleRuleTest {
+
+    @Test
+    public void parsesRulesInOrder() {
+        List<ThrottleRule> rules = ThrottleRule.parse(" post /hmwk/homeworks rate=20 burst=5 concurrency=2 ;"
+                + " ; * rate=0.5");
+        assertEquals(rules.size(), 2);
+
+        ThrottleRule create = rules.get(0);
+        assertEquals(create.method(), "POST");
+        assertEquals(create.template(), "/hmwk/homeworks");
+        assertEquals(create.rate(), 20.0);
+        assertEquals(create.burst(), 5);
+        assertEquals(create.concurrency(), 2);
+
+        ThrottleRule all = rules.get(1);
+        assertNull(all.method());
+        assertEquals(all.rate(), 0.5);
+        assertEquals(all.burst(), 1);
+        assertEquals(all.concurrency(), 0);
+    }
+
+    @Test
+    public void matchesMethodAndTemplate() {
+        ThrottleRule rule = ThrottleRule.parse("GET /hmwk/homeworks/{homeworkId} concurrency=4").get(0);
+        assertTrue(rule.matches("GET", "/hmwk/homeworks/42"));
+        assertFalse(rule.matches("DELETE", "/hmwk/homeworks/42"));
+        assertFalse(rule.matches("GET", "/hmwk/homeworks/42/notes"));
+        assertFalse(rule.matches("GET", "/hmwk/homeworks"));
+
+        ThrottleRule prefix = ThrottleRule.parse("/hmwk/homeworks/* rate=1").get(0);
+        assertTrue(prefix.matches("PUT", "/hmwk/homeworks/42/notes"));
+        assertFalse(prefix.matches("PUT", "/hmwk/other"));
+    }
+
+    @Test
+    public void emptyValueHasNoRules() {
+        assertTrue(ThrottleRule.parse(null).isEmpty());
+        assertTrue(ThrottleRule.parse("  ").isEmpty());
+    }
+
+    @Test
+    public void rejectsInvalidRules() {
+        for (String invalid : List.of("GET rate=1", "/hw", "/hw burst=2", "/hw rate=0", "/hw rate=abc",
+                "/hw concurrency=0", "/hw rate=1 wait=5")) {
+            IllegalStateException failure = expectThrows(IllegalStateException.class,
+                    () -> ThrottleRule.parse(invalid));
+            assertTrue(failure.getMessage().contains(invalid), failure.getMessage());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.threeylos.core.api.vcr;
+
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * The memory-mapped file format of a {@link Cassette}.
+ *
+ * @author AbhinitKumar
+ */
+public class CassetteTest {
+
+    private static final Cassette.Fingerprint GET = Cassette.Fingerprint.of(bytes("GET /hw/1\n"));
+
+    private static final Cassette.Fingerprint POST = Cassette.Fingerprint.of(bytes("POST /hw\n{\"title\":\"a\"}"));
+
+    private Path directory;
+
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("cassette");
+        file = directory.resolve("cassette.vcr");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void fingerprintIsStableAndDistinct() {
+        assertEquals(Cassette.Fingerprint.of(bytes("GET /hw/1\n")), GET);
+        assertNotEquals(GET, POST);
+        assertEquals(GET.toString().length(), 32);
+    }
+
+    @Test
+    public void recordedInteractionsPlayBack() throws IOException {
+        try (Cassette cassette = Cassette.record(file)) {
+            cassette.append(GET, interaction("GET /hw/1", 200, "{\"id\":1}"));
+            cassette.append(POST, interaction("POST /hw", 201, ""));
+        }
+        long expected = 8 + record("GET /hw/1", 200, "{\"id\":1}") + record("POST /hw", 201, "");
+        assertEquals(Files.size(file), expected, "the unused tail of the mapping is trimmed");
+
+        try (Cassette cassette = Cassette.playback(file)) {
+            assertEquals(cassette.size(), 2);
+            assertEquals(cassette.requests(), List.of("GET /hw/1", "POST /hw"));
+            Cassette.Interaction get = cassette.find(GET).orElseThrow();
+            assertEquals(get.request(), "GET /hw/1");
+            assertEquals(get.status(), 200);
+            assertEquals(get.statusLine(), "HTTP/1.1 200 OK");
+            assertEquals(get.headers().getValue("Content-Type"), "application/json");
+            assertEquals(get.headers().getValues("Set-Cookie"), List.of("a=1", "b=2"));
+            assertEquals(new String(get.body(), StandardCharsets.UTF_8), "{\"id\":1}");
+            assertEquals(cassette.find(POST).orElseThrow().body().length, 0);
+            assertFalse(cassette.find(Cassette.Fingerprint.of(bytes("GET /hw/2\n"))).isPresent());
+            expectThrows(IllegalStateException.class, () -> cassette.append(GET, interaction("GET /hw/1", 200, "")));
+        }
+    }
+
+    @Test
+    public void recordingAgainAppendsAndTheLatestInteractionWins() throws IOException {
+        try (Cassette cassette = Cassette.record(file)) {
+            cassette.append(GET, interaction("GET /hw/1", 200, "first"));
+        }
+        try (Cassette cassette = Cassette.record(file)) {
+            assertEquals(cassette.size(), 1);
+            cassette.append(GET, interaction("GET /hw/1", 200, "second"));
+            assertEquals(new String(cassette.find(GET).orElseThrow().body(), StandardCharsets.UTF_8), "second");
+        }
+        try (Cassette cassette = Cassette.playback(file)) {
+            assertEquals(cassette.size(), 1);
+            assertEquals(cassette.requests(), List.of("GET /hw/1", "GET /hw/1"));
+            assertEquals(new String(cassette.find(GET).orElseThrow().body(), StandardCharsets.UTF_8), "second");
+        }
+    }
+
+    @Test
+    public void incompleteLastInteractionIsIgnored() throws IOException {
+        try (Cassette cassette = Cassette.record(file)) {
+            cassette.append(GET, interaction("GET /hw/1", 200, "{\"id\":1}"));
+            cassette.append(POST, interaction("POST /hw", 201, "{\"id\":2}"));
+        }
+        try (RandomAccessFile truncated = new RandomAccessFile(file.toFile(), "rw")) {
+            truncated.setLength(truncated.length() - 3);
+        }
+        try (Cassette cassette = Cassette.playback(file)) {
+            assertEquals(cassette.size(), 1);
+            assertTrue(cassette.find(GET).isPresent());
+            assertFalse(cassette.find(POST).isPresent());
+        }
+    }
+
+    @Test
+    public void rejectsFilesThatAreNoCassettes() throws IOException {
+        Files.writeString(file, "not a cassette");
+        IllegalStateException notACassette = expectThrows(IllegalStateException.class, () -> Cassette.playback(file));
+        assertTrue(notACassette.getMessage().contains("is not a cassette"), notACassette.getMessage());
+
+        Path missing = directory.resolve("missing.vcr");
+        IllegalStateException notRecorded = expectThrows(IllegalStateException.class,
+                () -> Cassette.playback(missing));
+        assertTrue(notRecorded.getMessage().contains("does not exist"), notRecorded.getMessage());
+    }
+
+    private static Cassette.Interaction interaction(String request, int status, String body) {
+        return new Cassette.Interaction(request, status, "HTTP/1.1 " + status + (status == 200 ? " OK" : " Created"),
+                new Headers(new Header("Content-Type", "application/json"), new Header("Set-Cookie", "a=1"),
+                        new Header("Set-Cookie", "b=2")),
+                bytes(body));
+    }
+
+    /**
+     * @return Bytes of a record: its length, fingerprint, status and the length prefixed fields.
+     */
+    private static long record(String request, int status, String body) {
+        Cassette.Interaction interaction = interaction(request, status, body);
+        return 4 + 16 + 4 + 4 + bytes(request).length + 4 + bytes(interaction.statusLine()).length
+                + 4 + headerBytes(interaction.headers()) + 4 + bytes(body).length;
+    }
+
+    private static int headerBytes(Headers headers) {
+        return headers.asList().stream().mapToInt(header -> bytes(header.getName() + "\n" + header.getValue() + "\n")
+                .length).sum();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.threeylos.core.load;
+
+import com.threeylos.core.api.metrics.EndpointKey;
+import com.threeylos.core.api.metrics.LatencyHistogram;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Runs a coordinator and its workers in one JVM over loopback sockets.
+ *
+ * @author AbhinitKumar
+ */
+public class LoadCoordinatorTest {
+
+    private static final EndpointKey GET_HOMEWORK = EndpointKey.of("GET", "/hw/{id}", 200);
+
+    private static final EndpointKey POST_HOMEWORK = EndpointKey.of("POST", "/hw", 201);
+
+    private final LoadProfile profile = LoadProfile.builder()
+            .users(5)
+            .duration(Duration.ofMillis(100))
+            .drainTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private ExecutorService workers;
+
+    private LoadDistribution distribution;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        workers = Executors.newCachedThreadPool();
+        distribution = LoadDistribution.builder()
+                .role(LoadDistribution.Role.COORDINATOR)
+                .coordinator("localhost:" + freePort())
+                .workers(2)
+                .timeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void mergesTheSamplesOfAllWorkers() throws Exception {
+        List<Future<LoadProfile>> shares = new ArrayList<>();
+        for (int worker = 0; worker < distribution.getWorkers(); worker++) {
+            shares.add(workers.submit(() -> {
+                try (LoadWorker loadWorker = LoadWorker.connect(distribution, profile)) {
+                    LoadProfile share = loadWorker.share(profile);
+                    loadWorker.awaitStart();
+                    loadWorker.sendResult(samples(loadWorker.getIndex()));
+                    return share;
+                }
+            }));
+        }
+
+        LoadSamples merged = new LoadCoordinator(distribution).coordinate(profile, LoadSamples.class,
+                LoadSamples::merge);
+
+        int users = 0;
+        for (Future<LoadProfile> share : shares) {
+            users += share.get(10, TimeUnit.SECONDS).getUsers();
+        }
+        assertEquals(users, profile.getUsers());
+        assertEquals(merged.workers(), 2);
+        assertEquals(merged.iterations(), 10 + 11);
+        assertEquals(merged.failedIterations(), 1);
+        assertEquals(merged.elapsedNanos(), Duration.ofMillis(101).toNanos());
+        assertEquals(merged.errors(), Map.of("step: boom", 1L + 2L));
+
+        Map<EndpointKey, LatencyHistogram.Snapshot> requests = merged.requestSnapshots();
+        assertEquals(requests.keySet(), Set.of(GET_HOMEWORK, POST_HOMEWORK));
+        LatencyHistogram.Snapshot get = requests.get(GET_HOMEWORK);
+        assertEquals(get.count(), 10 + 11);
+        assertEquals(get.maxMicros(), 2_000);
+        assertEquals(get.sumMicros(), 10 * 1_000 + 11 * 2_000);
+        LatencyHistogram whole = new LatencyHistogram();
+        whole.merge(histogram(0));
+        whole.merge(histogram(1));
+        assertEquals(get.counts(), whole.snapshot().counts());
+        assertEquals(get.percentile(99), whole.snapshot().percentile(99));
+        assertEquals(requests.get(POST_HOMEWORK).count(), 1);
+    }
+
+    @Test
+    public void failsWhenAWorkerFails() {
+        for (int worker = 0; worker < distribution.getWorkers(); worker++) {
+            workers.submit(() -> {
+                try (LoadWorker loadWorker = LoadWorker.connect(distribution, profile)) {
+                    if (loadWorker.getIndex() == 1) {
+                        loadWorker.fail(new IllegalStateException("no scenarios"));
+                        return;
+                    }
+                    loadWorker.awaitStart();
+                    loadWorker.sendResult(samples(loadWorker.getIndex()));
+                }
+            });
+        }
+
+        IllegalStateException failure = expectThrows(IllegalStateException.class,
+                () -> new LoadCoordinator(distribution).coordinate(profile, LoadSamples.class, LoadSamples::merge));
+        assertTrue(failure.getMessage().contains("IllegalStateException: no scenarios"), failure.getMessage());
+    }
+
+    /**
+     * Worker 0 records 10 requests of 1 ms, worker 1 records 11 requests of 2 ms and one POST.
+     */
+    private static LoadSamples samples(int index) {
+        List<LoadSamples.Request> requests = new ArrayList<>();
+        requests.add(new LoadSamples.Request(GET_HOMEWORK, histogram(index).snapshot()));
+        if (index == 1) {
+            LatencyHistogram post = new LatencyHistogram();
+            post.record(TimeUnit.MILLISECONDS.toNanos(5));
+            requests.add(new LoadSamples.Request(POST_HOMEWORK, post.snapshot()));
+        }
+        return new LoadSamples(1, Duration.ofMillis(100 + index).toNanos(), 10 + index, index, 0, 0, Map.of(),
+                Map.of(), Map.of(), Map.of(), Map.of("step: boom", 1L + index), requests, List.of());
+    }
+
+    private static LatencyHistogram histogram(int index) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10 + index; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(1 + index));
+        }
+        return histogram;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.threeylos.core.load;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Parsing of the entries of a {@link ScenarioMix}.
+ *
+ * @author AbhinitKumar
+ */
+public class ScenarioMixTest {
+
+    @Test
+    public void parsesEntriesInOrder() {
+        assertEquals(ScenarioMix.parse("@getPositive:70, @creates:20 ,,@deletes:10"), List.of(
+                new ScenarioMix.Entry("@getPositive", 70),
+                new ScenarioMix.Entry("@creates", 20),
+                new ScenarioMix.Entry("@deletes", 10)));
+    }
+
+    @Test
+    public void tagExpressionsMayContainColons() {
+        assertEquals(ScenarioMix.parse("@api and not @slow:0.5"),
+                List.of(new ScenarioMix.Entry("@api and not @slow", 0.5)));
+        assertEquals(ScenarioMix.parse("@type:read:3"), List.of(new ScenarioMix.Entry("@type:read", 3)));
+    }
+
+    @Test
+    public void emptyValueHasNoEntries() {
+        assertTrue(ScenarioMix.parse(null).isEmpty());
+        assertTrue(ScenarioMix.parse(" ").isEmpty());
+    }
+
+    @Test
+    public void rejectsInvalidEntries() {
+        for (String invalid : List.of("@api", ":5", "@api:0", "@api:-1", "@api:many")) {
+            expectThrows(IllegalArgumentException.class, () -> ScenarioMix.parse(invalid));
+        }
+    }
+}
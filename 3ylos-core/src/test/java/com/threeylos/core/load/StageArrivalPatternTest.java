@@ -0,0 +1,84 @@
+package com.threeylos.core.load;
+
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Due times of the {@link StageArrivalPattern}.
+ *
+ * @author AbhinitKumar
+ */
+public class StageArrivalPatternTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void plateauSendsAtAFixedGap() {
+        ArrivalPattern pattern = ArrivalPattern.stages(List.of(ArrivalPattern.Stage.plateau(Duration.ofSeconds(1),
+                10)));
+        List<Long> due = dueTimes(pattern);
+        assertEquals(due.size(), 10);
+        for (int i = 0; i < due.size(); i++) {
+            assertEquals((long) due.get(i), i * SECOND / 10);
+        }
+    }
+
+    @Test
+    public void rampSendsTheIntegralOfItsRate() {
+        // 0 to 100 requests per second over 2 seconds is 100 requests, the first one after the gap of sqrt(2/50) s
+        ArrivalPattern pattern = ArrivalPattern.stages(List.of(ArrivalPattern.Stage.ramp(Duration.ofSeconds(2), 0,
+                100)));
+        List<Long> due = dueTimes(pattern);
+        assertTrue(Math.abs(due.size() - 100) <= 1, "requests of the ramp: " + due.size());
+        assertEquals(due.get(0) / (double) SECOND, Math.sqrt(2.0 / 50), 0.001);
+        for (int i = 1; i < due.size(); i++) {
+            assertTrue(due.get(i) - due.get(i - 1) < due.get(i - 1) - (i > 1 ? due.get(i - 2) : 0),
+                    "gaps of a rising ramp shrink");
+        }
+        assertEquals(pattern.rateAt(SECOND), 50.0, 0.000_001);
+    }
+
+    @Test
+    public void pauseIsSkippedAndTheNextStageStartsWithARequest() {
+        ArrivalPattern pattern = ArrivalPattern.stages(ArrivalPattern.parseStages("2:1000, 0:500, 4:1000"));
+        List<Long> due = dueTimes(pattern);
+        assertEquals(due, List.of(0L, SECOND / 2, 3 * SECOND / 2, 7 * SECOND / 4, 2 * SECOND,
+                9 * SECOND / 4));
+        assertEquals(pattern.stageAt(SECOND + 1), 1);
+        assertEquals(pattern.rateAt(SECOND + 1), 0.0);
+        assertEquals(pattern.stageAt(5 * SECOND / 2), 3);
+        assertEquals(pattern.next(9 * SECOND / 4), ArrivalPattern.END);
+    }
+
+    @Test
+    public void scaleSplitsTheRate() {
+        ArrivalPattern pattern = ArrivalPattern.stages(ArrivalPattern.parseStages("10-20:1000,20:1000"));
+        ArrivalPattern half = pattern.scale(0.5);
+        assertEquals(half.getStages(), List.of(ArrivalPattern.Stage.ramp(Duration.ofSeconds(1), 5, 10),
+                ArrivalPattern.Stage.plateau(Duration.ofSeconds(1), 10)));
+        assertEquals(half.rateAt(SECOND / 2), pattern.rateAt(SECOND / 2) / 2, 0.000_001);
+    }
+
+    @Test
+    public void parseRejectsMalformedStages() {
+        expectThrows(IllegalArgumentException.class, () -> ArrivalPattern.parseStages("10"));
+        expectThrows(IllegalArgumentException.class, () -> ArrivalPattern.parseStages("-1:1000"));
+        expectThrows(IllegalArgumentException.class, () -> ArrivalPattern.stages(List.of()));
+    }
+
+    private static List<Long> dueTimes(ArrivalPattern pattern) {
+        List<Long> due = new ArrayList<>();
+        for (long next = pattern.next(-1); next != ArrivalPattern.END; next = pattern.next(next)) {
+            due.add(next);
+        }
+        return due;
+    }
+}
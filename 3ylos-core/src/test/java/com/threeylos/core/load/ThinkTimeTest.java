@@ -0,0 +1,75 @@
+package com.threeylos.core.load;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Parsing and distributions of {@link ThinkTime}s.
+ *
+ * @author AbhinitKumar
+ */
+public class ThinkTimeTest {
+
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    public void noneIsZero() {
+        for (String none : new String[]{null, "", "  ", "none", " NONE "}) {
+            ThinkTime thinkTime = ThinkTime.parse(none);
+            assertTrue(thinkTime.isNone());
+            assertEquals(thinkTime.nextNanos(), 0);
+        }
+    }
+
+    @Test
+    public void fixed() {
+        ThinkTime thinkTime = ThinkTime.parse("fixed: 250");
+        assertFalse(thinkTime.isNone());
+        assertEquals(thinkTime.nextNanos(), TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(thinkTime.toString(), "fixed(250 ms)");
+    }
+
+    @Test
+    public void uniformStaysWithinItsRange() {
+        ThinkTime thinkTime = ThinkTime.parse("Uniform:200-800");
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long pause = thinkTime.nextNanos();
+            min = Math.min(min, pause);
+            max = Math.max(max, pause);
+            sum += pause;
+        }
+        assertTrue(min >= TimeUnit.MILLISECONDS.toNanos(200), "min " + min);
+        assertTrue(max <= TimeUnit.MILLISECONDS.toNanos(800), "max " + max);
+        assertEquals(sum / SAMPLES / TimeUnit.MILLISECONDS.toNanos(1), 500, 10);
+        assertEquals(ThinkTime.parse("uniform:300-300").nextNanos(), TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    public void exponentialHasItsMean() {
+        ThinkTime thinkTime = ThinkTime.parse("exponential:100");
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long pause = thinkTime.nextNanos();
+            assertTrue(pause >= 0);
+            sum += pause;
+        }
+        assertEquals(sum / SAMPLES / TimeUnit.MILLISECONDS.toNanos(1), 100, 5);
+    }
+
+    @Test
+    public void rejectsInvalidThinkTimes() {
+        for (String invalid : new String[]{"fixed", "fixed:-1", "uniform:5", "uniform:800-200", "gaussian:5",
+                "fixed:abc"}) {
+            expectThrows(IllegalArgumentException.class, () -> ThinkTime.parse(invalid));
+        }
+    }
+}
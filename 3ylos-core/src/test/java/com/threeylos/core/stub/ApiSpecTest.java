@@ -0,0 +1,174 @@
+package com.threeylos.core.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Reading the operations of an openapi spec with {@link ApiSpec#parse(String)}.
+ *
+ * @author AbhinitKumar
+ */
+public class ApiSpecTest {
+
+    private static final String SPEC = """
+            openapi: 3.0.1
+            info:
+              title: Homework
+            paths:
+              /hw:
+                get:
+                  operationId: listHomeworks
+                  parameters:
+                    - name: page
+                      in: query
+                      schema:
+                        type: integer
+                        default: 0
+                    - name: status
+                      in: query
+                      required: true
+                      schema:
+                        type: string
+                        enum: [open, done]
+                  responses:
+                    '200':
+                      content:
+                        application/json:
+                          schema:
+                            type: array
+                            items:
+                              $ref: '#/components/schemas/Homework'
+                post:
+                  requestBody:
+                    content:
+                      application/json:
+                        schema:
+                          $ref: '#/components/schemas/Homework'
+                  responses:
+                    '201':
+                      content:
+                        application/json:
+                          schema:
+                            $ref: '#/components/schemas/Homework'
+                    '400':
+                      content:
+                        application/problem+json: {}
+              /hw/{homeworkId}:
+                get:
+                  responses:
+                    '200':
+                      content:
+                        application/json:
+                          schema:
+                            $ref: '#/components/schemas/Homework'
+                delete:
+                  responses:
+                    '204':
+                      description: Deleted
+              /health:
+                get:
+                  responses:
+                    '200':
+                      content:
+                        text/plain:
+                          schema:
+                            type: string
+                            example: UP
+            components:
+              schemas:
+                Homework:
+                  type: object
+                  required: [id, title]
+                  properties:
+                    id:
+                      type: integer
+                      readOnly: true
+                      example: 42
+                    title:
+                      type: string
+                    done:
+                      type: boolean
+            """;
+
+    @Test
+    public void readsTheOperationsOfTheSpec() {
+        ApiSpec spec = ApiSpec.parse(SPEC);
+        assertEquals(spec.getTitle(), "Homework");
+        assertEquals(spec.getOperations().stream().map(operation -> operation.method() + " " + operation.path())
+                .toList(), List.of("GET /hw", "POST /hw", "GET /hw/{homeworkId}", "DELETE /hw/{homeworkId}",
+                "GET /health"));
+        assertEquals(spec.getOperations().stream().map(ApiSpec.Operation::kind).toList(), List.of(
+                ApiSpec.Kind.LIST, ApiSpec.Kind.CREATE, ApiSpec.Kind.READ, ApiSpec.Kind.DELETE, ApiSpec.Kind.EXAMPLE));
+
+        ApiSpec.Operation list = spec.getOperations().get(0);
+        assertEquals(list.id(), "listHomeworks");
+        assertEquals(list.collection(), "/hw");
+        assertEquals(list.parameters(), List.of(
+                new ApiSpec.Parameter("page", "query", false, "integer", null, "0", List.of()),
+                new ApiSpec.Parameter("status", "query", true, "string", null, null, List.of("open", "done"))));
+
+        ApiSpec.Operation create = spec.getOperations().get(1);
+        assertEquals(create.id(), "post/hw");
+        assertEquals(create.status(), 201);
+        assertEquals(create.requestContentType(), "application/json");
+        assertEquals(create.errorContentType(), "application/problem+json");
+
+        ApiSpec.Operation delete = spec.getOperations().get(3);
+        assertEquals(delete.status(), 204);
+        assertNull(delete.contentType());
+        assertNull(spec.getOperations().get(4).collection());
+    }
+
+    @Test
+    public void matchesRequestsToOperations() {
+        ApiSpec spec = ApiSpec.parse(SPEC);
+        ApiSpec.Match match = spec.match("GET", "/hw/7").orElseThrow();
+        assertEquals(match.operation().kind(), ApiSpec.Kind.READ);
+        assertEquals(match.pathParameters(), Map.of("homeworkId", "7"));
+        assertFalse(spec.match("PUT", "/hw/7").isPresent());
+        assertFalse(spec.match("GET", "/hw/7/notes").isPresent());
+        assertTrue(spec.hasPath("/hw/7"));
+        assertFalse(spec.hasPath("/other"));
+    }
+
+    @Test
+    public void resolvesSchemasAndBuildsTypedExamples() {
+        ApiSpec spec = ApiSpec.parse(SPEC);
+        Object homework = spec.getOperations().get(1).requestSchema();
+        assertEquals(spec.properties(homework).keySet(), Set.of("id", "title", "done"));
+        assertEquals(spec.requiredProperties(homework), List.of("title"));
+
+        JsonNode example = spec.example(spec.getOperations().get(0).responseSchema());
+        assertTrue(example.isArray());
+        JsonNode item = example.get(0);
+        assertTrue(item.get("id").isIntegralNumber());
+        assertEquals(item.get("id").asLong(), 42);
+        assertEquals(item.get("title").asText(), "string");
+        assertTrue(item.get("done").isBoolean());
+        assertEquals(spec.example(spec.getOperations().get(4).responseSchema()).asText(), "UP");
+    }
+
+    @Test
+    public void rejectsDocumentsThatAreNoSpecs() {
+        IllegalStateException noYaml = expectThrows(IllegalStateException.class, () -> ApiSpec.parse("a: [b"));
+        assertTrue(noYaml.getMessage().startsWith("The api spec is no valid yaml"), noYaml.getMessage());
+        expectThrows(IllegalStateException.class, () -> ApiSpec.parse("- just\n- a list\n"));
+        expectThrows(IllegalStateException.class, () -> ApiSpec.parse("info:\n  title: x\n"));
+        expectThrows(IllegalStateException.class, () -> ApiSpec.parse("openapi: 3.0.1\ninfo:\n  title: x\n"));
+
+        ApiSpec missing = ApiSpec.parse(SPEC.replace("schemas/Homework'", "schemas/Missing'"));
+        Object schema = missing.getOperations().get(2).responseSchema();
+        IllegalStateException undefined = expectThrows(IllegalStateException.class, () -> missing.example(schema));
+        assertTrue(undefined.getMessage().contains("#/components/schemas/Missing"), undefined.getMessage());
+    }
+}
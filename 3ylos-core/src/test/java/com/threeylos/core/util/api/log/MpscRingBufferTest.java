@@ -0,0 +1,117 @@
+package com.threeylos.core.util.api.log;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Ordering, capacity and wraparound of the {@link MpscRingBuffer}.
+ *
+ * @author AbhinitKumar
+ */
+public class MpscRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(new MpscRingBuffer<>(3).capacity(), 4);
+        assertEquals(new MpscRingBuffer<>(4).capacity(), 4);
+        assertEquals(new MpscRingBuffer<>(5).capacity(), 8);
+        assertEquals(new MpscRingBuffer<>(8192).capacity(), 8192);
+    }
+
+    @Test
+    public void fullBufferRejectsUntilPolled() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(buffer.poll(), Integer.valueOf(0));
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(buffer.poll(), Integer.valueOf(i));
+        }
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void keepsTheOrderAcrossManyWraparounds() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 10_000; round++) {
+            // a varying fill level moves the head and the tail over every slot
+            for (int i = 0; i <= round % 4; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i <= (round + 3) % 8 && !buffer.isEmpty(); i++) {
+                assertEquals(buffer.poll(), Integer.valueOf(expected++));
+            }
+            while (next - expected > 4) {
+                assertEquals(buffer.poll(), Integer.valueOf(expected++));
+            }
+        }
+        while (!buffer.isEmpty()) {
+            assertEquals(buffer.poll(), Integer.valueOf(expected++));
+        }
+        assertEquals(expected, next);
+    }
+
+    @Test
+    public void concurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int producer = 0; producer < producers; producer++) {
+                long id = producer;
+                executor.submit(() -> {
+                    start.await();
+                    for (long sequence = 0; sequence < perProducer; sequence++) {
+                        while (!buffer.offer(new long[]{id, sequence})) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            long[] nextSequence = new long[producers];
+            List<String> outOfOrder = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            for (int received = 0; received < producers * perProducer; ) {
+                long[] element = buffer.poll();
+                if (element == null) {
+                    assertTrue(System.nanoTime() < deadline, "only " + received + " elements received");
+                    Thread.yield();
+                    continue;
+                }
+                if (element[1] != nextSequence[(int) element[0]]) {
+                    outOfOrder.add(element[0] + ":" + element[1]);
+                }
+                nextSequence[(int) element[0]] = element[1] + 1;
+                received++;
+            }
+            assertTrue(outOfOrder.isEmpty(), "out of order: " + outOfOrder);
+            assertTrue(buffer.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
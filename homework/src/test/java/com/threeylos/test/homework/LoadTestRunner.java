@@ -0,0 +1,16 @@
+package com.threeylos.test.homework;
+
+import com.threeylos.core.runner.BaseLoadRunner;
+
+import io.cucumber.testng.CucumberOptions;
+
+/**
+ * Runs the homework api scenarios as load when {@code LOAD_ENABLED=true}.
+ */
+@CucumberOptions(features = "classpath:/features/api/homework/homeworkApi.feature",
+        glue = "com.threeylos.test.homework.api.homework",
+        tags = "@api"
+)
+public class LoadTestRunner extends BaseLoadRunner {
+
+}